@@ -0,0 +1,65 @@
+package com.xiahou.yu.stockindicatoranalyzer.benchmark;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成日线：几何随机游走生成 OHLCV，相同种子结果可复现。
+ */
+public final class SyntheticSeries {
+
+    private static final LocalDate START = LocalDate.of(2000, 1, 3);
+
+    private SyntheticSeries() {}
+
+    /** 生成 n 根列式日线 */
+    public static BarColumns bars(String code, int n, long seed) {
+        Random random = new Random(seed);
+        int[] days = new int[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+        double price = 20.0;
+        for (int i = 0; i < n; i++) {
+            double o = price;
+            price = Math.max(1.0, price * (1.0 + random.nextGaussian() * 0.02));
+            days[i] = (int) START.plusDays(i).toEpochDay();
+            open[i] = round2(o);
+            close[i] = round2(price);
+            high[i] = round2(Math.max(o, price) * (1.0 + random.nextDouble() * 0.01));
+            low[i] = round2(Math.min(o, price) * (1.0 - random.nextDouble() * 0.01));
+            volume[i] = 1_000_000L + (long) (random.nextDouble() * 5_000_000L);
+        }
+        return new BarColumns(code, days, open, high, low, close, volume);
+    }
+
+    /** 生成 n 根 DTO 日线（与 {@link #bars} 同种子时价格一致） */
+    public static List<DailyLineDTO> dtos(String code, int n, long seed) {
+        BarColumns bars = bars(code, n, seed);
+        List<DailyLineDTO> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(DailyLineDTO.builder()
+                    .code(code)
+                    .tradeDate(bars.tradeDate(i))
+                    .open(BigDecimal.valueOf(bars.getOpen()[i]))
+                    .high(BigDecimal.valueOf(bars.getHigh()[i]))
+                    .low(BigDecimal.valueOf(bars.getLow()[i]))
+                    .close(BigDecimal.valueOf(bars.getClose()[i]))
+                    .volume(bars.getVolume()[i])
+                    .build());
+        }
+        return list;
+    }
+
+    private static double round2(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import com.xiahou.yu.stockindicatoranalyzer.benchmark.SyntheticSeries;
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.averages.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO 指标计算器基准：ta4j 映射路径、分步内核计算器与单趟融合计算器对比。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoCalculatorBenchmark {
+
+    @Param({"250", "2500", "25000"})
+    int bars;
+
+    private List<DailyLineDTO> list;
+    private BarSeries series;
+
+    private final SmaDtoCalculator smaCalculator = new SmaDtoCalculator();
+    private final EmaDtoCalculator emaCalculator = new EmaDtoCalculator();
+    private final MacdDtoCalculator macdCalculator = new MacdDtoCalculator();
+    private final BollingerDtoCalculator bollCalculator = new BollingerDtoCalculator();
+    private final FusedDtoIndicatorCalculator fusedCalculator = new FusedDtoIndicatorCalculator();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = SyntheticSeries.dtos("BENCH", bars, 42L);
+        series = Ta4jSeriesMapper.buildSeries("BENCH", list);
+    }
+
+    @Benchmark
+    public BarSeries ta4jBuildSeries() {
+        return Ta4jSeriesMapper.buildSeries("BENCH", list);
+    }
+
+    @Benchmark
+    public void ta4jSma20(Blackhole bh) {
+        SMAIndicator sma = new SMAIndicator(new ClosePriceIndicator(series), 20);
+        for (int i = 0; i < bars; i++) {
+            bh.consume(sma.getValue(i).doubleValue());
+        }
+    }
+
+    @Benchmark
+    public void ta4jMacd(Blackhole bh) {
+        MACDIndicator macd = new MACDIndicator(new ClosePriceIndicator(series), 12, 26);
+        for (int i = 0; i < bars; i++) {
+            bh.consume(macd.getValue(i).doubleValue());
+        }
+    }
+
+    @Benchmark
+    public List<DailyLineDTO> sma() {
+        smaCalculator.apply(list);
+        return list;
+    }
+
+    @Benchmark
+    public List<DailyLineDTO> ema() {
+        emaCalculator.apply(list);
+        return list;
+    }
+
+    @Benchmark
+    public List<DailyLineDTO> macd() {
+        macdCalculator.apply(list, 12, 26, 9);
+        return list;
+    }
+
+    @Benchmark
+    public List<DailyLineDTO> bollinger() {
+        bollCalculator.apply(list, 20, 2.0);
+        return list;
+    }
+
+    /** 与 BaseDtoIndicatorAnalysisService 的 classic 模式一致：四个计算器依次执行 */
+    @Benchmark
+    public List<DailyLineDTO> classicAll() {
+        smaCalculator.apply(list);
+        emaCalculator.apply(list);
+        macdCalculator.apply(list, 12, 26, 9);
+        bollCalculator.apply(list, 20, 2.0);
+        return list;
+    }
+
+    @Benchmark
+    public List<DailyLineDTO> fusedApply() {
+        fusedCalculator.apply(list, 20, 2.0);
+        return list;
+    }
+
+    @Benchmark
+    public IndicatorColumns fusedColumns() {
+        return fusedCalculator.compute(list, 20, 2.0, 12, 26, 9);
+    }
+}
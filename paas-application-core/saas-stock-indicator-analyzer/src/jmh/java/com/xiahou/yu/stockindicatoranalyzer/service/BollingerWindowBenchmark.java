@@ -0,0 +1,44 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.benchmark.SyntheticSeries;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerNarrowResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerUpperChannelResult;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 布林带窗口判定基准：窄通道（全窗口）与上通道（最近 lookbackDays 天）的单股逻辑。
+ * 阈值取得较宽，保证判定命中并计入结果对象的分配。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BollingerWindowBenchmark {
+
+    @Param({"250", "2500", "25000"})
+    int bars;
+
+    private BarColumns columns;
+    private final KernelBuffers buffers = new KernelBuffers();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columns = SyntheticSeries.bars("BENCH", bars, 11L);
+    }
+
+    @Benchmark
+    public BollingerNarrowResult narrowChannel() {
+        return BollingerAnalysisService.evaluateNarrow("BENCH", columns, 20, 2.0, 1.0, Integer.MAX_VALUE, buffers);
+    }
+
+    @Benchmark
+    public BollingerUpperChannelResult upperChannel() {
+        return BollingerAnalysisService.evaluateUpperChannel("BENCH", columns, 60, 20, 2.0, Integer.MAX_VALUE, buffers);
+    }
+}
@@ -0,0 +1,50 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.benchmark.SyntheticSeries;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 组合策略单股判定基准：即 CombinedStrategyAnalysisService.scan 中每只股票执行的 evaluate（BUY 模式默认参数）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinedStrategyEvaluateBenchmark {
+
+    @Param({"250", "2500", "25000"})
+    int bars;
+
+    @Param({"BUY", "SELL", "WATCH"})
+    String mode;
+
+    private BarColumns columns;
+    private CombinedStrategyAnalysisService service;
+    private CombinedStrategyAnalysisService.ScanParams params;
+    private final KernelBuffers buffers = new KernelBuffers();
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        columns = SyntheticSeries.bars("BENCH", bars, 7L);
+        service = new CombinedStrategyAnalysisService(null, null, null);
+        Field epsilon = CombinedStrategyAnalysisService.class.getDeclaredField("macdCrossEpsilon");
+        epsilon.setAccessible(true);
+        epsilon.setDouble(service, 0.0001);
+        params = new CombinedStrategyAnalysisService.ScanParams(60, 0, 12, 50, 5, true, 0.01,
+                12, 26, 9, 20, 2.0, 20, 1.0, CombinedStrategyAnalysisService.ScanMode.valueOf(mode),
+                columns.tradeDate(columns.size() - 1));
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        return service.evaluate("BENCH", columns, params, buffers);
+    }
+}
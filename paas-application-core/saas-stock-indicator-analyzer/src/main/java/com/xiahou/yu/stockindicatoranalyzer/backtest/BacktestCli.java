@@ -0,0 +1,79 @@
+package com.xiahou.yu.stockindicatoranalyzer.backtest;
+
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestRequest;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestTrade;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.service.BacktestService;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
+
+import java.util.List;
+
+/**
+ * 回测命令行入口：只装配回测所需的 Bean（数据源、仓储、快照加载器、扫描线程池），不启动 Web 容器。
+ * 配置类仅在 backtest-cli profile 下生效，避免被宿主应用的组件扫描重复装配。
+ * 数据源等 Spring 配置与回测参数均通过 --key=value 传入，例如：
+ * gradle :saas-stock-indicator-analyzer:backtest -Pbacktest.args="--spring.datasource.url=jdbc:postgresql://localhost:5432/db
+ *   --spring.datasource.username=postgres --spring.datasource.password=*** --bars=500 --entry=expma-macd-boll-buy
+ *   --exit=expma-macd-boll-sell --stopLossPct=8 --feeRate=0.0003 --showTrades=20"
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableJdbcRepositories(basePackages = "com.xiahou.yu.stockindicatoranalyzer.repository")
+@Profile(BacktestCli.PROFILE)
+@Import({BacktestService.class, MarketBarSnapshotLoader.class, MappedBarStore.class, MarketDataVersion.class, ParallelScanExecutor.class})
+public class BacktestCli {
+
+    static final String PROFILE = "backtest-cli";
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BacktestCli.class)
+                .profiles(PROFILE)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args)) {
+            Environment env = context.getEnvironment();
+            BacktestRequest request = new BacktestRequest();
+            request.setBars(env.getProperty("bars", Integer.class, 250));
+            request.setEntryPreset(env.getProperty("entry"));
+            request.setExitPreset(env.getProperty("exit"));
+            request.setMaxHoldingDays(env.getProperty("maxHoldingDays", Integer.class, 0));
+            request.setStopLossPct(env.getProperty("stopLossPct", Double.class, 0.0));
+            request.setFeeRate(env.getProperty("feeRate", Double.class, 0.0));
+            int showTrades = env.getProperty("showTrades", Integer.class, 0);
+            request.setIncludeTrades(showTrades > 0);
+
+            long begin = System.nanoTime();
+            BacktestResult result = context.getBean(BacktestService.class).run(request);
+            print(result, showTrades, (System.nanoTime() - begin) / 1_000_000);
+        }
+    }
+
+    private static void print(BacktestResult r, int showTrades, long elapsedMs) {
+        System.out.printf("区间: %s ~ %s（%d 个交易日，%d 只股票，耗时 %d ms）%n",
+                r.getStartDate(), r.getEndDate(), r.getTradingDays(), r.getStockCount(), elapsedMs);
+        System.out.printf("交易: %d 笔，盈利 %d 笔，胜率 %.2f%%，单笔平均收益 %.3f%%，平均持有 %.1f 天%n",
+                r.getTradeCount(), r.getWinCount(), r.getHitRate() * 100.0, r.getAvgReturnPct(), r.getAvgHoldingDays());
+        System.out.printf("组合: 累计收益 %.2f%%，最大回撤 %.2f%%，日均换手 %.4f，日均持仓 %.1f%n",
+                r.getTotalReturnPct(), r.getMaxDrawdownPct(), r.getAvgDailyTurnover(), r.getAvgPositions());
+        List<BacktestTrade> trades = r.getTrades();
+        if (trades != null) {
+            trades.stream().limit(showTrades).forEach(t -> System.out.printf("  %s %s@%.2f -> %s@%.2f %d天 %.2f%% %s%n",
+                    t.getStockCode(), t.getEntryDate(), t.getEntryPrice(), t.getExitDate(), t.getExitPrice(),
+                    t.getHoldingDays(), t.getReturnPct(), t.getExitReason()));
+        }
+    }
+}
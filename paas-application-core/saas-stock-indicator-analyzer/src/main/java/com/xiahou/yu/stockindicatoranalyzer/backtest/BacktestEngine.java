@@ -0,0 +1,251 @@
+package com.xiahou.yu.stockindicatoranalyzer.backtest;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestTrade;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rule;
+import com.xiahou.yu.stockindicatoranalyzer.rule.RulePlan;
+import com.xiahou.yu.stockindicatoranalyzer.rule.SeriesFrame;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 横截面回测引擎：在全市场列式快照上，对每只股票一次性计算入场/出场规则所需的全部序列，
+ * 再逐日截断视图判定信号（序列均为因果计算，无未来函数），按股票并行执行后合并为等权组合。
+ * 成交规则：收盘判定信号，次日开盘成交；止损按收盘价触发、次日开盘离场。
+ * 价格为 0 视为缺失（停牌等）：入场/离场顺延到下一个开盘价有效的交易日，持仓收益以最近一个有效收盘价为基准，
+ * 窗口结束时仍持有的仓位按最近有效收盘价估值。
+ */
+public final class BacktestEngine {
+
+    private static final int ENTRY = 0;
+    private static final int EXIT = 1;
+
+    private final Rule[] rules;
+    private final RulePlan plan;
+    private final Params params;
+
+    /**
+     * @param bars 回测窗口（最近 N 个交易日）
+     * @param maxHoldingDays 最长持有交易日数，<=0 表示不限
+     * @param stopLossPct 止损百分比，<=0 表示不启用
+     * @param feeRate 单边费率
+     */
+    public record Params(int bars, int maxHoldingDays, double stopLossPct, double feeRate, boolean includeTrades) {}
+
+    public BacktestEngine(Rule entry, Rule exit, Params params) {
+        if (params.bars() <= 0) {
+            throw new IllegalArgumentException("bars必须>0");
+        }
+        this.rules = new Rule[] {entry, exit};
+        this.plan = RulePlan.compile(List.of(entry, exit));
+        this.params = params;
+    }
+
+    /** 每只股票需要加载的K线数：回测窗口 + 指标预热 */
+    public int barsPerCode() {
+        return params.bars() + plan.warmup();
+    }
+
+    public BacktestResult run(MarketBarSnapshot snapshot, List<String> codes, ParallelScanExecutor executor) {
+        List<StockRun> runs = executor.map(codes, (code, buffers) -> simulate(snapshot.get(code), buffers));
+        return aggregate(runs);
+    }
+
+    /**
+     * 单只股票的逐日模拟，数据不足时返回 null。
+     */
+    StockRun simulate(BarColumns bars, KernelBuffers buffers) {
+        if (bars == null) return null;
+        int n = bars.size();
+        int start = Math.max(plan.warmup(), n - params.bars());
+        if (start >= n) return null;
+
+        double[] open = bars.getOpen();
+        double[] close = bars.getClose();
+        double fee = params.feeRate();
+        SeriesFrame frame = plan.compute(bars, buffers);
+
+        int len = n - start;
+        StockRun run = new StockRun(bars.getEpochDays(), start, new double[len], new boolean[len], new int[len]);
+        boolean inPosition = false;
+        boolean pendingEntry = false;
+        String pendingExit = null;
+        int entryIndex = -1;
+        double entryPrice = 0.0;
+        // 持仓收益基准：最近有效收盘价（入场当日无收盘价时为含费入场价）
+        double mark = 0.0;
+        // 最近有效收盘价，无则为入场价
+        double lastPrice = 0.0;
+
+        for (int t = start; t < n; t++) {
+            int d = t - start;
+            if (inPosition && pendingExit != null && open[t] > 0) {
+                double exitPrice = open[t];
+                run.returns[d] = ratio(exitPrice * (1 - fee), mark);
+                run.held[d] = true;
+                run.events[d]++;
+                run.addTrade(bars, entryIndex, entryPrice, t, exitPrice, fee, pendingExit, params.includeTrades());
+                inPosition = false;
+                pendingExit = null;
+            } else if (!inPosition && pendingEntry && open[t] > 0) {
+                entryIndex = t;
+                entryPrice = open[t];
+                run.returns[d] = ratio(close[t], entryPrice * (1 + fee));
+                run.held[d] = true;
+                run.events[d]++;
+                inPosition = true;
+                mark = close[t] > 0 ? close[t] : entryPrice * (1 + fee);
+                lastPrice = close[t] > 0 ? close[t] : entryPrice;
+            } else if (inPosition) {
+                run.returns[d] = ratio(close[t], mark);
+                run.held[d] = true;
+                if (close[t] > 0) {
+                    mark = close[t];
+                    lastPrice = close[t];
+                }
+            }
+            // 开盘价缺失时入场信号顺延
+            pendingEntry = pendingEntry && !inPosition && open[t] <= 0;
+
+            frame.truncate(t + 1);
+            if (inPosition) {
+                if (pendingExit != null) {
+                    // 离场已触发，等待有效开盘价
+                } else if (rules[EXIT].test(frame)) {
+                    pendingExit = "signal";
+                } else if (params.stopLossPct() > 0 && close[t] > 0
+                        && close[t] <= entryPrice * (1 - params.stopLossPct() / 100.0)) {
+                    pendingExit = "stop";
+                } else if (params.maxHoldingDays() > 0 && t - entryIndex + 1 >= params.maxHoldingDays()) {
+                    pendingExit = "max-hold";
+                }
+            } else if (!pendingEntry && t + 1 < n && rules[ENTRY].test(frame)) {
+                pendingEntry = true;
+            }
+        }
+        if (inPosition) {
+            run.addTrade(bars, entryIndex, entryPrice, n - 1, lastPrice, fee, "open", params.includeTrades());
+        }
+        return run;
+    }
+
+    /** a / b - 1，价格缺失（0）时视为无变化 */
+    private static double ratio(double a, double b) {
+        return b > 0 && a > 0 ? a / b - 1 : 0.0;
+    }
+
+    private BacktestResult aggregate(List<StockRun> runs) {
+        // 按交易日合并：[收益之和, 持仓数, 开平仓笔数]
+        TreeMap<Integer, double[]> daily = new TreeMap<>();
+        List<BacktestTrade> trades = new ArrayList<>();
+        int tradeCount = 0;
+        int winCount = 0;
+        double sumReturn = 0.0;
+        long sumHolding = 0L;
+        for (StockRun run : runs) {
+            for (int d = 0; d < run.returns.length; d++) {
+                double[] acc = daily.computeIfAbsent(run.epochDays[run.start + d], k -> new double[3]);
+                if (run.held[d]) {
+                    acc[0] += run.returns[d];
+                    acc[1] += 1;
+                }
+                acc[2] += run.events[d];
+            }
+            tradeCount += run.tradeCount;
+            winCount += run.winCount;
+            sumReturn += run.sumReturnPct;
+            sumHolding += run.sumHoldingDays;
+            if (run.trades != null) {
+                trades.addAll(run.trades);
+            }
+        }
+
+        BacktestResult result = new BacktestResult();
+        List<BacktestResult.EquityPoint> curve = new ArrayList<>(daily.size());
+        double equity = 1.0;
+        double peak = 1.0;
+        double maxDrawdown = 0.0;
+        double turnoverSum = 0.0;
+        double positionsSum = 0.0;
+        for (Map.Entry<Integer, double[]> e : daily.entrySet()) {
+            double[] acc = e.getValue();
+            int positions = (int) acc[1];
+            if (positions > 0) {
+                equity *= 1 + acc[0] / positions;
+                turnoverSum += acc[2] / positions;
+            }
+            positionsSum += positions;
+            peak = Math.max(peak, equity);
+            maxDrawdown = Math.max(maxDrawdown, 1 - equity / peak);
+            curve.add(new BacktestResult.EquityPoint(LocalDate.ofEpochDay(e.getKey()), equity, positions));
+        }
+        int days = daily.size();
+        if (days > 0) {
+            result.setStartDate(LocalDate.ofEpochDay(daily.firstKey()));
+            result.setEndDate(LocalDate.ofEpochDay(daily.lastKey()));
+        }
+        result.setStockCount(runs.size());
+        result.setTradingDays(days);
+        result.setTradeCount(tradeCount);
+        result.setWinCount(winCount);
+        result.setHitRate(tradeCount == 0 ? 0.0 : (double) winCount / tradeCount);
+        result.setAvgReturnPct(tradeCount == 0 ? 0.0 : sumReturn / tradeCount);
+        result.setAvgHoldingDays(tradeCount == 0 ? 0.0 : (double) sumHolding / tradeCount);
+        result.setTotalReturnPct((equity - 1) * 100.0);
+        result.setMaxDrawdownPct(maxDrawdown * 100.0);
+        result.setAvgDailyTurnover(days == 0 ? 0.0 : turnoverSum / days);
+        result.setAvgPositions(days == 0 ? 0.0 : positionsSum / days);
+        result.setEquityCurve(curve);
+        if (params.includeTrades()) {
+            trades.sort(Comparator.comparing(BacktestTrade::getEntryDate).thenComparing(BacktestTrade::getStockCode));
+            result.setTrades(trades);
+        }
+        return result;
+    }
+
+    /** 单只股票的回测结果：窗口内逐日收益/持仓/开平仓笔数与交易统计 */
+    static final class StockRun {
+        final int[] epochDays;
+        final int start;
+        final double[] returns;
+        final boolean[] held;
+        final int[] events;
+        List<BacktestTrade> trades;
+        int tradeCount;
+        int winCount;
+        double sumReturnPct;
+        long sumHoldingDays;
+
+        StockRun(int[] epochDays, int start, double[] returns, boolean[] held, int[] events) {
+            this.epochDays = epochDays;
+            this.start = start;
+            this.returns = returns;
+            this.held = held;
+            this.events = events;
+        }
+
+        void addTrade(BarColumns bars, int entryIndex, double entryPrice, int exitIndex, double exitPrice,
+                      double fee, String reason, boolean keep) {
+            double returnPct = (exitPrice * (1 - fee) / (entryPrice * (1 + fee)) - 1) * 100.0;
+            int holding = Math.max(1, exitIndex - entryIndex);
+            tradeCount++;
+            if (returnPct > 0) winCount++;
+            sumReturnPct += returnPct;
+            sumHoldingDays += holding;
+            if (keep) {
+                if (trades == null) trades = new ArrayList<>();
+                trades.add(new BacktestTrade(bars.getCode(), bars.tradeDate(entryIndex), entryPrice,
+                        bars.tradeDate(exitIndex), exitPrice, holding, returnPct, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.xiahou.yu.stockindicatoranalyzer.barstore;
+
+/**
+ * 本地K线存储覆盖的市场：每个市场对应一张日线表与一组映射文件。
+ */
+public enum BarMarket {
+
+    STOCK("stocks_daily_data", "stock_code", "stocks"),
+    INDEX("indexes_daily_data", "index_code", "indexes"),
+    INDUSTRY("industry_indexes_daily_data", "index_code", "industries");
+
+    private final String table;
+    private final String codeColumn;
+    private final String fileName;
+
+    BarMarket(String table, String codeColumn, String fileName) {
+        this.table = table;
+        this.codeColumn = codeColumn;
+        this.fileName = fileName;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getCodeColumn() {
+        return codeColumn;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
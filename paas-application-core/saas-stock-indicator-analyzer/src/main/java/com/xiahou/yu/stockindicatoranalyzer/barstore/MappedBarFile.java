@@ -0,0 +1,449 @@
+package com.xiahou.yu.stockindicatoranalyzer.barstore;
+
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单个市场的内存映射K线文件。
+ * 数据文件（name-xxx.bars）按代码划分连续块，块内按列存放 capacity 个槽位：
+ * int epochDay[] | double open[] | double high[] | double low[] | double close[] | long volume[]（小端）。
+ * 索引文件（name.idx）记录 数据文件名、代码 -> (偏移, 条数, 容量) 与已写入的最大交易日，刷新后整体原子替换。
+ * 数据文件按 segmentSize 分段映射，块不跨段；块容量不足时迁移到文件尾部（旧空间在全量重建时回收）。
+ * 先写数据后替换索引：索引已引用的槽位只在其交易日不早于已持久化的最大交易日时原地改写，
+ * 更早的历史被改写时整块复制到新位置，因此刷新中途崩溃时索引指向的数据保持完整，下次增量刷新会重写最后一个交易日之后的数据。
+ * 全量重建写入新的数据文件（{@link #create}），索引替换即完成切换，旧文件随后删除（{@link #discard}）。
+ * 读写由读写锁保护，按代码读取时不在堆上构造逐K线对象。
+ */
+final class MappedBarFile implements Closeable {
+
+    /** 每根K线占用字节数：int + 4 × double + long */
+    static final int BAR_BYTES = 4 + 8 * 4 + 8;
+
+    private static final int MIN_CAPACITY = 64;
+    private static final int INDEX_MAGIC = 0x42494458; // "BIDX"
+    private static final int INDEX_VERSION = 2;
+    private static final String DATA_SUFFIX = ".bars";
+
+    private final Path dir;
+    private final String name;
+    private Path dataPath;
+    private final Path indexPath;
+    private final int segmentSize;
+    private final FileChannel channel;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final Map<String, Block> blocks = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long nextFree;
+    private int watermark = Integer.MIN_VALUE;
+    /** 索引文件中记录的最大交易日 */
+    private int durableWatermark = Integer.MIN_VALUE;
+
+    private static final class Block {
+        long offset;
+        int count;
+        int capacity;
+        /** 已被索引文件引用 */
+        boolean durable;
+
+        Block(long offset, int count, int capacity, boolean durable) {
+            this.offset = offset;
+            this.count = count;
+            this.capacity = capacity;
+            this.durable = durable;
+        }
+    }
+
+    /**
+     * 打开索引指向的数据文件；索引缺失或不兼容时新建空数据文件。未被索引引用的数据文件（如中断的全量重建）被删除。
+     */
+    MappedBarFile(Path dir, String name, int segmentSize) throws IOException {
+        this(dir, name, segmentSize, true);
+        deleteUnreferenced();
+    }
+
+    private MappedBarFile(Path dir, String name, int segmentSize, boolean load) throws IOException {
+        if (segmentSize < MIN_CAPACITY * BAR_BYTES || segmentSize % 8 != 0) {
+            throw new IllegalArgumentException("segmentSize 过小或未按 8 字节对齐: " + segmentSize);
+        }
+        Files.createDirectories(dir);
+        this.dir = dir;
+        this.name = name;
+        this.indexPath = dir.resolve(name + ".idx");
+        this.segmentSize = segmentSize;
+        if (!load || !Files.exists(indexPath) || !readIndex()) {
+            blocks.clear();
+            nextFree = 0L;
+            watermark = Integer.MIN_VALUE;
+            durableWatermark = Integer.MIN_VALUE;
+            dataPath = newDataPath();
+        }
+        this.channel = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (nextFree > 0) {
+            mapThrough(nextFree - 1);
+        }
+    }
+
+    /**
+     * 新建一个空的数据文件用于全量重建：首次 {@link #flush} 前索引仍指向原文件，flush 时原子切换到新文件。
+     */
+    static MappedBarFile create(Path dir, String name, int segmentSize) throws IOException {
+        return new MappedBarFile(dir, name, segmentSize, false);
+    }
+
+    /** 已写入的最大交易日（epochDay），空文件为 Integer.MIN_VALUE */
+    int watermark() {
+        lock.readLock().lock();
+        try {
+            return watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 全部代码（升序） */
+    Set<String> codes() {
+        lock.readLock().lock();
+        try {
+            return new TreeSet<>(blocks.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 代码的K线数，不存在时为 0 */
+    int size(String code) {
+        lock.readLock().lock();
+        try {
+            Block b = blocks.get(code);
+            return b == null ? 0 : b.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 最近 limit 根K线（升序），无数据时返回 null */
+    BarColumns tail(String code, int limit) {
+        return tail(code, limit, Integer.MAX_VALUE);
+    }
+
+    /** 交易日不晚于 endDay 的最近 limit 根K线（升序），无数据时返回 null */
+    BarColumns tail(String code, int limit, int endDay) {
+        lock.readLock().lock();
+        try {
+            Block b = blocks.get(code);
+            if (b == null || b.count == 0 || limit <= 0) return null;
+            int to = endDay == Integer.MAX_VALUE ? b.count : lowerBound(b, endDay + 1);
+            if (to == 0) return null;
+            int len = Math.min(limit, to);
+            return read(code, b, to - len, len);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 交易日位于 [startDay, endDay] 的K线（升序），无数据时返回 null */
+    BarColumns range(String code, int startDay, int endDay) {
+        lock.readLock().lock();
+        try {
+            Block b = blocks.get(code);
+            if (b == null || b.count == 0) return null;
+            int from = lowerBound(b, startDay);
+            int to = lowerBound(b, endDay == Integer.MAX_VALUE ? endDay : endDay + 1);
+            if (from >= to) return null;
+            return read(code, b, from, to - from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入某代码自 days[0] 起的全部K线（按交易日升序，前 n 条有效）：已有数据中交易日 >= days[0] 的部分被整体替换，
+     * 与按 trade_date >= since 增量拉取的语义一致；新数据全部晚于已有最后一根时即为原地追加。
+     */
+    void upsert(String code, int[] days, double[] open, double[] high, double[] low, double[] close, long[] volume, int n) {
+        if (n <= 0) return;
+        lock.writeLock().lock();
+        try {
+            Block b = blocks.get(code);
+            if (b == null) {
+                int capacity = capacityFor(n);
+                b = new Block(allocate(capacity), 0, capacity, false);
+                blocks.put(code, b);
+            }
+            int keep = lowerBound(b, days[0]);
+            // 改写索引已引用且早于已持久化最大交易日的槽位时复制到新块，崩溃后旧索引仍指向完整数据
+            boolean copyOnWrite = b.durable && keep < b.count && dayAt(b, keep) < durableWatermark;
+            if (copyOnWrite || keep + n > b.capacity) {
+                b.count = keep;
+                relocate(b, keep + n);
+            }
+            for (int i = 0; i < n; i++) {
+                write(b, keep + i, days[i], open[i], high[i], low[i], close[i], volume[i]);
+            }
+            b.count = keep + n;
+            watermark = Math.max(watermark, days[n - 1]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 将映射数据刷盘，并原子替换索引文件 */
+    void flush() {
+        lock.writeLock().lock();
+        try {
+            for (ByteBuffer segment : segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+            writeIndex();
+            durableWatermark = watermark;
+            for (Block b : blocks.values()) {
+                b.durable = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入K线索引失败: " + indexPath, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * 关闭并删除数据文件，不写索引：全量重建切换后丢弃旧文件，或重建失败时丢弃新文件。
+     * 已映射的缓冲区在回收前仍可读，进行中的读取不受影响。
+     */
+    void discard() {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+            Files.deleteIfExists(dataPath);
+        } catch (IOException ignored) {
+            // 残留文件在下次打开时清理
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** 当前数据文件 */
+    Path dataPath() {
+        return dataPath;
+    }
+
+    private BarColumns read(String code, Block b, int from, int len) {
+        int[] days = new int[len];
+        double[] open = new double[len];
+        double[] high = new double[len];
+        double[] low = new double[len];
+        double[] close = new double[len];
+        long[] volume = new long[len];
+        ByteBuffer buf = segments.get(segmentOf(b));
+        int dayPos = columnPos(b, 0);
+        int openPos = columnPos(b, 1);
+        int highPos = columnPos(b, 2);
+        int lowPos = columnPos(b, 3);
+        int closePos = columnPos(b, 4);
+        int volumePos = columnPos(b, 5);
+        for (int i = 0; i < len; i++) {
+            int j = from + i;
+            days[i] = buf.getInt(dayPos + j * 4);
+            open[i] = buf.getDouble(openPos + j * 8);
+            high[i] = buf.getDouble(highPos + j * 8);
+            low[i] = buf.getDouble(lowPos + j * 8);
+            close[i] = buf.getDouble(closePos + j * 8);
+            volume[i] = buf.getLong(volumePos + j * 8);
+        }
+        return new BarColumns(code, days, open, high, low, close, volume);
+    }
+
+    private void relocate(Block b, int needed) {
+        int capacity = capacityFor(needed);
+        Block target = new Block(allocate(capacity), b.count, capacity, false);
+        ByteBuffer src = segments.get(segmentOf(b));
+        ByteBuffer dst = segments.get(segmentOf(target));
+        int srcDay = columnPos(b, 0);
+        int dstDay = columnPos(target, 0);
+        for (int i = 0; i < b.count; i++) {
+            dst.putInt(dstDay + i * 4, src.getInt(srcDay + i * 4));
+        }
+        for (int c = 1; c < 6; c++) {
+            int from = columnPos(b, c);
+            int to = columnPos(target, c);
+            for (int i = 0; i < b.count; i++) {
+                dst.putLong(to + i * 8, src.getLong(from + i * 8));
+            }
+        }
+        b.offset = target.offset;
+        b.capacity = capacity;
+        b.durable = false;
+    }
+
+    private void write(Block b, int i, int day, double open, double high, double low, double close, long volume) {
+        ByteBuffer buf = segments.get(segmentOf(b));
+        buf.putInt(columnPos(b, 0) + i * 4, day);
+        buf.putDouble(columnPos(b, 1) + i * 8, open);
+        buf.putDouble(columnPos(b, 2) + i * 8, high);
+        buf.putDouble(columnPos(b, 3) + i * 8, low);
+        buf.putDouble(columnPos(b, 4) + i * 8, close);
+        buf.putLong(columnPos(b, 5) + i * 8, volume);
+    }
+
+    private int dayAt(Block b, int i) {
+        return segments.get(segmentOf(b)).getInt(columnPos(b, 0) + i * 4);
+    }
+
+    /** 第一个交易日 >= day 的下标 */
+    private int lowerBound(Block b, int day) {
+        int lo = 0;
+        int hi = b.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dayAt(b, mid) < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** 列在段内的起始位置：0=epochDay，1..4=OHLC，5=volume */
+    private int columnPos(Block b, int column) {
+        int base = (int) (b.offset % segmentSize);
+        return column == 0 ? base : base + b.capacity * (4 + 8 * (column - 1));
+    }
+
+    private int segmentOf(Block b) {
+        return (int) (b.offset / segmentSize);
+    }
+
+    private long allocate(int capacity) {
+        long bytes = (long) capacity * BAR_BYTES;
+        if (bytes > segmentSize) {
+            throw new IllegalStateException("单个代码的K线数超出映射分段容量: " + capacity);
+        }
+        long segmentStart = nextFree / segmentSize * segmentSize;
+        if (nextFree + bytes > segmentStart + segmentSize) {
+            nextFree = segmentStart + segmentSize;
+        }
+        long offset = nextFree;
+        nextFree += bytes;
+        mapThrough(nextFree - 1);
+        return offset;
+    }
+
+    private void mapThrough(long position) {
+        int last = (int) (position / segmentSize);
+        try {
+            while (segments.size() <= last) {
+                long start = (long) segments.size() * segmentSize;
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, start, segmentSize).order(ByteOrder.LITTLE_ENDIAN));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("映射K线文件失败: " + dataPath, e);
+        }
+    }
+
+    private static int capacityFor(int n) {
+        int wanted = Math.max(MIN_CAPACITY, n + n / 4);
+        int capacity = Integer.highestOneBit(wanted);
+        return capacity == wanted ? capacity : capacity << 1;
+    }
+
+    private boolean readIndex() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || in.readInt() != segmentSize) {
+                return false;
+            }
+            Path data = dir.resolve(in.readUTF());
+            long free = in.readLong();
+            int mark = in.readInt();
+            int count = in.readInt();
+            if (!Files.exists(data) || free > Files.size(data)) {
+                return false;
+            }
+            Map<String, Block> loaded = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] code = new byte[in.readUnsignedShort()];
+                in.readFully(code);
+                loaded.put(new String(code, StandardCharsets.UTF_8), new Block(in.readLong(), in.readInt(), in.readInt(), true));
+            }
+            blocks.putAll(loaded);
+            dataPath = data;
+            nextFree = free;
+            watermark = mark;
+            durableWatermark = mark;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(segmentSize);
+            out.writeUTF(dataPath.getFileName().toString());
+            out.writeLong(nextFree);
+            out.writeInt(watermark);
+            out.writeInt(blocks.size());
+            for (Map.Entry<String, Block> e : blocks.entrySet()) {
+                byte[] code = e.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(code.length);
+                out.write(code);
+                out.writeLong(e.getValue().offset);
+                out.writeInt(e.getValue().count);
+                out.writeInt(e.getValue().capacity);
+            }
+        }
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path newDataPath() {
+        long stamp = System.currentTimeMillis();
+        Path path;
+        do {
+            path = dir.resolve(name + "-" + Long.toString(stamp++, 36) + DATA_SUFFIX);
+        } while (Files.exists(path));
+        return path;
+    }
+
+    /** 删除本市场中未被索引引用的数据文件（含旧版本的 name.bars） */
+    private void deleteUnreferenced() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, name + "*" + DATA_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                boolean ours = fileName.equals(name + DATA_SUFFIX) || fileName.startsWith(name + "-");
+                if (ours && !file.equals(dataPath)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.xiahou.yu.stockindicatoranalyzer.barstore;
+
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 全市场本地K线存储：股票/指数/行业日线分别保存在内存映射文件中（见 {@link MappedBarFile}），
+ * 重启后加载索引即可使用（数据按需换页），随后只从库中增量拉取最新交易日及之后的行。
+ * 日线写入路径通过 {@link #markDirty} 登记被改写的代码：改写早于已同步最大交易日的历史（回补、新代码连同历史导入）时，
+ * 下次刷新按代码重新拉取该日期之后的全部行。
+ * 刷新时机：首次使用、距上次刷新超过 refresh-interval-seconds、日线写入代数（{@link MarketDataVersion}）变化或有登记的写入。
+ * 由 indicator.bar-store.enabled 开启（默认关闭），关闭时扫描与列式接口仍直接读库。
+ */
+@Component
+public class MappedBarStore implements DisposableBean {
+
+    private static final int FETCH_SIZE = 10_000;
+    /** 按代码重新拉取时每条 SQL 的代码数 */
+    private static final int DIRTY_CHUNK = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final MarketDataVersion dataVersion;
+    private final boolean enabled;
+    private final Path dir;
+    private final long refreshIntervalMillis;
+    private final int segmentSize;
+    private final Map<BarMarket, MarketState> markets = new EnumMap<>(BarMarket.class);
+
+    private static final class MarketState {
+        MappedBarFile file;
+        long lastRefreshMillis;
+        long syncedGeneration = -1L;
+        /** 代码 -> 需重新拉取的起始交易日（epochDay） */
+        final Map<String, Integer> dirty = new ConcurrentHashMap<>();
+        volatile boolean written;
+    }
+
+    public MappedBarStore(DataSource dataSource,
+                          PlatformTransactionManager transactionManager,
+                          MarketDataVersion dataVersion,
+                          @Value("${indicator.bar-store.enabled:false}") boolean enabled,
+                          @Value("${indicator.bar-store.dir:${java.io.tmpdir}/indicator-bar-store}") String dir,
+                          @Value("${indicator.bar-store.refresh-interval-seconds:300}") long refreshIntervalSeconds,
+                          @Value("${indicator.bar-store.segment-size-mb:256}") int segmentSizeMb) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dataVersion = dataVersion;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.refreshIntervalMillis = Math.max(0L, refreshIntervalSeconds) * 1000L;
+        this.segmentSize = Math.max(1, segmentSizeMb) << 20;
+        for (BarMarket market : BarMarket.values()) {
+            markets.put(market, new MarketState());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 登记日线写入：代码自 from 起的行已被改写，存在事务时在提交后登记。未开启时忽略。
+     */
+    public void markDirty(BarMarket market, String code, LocalDate from) {
+        markDirty(market, Map.of(code, from));
+    }
+
+    /**
+     * 批量登记日线写入：代码 -> 被改写的最早交易日，存在事务时在提交后登记。未开启时忽略。
+     */
+    public void markDirty(BarMarket market, Map<String, LocalDate> fromByCode) {
+        if (!enabled || fromByCode.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<String, LocalDate> copy = new HashMap<>(fromByCode);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(market, copy);
+                }
+            });
+        } else {
+            register(market, fromByCode);
+        }
+    }
+
+    private void register(BarMarket market, Map<String, LocalDate> fromByCode) {
+        MarketState state = markets.get(market);
+        fromByCode.forEach((code, from) ->
+                state.dirty.merge(code, (int) from.toEpochDay(), Math::min));
+        state.written = true;
+    }
+
+    /** 每个代码最近 barsPerCode 根K线的快照 */
+    public MarketBarSnapshot snapshotLatest(BarMarket market, int barsPerCode) {
+        return snapshotLatest(market, barsPerCode, null);
+    }
+
+    /** 每个代码不晚于 asOf（为空时不限）的最近 barsPerCode 根K线的快照 */
+    public MarketBarSnapshot snapshotLatest(BarMarket market, int barsPerCode, LocalDate asOf) {
+        if (barsPerCode <= 0) {
+            throw new IllegalArgumentException("barsPerCode必须>0");
+        }
+        int endDay = asOf == null ? Integer.MAX_VALUE : (int) asOf.toEpochDay();
+        MappedBarFile file = fresh(market);
+        Map<String, BarColumns> columns = new HashMap<>();
+        for (String code : file.codes()) {
+            BarColumns bars = file.tail(code, barsPerCode, endDay);
+            if (bars != null) {
+                columns.put(code, bars);
+            }
+        }
+        return new MarketBarSnapshot(barsPerCode, columns);
+    }
+
+    /** 最近 limit 根K线（升序），无数据时返回 null */
+    public BarColumns tail(BarMarket market, String code, int limit) {
+        return fresh(market).tail(code, limit);
+    }
+
+    /** 日期区间内的K线（升序），无数据时返回 null */
+    public BarColumns range(BarMarket market, String code, LocalDate start, LocalDate end) {
+        return fresh(market).range(code, (int) start.toEpochDay(), (int) end.toEpochDay());
+    }
+
+    /**
+     * 从库中刷新指定市场：full=true 时全量重建到新数据文件，索引替换后切换并删除旧文件；
+     * 否则重新拉取已登记代码的改写区间，再从已有最大交易日起增量拉取。
+     * @return 本次读取的行数
+     */
+    public long refresh(BarMarket market, boolean full) {
+        MarketState state = markets.get(market);
+        synchronized (state) {
+            long generation = dataVersion.current().generation();
+            state.written = false;
+            Map<String, Integer> dirty = drainDirty(state);
+            try {
+                long rows = full ? rebuild(market, state) : update(market, open(market, state), dirty);
+                state.lastRefreshMillis = System.currentTimeMillis();
+                state.syncedGeneration = generation;
+                return rows;
+            } catch (RuntimeException e) {
+                dirty.forEach((code, day) -> state.dirty.merge(code, day, Math::min));
+                state.written = true;
+                throw e;
+            }
+        }
+    }
+
+    private long rebuild(BarMarket market, MarketState state) {
+        MappedBarFile target;
+        try {
+            target = MappedBarFile.create(dir, market.getFileName(), segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建本地K线存储失败: " + dir, e);
+        }
+        long rows;
+        try {
+            rows = load(market, target, null, null);
+            target.flush();
+        } catch (RuntimeException e) {
+            target.discard();
+            throw e;
+        }
+        MappedBarFile previous = state.file;
+        state.file = target;
+        if (previous != null) {
+            previous.discard();
+        }
+        return rows;
+    }
+
+    private long update(BarMarket market, MappedBarFile file, Map<String, Integer> dirty) {
+        int since = file.watermark();
+        long rows = 0;
+        List<String> codes = new ArrayList<>();
+        int from = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> e : new TreeMap<>(dirty).entrySet()) {
+            // 增量拉取已覆盖最大交易日及之后的改写
+            if (since == Integer.MIN_VALUE || e.getValue() >= since) continue;
+            codes.add(e.getKey());
+            from = Math.min(from, e.getValue());
+            if (codes.size() == DIRTY_CHUNK) {
+                rows += load(market, file, codes, from);
+                codes.clear();
+                from = Integer.MAX_VALUE;
+            }
+        }
+        if (!codes.isEmpty()) {
+            rows += load(market, file, codes, from);
+        }
+        // 含最后一个交易日：同一交易日的重写也会被覆盖
+        rows += load(market, file, null, since == Integer.MIN_VALUE ? null : since);
+        file.flush();
+        return rows;
+    }
+
+    /** 拉取 trade_date >= since 的行（codes 非空时仅限这些代码）写入文件 */
+    private long load(BarMarket market, MappedBarFile file, List<String> codes, Integer since) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(market.getCodeColumn())
+                .append(", trade_date, open_price, high_price, low_price, close_price, volume FROM ").append(market.getTable());
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> where = new ArrayList<>(2);
+        if (codes != null) {
+            where.add(market.getCodeColumn() + " IN (:codes)");
+            params.addValue("codes", codes);
+        }
+        if (since != null) {
+            where.add("trade_date >= :since");
+            params.addValue("since", LocalDate.ofEpochDay(since));
+        }
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY ").append(market.getCodeColumn()).append(" ASC, trade_date ASC");
+        RowWriter writer = new RowWriter(file);
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(sql.toString(), params, writer));
+        writer.flush();
+        return writer.rows;
+    }
+
+    private static Map<String, Integer> drainDirty(MarketState state) {
+        Map<String, Integer> taken = new HashMap<>();
+        for (String code : state.dirty.keySet()) {
+            Integer day = state.dirty.remove(code);
+            if (day != null) {
+                taken.put(code, day);
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (MarketState state : markets.values()) {
+            synchronized (state) {
+                if (state.file != null) {
+                    state.file.close();
+                    state.file = null;
+                }
+            }
+        }
+    }
+
+    private MappedBarFile fresh(BarMarket market) {
+        if (!enabled) {
+            throw new IllegalStateException("本地K线存储未开启（indicator.bar-store.enabled）");
+        }
+        MarketState state = markets.get(market);
+        synchronized (state) {
+            boolean stale = state.file == null
+                    || state.written
+                    || System.currentTimeMillis() - state.lastRefreshMillis > refreshIntervalMillis
+                    || dataVersion.current().generation() != state.syncedGeneration;
+            if (stale) {
+                refresh(market, false);
+            }
+            return state.file;
+        }
+    }
+
+    private MappedBarFile open(BarMarket market, MarketState state) {
+        if (state.file == null) {
+            try {
+                state.file = new MappedBarFile(dir, market.getFileName(), segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("打开本地K线存储失败: " + dir, e);
+            }
+        }
+        return state.file;
+    }
+
+    /**
+     * 按 (代码, 交易日升序) 流式读取行，代码切换时将缓冲区整体写入映射文件；缓冲区跨代码复用。
+     */
+    private static final class RowWriter implements RowCallbackHandler {
+        private final MappedBarFile file;
+        private int[] days = new int[1024];
+        private double[] open = new double[1024];
+        private double[] high = new double[1024];
+        private double[] low = new double[1024];
+        private double[] close = new double[1024];
+        private long[] volume = new long[1024];
+        private String currentCode;
+        private int count;
+        long rows;
+
+        RowWriter(MappedBarFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String code = rs.getString(1);
+            if (!code.equals(currentCode)) {
+                flush();
+                currentCode = code;
+            }
+            if (count == days.length) {
+                int capacity = days.length * 2;
+                days = Arrays.copyOf(days, capacity);
+                open = Arrays.copyOf(open, capacity);
+                high = Arrays.copyOf(high, capacity);
+                low = Arrays.copyOf(low, capacity);
+                close = Arrays.copyOf(close, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+            }
+            days[count] = (int) rs.getObject(2, LocalDate.class).toEpochDay();
+            open[count] = rs.getDouble(3);
+            high[count] = rs.getDouble(4);
+            low[count] = rs.getDouble(5);
+            close[count] = rs.getDouble(6);
+            volume[count] = rs.getLong(7);
+            count++;
+            rows++;
+        }
+
+        void flush() {
+            if (currentCode != null && count > 0) {
+                file.upsert(currentCode, days, open, high, low, close, volume, count);
+            }
+            count = 0;
+        }
+    }
+}
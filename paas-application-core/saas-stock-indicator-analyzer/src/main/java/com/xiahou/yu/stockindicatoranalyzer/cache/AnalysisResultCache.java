@@ -0,0 +1,162 @@
+package com.xiahou.yu.stockindicatoranalyzer.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 全市场扫描结果缓存：键为 (扫描器, 参数, 数据版本, 当日日期)，数据版本见 {@link MarketDataVersion}。
+ * - 容量有界，按 LRU 淘汰；
+ * - single-flight：相同键的并发请求共享同一次计算；
+ * - 计算期间数据版本发生变化时，结果只返回给本次请求，不写入缓存。
+ * 当日日期参与键，是因为部分扫描（如 withinDays 判定）以 LocalDate.now() 为基准。
+ * 预计算（{@link #pin}）的结果单独保存、不参与 LRU 淘汰，并记录计算时间，数据版本推进后自动作废。
+ * 缓存的结果对象会被多个请求共享，调用方不得修改。
+ */
+@Component
+public class AnalysisResultCache {
+
+    /** 缓存键 */
+    public record Key(String scanner, List<Object> params, MarketDataVersion.Version version, LocalDate today) {}
+
+    /** 预计算结果：计算完成时间与耗时 */
+    public record Pinned(Key key, Object value, LocalDateTime computedAt, long elapsedMillis) {}
+
+    private final MarketDataVersion dataVersion;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Map<Key, Object> entries;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Key, Pinned> pinned = new ConcurrentHashMap<>();
+
+    public AnalysisResultCache(MarketDataVersion dataVersion,
+                               @Value("${indicator.analysis-cache.enabled:true}") boolean enabled,
+                               @Value("${indicator.analysis-cache.max-entries:256}") int maxEntries) {
+        this.dataVersion = dataVersion;
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > AnalysisResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 读取扫描结果（优先返回预计算结果），未命中时调用 loader 计算；params 需包含影响结果的全部参数（按固定顺序）。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String scanner, List<Object> params, Supplier<T> loader) {
+        if (!enabled && pinned.isEmpty()) {
+            return loader.get();
+        }
+        MarketDataVersion.Version version = dataVersion.current();
+        Key key = new Key(scanner, params, version, LocalDate.now());
+        Pinned hit = pinned.get(key);
+        if (hit != null) {
+            return (T) hit.value();
+        }
+        if (!enabled) {
+            return loader.get();
+        }
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return (T) await(running);
+        }
+        try {
+            cached = lookup(key);
+            if (cached == null) {
+                cached = loader.get();
+                if (cached != null && version.equals(dataVersion.current())) {
+                    synchronized (entries) {
+                        entries.put(key, cached);
+                    }
+                }
+            }
+            mine.complete(cached);
+            return (T) cached;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 预计算：无论是否命中都重新计算，结果按当前数据版本固定保存（不被 LRU 淘汰），同时清理已过期版本的预计算结果。
+     * 即使关闭缓存也会保存，以便请求参数匹配时直接返回。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T pin(String scanner, List<Object> params, Supplier<T> loader) {
+        MarketDataVersion.Version version = dataVersion.current();
+        LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+        T value = loader.get();
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        pinned.keySet().removeIf(k -> !k.version().equals(version) || !k.today().equals(today));
+        if (value != null && version.equals(dataVersion.current())) {
+            Key key = new Key(scanner, params, version, today);
+            pinned.put(key, new Pinned(key, value, LocalDateTime.now(), elapsed));
+        }
+        return value;
+    }
+
+    /** 当前数据版本下仍有效的预计算结果 */
+    public List<Pinned> pinnedEntries() {
+        MarketDataVersion.Version version = dataVersion.current();
+        LocalDate today = LocalDate.now();
+        return pinned.values().stream()
+                .filter(p -> p.key().version().equals(version) && p.key().today().equals(today))
+                .toList();
+    }
+
+    /** 清空缓存（含预计算结果） */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        pinned.clear();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Object lookup(Key key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.xiahou.yu.stockindicatoranalyzer.cache;
+
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全市场日线数据版本：最新交易日 + 写入代数。
+ * 日线写入路径在事务提交后调用 {@link #onDailyWritten}，代数递增，依赖日线的分析结果缓存随之失效。
+ * 最新交易日在首次读取时从库中加载，之后随写入推进。
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class MarketDataVersion {
+
+    /** 数据版本快照 */
+    public record Version(LocalDate latestTradeDate, long generation) {}
+
+    private final StocksDailyDataRepository dailyRepo;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile LocalDate latestTradeDate;
+    private volatile boolean loaded;
+
+    /** 当前数据版本 */
+    public Version current() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    LocalDate max = dailyRepo.findMaxTradeDate();
+                    advanceLatest(max);
+                    loaded = true;
+                }
+            }
+        }
+        return new Version(latestTradeDate, generation.get());
+    }
+
+    /**
+     * 日线写入通知：存在事务时在提交后推进版本，避免提交前的并发扫描把旧数据缓存到新版本下。
+     */
+    public void onDailyWritten(LocalDate tradeDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(tradeDate);
+                }
+            });
+        } else {
+            bump(tradeDate);
+        }
+    }
+
+    /** 立即推进版本（批量导入等非逐行写入路径使用） */
+    public void bump(LocalDate tradeDate) {
+        advanceLatest(tradeDate);
+        generation.incrementAndGet();
+    }
+
+    private synchronized void advanceLatest(LocalDate tradeDate) {
+        if (tradeDate != null && (latestTradeDate == null || tradeDate.isAfter(latestTradeDate))) {
+            latestTradeDate = tradeDate;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO 列表与原始类型数组之间的转换工具，供指标内核使用。
+ */
+final class DtoColumns {
+
+    private DtoColumns() {}
+
+    /** 提取收盘价序列（null 视为 0.0，与 Ta4jSeriesMapper 一致） */
+    static double[] closePrices(List<DailyLineDTO> list) {
+        double[] close = new double[list.size()];
+        for (int i = 0; i < close.length; i++) {
+            BigDecimal c = list.get(i).getClose();
+            close[i] = c == null ? 0.0 : c.doubleValue();
+        }
+        return close;
+    }
+}
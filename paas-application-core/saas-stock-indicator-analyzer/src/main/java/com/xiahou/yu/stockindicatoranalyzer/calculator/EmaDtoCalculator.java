@@ -1,9 +1,6 @@
 package com.xiahou.yu.stockindicatoranalyzer.calculator;
 
 import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.indicators.averages.EMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,22 +12,22 @@ public class EmaDtoCalculator {
 
     public void apply(List<DailyLineDTO> list) {
         if (list == null || list.isEmpty()) return;
-        BarSeries series = Ta4jSeriesMapper.buildSeries("DTO", list);
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        EMAIndicator ema5 = new EMAIndicator(close, 5);
-        EMAIndicator ema10 = new EMAIndicator(close, 10);
-        EMAIndicator ema20 = new EMAIndicator(close, 20);
-        EMAIndicator ema60 = new EMAIndicator(close, 60);
-        for (int i = 0; i < series.getBarCount() && i < list.size(); i++) {
+        int n = list.size();
+        double[] close = DtoColumns.closePrices(list);
+        double[] ema5 = new double[n];
+        double[] ema10 = new double[n];
+        double[] ema20 = new double[n];
+        double[] ema60 = new double[n];
+        IndicatorKernels.ema(close, n, 5, ema5);
+        IndicatorKernels.ema(close, n, 10, ema10);
+        IndicatorKernels.ema(close, n, 20, ema20);
+        IndicatorKernels.ema(close, n, 60, ema60);
+        for (int i = 0; i < n; i++) {
             DailyLineDTO d = list.get(i);
-            d.setEma5(toBd(ema5.getValue(i)));
-            d.setEma10(toBd(ema10.getValue(i)));
-            d.setEma20(toBd(ema20.getValue(i)));
-            d.setEma60(toBd(ema60.getValue(i)));
+            d.setEma5(BigDecimal.valueOf(ema5[i]));
+            d.setEma10(BigDecimal.valueOf(ema10[i]));
+            d.setEma20(BigDecimal.valueOf(ema20[i]));
+            d.setEma60(BigDecimal.valueOf(ema60[i]));
         }
     }
-
-    private BigDecimal toBd(org.ta4j.core.num.Num n) {
-        return BigDecimal.valueOf(n.doubleValue());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 单趟融合指标计算器：一次遍历 DTO 列表，用局部变量维护 SMA 5/10/20/60、EMA 5/10/20/60、MACD 与布林带的滚动状态，
+ * 结果写回 DTO（BigDecimal），或写入 {@link IndicatorColumns} 以跳过 BigDecimal 包装。
+ * 运算顺序与 {@link IndicatorKernels} 完全一致，结果与分步计算器逐位相同。
+ */
+public class FusedDtoIndicatorCalculator {
+
+    /**
+     * 计算并填充 DTO 指标字段（MACD 12/26/9）。
+     */
+    public void apply(List<DailyLineDTO> list, int bollPeriod, double k) {
+        if (list == null || list.isEmpty()) return;
+        run(list, new double[list.size()], list.size(), bollPeriod, k, 12, 26, 9, null, true);
+    }
+
+    /**
+     * 计算指标到列式容器，不修改 DTO。
+     */
+    public IndicatorColumns compute(List<DailyLineDTO> list, int bollPeriod, double k, int macdShort, int macdLong, int macdSignal) {
+        IndicatorColumns out = new IndicatorColumns(list == null ? 0 : list.size());
+        if (list == null || list.isEmpty()) return out;
+        run(list, new double[list.size()], list.size(), bollPeriod, k, macdShort, macdLong, macdSignal, out, false);
+        return out;
+    }
+
+    /**
+     * 直接基于收盘价数组计算指标到列式容器（前 n 个元素）。
+     */
+    public IndicatorColumns compute(double[] close, int n, int bollPeriod, double k, int macdShort, int macdLong, int macdSignal) {
+        IndicatorColumns out = new IndicatorColumns(n);
+        if (n == 0) return out;
+        run(null, close, n, bollPeriod, k, macdShort, macdLong, macdSignal, out, false);
+        return out;
+    }
+
+    /**
+     * list 非空时逐根读取 DTO 收盘价写入 close；list 为 null 时直接读取 close。
+     */
+    private void run(List<DailyLineDTO> list, double[] close, int n, int bollPeriod, double k,
+                     int macdShort, int macdLong, int macdSignal, IndicatorColumns out, boolean writeDto) {
+        if (macdShort > macdLong) {
+            throw new IllegalArgumentException("Long term period count must be greater than short term period count");
+        }
+        double m5 = 2.0 / (5 + 1), m10 = 2.0 / (10 + 1), m20 = 2.0 / (20 + 1), m60 = 2.0 / (60 + 1);
+        double mShort = 2.0 / (macdShort + 1), mLong = 2.0 / (macdLong + 1), mSignal = 2.0 / (macdSignal + 1);
+        double sum5 = 0.0, sum10 = 0.0, sum20 = 0.0, sum60 = 0.0, sumBoll = 0.0;
+        double ema5 = 0.0, ema10 = 0.0, ema20 = 0.0, ema60 = 0.0;
+        double emaShort = 0.0, emaLong = 0.0, dea = 0.0;
+
+        for (int i = 0; i < n; i++) {
+            DailyLineDTO d = list == null ? null : list.get(i);
+            double c;
+            if (d != null) {
+                c = d.getClose() == null ? 0.0 : d.getClose().doubleValue();
+                close[i] = c;
+            } else {
+                c = close[i];
+            }
+
+            sum5 += c;
+            if (i >= 5) sum5 -= close[i - 5];
+            sum10 += c;
+            if (i >= 10) sum10 -= close[i - 10];
+            sum20 += c;
+            if (i >= 20) sum20 -= close[i - 20];
+            sum60 += c;
+            if (i >= 60) sum60 -= close[i - 60];
+            sumBoll += c;
+            if (i >= bollPeriod) sumBoll -= close[i - bollPeriod];
+            double sma5 = sum5 / Math.min(5, i + 1);
+            double sma10 = sum10 / Math.min(10, i + 1);
+            double sma20 = sum20 / Math.min(20, i + 1);
+            double sma60 = sum60 / Math.min(60, i + 1);
+
+            // 布林带：窗口内逐个求偏差平方和（与 IndicatorKernels.stdDev 一致）
+            double middle = sumBoll / Math.min(bollPeriod, i + 1);
+            int start = Math.max(0, i - bollPeriod + 1);
+            double acc = 0.0;
+            for (int j = start; j <= i; j++) {
+                double dv = close[j] - middle;
+                acc += dv * dv;
+            }
+            double sd = Math.sqrt(acc / (i - start + 1));
+            double upper = middle + k * sd;
+            double lower = middle - k * sd;
+
+            double dif;
+            if (i == 0) {
+                ema5 = ema10 = ema20 = ema60 = c;
+                emaShort = emaLong = c;
+                dif = emaShort - emaLong;
+                dea = dif;
+            } else {
+                ema5 = (c - ema5) * m5 + ema5;
+                ema10 = (c - ema10) * m10 + ema10;
+                ema20 = (c - ema20) * m20 + ema20;
+                ema60 = (c - ema60) * m60 + ema60;
+                emaShort = (c - emaShort) * mShort + emaShort;
+                emaLong = (c - emaLong) * mLong + emaLong;
+                dif = emaShort - emaLong;
+                dea = (dif - dea) * mSignal + dea;
+            }
+            double hist = dif - dea;
+
+            if (out != null) {
+                out.getBbUpper()[i] = upper;
+                out.getBbMiddle()[i] = middle;
+                out.getBbLower()[i] = lower;
+                out.getSma5()[i] = sma5;
+                out.getSma10()[i] = sma10;
+                out.getSma20()[i] = sma20;
+                out.getSma60()[i] = sma60;
+                out.getEma5()[i] = ema5;
+                out.getEma10()[i] = ema10;
+                out.getEma20()[i] = ema20;
+                out.getEma60()[i] = ema60;
+                out.getMacdDif()[i] = dif;
+                out.getMacdDea()[i] = dea;
+                out.getMacdHist()[i] = hist;
+            }
+            if (writeDto) {
+                d.setBbUpper(BigDecimal.valueOf(upper));
+                d.setBbMiddle(BigDecimal.valueOf(middle));
+                d.setBbLower(BigDecimal.valueOf(lower));
+                d.setSma5(BigDecimal.valueOf(sma5));
+                d.setSma10(BigDecimal.valueOf(sma10));
+                d.setSma20(BigDecimal.valueOf(sma20));
+                d.setSma60(BigDecimal.valueOf(sma60));
+                d.setEma5(BigDecimal.valueOf(ema5));
+                d.setEma10(BigDecimal.valueOf(ema10));
+                d.setEma20(BigDecimal.valueOf(ema20));
+                d.setEma60(BigDecimal.valueOf(ema60));
+                d.setMacdDif(BigDecimal.valueOf(dif));
+                d.setMacdDea(BigDecimal.valueOf(dea));
+                d.setMacdHist(BigDecimal.valueOf(hist));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import lombok.Getter;
+
+/**
+ * 指标结果的原始类型列式容器：每个指标一个 double[]，下标与输入日线一一对应（日期升序）。
+ * 用于跳过逐根 BigDecimal 包装，直接供序列化或后续计算使用。macdHist 为 DIF - DEA（不乘系数）。
+ */
+@Getter
+public final class IndicatorColumns {
+
+    private final int size;
+
+    private final double[] bbUpper;
+    private final double[] bbMiddle;
+    private final double[] bbLower;
+
+    private final double[] sma5;
+    private final double[] sma10;
+    private final double[] sma20;
+    private final double[] sma60;
+
+    private final double[] ema5;
+    private final double[] ema10;
+    private final double[] ema20;
+    private final double[] ema60;
+
+    private final double[] macdDif;
+    private final double[] macdDea;
+    private final double[] macdHist;
+
+    public IndicatorColumns(int size) {
+        this.size = size;
+        this.bbUpper = new double[size];
+        this.bbMiddle = new double[size];
+        this.bbLower = new double[size];
+        this.sma5 = new double[size];
+        this.sma10 = new double[size];
+        this.sma20 = new double[size];
+        this.sma60 = new double[size];
+        this.ema5 = new double[size];
+        this.ema10 = new double[size];
+        this.ema20 = new double[size];
+        this.ema60 = new double[size];
+        this.macdDif = new double[size];
+        this.macdDea = new double[size];
+        this.macdHist = new double[size];
+    }
+}
@@ -0,0 +1,111 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+/**
+ * 基于原始类型数组的流式指标内核：结果写入调用方提供的 double[] 缓冲区，计算过程中不做逐K线的对象分配。
+ * 计算口径与 ta4j 保持一致：
+ * - SMA：前 period-1 根使用已有样本的均值（min(period, i+1)）；
+ * - EMA：首值取原序列首值，其后 ema(i) = (x(i) - ema(i-1)) * 2/(period+1) + ema(i-1)；
+ * - 标准差：以 SMA 为均值的总体标准差（除以样本数）。
+ */
+public final class IndicatorKernels {
+
+    private IndicatorKernels() {}
+
+    /**
+     * 简单移动平均。
+     * @param src 原序列
+     * @param n 参与计算的长度（从下标 0 开始）
+     * @param period 周期
+     * @param out 输出缓冲区，长度至少为 n
+     */
+    public static void sma(double[] src, int n, int period, double[] out) {
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += src[i];
+            if (i >= period) {
+                sum -= src[i - period];
+            }
+            out[i] = sum / Math.min(period, i + 1);
+        }
+    }
+
+    /**
+     * 成交量简单移动平均（累加在 long 上完成，无精度损失）。
+     */
+    public static void volumeSma(long[] volume, int n, int period, double[] out) {
+        long sum = 0L;
+        for (int i = 0; i < n; i++) {
+            sum += volume[i];
+            if (i >= period) {
+                sum -= volume[i - period];
+            }
+            out[i] = (double) sum / Math.min(period, i + 1);
+        }
+    }
+
+    /**
+     * 指数移动平均，允许 src 与 out 为同一数组（原地计算）。
+     */
+    public static void ema(double[] src, int n, int period, double[] out) {
+        if (n <= 0) return;
+        double multiplier = 2.0 / (period + 1);
+        double prev = src[0];
+        out[0] = prev;
+        for (int i = 1; i < n; i++) {
+            prev = (src[i] - prev) * multiplier + prev;
+            out[i] = prev;
+        }
+    }
+
+    /**
+     * MACD：dif = EMA(short) - EMA(long)，dea = EMA(dif, signal)，hist = dif - dea（不乘系数）。
+     * hist 在计算过程中兼作长周期 EMA 的临时缓冲区。
+     */
+    public static void macd(double[] close, int n, int shortPeriod, int longPeriod, int signalPeriod,
+                            double[] dif, double[] dea, double[] hist) {
+        if (shortPeriod > longPeriod) {
+            throw new IllegalArgumentException("Long term period count must be greater than short term period count");
+        }
+        ema(close, n, shortPeriod, dif);
+        ema(close, n, longPeriod, hist);
+        for (int i = 0; i < n; i++) {
+            dif[i] -= hist[i];
+        }
+        ema(dif, n, signalPeriod, dea);
+        for (int i = 0; i < n; i++) {
+            hist[i] = dif[i] - dea[i];
+        }
+    }
+
+    /**
+     * 滚动总体标准差：以 mean（同周期 SMA）为均值，对窗口内样本逐个求偏差平方和，避免 sum/sumSq 相减带来的精度损失。
+     * @param mean 同周期 SMA 结果（可由 {@link #sma} 得到）
+     */
+    public static void stdDev(double[] src, int n, int period, double[] mean, double[] out) {
+        for (int i = 0; i < n; i++) {
+            int start = Math.max(0, i - period + 1);
+            double m = mean[i];
+            double acc = 0.0;
+            for (int j = start; j <= i; j++) {
+                double d = src[j] - m;
+                acc += d * d;
+            }
+            out[i] = Math.sqrt(acc / (i - start + 1));
+        }
+    }
+
+    /**
+     * 布林带：middle = SMA(period)，upper/lower = middle ± k × 标准差。
+     * lower 在计算过程中兼作标准差的临时缓冲区。
+     */
+    public static void bollinger(double[] close, int n, int period, double k,
+                                 double[] middle, double[] upper, double[] lower) {
+        sma(close, n, period, middle);
+        stdDev(close, n, period, middle, lower);
+        for (int i = 0; i < n; i++) {
+            double s = lower[i];
+            upper[i] = middle[i] + k * s;
+            lower[i] = middle[i] - k * s;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import java.util.Arrays;
+
+/**
+ * 指标内核的可复用缓冲区：按槽位保存 double[]，容量不足时才扩容，
+ * 全市场扫描时同一线程内的所有股票共享一组缓冲区。非线程安全。
+ */
+public final class KernelBuffers {
+
+    private double[][] slots = new double[8][];
+
+    /**
+     * 获取指定槽位的缓冲区，保证长度不小于 minLength（内容不清零）。
+     */
+    public double[] get(int slot, int minLength) {
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slot + 1, slots.length * 2));
+        }
+        double[] buf = slots[slot];
+        if (buf == null || buf.length < minLength) {
+            buf = new double[Math.max(minLength, buf == null ? 0 : buf.length * 2)];
+            slots[slot] = buf;
+        }
+        return buf;
+    }
+}
@@ -1,11 +1,6 @@
 package com.xiahou.yu.stockindicatoranalyzer.calculator;
 
 import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.indicators.MACDIndicator;
-import org.ta4j.core.indicators.averages.EMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.num.Num;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -17,18 +12,17 @@ public class MacdDtoCalculator {
 
     public void apply(List<DailyLineDTO> list, int fastPeriod, int slowPeriod, int signalPeriod) {
         if (list == null || list.isEmpty()) return;
-        BarSeries series = Ta4jSeriesMapper.buildSeries("DTO", list);
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        MACDIndicator macdDif = new MACDIndicator(close, fastPeriod, slowPeriod);
-        EMAIndicator macdDea = new EMAIndicator(macdDif, signalPeriod);
-        for (int i = 0; i < series.getBarCount() && i < list.size(); i++) {
-            Num dif = macdDif.getValue(i);
-            Num dea = macdDea.getValue(i);
-            Num hist = dif.minus(dea);
+        int n = list.size();
+        double[] close = DtoColumns.closePrices(list);
+        double[] dif = new double[n];
+        double[] dea = new double[n];
+        double[] hist = new double[n];
+        IndicatorKernels.macd(close, n, fastPeriod, slowPeriod, signalPeriod, dif, dea, hist);
+        for (int i = 0; i < n; i++) {
             DailyLineDTO d = list.get(i);
-            d.setMacdDif(BigDecimal.valueOf(dif.doubleValue()));
-            d.setMacdDea(BigDecimal.valueOf(dea.doubleValue()));
-            d.setMacdHist(BigDecimal.valueOf(hist.doubleValue()));
+            d.setMacdDif(BigDecimal.valueOf(dif[i]));
+            d.setMacdDea(BigDecimal.valueOf(dea[i]));
+            d.setMacdHist(BigDecimal.valueOf(hist[i]));
         }
     }
-}
\ No newline at end of file
+}
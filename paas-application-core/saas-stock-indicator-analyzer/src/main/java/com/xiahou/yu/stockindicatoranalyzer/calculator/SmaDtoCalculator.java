@@ -1,9 +1,6 @@
 package com.xiahou.yu.stockindicatoranalyzer.calculator;
 
 import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.indicators.averages.SMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,22 +12,22 @@ public class SmaDtoCalculator {
 
     public void apply(List<DailyLineDTO> list) {
         if (list == null || list.isEmpty()) return;
-        BarSeries series = Ta4jSeriesMapper.buildSeries("DTO", list);
-        ClosePriceIndicator close = new ClosePriceIndicator(series);
-        SMAIndicator sma5 = new SMAIndicator(close, 5);
-        SMAIndicator sma10 = new SMAIndicator(close, 10);
-        SMAIndicator sma20 = new SMAIndicator(close, 20);
-        SMAIndicator sma60 = new SMAIndicator(close, 60);
-        for (int i = 0; i < series.getBarCount() && i < list.size(); i++) {
+        int n = list.size();
+        double[] close = DtoColumns.closePrices(list);
+        double[] sma5 = new double[n];
+        double[] sma10 = new double[n];
+        double[] sma20 = new double[n];
+        double[] sma60 = new double[n];
+        IndicatorKernels.sma(close, n, 5, sma5);
+        IndicatorKernels.sma(close, n, 10, sma10);
+        IndicatorKernels.sma(close, n, 20, sma20);
+        IndicatorKernels.sma(close, n, 60, sma60);
+        for (int i = 0; i < n; i++) {
             DailyLineDTO d = list.get(i);
-            d.setSma5(toBd(sma5.getValue(i)));
-            d.setSma10(toBd(sma10.getValue(i)));
-            d.setSma20(toBd(sma20.getValue(i)));
-            d.setSma60(toBd(sma60.getValue(i)));
+            d.setSma5(BigDecimal.valueOf(sma5[i]));
+            d.setSma10(BigDecimal.valueOf(sma10[i]));
+            d.setSma20(BigDecimal.valueOf(sma20[i]));
+            d.setSma60(BigDecimal.valueOf(sma60[i]));
         }
     }
-
-    private BigDecimal toBd(org.ta4j.core.num.Num n) {
-        return BigDecimal.valueOf(n.doubleValue());
-    }
-}
\ No newline at end of file
+}
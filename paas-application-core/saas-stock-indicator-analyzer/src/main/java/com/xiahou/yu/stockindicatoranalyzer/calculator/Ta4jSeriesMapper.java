@@ -1,11 +1,13 @@
 package com.xiahou.yu.stockindicatoranalyzer.calculator;
 
 import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBarSeriesBuilder;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 
@@ -33,6 +35,27 @@ public final class Ta4jSeriesMapper {
         return series;
     }
 
+    /**
+     * 基于列式日线数据构建 BarSeries（日期升序）。
+     */
+    public static BarSeries buildSeries(String name, BarColumns bars) {
+        BarSeries series = new BaseBarSeriesBuilder().withName(name).build();
+        ZoneId zone = ZoneId.systemDefault();
+        for (int i = 0; i < bars.size(); i++) {
+            Instant endTime = LocalDate.ofEpochDay(bars.getEpochDays()[i]).atStartOfDay(zone).toInstant();
+            series.addBar(series.barBuilder()
+                    .timePeriod(Duration.ofDays(1))
+                    .endTime(endTime)
+                    .openPrice(bars.getOpen()[i])
+                    .highPrice(bars.getHigh()[i])
+                    .lowPrice(bars.getLow()[i])
+                    .closePrice(bars.getClose()[i])
+                    .volume((double) bars.getVolume()[i])
+                    .build());
+        }
+        return series;
+    }
+
     private static double toDouble(java.math.BigDecimal v) {
         return v == null ? 0.0 : v.doubleValue();
     }
@@ -0,0 +1,140 @@
+package com.xiahou.yu.stockindicatoranalyzer.crosssection;
+
+import java.util.Arrays;
+
+/**
+ * 横截面统计：在原始类型数组上计算百分位排名、z 分数与 Top-K 选择。NaN 表示缺失值，不参与统计。
+ */
+public final class CrossSectionMath {
+
+    private CrossSectionMath() {}
+
+    /**
+     * 百分位排名：最小值为 0、最大值为 1，相同值取平均名次；缺失值结果为 NaN。
+     */
+    public static double[] percentileRank(double[] x) {
+        double[] sorted = new double[x.length];
+        int m = 0;
+        for (double v : x) {
+            if (!Double.isNaN(v)) sorted[m++] = v;
+        }
+        Arrays.sort(sorted, 0, m);
+        double[] out = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i];
+            if (Double.isNaN(v)) {
+                out[i] = Double.NaN;
+            } else if (m == 1) {
+                out[i] = 0.5;
+            } else {
+                int lo = lowerBound(sorted, m, v);
+                int hi = upperBound(sorted, m, v);
+                out[i] = (lo + hi - 1) / 2.0 / (m - 1);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * z 分数：(x - 均值) / 总体标准差；标准差为 0 时结果为 0，缺失值结果为 NaN。
+     */
+    public static double[] zScore(double[] x) {
+        double sum = 0.0;
+        int m = 0;
+        for (double v : x) {
+            if (!Double.isNaN(v)) { sum += v; m++; }
+        }
+        double mean = m == 0 ? 0.0 : sum / m;
+        double acc = 0.0;
+        for (double v : x) {
+            if (!Double.isNaN(v)) { double d = v - mean; acc += d * d; }
+        }
+        double sd = m == 0 ? 0.0 : Math.sqrt(acc / m);
+        double[] out = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i];
+            out[i] = Double.isNaN(v) ? Double.NaN : (sd == 0.0 ? 0.0 : (v - mean) / sd);
+        }
+        return out;
+    }
+
+    /**
+     * Top-K：用大小为 k 的最小堆选出得分最高的 k 个下标（O(n log k)），按得分降序返回，忽略 NaN。
+     * 得分相同时下标小者优先。
+     */
+    public static int[] topK(double[] score, int k) {
+        if (k <= 0) return new int[0];
+        int[] heap = new int[Math.min(k, score.length)];
+        int size = 0;
+        for (int i = 0; i < score.length; i++) {
+            if (Double.isNaN(score[i])) continue;
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size++, score);
+            } else if (better(i, heap[0], score)) {
+                heap[0] = i;
+                siftDown(heap, size, score);
+            }
+        }
+        // 依次弹出堆顶（当前最差）填到末尾，得到降序结果
+        int[] out = new int[size];
+        for (int n = size; n > 0; n--) {
+            out[n - 1] = heap[0];
+            heap[0] = heap[n - 1];
+            siftDown(heap, n - 1, score);
+        }
+        return out;
+    }
+
+    /** a 是否优于 b：得分更高，或得分相同且下标更小 */
+    private static boolean better(int a, int b, double[] score) {
+        return score[a] > score[b] || (score[a] == score[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, double[] score) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i], score)) break;
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] score) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(heap[left], heap[right], score)) worst = right;
+            if (!better(heap[i], heap[worst], score)) break;
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static int lowerBound(double[] a, int n, double v) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < v) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(double[] a, int n, double v) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= v) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
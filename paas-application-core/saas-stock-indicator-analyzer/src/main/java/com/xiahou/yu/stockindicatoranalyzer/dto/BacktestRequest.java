@@ -0,0 +1,22 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 回测请求：入场/出场规则可用自定义定义（entry/exit）或内置规则名（entryPreset/exitPreset），
+ * 未指定时默认使用组合策略的买入/卖出规则。
+ */
+@Data
+@NoArgsConstructor
+public class BacktestRequest {
+    private Integer bars;                 // 回测窗口（最近 N 个交易日），默认 250
+    private String entryPreset;
+    private String exitPreset;
+    private RuleDefinition entry;
+    private RuleDefinition exit;
+    private Integer maxHoldingDays;       // 最长持有交易日数，<=0 表示不限
+    private Double stopLossPct;           // 收盘较入场价回撤达到该百分比时次日开盘止损，<=0 表示不启用
+    private Double feeRate;               // 单边费率（如 0.0003）
+    private Boolean includeTrades;        // 是否返回逐笔交易，默认 true
+}
@@ -0,0 +1,40 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 回测汇总：组合按持仓等权、空仓收益为 0 计算每日收益与净值。
+ */
+@Data
+@NoArgsConstructor
+public class BacktestResult {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int stockCount;
+    private int tradingDays;
+    private int tradeCount;
+    private int winCount;
+    private double hitRate;            // 盈利交易占比
+    private double avgReturnPct;       // 单笔平均收益（%）
+    private double avgHoldingDays;
+    private double totalReturnPct;     // 组合累计收益（%）
+    private double maxDrawdownPct;     // 组合净值最大回撤（%）
+    private double avgDailyTurnover;   // 日均换手：当日开平仓笔数 / 当日持仓数，按交易日平均
+    private double avgPositions;       // 日均持仓数
+    private List<EquityPoint> equityCurve;
+    private List<BacktestTrade> trades;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EquityPoint {
+        private LocalDate date;
+        private double equity;
+        private int positions;
+    }
+}
@@ -0,0 +1,21 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestTrade {
+    private String stockCode;
+    private LocalDate entryDate;   // 信号次日开盘入场
+    private double entryPrice;
+    private LocalDate exitDate;
+    private double exitPrice;
+    private int holdingDays;       // 持有交易日数
+    private double returnPct;      // 扣除双边费用后的收益率（%）
+    private String exitReason;     // signal / stop / max-hold / open（窗口结束仍持有，按最后收盘价计）
+}
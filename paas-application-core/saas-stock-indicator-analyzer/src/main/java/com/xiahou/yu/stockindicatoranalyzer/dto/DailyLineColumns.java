@@ -0,0 +1,139 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import lombok.Getter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * 列式日线 + 指标：每个字段一个原始类型数组（日期升序），作为 DailyLineDTO 列表的紧凑替代，
+ * JSON 序列化时每个字段输出为一个数组，也可按 {@link #writeBinary} 输出小端 double 流。
+ * tradeDate 以 yyyyMMdd 整数表示；macdHist 为 DIF - DEA（不乘系数）。
+ */
+@Getter
+public final class DailyLineColumns {
+
+    /** 二进制格式魔数："DLC1" */
+    public static final int BINARY_MAGIC = 0x444C4331;
+
+    /** 二进制格式中的字段顺序 */
+    public static final String[] BINARY_FIELDS = {
+            "tradeDate", "open", "high", "low", "close", "volume",
+            "bbUpper", "bbMiddle", "bbLower",
+            "sma5", "sma10", "sma20", "sma60",
+            "ema5", "ema10", "ema20", "ema60",
+            "macdDif", "macdDea", "macdHist"
+    };
+
+    private final String code;
+    private final int size;
+
+    private final int[] tradeDate;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    private final double[] bbUpper;
+    private final double[] bbMiddle;
+    private final double[] bbLower;
+
+    private final double[] sma5;
+    private final double[] sma10;
+    private final double[] sma20;
+    private final double[] sma60;
+
+    private final double[] ema5;
+    private final double[] ema10;
+    private final double[] ema20;
+    private final double[] ema60;
+
+    private final double[] macdDif;
+    private final double[] macdDea;
+    private final double[] macdHist;
+
+    public DailyLineColumns(String code, BarColumns bars, IndicatorColumns indicators) {
+        this.code = code;
+        this.size = bars == null ? 0 : bars.size();
+        this.tradeDate = new int[size];
+        for (int i = 0; i < size; i++) {
+            LocalDate d = bars.tradeDate(i);
+            tradeDate[i] = d.getYear() * 10000 + d.getMonthValue() * 100 + d.getDayOfMonth();
+        }
+        this.open = bars == null ? new double[0] : bars.getOpen();
+        this.high = bars == null ? new double[0] : bars.getHigh();
+        this.low = bars == null ? new double[0] : bars.getLow();
+        this.close = bars == null ? new double[0] : bars.getClose();
+        this.volume = bars == null ? new long[0] : bars.getVolume();
+        IndicatorColumns ind = indicators == null ? new IndicatorColumns(size) : indicators;
+        this.bbUpper = ind.getBbUpper();
+        this.bbMiddle = ind.getBbMiddle();
+        this.bbLower = ind.getBbLower();
+        this.sma5 = ind.getSma5();
+        this.sma10 = ind.getSma10();
+        this.sma20 = ind.getSma20();
+        this.sma60 = ind.getSma60();
+        this.ema5 = ind.getEma5();
+        this.ema10 = ind.getEma10();
+        this.ema20 = ind.getEma20();
+        this.ema60 = ind.getEma60();
+        this.macdDif = ind.getMacdDif();
+        this.macdDea = ind.getMacdDea();
+        this.macdHist = ind.getMacdHist();
+    }
+
+    /**
+     * 二进制输出（全部小端）：
+     * int32 魔数、int32 K线数 n、int32 字段数 m，随后 m 个 [int16 名称字节数, UTF-8 名称]，
+     * 再按 {@link #BINARY_FIELDS} 顺序依次输出每个字段的 n 个 float64（tradeDate/volume 也转为 double）。
+     */
+    public void writeBinary(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(BINARY_MAGIC).putInt(size).putInt(BINARY_FIELDS.length);
+        out.write(header.array());
+        for (String field : BINARY_FIELDS) {
+            byte[] name = field.getBytes(StandardCharsets.UTF_8);
+            out.write(ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort((short) name.length).array());
+            out.write(name);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        double[] tmp = new double[size];
+        for (int i = 0; i < size; i++) tmp[i] = tradeDate[i];
+        writeColumn(out, buf, tmp);
+        writeColumn(out, buf, open);
+        writeColumn(out, buf, high);
+        writeColumn(out, buf, low);
+        writeColumn(out, buf, close);
+        for (int i = 0; i < size; i++) tmp[i] = volume[i];
+        writeColumn(out, buf, tmp);
+        for (double[] col : new double[][]{bbUpper, bbMiddle, bbLower, sma5, sma10, sma20, sma60,
+                ema5, ema10, ema20, ema60, macdDif, macdDea, macdHist}) {
+            writeColumn(out, buf, col);
+        }
+        out.flush();
+    }
+
+    /** 二进制输出的总字节数（用于 Content-Length） */
+    public int binarySize() {
+        int len = 12;
+        for (String field : BINARY_FIELDS) {
+            len += 2 + field.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return len + BINARY_FIELDS.length * size * Double.BYTES;
+    }
+
+    private void writeColumn(DataOutputStream out, ByteBuffer buf, double[] col) throws IOException {
+        buf.clear();
+        buf.asDoubleBuffer().put(col, 0, size);
+        out.write(buf.array(), 0, size * Double.BYTES);
+    }
+}
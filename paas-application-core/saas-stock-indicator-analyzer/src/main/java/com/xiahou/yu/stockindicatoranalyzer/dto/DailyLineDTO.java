@@ -15,7 +15,7 @@ import java.time.LocalDate;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class DailyLineDTO {
+public class DailyLineDTO implements IndicatorFields {
 
     /** 标的代码：股票/指数/行业代码 */
     private String code;
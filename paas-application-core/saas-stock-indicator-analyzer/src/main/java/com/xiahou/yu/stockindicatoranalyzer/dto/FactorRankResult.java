@@ -0,0 +1,37 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 横截面因子排名结果：universe 为当日参与计算的股票数，rows 为按 rankBy 选出的前 K 名
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactorRankResult {
+    private LocalDate asOfDate;
+    private String rankBy;
+    private int universe;
+    private List<FactorRow> rows;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FactorRow {
+        private String stockCode;
+        private String industryName;
+        private Double returnPct;              // N 日收益率（%）
+        private Double returnRank;             // 收益率横截面百分位（0~1）
+        private Double industryReturnPct;      // 所属行业指数同期收益率（%）
+        private Double relativeStrength;       // 相对行业强度：个股收益率 - 行业收益率（百分点）
+        private Double relativeStrengthRank;
+        private Double volumeRatio;            // 当日量 / 前 volumeWindow 日均量
+        private Double volumeZ;                // 量比的横截面 z 分数
+        private Double score;                  // 综合得分：三项百分位的均值
+    }
+}
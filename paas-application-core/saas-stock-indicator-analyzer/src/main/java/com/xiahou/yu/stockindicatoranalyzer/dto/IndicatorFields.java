@@ -0,0 +1,37 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 携带标准指标字段的日线对象（DTO/实体），供物化值或计算结果统一回填。
+ */
+public interface IndicatorFields {
+
+    void setBbUpper(BigDecimal bbUpper);
+
+    void setBbMiddle(BigDecimal bbMiddle);
+
+    void setBbLower(BigDecimal bbLower);
+
+    void setSma5(BigDecimal sma5);
+
+    void setSma10(BigDecimal sma10);
+
+    void setSma20(BigDecimal sma20);
+
+    void setSma60(BigDecimal sma60);
+
+    void setEma5(BigDecimal ema5);
+
+    void setEma10(BigDecimal ema10);
+
+    void setEma20(BigDecimal ema20);
+
+    void setEma60(BigDecimal ema60);
+
+    void setMacdDif(BigDecimal macdDif);
+
+    void setMacdDea(BigDecimal macdDea);
+
+    void setMacdHist(BigDecimal macdHist);
+}
@@ -0,0 +1,25 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 批量入库结果与吞吐指标
+ */
+@Data
+@NoArgsConstructor
+public class IngestionReport {
+    private String table;
+    private long rows;             // 读取的行数
+    private long inserted;         // 新插入行数
+    private long updated;          // 已存在并更新的行数（同批重复行只计一次）
+    private int batches;
+    private int codes;             // 涉及的代码数
+    private LocalDate minTradeDate;
+    private LocalDate maxTradeDate;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private int indicatorStateFailures; // 指标状态推进失败的股票数（仅个股日线）
+}
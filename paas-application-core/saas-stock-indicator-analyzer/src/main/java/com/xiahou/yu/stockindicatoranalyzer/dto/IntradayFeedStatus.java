@@ -0,0 +1,24 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 盘中分钟线接入状态
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntradayFeedStatus {
+    private boolean running;
+    private String source;         // 当前（或最近一次）数据源
+    private long processedBars;    // 已推进的分钟线数
+    private long droppedBars;      // 乱序/重复被丢弃的分钟线数
+    private long signals;          // 已产生的信号数
+    private int trackedCodes;      // 已建立盘中状态的股票数
+    private String lastError;      // 数据源最近一次异常（仅异常类型，不含数据内容）
+    private long malformedLines;   // 格式错误被跳过的行数
+    private int subscribers;       // 当前信号订阅方数
+    private long disconnectedSubscribers; // 因队列已满或发送失败被断开的订阅方数
+}
@@ -0,0 +1,17 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MacdSweepResult {
+    private int shortPeriod;
+    private int longPeriod;
+    private int signalPeriod;
+    private List<MacdCrossResult> results; // 该参数组合下的交叉事件（同 findMacdCrossDetails）
+}
@@ -0,0 +1,41 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 盘后预计算运行报告
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrecomputeReport {
+    private String trigger;            // scheduled | manual
+    private boolean skipped;           // 数据版本未变化或已有运行中的任务时跳过
+    private String skipReason;
+    private LocalDate latestTradeDate; // 计算所基于的数据版本
+    private long generation;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMillis;
+    private int succeeded;
+    private int failed;
+    private List<ScanTiming> scans;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScanTiming {
+        private String scanner;
+        private String params;
+        private Integer resultSize;
+        private LocalDateTime computedAt;
+        private long elapsedMillis;
+        private String error;
+    }
+}
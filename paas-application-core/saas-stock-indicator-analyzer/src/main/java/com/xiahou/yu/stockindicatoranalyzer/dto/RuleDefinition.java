@@ -0,0 +1,34 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 声明式筛选规则定义（JSON 形式），由 {@code Rules#from} 转换为可执行规则。
+ * 组合：and / or / not（子规则放在 rules 中）；
+ * 比较：above / atLeast / below（最新一根 left 与 right 比较）；
+ * 趋势：sustainAbove / sustainBelow（最近 days 根 left 持续高于/低于 right）；
+ * 交叉：crossAbove / crossBelow（最近 days 根内 left 上穿/下穿 right，epsilon 为穿越后的最小差值）；
+ * 触及：touchAbove / touchBelow（最近 days 根内 left 曾不低于/不高于 right）；
+ * 通道位置：bandPosition（left 在 [lower, upper] 中的相对位置位于 [min, max]）；
+ * 量比：volumeRatio（最新成交量 >= 前 days 根均量 × factor）；
+ * 斜率：slopeUp / slopeDown（left 较 days 根之前上升/下降）；
+ * 收敛：converge（最近 days 根 |left - right| / close <= factor）。
+ */
+@Data
+@NoArgsConstructor
+public class RuleDefinition {
+    private String type;
+    private String left;              // 序列表达式，如 ema(12)、macd.dif(12,26)、close
+    private String right;             // 序列表达式
+    private String lower;             // bandPosition 下轨，如 boll.lower(20,2)
+    private String upper;             // bandPosition 上轨，如 boll.upper(20,2)
+    private Integer days;
+    private Double min;
+    private Double max;
+    private Double factor;
+    private Double epsilon;
+    private List<RuleDefinition> rules;
+}
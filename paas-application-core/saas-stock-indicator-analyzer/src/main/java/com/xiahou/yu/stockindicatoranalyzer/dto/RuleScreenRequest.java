@@ -0,0 +1,18 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多规则筛选请求：screens 为自定义规则（名称 -> 定义），presets 为内置规则名，二者在同一次扫描中一起判定。
+ */
+@Data
+@NoArgsConstructor
+public class RuleScreenRequest {
+    private Integer lookbackDays;
+    private Map<String, RuleDefinition> screens;
+    private List<String> presets;
+}
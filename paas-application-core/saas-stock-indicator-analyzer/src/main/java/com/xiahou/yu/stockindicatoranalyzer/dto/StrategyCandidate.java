@@ -0,0 +1,18 @@
+package com.xiahou.yu.stockindicatoranalyzer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 组合策略（EXPMA + MACD + BOLL）扫描命中的股票。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StrategyCandidate {
+    private String stockCode;     // 股票代码
+    private LocalDate signalDate; // 判定依据的信号日期（买入为最近金叉，卖出为最近死叉，观望为冲突信号日期），用于排序
+}
@@ -1,5 +1,6 @@
 package com.xiahou.yu.stockindicatoranalyzer.entity;
 
+import com.xiahou.yu.stockindicatoranalyzer.dto.IndicatorFields;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,7 +22,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table("stocks_daily_data")
-public class StocksDailyData {
+public class StocksDailyData implements IndicatorFields {
 
     @Id
     private Integer id;
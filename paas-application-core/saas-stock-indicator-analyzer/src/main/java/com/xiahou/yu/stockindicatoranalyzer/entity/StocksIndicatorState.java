@@ -0,0 +1,70 @@
+package com.xiahou.yu.stockindicatoranalyzer.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 映射表：stocks_indicator_state（每只股票一行的增量指标状态）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("stocks_indicator_state")
+public class StocksIndicatorState {
+
+    @Id
+    private Integer id;
+
+    @Column("stock_code")
+    private String stockCode;
+
+    /** 最近一次推进的交易日 */
+    @Column("last_trade_date")
+    private LocalDate lastTradeDate;
+
+    /** 已推进的K线数 */
+    @Column("bar_count")
+    private Long barCount;
+
+    /** 最近至多 60 根收盘价（按时间升序，小端 double 序列） */
+    @Column("recent_closes")
+    private byte[] recentCloses;
+
+    @Column("ema5")
+    private Double ema5;
+
+    @Column("ema10")
+    private Double ema10;
+
+    @Column("ema20")
+    private Double ema20;
+
+    @Column("ema60")
+    private Double ema60;
+
+    /** MACD 快线 EMA(12) */
+    @Column("macd_ema_short")
+    private Double macdEmaShort;
+
+    /** MACD 慢线 EMA(26) */
+    @Column("macd_ema_long")
+    private Double macdEmaLong;
+
+    @Column("macd_dea")
+    private Double macdDea;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,97 @@
+package com.xiahou.yu.stockindicatoranalyzer.ingest;
+
+import org.postgresql.copy.CopyIn;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * COPY ... FORMAT csv 的行编码器：字段写入本地缓冲区，攒满后整块推送给 {@link CopyIn}。
+ * null 写为不加引号的空字段（CSV 格式下即 NULL），字符串统一加引号并转义内部引号。
+ */
+final class CsvCopyWriter {
+
+    private static final int FLUSH_BYTES = 256 * 1024;
+
+    private final CopyIn copyIn;
+    private final StringBuilder line = new StringBuilder(256);
+    private final byte[] buffer = new byte[FLUSH_BYTES + 4096];
+    private int length;
+    private boolean first = true;
+
+    CsvCopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    CsvCopyWriter text(String v) {
+        sep();
+        if (v != null) {
+            line.append('"');
+            for (int i = 0; i < v.length(); i++) {
+                char c = v.charAt(i);
+                if (c == '"') line.append('"');
+                line.append(c);
+            }
+            line.append('"');
+        }
+        return this;
+    }
+
+    CsvCopyWriter date(LocalDate v) {
+        sep();
+        if (v != null) line.append(v);
+        return this;
+    }
+
+    CsvCopyWriter number(BigDecimal v) {
+        sep();
+        if (v != null) line.append(v.toPlainString());
+        return this;
+    }
+
+    CsvCopyWriter number(Long v) {
+        sep();
+        if (v != null) line.append(v.longValue());
+        return this;
+    }
+
+    CsvCopyWriter number(long v) {
+        sep();
+        line.append(v);
+        return this;
+    }
+
+    /** 结束当前行 */
+    void endRow() throws SQLException {
+        line.append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        line.setLength(0);
+        first = true;
+        if (length + bytes.length > buffer.length) {
+            flush();
+            if (bytes.length > buffer.length) {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+        if (length >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        if (length > 0) {
+            copyIn.writeToCopy(buffer, 0, length);
+            length = 0;
+        }
+    }
+
+    private void sep() {
+        if (!first) line.append(',');
+        first = false;
+    }
+}
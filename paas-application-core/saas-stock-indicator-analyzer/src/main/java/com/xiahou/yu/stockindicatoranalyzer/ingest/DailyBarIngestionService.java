@@ -0,0 +1,242 @@
+package com.xiahou.yu.stockindicatoranalyzer.ingest;
+
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
+import com.xiahou.yu.stockindicatoranalyzer.dto.IngestionReport;
+import com.xiahou.yu.stockindicatoranalyzer.entity.IndexesDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.entity.IndustryIndexesDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.service.IndicatorStateService;
+import com.xiahou.yu.stockindicatoranalyzer.service.IndustryVerdictCache;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 日线批量入库：按批将行通过 PostgreSQL COPY 写入事务级临时表（不写 WAL），
+ * 再用一条 INSERT ... ON CONFLICT (代码, trade_date) DO UPDATE 合并到目标表，替代逐行 SELECT + save。
+ * 每批一个事务，批间独立提交；全部完成后推进数据版本（使分析缓存失效），个股日线同时推进增量指标状态。
+ * 指标状态推进需要读写数据库，在专用的小线程池上执行（并发数须小于连接池大小），不占用扫描线程池。
+ */
+@Slf4j
+@Service
+public class DailyBarIngestionService {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MarketDataVersion marketDataVersion;
+    private final IndicatorStateService indicatorStateService;
+    private final IndustryVerdictCache verdictCache;
+    private final MappedBarStore barStore;
+    private final int batchSize;
+    private final int stateParallelism;
+
+    public DailyBarIngestionService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    MarketDataVersion marketDataVersion,
+                                    IndicatorStateService indicatorStateService,
+                                    IndustryVerdictCache verdictCache,
+                                    MappedBarStore barStore,
+                                    @Value("${indicator.ingest.batch-size:50000}") int batchSize,
+                                    @Value("${indicator.ingest.state-parallelism:4}") int stateParallelism) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.marketDataVersion = marketDataVersion;
+        this.indicatorStateService = indicatorStateService;
+        this.verdictCache = verdictCache;
+        this.barStore = barStore;
+        this.batchSize = Math.max(1, batchSize);
+        this.stateParallelism = Math.max(1, stateParallelism);
+    }
+
+    /**
+     * 批量写入个股日线，写入后按股票推进（或重建）增量指标状态。
+     * 只为已提交批次推进，写入失败时先处理已提交的部分再抛出原异常；单只股票推进失败不影响其他股票。
+     */
+    public IngestionReport ingestStocks(Iterator<? extends StocksDailyData> rows) {
+        // 已提交批次中每只股票写入的最早交易日，推进时从库中读取该股票状态日期之后的日线
+        Map<String, LocalDate> committed = new HashMap<>();
+        IngestionReport report;
+        try {
+            report = ingest(DailyBarTable.STOCK, BarMarket.STOCK, rows, StocksDailyData::getStockCode, StocksDailyData::getTradeDate,
+                    (w, r) -> w.text(r.getStockCode()).date(r.getTradeDate())
+                            .number(r.getOpenPrice()).number(r.getClosePrice()).number(r.getHighPrice()).number(r.getLowPrice())
+                            .number(r.getVolume()).number(r.getTurnover()).number(r.getChangeAmount()).number(r.getChangePercentage())
+                            .number(r.getTurnoverRate()).number(r.getTotalMarketValue()).number(r.getCirculatingMarketValue()),
+                    batch -> batch.forEach((code, first) -> committed.merge(code, first, DailyBarIngestionService::earlier)));
+        } catch (RuntimeException e) {
+            try {
+                advanceStates(committed);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        report.setIndicatorStateFailures(advanceStates(committed));
+        return report;
+    }
+
+    /**
+     * 在提交后按股票推进指标状态（含回补触发的重建），至多 stateParallelism 只并发，返回失败的股票数。
+     * 每只股票的推进会读写数据库，并发数限定在连接池之下，避免与并发的扫描、筛选争抢连接。
+     */
+    private int advanceStates(Map<String, LocalDate> committed) {
+        if (committed.isEmpty()) {
+            return 0;
+        }
+        LongAdder failures = new LongAdder();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(stateParallelism, committed.size()))) {
+            committed.forEach((code, from) -> executor.execute(() -> {
+                try {
+                    indicatorStateService.onDailyBatchSaved(code, from);
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.warn("Failed to advance indicator state for {}", code, e);
+                }
+            }));
+        }
+        return failures.intValue();
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * 批量写入指数日线。
+     */
+    public IngestionReport ingestIndexes(Iterator<? extends IndexesDailyData> rows) {
+        return ingest(DailyBarTable.INDEX, BarMarket.INDEX, rows, IndexesDailyData::getIndexCode, IndexesDailyData::getTradeDate,
+                (w, r) -> w.text(r.getIndexCode()).date(r.getTradeDate())
+                        .number(r.getOpenPrice()).number(r.getClosePrice()).number(r.getHighPrice()).number(r.getLowPrice())
+                        .number(r.getVolume()).number(r.getTurnover()).number(r.getChangeAmount()).number(r.getChangePercentage())
+                        .number(r.getTurnoverRate()).number(r.getTotalMarketValue()).number(r.getCirculatingMarketValue()),
+                null);
+    }
+
+    /**
+     * 批量写入行业指数日线，写入后清空行业判定缓存。
+     */
+    public IngestionReport ingestIndustries(Iterator<? extends IndustryIndexesDailyData> rows) {
+        try {
+            return ingest(DailyBarTable.INDUSTRY, BarMarket.INDUSTRY, rows, IndustryIndexesDailyData::getIndexCode, IndustryIndexesDailyData::getTradeDate,
+                    (w, r) -> w.text(r.getIndexCode()).text(r.getIndustryName()).date(r.getTradeDate())
+                            .number(r.getOpenPrice()).number(r.getClosePrice()).number(r.getHighPrice()).number(r.getLowPrice())
+                            .number(r.getVolume()).number(r.getTurnover()).number(r.getChangeAmount()).number(r.getChangePercentage())
+                            .number(r.getTurnoverRate()),
+                    null);
+        } finally {
+            verdictCache.clear();
+        }
+    }
+
+    /** 行编码：按 {@link DailyBarTable} 的列顺序写入数据列（seq 列由调用方写入） */
+    @FunctionalInterface
+    private interface RowEncoder<T> {
+        void encode(CsvCopyWriter writer, T row);
+    }
+
+    private <T> IngestionReport ingest(DailyBarTable table, BarMarket market, Iterator<? extends T> rows,
+                                       Function<T, String> code, Function<T, LocalDate> tradeDate,
+                                       RowEncoder<T> encoder, Consumer<Map<String, LocalDate>> onCommit) {
+        long begin = System.nanoTime();
+        IngestionReport report = new IngestionReport();
+        report.setTable(table.table());
+        Set<String> codes = new HashSet<>();
+        long[] seq = {0L};
+        try {
+            while (rows.hasNext()) {
+                // 本批每个代码写入的最早交易日
+                Map<String, LocalDate> written = new HashMap<>();
+                long[] counts = transactionTemplate.execute(status -> {
+                    jdbcTemplate.execute(table.createStagingSql());
+                    copyBatch(table, rows, code, tradeDate, encoder, written, seq, report);
+                    codes.addAll(written.keySet());
+                    barStore.markDirty(market, written);
+                    return jdbcTemplate.queryForObject(table.mergeSql(), (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)});
+                });
+                report.setInserted(report.getInserted() + counts[0]);
+                report.setUpdated(report.getUpdated() + counts[1] - counts[0]);
+                report.setBatches(report.getBatches() + 1);
+                if (onCommit != null) onCommit.accept(written);
+            }
+        } finally {
+            // 失败前已提交的批次同样需要使缓存失效
+            if (report.getBatches() > 0) {
+                marketDataVersion.onDailyWritten(report.getMaxTradeDate());
+            }
+        }
+        report.setRows(seq[0]);
+        report.setCodes(codes.size());
+        long elapsedNanos = System.nanoTime() - begin;
+        report.setElapsedMs(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0.0 : seq[0] * 1e9 / elapsedNanos);
+        return report;
+    }
+
+    /**
+     * 在当前事务的连接上 COPY 一批（至多 batchSize 行）到暂存表。
+     */
+    private <T> void copyBatch(DailyBarTable table, Iterator<? extends T> rows,
+                               Function<T, String> code, Function<T, LocalDate> tradeDate,
+                               RowEncoder<T> encoder, Map<String, LocalDate> written, long[] seq, IngestionReport report) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(table.copySql());
+            CsvCopyWriter writer = new CsvCopyWriter(copyIn);
+            for (int n = 0; n < batchSize && rows.hasNext(); n++) {
+                T row = rows.next();
+                String c = code.apply(row);
+                LocalDate d = tradeDate.apply(row);
+                if (c == null || c.isEmpty() || d == null) {
+                    throw new IllegalArgumentException("第 " + (seq[0] + 1) + " 行缺少代码或交易日");
+                }
+                writer.number(seq[0]++);
+                encoder.encode(writer, row);
+                writer.endRow();
+                written.merge(c, d, DailyBarIngestionService::earlier);
+                if (report.getMinTradeDate() == null || d.isBefore(report.getMinTradeDate())) report.setMinTradeDate(d);
+                if (report.getMaxTradeDate() == null || d.isAfter(report.getMaxTradeDate())) report.setMaxTradeDate(d);
+            }
+            writer.flush();
+            copyIn.endCopy();
+        } catch (SQLException e) {
+            cancel(copyIn);
+            throw new IllegalStateException("COPY 写入 " + table.table() + " 失败: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            cancel(copyIn);
+            throw e;
+        }
+    }
+
+    private static void cancel(CopyIn copyIn) {
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                copyIn.cancelCopy();
+            } catch (SQLException ignored) {
+                // 事务随后回滚，取消失败不影响结果
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.xiahou.yu.stockindicatoranalyzer.ingest;
+
+import java.util.List;
+
+/**
+ * 批量入库的日线表：表名、代码列与 COPY 的数据列（依次写入，created_at/updated_at 由合并语句填充）。
+ * 合并依赖 (代码列, trade_date) 上的唯一索引，见 DDL/create_daily_data_unique_indexes.sql。
+ */
+public enum DailyBarTable {
+
+    STOCK("stocks_daily_data", "stock_code", List.of(
+            "stock_code", "trade_date", "open_price", "close_price", "high_price", "low_price",
+            "volume", "turnover", "change_amount", "change_percentage", "turnover_rate",
+            "total_market_value", "circulating_market_value")),
+    INDEX("indexes_daily_data", "index_code", List.of(
+            "index_code", "trade_date", "open_price", "close_price", "high_price", "low_price",
+            "volume", "turnover", "change_amount", "change_percentage", "turnover_rate",
+            "total_market_value", "circulating_market_value")),
+    INDUSTRY("industry_indexes_daily_data", "index_code", List.of(
+            "index_code", "industry_name", "trade_date", "open_price", "close_price", "high_price", "low_price",
+            "volume", "turnover", "change_amount", "change_percentage", "turnover_rate"));
+
+    private final String table;
+    private final String codeColumn;
+    private final List<String> columns;
+
+    DailyBarTable(String table, String codeColumn, List<String> columns) {
+        this.table = table;
+        this.codeColumn = codeColumn;
+        this.columns = columns;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    /** 暂存表名（事务级临时表，提交时删除） */
+    String stagingTable() {
+        return "ingest_" + table;
+    }
+
+    String createStagingSql() {
+        return "CREATE TEMP TABLE " + stagingTable() + " ON COMMIT DROP AS SELECT 0::bigint AS seq, "
+                + String.join(", ", columns) + " FROM " + table + " WITH NO DATA";
+    }
+
+    String copySql() {
+        return "COPY " + stagingTable() + " (seq, " + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    /**
+     * 合并语句：同一批内 (代码, 交易日) 重复时取最后一行，插入或更新目标表，返回 [插入行数, 影响行数]。
+     */
+    String mergeSql() {
+        String cols = String.join(", ", columns);
+        StringBuilder updates = new StringBuilder();
+        for (String c : columns) {
+            if (!c.equals(codeColumn) && !c.equals("trade_date")) {
+                updates.append(c).append(" = EXCLUDED.").append(c).append(", ");
+            }
+        }
+        return "WITH src AS (SELECT DISTINCT ON (" + codeColumn + ", trade_date) " + cols
+                + " FROM " + stagingTable() + " ORDER BY " + codeColumn + ", trade_date, seq DESC),"
+                + " up AS (INSERT INTO " + table + " (" + cols + ", created_at, updated_at)"
+                + " SELECT " + cols + ", LOCALTIMESTAMP, LOCALTIMESTAMP FROM src"
+                + " ON CONFLICT (" + codeColumn + ", trade_date) DO UPDATE SET " + updates + "updated_at = EXCLUDED.updated_at"
+                + " RETURNING (xmax = 0) AS inserted)"
+                + " SELECT count(*) FILTER (WHERE inserted), count(*) FROM up";
+    }
+}
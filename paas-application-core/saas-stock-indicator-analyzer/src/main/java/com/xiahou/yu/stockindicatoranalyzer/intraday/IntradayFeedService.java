@@ -0,0 +1,140 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.IntradayFeedStatus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 盘中分钟线接入：在独立守护线程上运行一个 {@link MinuteBarSource}，逐根送入 {@link IntradaySignalEngine}；
+ * 也支持通过接口直接推送一批分钟线。配置 indicator.intraday.source 时随应用启动自动接入。
+ * 通过接口启动的数据源只能是 indicator.intraday.source 或 indicator.intraday.allowed-sources 中配置的数据源串。
+ */
+@Service
+public class IntradayFeedService implements DisposableBean {
+
+    private final IntradaySignalEngine engine;
+    private final String configuredSource;
+    private final Set<String> allowedSources = new LinkedHashSet<>();
+
+    private MinuteBarSource source;
+    private Thread worker;
+    private volatile String sourceName;
+    private volatile String lastError;
+    private long lastMalformed;
+
+    public IntradayFeedService(IntradaySignalEngine engine,
+                               @Value("${indicator.intraday.source:}") String configuredSource,
+                               @Value("${indicator.intraday.allowed-sources:}") List<String> allowedSources) {
+        this.engine = engine;
+        this.configuredSource = configuredSource == null ? "" : configuredSource.trim();
+        if (!this.configuredSource.isEmpty()) {
+            this.allowedSources.add(this.configuredSource);
+        }
+        for (String allowed : allowedSources) {
+            if (allowed != null && !allowed.isBlank()) {
+                this.allowedSources.add(allowed.trim());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startConfigured() {
+        if (!configuredSource.isEmpty()) {
+            start(LineMinuteBarSource.parse(configuredSource));
+        }
+    }
+
+    /**
+     * 按配置串启动数据源；为空时使用 indicator.intraday.source。不在允许列表中的数据源串被拒绝。
+     */
+    public void start(String spec) {
+        String resolved = spec == null || spec.isBlank() ? configuredSource : spec.trim();
+        if (resolved.isEmpty()) {
+            throw new IllegalArgumentException("未配置分钟线数据源 indicator.intraday.source");
+        }
+        if (!allowedSources.contains(resolved)) {
+            throw new IllegalArgumentException("分钟线数据源不在允许列表 indicator.intraday.allowed-sources 中");
+        }
+        start(LineMinuteBarSource.parse(resolved));
+    }
+
+    /**
+     * 启动数据源（已有运行中的数据源时先停止）。
+     */
+    public synchronized void start(MinuteBarSource newSource) {
+        stop();
+        source = newSource;
+        sourceName = newSource.name();
+        lastError = null;
+        Thread t = new Thread(() -> {
+            try {
+                newSource.run(engine::onBar);
+            } catch (IOException | RuntimeException e) {
+                lastError = describe(e);
+            }
+        }, "intraday-feed");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    /**
+     * 停止当前数据源并等待读取线程退出。
+     */
+    public synchronized void stop() {
+        if (source == null) return;
+        try {
+            source.close();
+        } catch (IOException e) {
+            lastError = describe(e);
+        }
+        try {
+            worker.join(5_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lastMalformed = source.malformedLines();
+        source = null;
+        worker = null;
+    }
+
+    /** 直接推送一批分钟线（调用线程上同步处理），返回本批被接受的根数 */
+    public int ingest(List<MinuteBar> bars) {
+        int accepted = 0;
+        for (MinuteBar bar : bars) {
+            if (bar.code() == null || bar.code().isEmpty()) {
+                throw new IllegalArgumentException("分钟线缺少 code");
+            }
+            if (engine.onBar(bar)) accepted++;
+        }
+        return accepted;
+    }
+
+    public synchronized IntradayFeedStatus status() {
+        boolean running = worker != null && worker.isAlive();
+        return new IntradayFeedStatus(running, sourceName, engine.processedCount(), engine.droppedCount(),
+                engine.signalCount(), engine.trackedCodes(), lastError,
+                source != null ? source.malformedLines() : lastMalformed,
+                engine.subscriberCount(), engine.disconnectedSubscriberCount());
+    }
+
+    /** 状态中只保留异常类型（I/O 异常附带信息），不回显数据内容 */
+    private static String describe(Exception e) {
+        return e instanceof IOException && e.getMessage() != null
+                ? e.getClass().getSimpleName() + ": " + e.getMessage()
+                : e.getClass().getSimpleName();
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+    }
+}
@@ -0,0 +1,15 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+/**
+ * 盘中信号：MACD 金叉/死叉、布林带上破/下破，携带触发时刻的收盘价与指标值。
+ */
+public record IntradaySignal(String code, long time, Type type, double close,
+                             double dif, double dea, double bollUpper, double bollLower) {
+
+    public enum Type {
+        MACD_GOLDEN_CROSS,
+        MACD_DEATH_CROSS,
+        BOLL_BREAK_UPPER,
+        BOLL_BREAK_LOWER
+    }
+}
@@ -0,0 +1,272 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+import com.xiahou.yu.stockindicatoranalyzer.state.IncrementalIndicatorState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 盘中信号引擎：每只股票维护一份分钟级 {@link IncrementalIndicatorState}，每根分钟线 O(1) 推进 EMA/MACD/布林带，
+ * 与上一根比较检测 MACD 金叉/死叉与布林带突破，并投递给订阅方。
+ * 推进路径只做原始类型运算，仅在产生信号时分配对象；同一代码的K线须按时间顺序送入，早于或等于上一根的K线被丢弃。
+ * 每个订阅方有独立的有界队列与发送线程，推进路径只做非阻塞入队，慢订阅方不会拖慢接入；队列满时断开该订阅方。
+ * 某只股票收到新交易日的第一根K线时其盘中状态重新预热；市场进入新交易日时移除前一交易日之后再无K线的股票。
+ */
+@Component
+public class IntradaySignalEngine {
+
+    /** MACD 信号预热根数：长周期 EMA 至少覆盖一个周期后才判定交叉 */
+    static final int MACD_WARMUP = IncrementalIndicatorState.MACD_LONG;
+
+    /** 默认订阅队列容量 */
+    static final int DEFAULT_SUBSCRIBER_QUEUE = 1024;
+
+    private static final long DAY_MILLIS = 24 * 3600_000L;
+    /** 交易日按北京时间（UTC+8，无夏令时）划分 */
+    private static final long MARKET_OFFSET_MILLIS = 8 * 3600_000L;
+
+    private final int subscriberQueueCapacity;
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+    private final Map<Subscriber, Boolean> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong currentDay = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder signals = new LongAdder();
+    private final LongAdder disconnectedSubscribers = new LongAdder();
+
+    public IntradaySignalEngine() {
+        this(DEFAULT_SUBSCRIBER_QUEUE);
+    }
+
+    @Autowired
+    public IntradaySignalEngine(@Value("${indicator.intraday.subscriber-queue:1024}") int subscriberQueueCapacity) {
+        this.subscriberQueueCapacity = Math.max(1, subscriberQueueCapacity);
+    }
+
+    /** 单只股票的分钟级状态及上一根的比较基准 */
+    private static final class Tracker {
+        IncrementalIndicatorState state = new IncrementalIndicatorState();
+        long lastTime = Long.MIN_VALUE;
+        double prevHist;
+        double prevClose;
+        double prevUpper;
+        double prevLower;
+        /** 已从 trackers 中移除，持有者须重新获取 */
+        boolean retired;
+
+        void restart() {
+            state = new IncrementalIndicatorState();
+            prevHist = 0.0;
+            prevClose = 0.0;
+            prevUpper = 0.0;
+            prevLower = 0.0;
+        }
+    }
+
+    /**
+     * 订阅信号，返回退订句柄。回调在该订阅方独立的发送线程上按产生顺序执行。
+     */
+    public Runnable subscribe(Consumer<IntradaySignal> listener) {
+        return subscribe(listener, () -> { });
+    }
+
+    /**
+     * 订阅信号，返回退订句柄。
+     * 队列已满或回调抛出异常时自动退订，并在发送线程上调用 onDisconnect（主动退订时不调用）。
+     */
+    public Runnable subscribe(Consumer<IntradaySignal> listener, Runnable onDisconnect) {
+        Subscriber subscriber = new Subscriber(listener, onDisconnect);
+        subscribers.put(subscriber, Boolean.TRUE);
+        subscriber.sender.start();
+        return () -> subscriber.close(false);
+    }
+
+    /**
+     * 送入一根分钟线并投递由此产生的信号，返回是否被接受（乱序/重复时为 false）。
+     */
+    public boolean onBar(MinuteBar bar) {
+        long day = tradingDay(bar.time());
+        long seen = currentDay.get();
+        if (day > seen && currentDay.compareAndSet(seen, day) && seen != Long.MIN_VALUE) {
+            evictBefore(day);
+        }
+        while (true) {
+            Tracker t = trackers.computeIfAbsent(bar.code(), k -> new Tracker());
+            synchronized (t) {
+                if (t.retired) {
+                    continue;
+                }
+                return advance(t, bar, day);
+            }
+        }
+    }
+
+    private boolean advance(Tracker t, MinuteBar bar, long day) {
+        if (bar.time() <= t.lastTime) {
+            dropped.increment();
+            return false;
+        }
+        if (t.lastTime != Long.MIN_VALUE && tradingDay(t.lastTime) != day) {
+            t.restart();
+        }
+        IncrementalIndicatorState s = t.state;
+        s.push(bar.close());
+        t.lastTime = bar.time();
+        processed.increment();
+
+        long n = s.getBarCount();
+        double hist = s.macdHist();
+        if (n > MACD_WARMUP) {
+            if (t.prevHist <= 0.0 && hist > 0.0) {
+                emit(bar, IntradaySignal.Type.MACD_GOLDEN_CROSS, s);
+            } else if (t.prevHist >= 0.0 && hist < 0.0) {
+                emit(bar, IntradaySignal.Type.MACD_DEATH_CROSS, s);
+            }
+        }
+        t.prevHist = hist;
+
+        if (n >= IncrementalIndicatorState.BOLL_PERIOD) {
+            double upper = s.bollUpper();
+            double lower = s.bollLower();
+            if (n > IncrementalIndicatorState.BOLL_PERIOD) {
+                if (bar.close() > upper && t.prevClose <= t.prevUpper) {
+                    emit(bar, IntradaySignal.Type.BOLL_BREAK_UPPER, s);
+                } else if (bar.close() < lower && t.prevClose >= t.prevLower) {
+                    emit(bar, IntradaySignal.Type.BOLL_BREAK_LOWER, s);
+                }
+            }
+            t.prevUpper = upper;
+            t.prevLower = lower;
+        }
+        t.prevClose = bar.close();
+        return true;
+    }
+
+    /** 移除最后一根K线早于指定交易日的股票 */
+    private void evictBefore(long day) {
+        for (Map.Entry<String, Tracker> e : trackers.entrySet()) {
+            Tracker t = e.getValue();
+            synchronized (t) {
+                if (!t.retired && tradingDay(t.lastTime) < day) {
+                    t.retired = true;
+                    trackers.remove(e.getKey(), t);
+                }
+            }
+        }
+    }
+
+    /** 清空全部股票的盘中状态 */
+    public void reset() {
+        for (Tracker t : trackers.values()) {
+            synchronized (t) {
+                t.retired = true;
+            }
+        }
+        trackers.clear();
+    }
+
+    public long processedCount() {
+        return processed.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long signalCount() {
+        return signals.sum();
+    }
+
+    public int trackedCodes() {
+        return trackers.size();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /** 因队列已满或回调异常被断开的订阅方数 */
+    public long disconnectedSubscriberCount() {
+        return disconnectedSubscribers.sum();
+    }
+
+    private void emit(MinuteBar bar, IntradaySignal.Type type, IncrementalIndicatorState s) {
+        signals.increment();
+        if (subscribers.isEmpty()) return;
+        IntradaySignal signal = new IntradaySignal(bar.code(), bar.time(), type, bar.close(),
+                s.macdDif(), s.macdDea(), s.bollUpper(), s.bollLower());
+        for (Subscriber subscriber : subscribers.keySet()) {
+            subscriber.offer(signal);
+        }
+    }
+
+    private static long tradingDay(long epochMillis) {
+        return Math.floorDiv(epochMillis + MARKET_OFFSET_MILLIS, DAY_MILLIS);
+    }
+
+    /** 订阅方：有界队列 + 独立发送线程（虚拟线程） */
+    private final class Subscriber {
+
+        private final Consumer<IntradaySignal> listener;
+        private final Runnable onDisconnect;
+        private final BlockingQueue<IntradaySignal> queue = new ArrayBlockingQueue<>(subscriberQueueCapacity);
+        private final Thread sender;
+        private volatile boolean closed;
+        private volatile boolean disconnected;
+
+        Subscriber(Consumer<IntradaySignal> listener, Runnable onDisconnect) {
+            this.listener = listener;
+            this.onDisconnect = onDisconnect;
+            this.sender = Thread.ofVirtual().name("intraday-signal-sender").unstarted(this::drain);
+        }
+
+        /** 推进路径调用：非阻塞入队，队列已满时断开 */
+        void offer(IntradaySignal signal) {
+            if (!closed && !queue.offer(signal)) {
+                close(true);
+            }
+        }
+
+        synchronized void close(boolean disconnect) {
+            if (closed) return;
+            closed = true;
+            disconnected = disconnect;
+            subscribers.remove(this);
+            if (disconnect) {
+                disconnectedSubscribers.increment();
+            }
+            queue.clear();
+            sender.interrupt();
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    IntradaySignal signal = queue.take();
+                    if (closed) break;
+                    listener.accept(signal);
+                }
+            } catch (InterruptedException e) {
+                // 退订或断开
+            } catch (RuntimeException e) {
+                close(true);
+            }
+            if (disconnected) {
+                Thread.interrupted();
+                try {
+                    onDisconnect.run();
+                } catch (RuntimeException ignored) {
+                    // 断开回调失败不影响引擎
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 按行读取的分钟K线数据源（本地文件回放或 TCP 套接字），每行格式：
+ * code,time,open,high,low,close,volume —— time 为 epoch 毫秒或 yyyy-MM-dd HH:mm[:ss]（按北京时间解析）。
+ * 空行、# 开头的注释行及以 code 开头的表头行被跳过；格式错误的行计数后跳过，不中断读取。
+ * 数据源只应来自服务端配置（见 {@link IntradayFeedService}），不接受客户端传入的任意路径或地址。
+ */
+public final class LineMinuteBarSource implements MinuteBarSource {
+
+    /** 交易时间解析时区 */
+    public static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Shanghai");
+
+    @FunctionalInterface
+    private interface ReaderOpener {
+        Reader open(LineMinuteBarSource self) throws IOException;
+    }
+
+    private final String name;
+    private final ReaderOpener opener;
+    private final LongAdder malformed = new LongAdder();
+    private volatile Reader reader;
+    private volatile Socket socket;
+    private volatile boolean closed;
+
+    private LineMinuteBarSource(String name, ReaderOpener opener) {
+        this.name = name;
+        this.opener = opener;
+    }
+
+    /** 本地文件回放 */
+    public static LineMinuteBarSource file(Path path) {
+        return new LineMinuteBarSource("file:" + path, self -> Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    /** TCP 套接字：连接后持续读取，直到对端关闭 */
+    public static LineMinuteBarSource socket(String host, int port) {
+        return new LineMinuteBarSource("socket:" + host + ":" + port, self -> {
+            self.socket = new Socket(host, port);
+            return new InputStreamReader(self.socket.getInputStream(), StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * 按配置串创建数据源：file:&lt;路径&gt; 或 socket:&lt;host&gt;:&lt;port&gt;。
+     */
+    public static LineMinuteBarSource parse(String spec) {
+        if (spec.startsWith("file:")) {
+            return file(Path.of(spec.substring("file:".length())));
+        }
+        if (spec.startsWith("socket:")) {
+            String address = spec.substring("socket:".length());
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("socket 数据源格式应为 socket:host:port: " + spec);
+            }
+            return socket(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+        }
+        throw new IllegalArgumentException("不支持的分钟线数据源: " + spec);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void run(Consumer<MinuteBar> sink) throws IOException {
+        try (BufferedReader in = new BufferedReader(opener.open(this))) {
+            reader = in;
+            if (closed) return;
+            String line;
+            while (!closed && (line = in.readLine()) != null) {
+                MinuteBar bar;
+                try {
+                    bar = parseLine(line);
+                } catch (RuntimeException e) {
+                    malformed.increment();
+                    continue;
+                }
+                if (bar != null) {
+                    sink.accept(bar);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) throw e;
+        }
+    }
+
+    @Override
+    public long malformedLines() {
+        return malformed.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Socket s = socket;
+        if (s != null) {
+            s.close();
+        }
+        Reader r = reader;
+        if (r != null) {
+            r.close();
+        }
+    }
+
+    /**
+     * 解析一行，跳过的行返回 null；字段缺失或数值/时间非法时抛出异常（异常信息不含行内容）。
+     */
+    static MinuteBar parseLine(String line) {
+        if (line.isBlank() || line.startsWith("#") || line.startsWith("code")) {
+            return null;
+        }
+        int[] commas = new int[6];
+        int found = 0;
+        for (int i = 0; i < line.length() && found < commas.length; i++) {
+            if (line.charAt(i) == ',') commas[found++] = i;
+        }
+        if (found < commas.length) {
+            throw new IllegalArgumentException("分钟线字段不足: 期望 7 个，实际 " + (found + 1) + " 个");
+        }
+        String code = line.substring(0, commas[0]).trim();
+        long time = parseTime(line.substring(commas[0] + 1, commas[1]).trim());
+        double open = Double.parseDouble(line.substring(commas[1] + 1, commas[2]).trim());
+        double high = Double.parseDouble(line.substring(commas[2] + 1, commas[3]).trim());
+        double low = Double.parseDouble(line.substring(commas[3] + 1, commas[4]).trim());
+        double close = Double.parseDouble(line.substring(commas[4] + 1, commas[5]).trim());
+        long volume = Long.parseLong(line.substring(commas[5] + 1).trim());
+        return new MinuteBar(code, time, open, high, low, close, volume);
+    }
+
+    private static long parseTime(String text) {
+        if (!text.isEmpty() && Character.isDigit(text.charAt(0)) && text.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(text);
+        }
+        String iso = text.replace(' ', 'T');
+        LocalDateTime t = LocalDateTime.parse(iso.length() == 16 ? iso + ":00" : iso);
+        return t.atZone(MARKET_ZONE).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,7 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+/**
+ * 分钟K线。time 为该分钟的 epoch 毫秒，同一代码内严格递增。
+ */
+public record MinuteBar(String code, long time, double open, double high, double low, double close, long volume) {
+}
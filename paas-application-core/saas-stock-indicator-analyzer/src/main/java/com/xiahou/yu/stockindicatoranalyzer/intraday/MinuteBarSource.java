@@ -0,0 +1,21 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * 分钟K线数据源：run 在调用线程上阻塞读取，每解析出一根即交给 sink，数据源耗尽或被 close 后返回。
+ */
+public interface MinuteBarSource extends Closeable {
+
+    /** 数据源描述（用于状态展示） */
+    String name();
+
+    void run(Consumer<MinuteBar> sink) throws IOException;
+
+    /** 因格式错误被跳过的行数 */
+    default long malformedLines() {
+        return 0L;
+    }
+}
@@ -0,0 +1,150 @@
+package com.xiahou.yu.stockindicatoranalyzer.materialize;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 指标物化表 stocks_daily_indicators 的读写：主键 (stock_code, trade_date, param_set)，写入采用 ON CONFLICT 幂等更新。
+ */
+@Component
+public class DailyIndicatorStore {
+
+    /** 批量写入每批行数 */
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String COLUMNS = "bb_upper, bb_middle, bb_lower, sma5, sma10, sma20, sma60,"
+            + " ema5, ema10, ema20, ema60, macd_dif, macd_dea, macd_hist";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO stocks_daily_indicators (stock_code, trade_date, param_set, " + COLUMNS + ", updated_at)"
+                    + " VALUES (:stockCode, :tradeDate, :paramSet, :bbUpper, :bbMiddle, :bbLower, :sma5, :sma10, :sma20, :sma60,"
+                    + " :ema5, :ema10, :ema20, :ema60, :macdDif, :macdDea, :macdHist, :updatedAt)"
+                    + " ON CONFLICT (stock_code, trade_date, param_set) DO UPDATE SET"
+                    + " bb_upper = EXCLUDED.bb_upper, bb_middle = EXCLUDED.bb_middle, bb_lower = EXCLUDED.bb_lower,"
+                    + " sma5 = EXCLUDED.sma5, sma10 = EXCLUDED.sma10, sma20 = EXCLUDED.sma20, sma60 = EXCLUDED.sma60,"
+                    + " ema5 = EXCLUDED.ema5, ema10 = EXCLUDED.ema10, ema20 = EXCLUDED.ema20, ema60 = EXCLUDED.ema60,"
+                    + " macd_dif = EXCLUDED.macd_dif, macd_dea = EXCLUDED.macd_dea, macd_hist = EXCLUDED.macd_hist,"
+                    + " updated_at = EXCLUDED.updated_at";
+
+    private static final String RANGE_SQL =
+            "SELECT stock_code, trade_date, param_set, " + COLUMNS + " FROM stocks_daily_indicators"
+                    + " WHERE stock_code = :stockCode AND param_set = :paramSet AND trade_date BETWEEN :startDate AND :endDate"
+                    + " ORDER BY trade_date ASC";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM stocks_daily_indicators WHERE stock_code = :stockCode AND param_set = :paramSet";
+
+    private static final String DELETE_OTHERS_SQL =
+            "DELETE FROM stocks_daily_indicators WHERE stock_code = :stockCode AND param_set <> :paramSet";
+
+    private static final String DELETE_OTHERS_FROM_SQL = DELETE_OTHERS_SQL + " AND trade_date >= :fromDate";
+
+    private static final RowMapper<DailyIndicatorValues> ROW_MAPPER = (rs, rowNum) -> DailyIndicatorValues.builder()
+            .stockCode(rs.getString("stock_code"))
+            .tradeDate(rs.getObject("trade_date", LocalDate.class))
+            .paramSet(rs.getString("param_set"))
+            .bbUpper(rs.getDouble("bb_upper"))
+            .bbMiddle(rs.getDouble("bb_middle"))
+            .bbLower(rs.getDouble("bb_lower"))
+            .sma5(rs.getDouble("sma5"))
+            .sma10(rs.getDouble("sma10"))
+            .sma20(rs.getDouble("sma20"))
+            .sma60(rs.getDouble("sma60"))
+            .ema5(rs.getDouble("ema5"))
+            .ema10(rs.getDouble("ema10"))
+            .ema20(rs.getDouble("ema20"))
+            .ema60(rs.getDouble("ema60"))
+            .macdDif(rs.getDouble("macd_dif"))
+            .macdDea(rs.getDouble("macd_dea"))
+            .macdHist(rs.getDouble("macd_hist"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DailyIndicatorStore(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * 批量写入（存在则覆盖），返回写入行数。
+     */
+    public int upsert(List<DailyIndicatorValues> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int written = 0;
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<DailyIndicatorValues> batch = rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE));
+            SqlParameterSource[] params = new SqlParameterSource[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                params[i] = toParams(batch.get(i), now);
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SQL, params);
+            written += batch.size();
+        }
+        return written;
+    }
+
+    /**
+     * 查询某只股票某参数组在日期区间内的指标（日期升序）。
+     */
+    public List<DailyIndicatorValues> findRange(String stockCode, String paramSet, LocalDate start, LocalDate end) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("stockCode", stockCode)
+                .addValue("paramSet", paramSet)
+                .addValue("startDate", start)
+                .addValue("endDate", end);
+        return jdbcTemplate.query(RANGE_SQL, params, ROW_MAPPER);
+    }
+
+    /**
+     * 删除某只股票某参数组的全部物化行。
+     */
+    public int delete(String stockCode, String paramSet) {
+        return jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource()
+                .addValue("stockCode", stockCode)
+                .addValue("paramSet", paramSet));
+    }
+
+    /**
+     * 删除某只股票除 keepParamSet 以外各参数组在 from 及之后的物化行；from 为空时删除全部日期。
+     */
+    public int deleteOtherParamSets(String stockCode, String keepParamSet, LocalDate from) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("stockCode", stockCode)
+                .addValue("paramSet", keepParamSet);
+        if (from == null) {
+            return jdbcTemplate.update(DELETE_OTHERS_SQL, params);
+        }
+        return jdbcTemplate.update(DELETE_OTHERS_FROM_SQL, params.addValue("fromDate", from));
+    }
+
+    private static SqlParameterSource toParams(DailyIndicatorValues v, Timestamp now) {
+        return new MapSqlParameterSource()
+                .addValue("stockCode", v.getStockCode())
+                .addValue("tradeDate", v.getTradeDate())
+                .addValue("paramSet", v.getParamSet())
+                .addValue("bbUpper", v.getBbUpper())
+                .addValue("bbMiddle", v.getBbMiddle())
+                .addValue("bbLower", v.getBbLower())
+                .addValue("sma5", v.getSma5())
+                .addValue("sma10", v.getSma10())
+                .addValue("sma20", v.getSma20())
+                .addValue("sma60", v.getSma60())
+                .addValue("ema5", v.getEma5())
+                .addValue("ema10", v.getEma10())
+                .addValue("ema20", v.getEma20())
+                .addValue("ema60", v.getEma60())
+                .addValue("macdDif", v.getMacdDif())
+                .addValue("macdDea", v.getMacdDea())
+                .addValue("macdHist", v.getMacdHist())
+                .addValue("updatedAt", now);
+    }
+}
@@ -0,0 +1,93 @@
+package com.xiahou.yu.stockindicatoranalyzer.materialize;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorColumns;
+import com.xiahou.yu.stockindicatoranalyzer.dto.IndicatorFields;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 物化表 stocks_daily_indicators 的一行：某只股票某个交易日在某参数组下的指标值。
+ * macdHist 为 DIF - DEA（不乘系数），读取方按需乘以柱倍数。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyIndicatorValues {
+    private String stockCode;
+    private LocalDate tradeDate;
+    private String paramSet;
+
+    private double bbUpper;
+    private double bbMiddle;
+    private double bbLower;
+
+    private double sma5;
+    private double sma10;
+    private double sma20;
+    private double sma60;
+
+    private double ema5;
+    private double ema10;
+    private double ema20;
+    private double ema60;
+
+    private double macdDif;
+    private double macdDea;
+    private double macdHist;
+
+    /**
+     * 将物化行逐一回填到日线对象（两者一一对齐），macdHist 乘以 histMultiplier。
+     */
+    public static void applyTo(List<? extends IndicatorFields> targets, List<DailyIndicatorValues> rows, double histMultiplier) {
+        for (int i = 0; i < targets.size(); i++) {
+            DailyIndicatorValues v = rows.get(i);
+            IndicatorFields d = targets.get(i);
+            d.setBbUpper(BigDecimal.valueOf(v.bbUpper));
+            d.setBbMiddle(BigDecimal.valueOf(v.bbMiddle));
+            d.setBbLower(BigDecimal.valueOf(v.bbLower));
+            d.setSma5(BigDecimal.valueOf(v.sma5));
+            d.setSma10(BigDecimal.valueOf(v.sma10));
+            d.setSma20(BigDecimal.valueOf(v.sma20));
+            d.setSma60(BigDecimal.valueOf(v.sma60));
+            d.setEma5(BigDecimal.valueOf(v.ema5));
+            d.setEma10(BigDecimal.valueOf(v.ema10));
+            d.setEma20(BigDecimal.valueOf(v.ema20));
+            d.setEma60(BigDecimal.valueOf(v.ema60));
+            d.setMacdDif(BigDecimal.valueOf(v.macdDif));
+            d.setMacdDea(BigDecimal.valueOf(v.macdDea));
+            d.setMacdHist(BigDecimal.valueOf(v.macdHist * histMultiplier));
+        }
+    }
+
+    /**
+     * 物化行转为列式容器（下标与 rows 一致）。
+     */
+    public static IndicatorColumns toColumns(List<DailyIndicatorValues> rows) {
+        IndicatorColumns c = new IndicatorColumns(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            DailyIndicatorValues v = rows.get(i);
+            c.getBbUpper()[i] = v.bbUpper;
+            c.getBbMiddle()[i] = v.bbMiddle;
+            c.getBbLower()[i] = v.bbLower;
+            c.getSma5()[i] = v.sma5;
+            c.getSma10()[i] = v.sma10;
+            c.getSma20()[i] = v.sma20;
+            c.getSma60()[i] = v.sma60;
+            c.getEma5()[i] = v.ema5;
+            c.getEma10()[i] = v.ema10;
+            c.getEma20()[i] = v.ema20;
+            c.getEma60()[i] = v.ema60;
+            c.getMacdDif()[i] = v.macdDif;
+            c.getMacdDea()[i] = v.macdDea;
+            c.getMacdHist()[i] = v.macdHist;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,205 @@
+package com.xiahou.yu.stockindicatoranalyzer.materialize;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import com.xiahou.yu.stockindicatoranalyzer.state.IncrementalIndicatorState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 指标物化服务：
+ * 1) 批量任务：按股票全量日线计算指标并写入 stocks_daily_indicators（分批加载快照，在扫描执行器上并行计算，请求线程写库）；
+ * 2) 读取：按日期对齐读取物化行，覆盖不完整时返回 null，由调用方回退为实时计算。
+ * 物化值基于全量历史计算（EMA 以上市首日为种子），与按查询区间实时计算的结果在区间起始段会有差异。
+ * 只有标准口径随日线入库维护；日线变化时其他参数组在变化日及之后的行被清除，读取回退为实时计算，直至下次批量物化。
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class IndicatorMaterializationService {
+
+    private final StocksInfoMasterRepository infoRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final DailyIndicatorStore store;
+    private final ParallelScanExecutor scanExecutor;
+
+    /** 全市场物化时每批加载全量历史的股票数，限制单批快照与计算结果的内存占用 */
+    private static final int MATERIALIZE_CHUNK = 64;
+
+    /**
+     * 全市场物化，返回写入行数。
+     */
+    public long materializeAll(IndicatorParamSet paramSet) {
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
+        long written = 0;
+        for (int from = 0; from < codes.size(); from += MATERIALIZE_CHUNK) {
+            List<String> chunk = codes.subList(from, Math.min(codes.size(), from + MATERIALIZE_CHUNK));
+            MarketBarSnapshot snapshot = snapshotLoader.loadHistories(chunk);
+            List<List<DailyIndicatorValues>> computed = scanExecutor.map(chunk, (code, buffers) -> {
+                BarColumns bars = snapshot.get(code);
+                return bars == null ? null : compute(bars, paramSet);
+            });
+            for (String code : chunk) {
+                if (snapshot.get(code) == null) {
+                    store.delete(code, paramSet.key());
+                }
+            }
+            for (List<DailyIndicatorValues> rows : computed) {
+                written += store.upsert(rows);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 物化单只股票的全部交易日，返回写入行数；无日线数据时清除该参数组下的物化行。
+     */
+    public int materialize(String stockCode, IndicatorParamSet paramSet) {
+        BarColumns bars = snapshotLoader.loadHistory(stockCode);
+        if (bars == null) {
+            store.delete(stockCode, paramSet.key());
+            return 0;
+        }
+        return materialize(bars, paramSet);
+    }
+
+    /**
+     * 基于已加载的全量日线物化，返回写入行数。
+     */
+    public int materialize(BarColumns bars, IndicatorParamSet paramSet) {
+        return store.upsert(compute(bars, paramSet));
+    }
+
+    /**
+     * 基于已加载的全量日线计算，仅写入 from 及之后的交易日，返回写入行数。
+     * 指标只依赖当日及之前的K线，from 之前的物化行不受 from 起的日线变化影响。
+     */
+    public int materialize(BarColumns bars, IndicatorParamSet paramSet, LocalDate from) {
+        List<DailyIndicatorValues> rows = compute(bars, paramSet);
+        int start = 0;
+        while (start < rows.size() && rows.get(start).getTradeDate().isBefore(from)) {
+            start++;
+        }
+        return write(rows.subList(start, rows.size()));
+    }
+
+    /**
+     * 写入增量状态推进后最新一根的标准口径指标。
+     */
+    public void writeLatest(String stockCode, IncrementalIndicatorState state) {
+        store.upsert(List.of(latestValues(stockCode, state)));
+    }
+
+    /**
+     * 批量写入物化行，返回写入行数。
+     */
+    public int write(List<DailyIndicatorValues> rows) {
+        return rows.isEmpty() ? 0 : store.upsert(rows);
+    }
+
+    /**
+     * 日线自 from 起发生变化（新增、修正或重建）后，清除非标准参数组在 from 及之后的物化行，避免读到旧值；from 为空时全部清除。
+     */
+    public int invalidateNonStandard(String stockCode, LocalDate from) {
+        return store.deleteOtherParamSets(stockCode, IndicatorParamSet.STANDARD.key(), from);
+    }
+
+    /**
+     * 增量状态当前最新一根的标准口径指标行。
+     */
+    public static DailyIndicatorValues latestValues(String stockCode, IncrementalIndicatorState state) {
+        return DailyIndicatorValues.builder()
+                .stockCode(stockCode)
+                .tradeDate(state.getLastTradeDate())
+                .paramSet(IndicatorParamSet.STANDARD.key())
+                .bbUpper(state.bollUpper())
+                .bbMiddle(state.bollMiddle())
+                .bbLower(state.bollLower())
+                .sma5(state.sma(5))
+                .sma10(state.sma(10))
+                .sma20(state.sma(20))
+                .sma60(state.sma(60))
+                .ema5(state.ema(5))
+                .ema10(state.ema(10))
+                .ema20(state.ema(20))
+                .ema60(state.ema(60))
+                .macdDif(state.macdDif())
+                .macdDea(state.macdDea())
+                .macdHist(state.macdHist())
+                .build();
+    }
+
+    /**
+     * 读取与 tradeDates 一一对齐的物化行；任一日期缺失时返回 null。
+     * @param tradeDates 升序交易日
+     */
+    public List<DailyIndicatorValues> findAligned(String stockCode, IndicatorParamSet paramSet, List<LocalDate> tradeDates) {
+        if (tradeDates.isEmpty()) {
+            return null;
+        }
+        List<DailyIndicatorValues> rows = store.findRange(stockCode, paramSet.key(),
+                tradeDates.get(0), tradeDates.get(tradeDates.size() - 1));
+        if (rows.size() != tradeDates.size()) {
+            return null;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (!rows.get(i).getTradeDate().equals(tradeDates.get(i))) {
+                return null;
+            }
+        }
+        return rows;
+    }
+
+    static List<DailyIndicatorValues> compute(BarColumns bars, IndicatorParamSet ps) {
+        int n = bars.size();
+        double[] close = bars.getClose();
+        double[][] sma = new double[4][n];
+        double[][] ema = new double[4][n];
+        int[] periods = {5, 10, 20, 60};
+        for (int j = 0; j < periods.length; j++) {
+            IndicatorKernels.sma(close, n, periods[j], sma[j]);
+            IndicatorKernels.ema(close, n, periods[j], ema[j]);
+        }
+        double[] middle = new double[n];
+        double[] upper = new double[n];
+        double[] lower = new double[n];
+        IndicatorKernels.bollinger(close, n, ps.bollPeriod(), ps.bollK(), middle, upper, lower);
+        double[] dif = new double[n];
+        double[] dea = new double[n];
+        double[] hist = new double[n];
+        IndicatorKernels.macd(close, n, ps.macdShort(), ps.macdLong(), ps.macdSignal(), dif, dea, hist);
+
+        String key = ps.key();
+        List<DailyIndicatorValues> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(DailyIndicatorValues.builder()
+                    .stockCode(bars.getCode())
+                    .tradeDate(bars.tradeDate(i))
+                    .paramSet(key)
+                    .bbUpper(upper[i])
+                    .bbMiddle(middle[i])
+                    .bbLower(lower[i])
+                    .sma5(sma[0][i])
+                    .sma10(sma[1][i])
+                    .sma20(sma[2][i])
+                    .sma60(sma[3][i])
+                    .ema5(ema[0][i])
+                    .ema10(ema[1][i])
+                    .ema20(ema[2][i])
+                    .ema60(ema[3][i])
+                    .macdDif(dif[i])
+                    .macdDea(dea[i])
+                    .macdHist(hist[i])
+                    .build());
+        }
+        return rows;
+    }
+}
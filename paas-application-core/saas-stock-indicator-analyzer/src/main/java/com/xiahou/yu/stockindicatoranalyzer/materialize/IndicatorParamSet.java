@@ -0,0 +1,27 @@
+package com.xiahou.yu.stockindicatoranalyzer.materialize;
+
+import java.math.BigDecimal;
+
+/**
+ * 指标参数组：决定物化表中一行指标值的计算口径（SMA/EMA 固定为 5/10/20/60）。
+ * {@link #key()} 作为 stocks_daily_indicators.param_set 的取值，例如 "B20-2_M12-26-9"。
+ */
+public record IndicatorParamSet(int bollPeriod, double bollK, int macdShort, int macdLong, int macdSignal) {
+
+    /** 系统标准口径：布林 20/2，MACD 12/26/9（由增量指标状态逐日维护） */
+    public static final IndicatorParamSet STANDARD = new IndicatorParamSet(20, 2.0, 12, 26, 9);
+
+    public IndicatorParamSet {
+        if (bollPeriod <= 0 || macdShort <= 0 || macdLong <= 0 || macdSignal <= 0) {
+            throw new IllegalArgumentException("指标周期必须>0");
+        }
+        if (macdShort > macdLong) {
+            throw new IllegalArgumentException("MACD 短周期不能大于长周期");
+        }
+    }
+
+    public String key() {
+        return "B" + bollPeriod + "-" + BigDecimal.valueOf(bollK).stripTrailingZeros().toPlainString()
+                + "_M" + macdShort + "-" + macdLong + "-" + macdSignal;
+    }
+}
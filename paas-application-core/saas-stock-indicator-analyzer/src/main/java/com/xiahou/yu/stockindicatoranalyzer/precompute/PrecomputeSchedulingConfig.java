@@ -0,0 +1,14 @@
+package com.xiahou.yu.stockindicatoranalyzer.precompute;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 开启盘后预计算的定时调度（indicator.precompute.enabled=false 时关闭，仍可通过接口手动触发）。
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "indicator.precompute.enabled", havingValue = "true", matchIfMissing = true)
+public class PrecomputeSchedulingConfig {
+}
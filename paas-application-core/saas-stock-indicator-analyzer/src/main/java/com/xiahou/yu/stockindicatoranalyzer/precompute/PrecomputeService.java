@@ -0,0 +1,203 @@
+package com.xiahou.yu.stockindicatoranalyzer.precompute;
+
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
+import com.xiahou.yu.stockindicatoranalyzer.dto.PrecomputeReport;
+import com.xiahou.yu.stockindicatoranalyzer.service.MacdAnalysisService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 盘后预计算：日线入库后按配置的参数组并行计算标准扫描（MACD 交叉、布林带、EXPMA 组合策略），
+ * 结果固定保存在 {@link com.xiahou.yu.stockindicatoranalyzer.cache.AnalysisResultCache} 中并记录计算时间，
+ * 接口参数与之一致时直接返回。
+ * 定时任务在收盘后周期性检查数据版本，版本（最新交易日 + 写入代数）变化后才重新计算，因此入库完成后的下一次检查即会触发；
+ * 手动触发不做版本判断。
+ */
+@Service
+public class PrecomputeService {
+
+    // 其余参数取接口默认值，保证与不带参数的请求键一致
+    static final int MACD_LOOKBACK_DAYS = 50;
+    static final int BOLL_LOOKBACK_DAYS = 50;
+    static final double BOLL_NARROW_THRESHOLD = 0.04;
+    static final int STRATEGY_LOOKBACK_DAYS = 120;
+    static final int STRATEGY_WITHIN_DAYS = 7;
+    static final int STRATEGY_SUSTAIN_DAYS = 5;
+    static final double STRATEGY_SIDEWAY_EPSILON = 0.005;
+    static final int STRATEGY_VOLUME_WINDOW = 10;
+    static final double STRATEGY_VOLUME_FACTOR = 1.2;
+
+    /** 布林带参数组 */
+    record BollParams(int period, double k) {
+        /** 解析 "20-2.0" 形式 */
+        static BollParams parse(String text) {
+            String[] parts = text.trim().split("-");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("布林带参数格式应为 period-k: " + text);
+            }
+            try {
+                return new BollParams(Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("布林带参数格式应为 period-k: " + text, e);
+            }
+        }
+    }
+
+    /** EXPMA 短/长周期参数组 */
+    record ExpmaParams(int shortPeriod, int longPeriod) {
+        /** 解析 "12-50" 形式 */
+        static ExpmaParams parse(String text) {
+            String[] parts = text.trim().split("-");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("EXPMA 参数格式应为 short-long: " + text);
+            }
+            try {
+                return new ExpmaParams(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("EXPMA 参数格式应为 short-long: " + text, e);
+            }
+        }
+    }
+
+    private final StandardScans scans;
+    private final MarketDataVersion dataVersion;
+    private final List<MacdAnalysisService.MacdTuple> macdParams;
+    private final List<BollParams> bollParams;
+    private final List<ExpmaParams> expmaParams;
+    private final int concurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile MarketDataVersion.Version lastComputed;
+    private volatile PrecomputeReport lastReport;
+
+    public PrecomputeService(StandardScans scans,
+                             MarketDataVersion dataVersion,
+                             @Value("${indicator.precompute.macd:${indicator.macd.shortPeriod:12}-${indicator.macd.longPeriod:26}-${indicator.macd.signalPeriod:9}}") List<String> macd,
+                             @Value("${indicator.precompute.bollinger:20-2.0}") List<String> bollinger,
+                             @Value("${indicator.precompute.expma:12-50}") List<String> expma,
+                             @Value("${indicator.precompute.concurrency:2}") int concurrency) {
+        this.scans = scans;
+        this.dataVersion = dataVersion;
+        this.macdParams = macd.stream().map(MacdAnalysisService.MacdTuple::parse).toList();
+        this.bollParams = bollinger.stream().map(BollParams::parse).toList();
+        this.expmaParams = expma.stream().map(ExpmaParams::parse).toList();
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /** 收盘后定时检查：数据版本变化时重新计算 */
+    @Scheduled(cron = "${indicator.precompute.cron:0 */10 15-20 * * MON-FRI}", zone = "${indicator.precompute.zone:Asia/Shanghai}")
+    public void scheduledRun() {
+        run("scheduled", false);
+    }
+
+    /**
+     * 执行一次预计算。force=false 时若数据版本与上次成功计算时相同则跳过；已有任务运行时直接返回跳过报告。
+     */
+    public PrecomputeReport run(String trigger, boolean force) {
+        MarketDataVersion.Version version = dataVersion.current();
+        if (!running.compareAndSet(false, true)) {
+            return skipped(trigger, version, "已有预计算任务在运行");
+        }
+        try {
+            if (version.latestTradeDate() == null) {
+                return skipped(trigger, version, "尚无日线数据");
+            }
+            if (!force && version.equals(lastComputed)) {
+                return skipped(trigger, version, "数据版本未变化");
+            }
+            PrecomputeReport report = execute(trigger, version);
+            if (report.getFailed() == 0) {
+                lastComputed = version;
+            }
+            lastReport = report;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** 最近一次实际执行的报告，未执行过时为 null */
+    public PrecomputeReport lastReport() {
+        return lastReport;
+    }
+
+    private PrecomputeReport execute(String trigger, MarketDataVersion.Version version) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        List<ScanCall<?>> calls = calls();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, calls.size()));
+        List<PrecomputeReport.ScanTiming> timings;
+        try {
+            List<CompletableFuture<PrecomputeReport.ScanTiming>> futures = new ArrayList<>(calls.size());
+            for (ScanCall<?> call : calls) {
+                futures.add(CompletableFuture.supplyAsync(() -> compute(call), pool));
+            }
+            timings = futures.stream().map(CompletableFuture::join).toList();
+        } finally {
+            pool.shutdown();
+        }
+        int failed = (int) timings.stream().filter(t -> t.getError() != null).count();
+        return new PrecomputeReport(trigger, false, null, version.latestTradeDate(), version.generation(),
+                startedAt, LocalDateTime.now(), (System.nanoTime() - start) / 1_000_000L,
+                timings.size() - failed, failed, timings);
+    }
+
+    private PrecomputeReport.ScanTiming compute(ScanCall<?> call) {
+        long start = System.nanoTime();
+        try {
+            Object result = scans.pin(call);
+            Integer size = result instanceof Collection<?> c ? c.size() : null;
+            return new PrecomputeReport.ScanTiming(call.scanner(), call.params().toString(), size,
+                    LocalDateTime.now(), (System.nanoTime() - start) / 1_000_000L, null);
+        } catch (RuntimeException e) {
+            return new PrecomputeReport.ScanTiming(call.scanner(), call.params().toString(), null,
+                    LocalDateTime.now(), (System.nanoTime() - start) / 1_000_000L, e.toString());
+        }
+    }
+
+    /** 按配置的参数组展开全部标准扫描；组合策略使用第一组 MACD 与布林带参数 */
+    List<ScanCall<?>> calls() {
+        List<ScanCall<?>> calls = new ArrayList<>();
+        for (MacdAnalysisService.MacdTuple m : macdParams) {
+            calls.add(scans.macdCrossCall("golden", MACD_LOOKBACK_DAYS, 0, m.shortPeriod(), m.longPeriod(), m.signalPeriod()));
+            calls.add(scans.macdCrossCall("death", MACD_LOOKBACK_DAYS, 0, m.shortPeriod(), m.longPeriod(), m.signalPeriod()));
+            calls.add(scans.macdCrossDetailsCall("both", MACD_LOOKBACK_DAYS, m.shortPeriod(), m.longPeriod(), m.signalPeriod()));
+        }
+        for (BollParams b : bollParams) {
+            calls.add(scans.bollingerNarrowCall(BOLL_LOOKBACK_DAYS, b.period(), b.k(), BOLL_NARROW_THRESHOLD, 0));
+            calls.add(scans.bollingerUpperChannelCall(BOLL_LOOKBACK_DAYS, b.period(), b.k(), 0));
+            calls.add(scans.bollingerUpperChannelDetailsCall(BOLL_LOOKBACK_DAYS, b.period(), b.k(), 0));
+        }
+        if (!macdParams.isEmpty() && !bollParams.isEmpty()) {
+            MacdAnalysisService.MacdTuple m = macdParams.get(0);
+            BollParams b = bollParams.get(0);
+            for (ExpmaParams e : expmaParams) {
+                calls.add(scans.expmaMacdBollBuyCall(STRATEGY_LOOKBACK_DAYS, STRATEGY_WITHIN_DAYS, e.shortPeriod(), e.longPeriod(),
+                        STRATEGY_SUSTAIN_DAYS, true, STRATEGY_SIDEWAY_EPSILON, m.shortPeriod(), m.longPeriod(), m.signalPeriod(),
+                        b.period(), b.k(), STRATEGY_VOLUME_WINDOW, STRATEGY_VOLUME_FACTOR));
+                calls.add(scans.expmaMacdBollSellCall(STRATEGY_LOOKBACK_DAYS, STRATEGY_WITHIN_DAYS, e.shortPeriod(), e.longPeriod(),
+                        STRATEGY_SUSTAIN_DAYS, m.shortPeriod(), m.longPeriod(), m.signalPeriod(),
+                        b.period(), b.k(), STRATEGY_VOLUME_WINDOW, STRATEGY_VOLUME_FACTOR));
+                calls.add(scans.expmaMacdBollWatchCall(STRATEGY_LOOKBACK_DAYS, STRATEGY_WITHIN_DAYS, e.shortPeriod(), e.longPeriod(),
+                        STRATEGY_SUSTAIN_DAYS, m.shortPeriod(), m.longPeriod(), m.signalPeriod(), b.period(), b.k()));
+            }
+        }
+        return calls;
+    }
+
+    private static PrecomputeReport skipped(String trigger, MarketDataVersion.Version version, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        return new PrecomputeReport(trigger, true, reason, version.latestTradeDate(), version.generation(),
+                now, now, 0L, 0, 0, List.of());
+    }
+}
@@ -0,0 +1,10 @@
+package com.xiahou.yu.stockindicatoranalyzer.precompute;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 一次标准扫描调用：缓存键（扫描器名 + 参数）与计算逻辑。接口请求与盘后预计算共用同一份定义，保证键一致。
+ */
+record ScanCall<T>(String scanner, List<Object> params, Supplier<T> loader) {
+}
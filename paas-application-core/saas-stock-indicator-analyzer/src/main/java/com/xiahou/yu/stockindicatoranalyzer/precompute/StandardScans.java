@@ -0,0 +1,151 @@
+package com.xiahou.yu.stockindicatoranalyzer.precompute;
+
+import com.xiahou.yu.stockindicatoranalyzer.cache.AnalysisResultCache;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerNarrowResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerUpperChannelResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.MacdCrossResult;
+import com.xiahou.yu.stockindicatoranalyzer.service.BollingerAnalysisService;
+import com.xiahou.yu.stockindicatoranalyzer.service.CombinedStrategyAnalysisService;
+import com.xiahou.yu.stockindicatoranalyzer.service.MacdAnalysisService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 标准扫描入口：MACD 交叉、布林带、EXPMA+MACD+BOLL 组合策略。
+ * 接口经由此处读取 {@link AnalysisResultCache}，盘后预计算（{@link PrecomputeService}）用同一组调用定义写入预计算结果，
+ * 因此请求参数与预计算参数一致时直接命中。
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StandardScans {
+
+    private final AnalysisResultCache analysisResultCache;
+    private final MacdAnalysisService macdAnalysisService;
+    private final BollingerAnalysisService bollingerAnalysisService;
+    private final CombinedStrategyAnalysisService combinedStrategyAnalysisService;
+
+    public List<String> macdCross(String type, int lookbackDays, int withinDays, int shortPeriod, int longPeriod, int signalPeriod) {
+        return serve(macdCrossCall(type, lookbackDays, withinDays, shortPeriod, longPeriod, signalPeriod));
+    }
+
+    public List<MacdCrossResult> macdCrossDetails(String type, int lookbackDays, int shortPeriod, int longPeriod, int signalPeriod) {
+        return serve(macdCrossDetailsCall(type, lookbackDays, shortPeriod, longPeriod, signalPeriod));
+    }
+
+    public List<BollingerNarrowResult> bollingerNarrow(int lookbackDays, int period, double k, double threshold, int allowedExceedDays) {
+        return serve(bollingerNarrowCall(lookbackDays, period, k, threshold, allowedExceedDays));
+    }
+
+    public List<String> bollingerUpperChannel(int lookbackDays, int period, double k, int allowedExceedDays) {
+        return serve(bollingerUpperChannelCall(lookbackDays, period, k, allowedExceedDays));
+    }
+
+    public List<BollingerUpperChannelResult> bollingerUpperChannelDetails(int lookbackDays, int period, double k, int allowedExceedDays) {
+        return serve(bollingerUpperChannelDetailsCall(lookbackDays, period, k, allowedExceedDays));
+    }
+
+    public List<String> expmaMacdBollBuy(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                                         boolean allowSideway, double sidewayEpsilonRatio,
+                                         int macdShort, int macdLong, int macdSignal, int bollPeriod, double bollStdDev,
+                                         int volumeWindow, double volumeFactor) {
+        return serve(expmaMacdBollBuyCall(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, allowSideway,
+                sidewayEpsilonRatio, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor));
+    }
+
+    public List<String> expmaMacdBollSell(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                                          int macdShort, int macdLong, int macdSignal, int bollPeriod, double bollStdDev,
+                                          int volumeWindow, double volumeFactor) {
+        return serve(expmaMacdBollSellCall(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor));
+    }
+
+    public List<String> expmaMacdBollWatch(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                                           int macdShort, int macdLong, int macdSignal, int bollPeriod, double bollStdDev) {
+        return serve(expmaMacdBollWatchCall(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                macdShort, macdLong, macdSignal, bollPeriod, bollStdDev));
+    }
+
+    // ================= 调用定义（与预计算共用） =================
+
+    ScanCall<List<String>> macdCrossCall(String type, int lookbackDays, int withinDays, int shortPeriod, int longPeriod, int signalPeriod) {
+        return new ScanCall<>("macd.cross", List.of(type.toLowerCase(), lookbackDays, withinDays, shortPeriod, longPeriod, signalPeriod),
+                () -> macdAnalysisService.findMacdCrossStockCodes(type, lookbackDays, withinDays, shortPeriod, longPeriod, signalPeriod));
+    }
+
+    ScanCall<List<MacdCrossResult>> macdCrossDetailsCall(String type, int lookbackDays, int shortPeriod, int longPeriod, int signalPeriod) {
+        return new ScanCall<>("macd.cross.details", List.of(type.toLowerCase(), lookbackDays, shortPeriod, longPeriod, signalPeriod),
+                () -> macdAnalysisService.findMacdCrossDetails(lookbackDays, shortPeriod, longPeriod, signalPeriod, type));
+    }
+
+    ScanCall<List<BollingerNarrowResult>> bollingerNarrowCall(int lookbackDays, int period, double k, double threshold, int allowedExceedDays) {
+        return new ScanCall<>("bollinger.narrow", List.of(lookbackDays, period, k, threshold, allowedExceedDays),
+                () -> bollingerAnalysisService.findNarrowChannelStocks(lookbackDays, period, k, threshold, allowedExceedDays));
+    }
+
+    ScanCall<List<String>> bollingerUpperChannelCall(int lookbackDays, int period, double k, int allowedExceedDays) {
+        return new ScanCall<>("bollinger.upper-channel", List.of(lookbackDays, period, k, allowedExceedDays),
+                () -> bollingerAnalysisService.findUpperChannelStockCodes(lookbackDays, period, k, allowedExceedDays));
+    }
+
+    ScanCall<List<BollingerUpperChannelResult>> bollingerUpperChannelDetailsCall(int lookbackDays, int period, double k, int allowedExceedDays) {
+        return new ScanCall<>("bollinger.upper-channel.details", List.of(lookbackDays, period, k, allowedExceedDays),
+                () -> bollingerAnalysisService.findUpperChannelDetails(lookbackDays, period, k, allowedExceedDays));
+    }
+
+    ScanCall<List<String>> expmaMacdBollBuyCall(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                                                boolean allowSideway, double sidewayEpsilonRatio,
+                                                int macdShort, int macdLong, int macdSignal, int bollPeriod, double bollStdDev,
+                                                int volumeWindow, double volumeFactor) {
+        return new ScanCall<>("strategy.expma-macd-boll.buy",
+                List.of(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, allowSideway, sidewayEpsilonRatio,
+                        macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor),
+                () -> combinedStrategyAnalysisService.findBuyCandidates(
+                        lookbackDays, withinDays,
+                        expmaShort, expmaLong, sustainDays,
+                        allowSideway, sidewayEpsilonRatio,
+                        macdShort, macdLong, macdSignal,
+                        bollPeriod, bollStdDev,
+                        volumeWindow, volumeFactor
+                ));
+    }
+
+    ScanCall<List<String>> expmaMacdBollSellCall(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                                                 int macdShort, int macdLong, int macdSignal, int bollPeriod, double bollStdDev,
+                                                 int volumeWindow, double volumeFactor) {
+        return new ScanCall<>("strategy.expma-macd-boll.sell",
+                List.of(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                        macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor),
+                () -> combinedStrategyAnalysisService.findSellCandidates(
+                        lookbackDays, withinDays,
+                        expmaShort, expmaLong, sustainDays,
+                        macdShort, macdLong, macdSignal,
+                        bollPeriod, bollStdDev,
+                        volumeWindow, volumeFactor
+                ));
+    }
+
+    ScanCall<List<String>> expmaMacdBollWatchCall(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                                                  int macdShort, int macdLong, int macdSignal, int bollPeriod, double bollStdDev) {
+        return new ScanCall<>("strategy.expma-macd-boll.watch",
+                List.of(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                        macdShort, macdLong, macdSignal, bollPeriod, bollStdDev),
+                () -> combinedStrategyAnalysisService.findWatchCandidates(
+                        lookbackDays, withinDays,
+                        expmaShort, expmaLong, sustainDays,
+                        macdShort, macdLong, macdSignal,
+                        bollPeriod, bollStdDev
+                ));
+    }
+
+    /** 预计算：强制重新计算并固定保存 */
+    <T> T pin(ScanCall<T> call) {
+        return analysisResultCache.pin(call.scanner(), call.params(), call.loader());
+    }
+
+    private <T> T serve(ScanCall<T> call) {
+        return analysisResultCache.get(call.scanner(), call.params(), call.loader());
+    }
+}
@@ -25,6 +25,9 @@ public interface IndustryIndexesDailyDataRepository extends CrudRepository<Indus
     // 按行业名称的列表（非唯一，仅辅助查询）
     List<IndustryIndexesDailyData> findByIndustryNameOrderByTradeDateAsc(String industryName);
 
+    @Query("SELECT * FROM industry_indexes_daily_data WHERE industry_name = :industryName ORDER BY trade_date DESC LIMIT 1")
+    Optional<IndustryIndexesDailyData> findLatestByIndustryName(@Param("industryName") String industryName);
+
     // 通用分页列表与计数
     @Query("SELECT * FROM industry_indexes_daily_data ORDER BY trade_date DESC LIMIT :limit OFFSET :offset")
     List<IndustryIndexesDailyData> listAll(@Param("limit") int limit, @Param("offset") int offset);
@@ -35,6 +38,10 @@ public interface IndustryIndexesDailyDataRepository extends CrudRepository<Indus
     @Query("SELECT * FROM industry_indexes_daily_data WHERE index_code = :indexCode ORDER BY trade_date DESC LIMIT :limit OFFSET :offset")
     List<IndustryIndexesDailyData> listByIndexCode(@Param("indexCode") String indexCode, @Param("limit") int limit, @Param("offset") int offset);
 
+    // 每个行业名称最近一条记录（用于 行业名称 -> 行业指数代码 映射）
+    @Query("SELECT DISTINCT ON (industry_name) * FROM industry_indexes_daily_data WHERE industry_name IS NOT NULL ORDER BY industry_name, trade_date DESC")
+    List<IndustryIndexesDailyData> findLatestPerIndustry();
+
     @Query("SELECT COUNT(*) FROM industry_indexes_daily_data WHERE index_code = :indexCode")
     long countByIndexCode(@Param("indexCode") String indexCode);
 
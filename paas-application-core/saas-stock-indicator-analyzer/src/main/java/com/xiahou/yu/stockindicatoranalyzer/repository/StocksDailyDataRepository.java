@@ -18,6 +18,10 @@ public interface StocksDailyDataRepository extends CrudRepository<StocksDailyDat
     
     @Query("SELECT * FROM stocks_daily_data WHERE stock_code = :stockCode ORDER BY trade_date DESC LIMIT 1")
     Optional<StocksDailyData> findLatestByStockCode(@Param("stockCode") String stockCode);
+
+    // 全市场最新交易日（无数据时为 null）
+    @Query("SELECT MAX(trade_date) FROM stocks_daily_data")
+    LocalDate findMaxTradeDate();
     
     // 通用列表与计数
     @Query("SELECT * FROM stocks_daily_data ORDER BY trade_date DESC LIMIT :limit OFFSET :offset")
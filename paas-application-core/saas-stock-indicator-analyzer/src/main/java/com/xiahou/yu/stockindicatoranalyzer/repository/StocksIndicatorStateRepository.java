@@ -0,0 +1,12 @@
+package com.xiahou.yu.stockindicatoranalyzer.repository;
+
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksIndicatorState;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StocksIndicatorStateRepository extends CrudRepository<StocksIndicatorState, Integer> {
+    Optional<StocksIndicatorState> findByStockCode(String stockCode);
+}
@@ -0,0 +1,16 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import java.util.Set;
+
+/**
+ * 筛选规则：基于具名指标序列的谓词，可通过 {@link Rules} 组合。
+ * 规则只声明所需序列，序列由 {@link RulePlan} 对所有规则取并集后每只股票统一计算一次。
+ */
+public interface Rule {
+
+    /** 收集本规则（含子规则）所需的序列 */
+    void collect(Set<SeriesKey> keys);
+
+    /** 在单只股票的序列数据上判定，最后一根K线为 frame.size() - 1 */
+    boolean test(SeriesFrame frame);
+}
@@ -0,0 +1,107 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+
+import java.util.*;
+
+/**
+ * 序列计算计划：对一组规则所需序列取并集，按依赖关系拓扑排序并分配缓冲区槽位，
+ * 每只股票按顺序各计算一次，所有规则共享同一份结果。计划本身不可变，可在扫描线程间共享。
+ */
+public final class RulePlan {
+
+    private final List<SeriesKey> order;
+    private final Map<SeriesKey, Integer> slots;
+    private final int warmup;
+
+    private RulePlan(List<SeriesKey> order) {
+        this.order = List.copyOf(order);
+        Map<SeriesKey, Integer> s = new HashMap<>();
+        int w = 1;
+        for (int i = 0; i < order.size(); i++) {
+            s.put(order.get(i), i);
+            w = Math.max(w, order.get(i).warmup());
+        }
+        this.slots = Collections.unmodifiableMap(s);
+        this.warmup = w;
+    }
+
+    public static RulePlan compile(Collection<? extends Rule> rules) {
+        Set<SeriesKey> required = new LinkedHashSet<>();
+        for (Rule rule : rules) {
+            rule.collect(required);
+        }
+        List<SeriesKey> order = new ArrayList<>();
+        Set<SeriesKey> visited = new HashSet<>();
+        for (SeriesKey key : required) {
+            visit(key, visited, order);
+        }
+        return new RulePlan(order);
+    }
+
+    private static void visit(SeriesKey key, Set<SeriesKey> visited, List<SeriesKey> order) {
+        if (key.isRaw() || !visited.add(key)) {
+            return;
+        }
+        for (SeriesKey dep : key.dependencies()) {
+            visit(dep, visited, order);
+        }
+        order.add(key);
+    }
+
+    /** 参与计算的序列（依赖在前） */
+    public List<SeriesKey> series() {
+        return order;
+    }
+
+    /** 所有序列中最长的周期，K线数不足时规则结果无意义 */
+    public int warmup() {
+        return warmup;
+    }
+
+    /**
+     * 计算一只股票的全部序列，结果写入 buffers 的前 series().size() 个槽位。
+     */
+    public SeriesFrame compute(BarColumns bars, KernelBuffers buffers) {
+        int n = bars.size();
+        double[][] series = new double[order.size()][];
+        SeriesFrame frame = new SeriesFrame(bars, slots, series);
+        double[] close = bars.getClose();
+        for (int i = 0; i < order.size(); i++) {
+            SeriesKey key = order.get(i);
+            double[] out = buffers.get(i, n);
+            switch (key.kind()) {
+                case VOLUME -> {
+                    long[] volume = bars.getVolume();
+                    for (int j = 0; j < n; j++) out[j] = volume[j];
+                }
+                case SMA -> IndicatorKernels.sma(close, n, key.p1(), out);
+                case EMA -> IndicatorKernels.ema(close, n, key.p1(), out);
+                case STD -> IndicatorKernels.stdDev(close, n, key.p1(), frame.get(SeriesKey.sma(key.p1())), out);
+                case VOLUME_SMA -> IndicatorKernels.volumeSma(bars.getVolume(), n, key.p1(), out);
+                case MACD_DIF -> {
+                    double[] s = frame.get(SeriesKey.ema(key.p1()));
+                    double[] l = frame.get(SeriesKey.ema(key.p2()));
+                    for (int j = 0; j < n; j++) out[j] = s[j] - l[j];
+                }
+                case MACD_DEA -> IndicatorKernels.ema(frame.get(SeriesKey.macdDif(key.p1(), key.p2())), n, key.p3(), out);
+                case MACD_HIST -> {
+                    double[] dif = frame.get(SeriesKey.macdDif(key.p1(), key.p2()));
+                    double[] dea = frame.get(SeriesKey.macdDea(key.p1(), key.p2(), key.p3()));
+                    for (int j = 0; j < n; j++) out[j] = dif[j] - dea[j];
+                }
+                case BOLL_UPPER, BOLL_LOWER -> {
+                    double[] mid = frame.get(SeriesKey.sma(key.p1()));
+                    double[] sd = frame.get(SeriesKey.std(key.p1()));
+                    double sign = key.kind() == SeriesKey.Kind.BOLL_UPPER ? 1.0 : -1.0;
+                    for (int j = 0; j < n; j++) out[j] = mid[j] + sign * key.k() * sd[j];
+                }
+                default -> throw new IllegalStateException("不支持的序列: " + key);
+            }
+            series[i] = out;
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,100 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.xiahou.yu.stockindicatoranalyzer.rule.Rules.*;
+
+/**
+ * 内置规则：以规则引擎的形式表达组合策略（EXPMA + MACD + BOLL）与行业/个股筛选的默认参数版本，
+ * 便于与自定义规则在同一次扫描中一起判定。交叉/触及的时间窗口按交易日计（原筛选按距今自然日计）。
+ * 规则只作用于被扫描股票自身的K线：growth-phase 是行业增长条件套用在个股上的版本，
+ * 不等同于按行业指数判定的 StockScreeningService（行业增长 + 个股较优）。
+ */
+public final class RulePresets {
+
+    private static final SeriesKey EXPMA_SHORT = SeriesKey.ema(12);
+    private static final SeriesKey EXPMA_LONG = SeriesKey.ema(50);
+    private static final SeriesKey DIF = SeriesKey.macdDif(12, 26);
+    private static final SeriesKey DEA = SeriesKey.macdDea(12, 26, 9);
+    private static final SeriesKey HIST = SeriesKey.macdHist(12, 26, 9);
+    private static final SeriesKey BOLL_MIDDLE = SeriesKey.bollMiddle(20);
+    private static final SeriesKey EMA5 = SeriesKey.ema(5);
+    private static final SeriesKey EMA10 = SeriesKey.ema(10);
+    private static final SeriesKey EMA20 = SeriesKey.ema(20);
+
+    private static final int SUSTAIN_DAYS = 5;
+    private static final int WITHIN_DAYS = 7;
+    private static final int SLOPE_DAYS = 3;
+    private static final double CROSS_EPSILON = 0.0001;
+
+    private static final Map<String, Supplier<Rule>> PRESETS = Map.of(
+            "expma-macd-boll-buy", RulePresets::buy,
+            "expma-macd-boll-sell", RulePresets::sell,
+            "expma-macd-boll-watch", RulePresets::watch,
+            "stock-favorable", RulePresets::stockFavorable,
+            "growth-phase", RulePresets::growthPhase
+    );
+
+    private RulePresets() {}
+
+    public static Set<String> names() {
+        return PRESETS.keySet();
+    }
+
+    /** 按名称获取内置规则，名称不存在时抛出 IllegalArgumentException */
+    public static Rule named(String name) {
+        Supplier<Rule> preset = PRESETS.get(name);
+        if (preset == null) {
+            throw new IllegalArgumentException("未知的内置规则: " + name + "，可选: " + PRESETS.keySet());
+        }
+        return preset.get();
+    }
+
+    /** 买入：多头或粘合 + 近期金叉 + 中轨之上 + 放量 */
+    public static Rule buy() {
+        return and(
+                bullTrend(),
+                crossAbove(DIF, DEA, WITHIN_DAYS, CROSS_EPSILON),
+                atLeast(SeriesKey.CLOSE, BOLL_MIDDLE),
+                volumeRatio(10, 1.2));
+    }
+
+    /** 卖出：空头 + 近期死叉 + 中轨之下 + 放量 */
+    public static Rule sell() {
+        return and(
+                sustainBelow(EXPMA_SHORT, EXPMA_LONG, SUSTAIN_DAYS),
+                crossBelow(DIF, DEA, WITHIN_DAYS, CROSS_EPSILON),
+                below(SeriesKey.CLOSE, BOLL_MIDDLE),
+                volumeRatio(10, 1.2));
+    }
+
+    /** 观望：趋势与 MACD 信号冲突 */
+    public static Rule watch() {
+        return or(
+                and(bullTrend(), crossBelow(DIF, DEA, WITHIN_DAYS, CROSS_EPSILON)),
+                and(sustainBelow(EXPMA_SHORT, EXPMA_LONG, SUSTAIN_DAYS), crossAbove(DIF, DEA, WITHIN_DAYS, CROSS_EPSILON)));
+    }
+
+    /** 个股较优阶段：EMA 多头排列 + EMA20 上升 + MACD 多头（DIF >= DEA 且柱 >= 0）或近期金叉 + 中轨之上 */
+    public static Rule stockFavorable() {
+        return and(
+                above(EMA5, EMA10),
+                above(EMA10, EMA20),
+                slopeUp(EMA20, SLOPE_DAYS),
+                or(and(atLeast(DIF, DEA), atLeast(HIST, 0.0)), crossAbove(DIF, DEA, WITHIN_DAYS, 0.0)),
+                atLeast(SeriesKey.CLOSE, BOLL_MIDDLE));
+    }
+
+    /** 增长阶段（在被扫描股票自身K线上判定的行业增长条件）：个股较优条件 + 布林中轨上升 */
+    public static Rule growthPhase() {
+        return and(stockFavorable(), slopeUp(BOLL_MIDDLE, SLOPE_DAYS));
+    }
+
+    private static Rule bullTrend() {
+        return or(
+                sustainAbove(EXPMA_SHORT, EXPMA_LONG, SUSTAIN_DAYS),
+                converge(EXPMA_SHORT, EXPMA_LONG, 0.005, SUSTAIN_DAYS));
+    }
+}
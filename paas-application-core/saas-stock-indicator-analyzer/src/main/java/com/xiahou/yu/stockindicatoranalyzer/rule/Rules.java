@@ -0,0 +1,393 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.RuleDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 规则工厂：提供基础谓词（比较、趋势持续、交叉、触及、通道位置、量比、斜率、收敛）与 and/or/not 组合，
+ * 以及从 {@link RuleDefinition} 的转换。days 均按K线根数计（交易日），而非自然日。
+ */
+public final class Rules {
+
+    private Rules() {}
+
+    public static Rule and(Rule... rules) {
+        return and(List.of(rules));
+    }
+
+    public static Rule and(List<Rule> rules) {
+        List<Rule> children = List.copyOf(rules);
+        return new Composite(children) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                for (Rule r : children) {
+                    if (!r.test(f)) return false;
+                }
+                return true;
+            }
+        };
+    }
+
+    public static Rule or(Rule... rules) {
+        return or(List.of(rules));
+    }
+
+    public static Rule or(List<Rule> rules) {
+        List<Rule> children = List.copyOf(rules);
+        return new Composite(children) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                for (Rule r : children) {
+                    if (r.test(f)) return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static Rule not(Rule rule) {
+        return new Composite(List.of(rule)) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                return !rule.test(f);
+            }
+        };
+    }
+
+    /** 最新一根 a > b */
+    public static Rule above(SeriesKey a, SeriesKey b) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                int last = f.size() - 1;
+                return f.get(a)[last] > f.get(b)[last];
+            }
+        };
+    }
+
+    /** 最新一根 a >= b */
+    public static Rule atLeast(SeriesKey a, SeriesKey b) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                int last = f.size() - 1;
+                return f.get(a)[last] >= f.get(b)[last];
+            }
+        };
+    }
+
+    /** 最新一根 a >= value */
+    public static Rule atLeast(SeriesKey a, double value) {
+        return new Unary(a) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                return f.get(a)[f.size() - 1] >= value;
+            }
+        };
+    }
+
+    /** 最新一根 a < b */
+    public static Rule below(SeriesKey a, SeriesKey b) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                int last = f.size() - 1;
+                return f.get(a)[last] < f.get(b)[last];
+            }
+        };
+    }
+
+    /** 最近 days 根 a 持续高于 b */
+    public static Rule sustainAbove(SeriesKey a, SeriesKey b, int days) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b);
+                int n = f.size();
+                for (int i = Math.max(0, n - days); i < n; i++) {
+                    if (x[i] <= y[i]) return false;
+                }
+                return true;
+            }
+        };
+    }
+
+    /** 最近 days 根 a 持续低于 b */
+    public static Rule sustainBelow(SeriesKey a, SeriesKey b, int days) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b);
+                int n = f.size();
+                for (int i = Math.max(0, n - days); i < n; i++) {
+                    if (x[i] >= y[i]) return false;
+                }
+                return true;
+            }
+        };
+    }
+
+    /** 最近 withinDays 根内 a 上穿 b：前一根 a-b <= 0 且当根 a-b > epsilon；withinDays <= 0 表示整段数据 */
+    public static Rule crossAbove(SeriesKey a, SeriesKey b, int withinDays, double epsilon) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b);
+                int n = f.size();
+                for (int i = n - 1; i >= windowStart(n, withinDays); i--) {
+                    if (x[i - 1] - y[i - 1] <= 0.0 && x[i] - y[i] > epsilon) return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** 最近 withinDays 根内 a 下穿 b：前一根 a-b >= 0 且当根 a-b < -epsilon */
+    public static Rule crossBelow(SeriesKey a, SeriesKey b, int withinDays, double epsilon) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b);
+                int n = f.size();
+                for (int i = n - 1; i >= windowStart(n, withinDays); i--) {
+                    if (x[i - 1] - y[i - 1] >= 0.0 && x[i] - y[i] < -epsilon) return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** 最近 withinDays 根内（含最新一根）a 曾 >= b */
+    public static Rule touchAbove(SeriesKey a, SeriesKey b, int withinDays) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b);
+                int n = f.size();
+                for (int i = Math.max(0, n - 1 - withinDays); i < n; i++) {
+                    if (x[i] >= y[i]) return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** 最近 withinDays 根内（含最新一根）a 曾 <= b */
+    public static Rule touchBelow(SeriesKey a, SeriesKey b, int withinDays) {
+        return new Binary(a, b) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b);
+                int n = f.size();
+                for (int i = Math.max(0, n - 1 - withinDays); i < n; i++) {
+                    if (x[i] <= y[i]) return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** 最新一根 value 在 [lower, upper] 中的相对位置（0 为下轨，1 为上轨）位于 [min, max] */
+    public static Rule bandPosition(SeriesKey value, SeriesKey lower, SeriesKey upper, double min, double max) {
+        return new Rule() {
+            @Override
+            public void collect(Set<SeriesKey> keys) {
+                keys.add(value);
+                keys.add(lower);
+                keys.add(upper);
+            }
+
+            @Override
+            public boolean test(SeriesFrame f) {
+                int last = f.size() - 1;
+                double lo = f.get(lower)[last];
+                double width = f.get(upper)[last] - lo;
+                if (width <= 0.0) return false;
+                double pos = (f.get(value)[last] - lo) / width;
+                return pos >= min && pos <= max;
+            }
+        };
+    }
+
+    /** 最新成交量 >= 前 window 根均量 × factor（均量为 0 时视为满足） */
+    public static Rule volumeRatio(int window, double factor) {
+        return new Rule() {
+            @Override
+            public void collect(Set<SeriesKey> keys) {
+                keys.add(SeriesKey.VOLUME);
+            }
+
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] v = f.get(SeriesKey.VOLUME);
+                int last = f.size() - 1;
+                int start = Math.max(0, last - window);
+                double sum = 0.0;
+                for (int i = start; i < last; i++) sum += v[i];
+                int cnt = last - start;
+                double avg = cnt == 0 ? 0.0 : sum / cnt;
+                return avg == 0.0 || v[last] >= avg * factor;
+            }
+        };
+    }
+
+    /** a 较 days 根之前上升（等价于最近 days 根逐日变化之和 > 0） */
+    public static Rule slopeUp(SeriesKey a, int days) {
+        return new Unary(a) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                int n = f.size();
+                if (n < days + 1) return false;
+                double[] x = f.get(a);
+                return x[n - 1] - x[n - 1 - days] > 0.0;
+            }
+        };
+    }
+
+    /** a 较 days 根之前下降 */
+    public static Rule slopeDown(SeriesKey a, int days) {
+        return new Unary(a) {
+            @Override
+            public boolean test(SeriesFrame f) {
+                int n = f.size();
+                if (n < days + 1) return false;
+                double[] x = f.get(a);
+                return x[n - 1] - x[n - 1 - days] < 0.0;
+            }
+        };
+    }
+
+    /** 最近 days 根 |a - b| / close <= ratio（收盘价为 0 时直接比较差值），用于判定均线粘合/横盘 */
+    public static Rule converge(SeriesKey a, SeriesKey b, double ratio, int days) {
+        return new Binary(a, b) {
+            @Override
+            public void collect(Set<SeriesKey> keys) {
+                super.collect(keys);
+                keys.add(SeriesKey.CLOSE);
+            }
+
+            @Override
+            public boolean test(SeriesFrame f) {
+                double[] x = f.get(a), y = f.get(b), close = f.get(SeriesKey.CLOSE);
+                int n = f.size();
+                for (int i = Math.max(0, n - days); i < n; i++) {
+                    double diff = Math.abs(x[i] - y[i]);
+                    double r = close[i] == 0.0 ? diff : diff / close[i];
+                    if (r > ratio) return false;
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 将声明式定义转换为规则，定义不合法时抛出 IllegalArgumentException。
+     */
+    public static Rule from(RuleDefinition def) {
+        if (def == null || def.getType() == null) {
+            throw new IllegalArgumentException("规则类型不能为空");
+        }
+        String type = def.getType().trim().toLowerCase(Locale.ROOT);
+        return switch (type) {
+            case "and" -> and(children(def));
+            case "or" -> or(children(def));
+            case "not" -> {
+                List<Rule> c = children(def);
+                if (c.size() != 1) throw new IllegalArgumentException("not 规则必须且只能包含一个子规则");
+                yield not(c.get(0));
+            }
+            case "above" -> above(series(def.getLeft()), series(def.getRight()));
+            case "atleast" -> atLeast(series(def.getLeft()), series(def.getRight()));
+            case "below" -> below(series(def.getLeft()), series(def.getRight()));
+            case "sustainabove" -> sustainAbove(series(def.getLeft()), series(def.getRight()), days(def, 5));
+            case "sustainbelow" -> sustainBelow(series(def.getLeft()), series(def.getRight()), days(def, 5));
+            case "crossabove" -> crossAbove(series(def.getLeft()), series(def.getRight()), days(def, 0), value(def.getEpsilon(), 0.0));
+            case "crossbelow" -> crossBelow(series(def.getLeft()), series(def.getRight()), days(def, 0), value(def.getEpsilon(), 0.0));
+            case "touchabove" -> touchAbove(series(def.getLeft()), series(def.getRight()), days(def, 0));
+            case "touchbelow" -> touchBelow(series(def.getLeft()), series(def.getRight()), days(def, 0));
+            case "bandposition" -> bandPosition(series(def.getLeft()), series(def.getLower()), series(def.getUpper()),
+                    value(def.getMin(), 0.0), value(def.getMax(), 1.0));
+            case "volumeratio" -> volumeRatio(days(def, 10), value(def.getFactor(), 1.0));
+            case "slopeup" -> slopeUp(series(def.getLeft()), days(def, 3));
+            case "slopedown" -> slopeDown(series(def.getLeft()), days(def, 3));
+            case "converge" -> converge(series(def.getLeft()), series(def.getRight()), value(def.getFactor(), 0.005), days(def, 5));
+            default -> throw new IllegalArgumentException("未知的规则类型: " + def.getType());
+        };
+    }
+
+    private static List<Rule> children(RuleDefinition def) {
+        if (def.getRules() == null || def.getRules().isEmpty()) {
+            throw new IllegalArgumentException(def.getType() + " 规则缺少子规则");
+        }
+        List<Rule> rules = new ArrayList<>(def.getRules().size());
+        for (RuleDefinition child : def.getRules()) {
+            rules.add(from(child));
+        }
+        return rules;
+    }
+
+    private static SeriesKey series(String expr) {
+        return SeriesKey.parse(expr);
+    }
+
+    private static int days(RuleDefinition def, int defaultValue) {
+        return def.getDays() == null ? defaultValue : def.getDays();
+    }
+
+    private static double value(Double v, double defaultValue) {
+        return v == null ? defaultValue : v;
+    }
+
+    /** 第一根可判定交叉的下标（需要前一根） */
+    private static int windowStart(int n, int withinDays) {
+        return withinDays <= 0 ? 1 : Math.max(1, n - withinDays);
+    }
+
+    private abstract static class Composite implements Rule {
+        private final List<Rule> children;
+
+        Composite(List<Rule> children) {
+            this.children = children;
+        }
+
+        @Override
+        public void collect(Set<SeriesKey> keys) {
+            for (Rule r : children) {
+                r.collect(keys);
+            }
+        }
+    }
+
+    private abstract static class Unary implements Rule {
+        final SeriesKey a;
+
+        Unary(SeriesKey a) {
+            this.a = a;
+        }
+
+        @Override
+        public void collect(Set<SeriesKey> keys) {
+            keys.add(a);
+        }
+    }
+
+    private abstract static class Binary implements Rule {
+        final SeriesKey a;
+        final SeriesKey b;
+
+        Binary(SeriesKey a, SeriesKey b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public void collect(Set<SeriesKey> keys) {
+            keys.add(a);
+            keys.add(b);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+
+import java.util.Map;
+
+/**
+ * 单只股票的序列数据视图：原始列直接引用 {@link BarColumns}，指标列引用线程内复用的缓冲区（长度可能大于 size）。
+ */
+public final class SeriesFrame {
+
+    private final BarColumns bars;
+    private final Map<SeriesKey, Integer> slots;
+    private final double[][] series;
+    private int size;
+
+    SeriesFrame(BarColumns bars, Map<SeriesKey, Integer> slots, double[][] series) {
+        this.bars = bars;
+        this.slots = slots;
+        this.series = series;
+        this.size = bars.size();
+    }
+
+    /** 有效K线数，规则以 size() - 1 作为“最新一根” */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 将视图截断为前 size 根K线（序列均为因果计算，截断后的结果等同于只用这些K线计算），
+     * 用于回测时在同一份序列上逐日判定规则。
+     */
+    public void truncate(int size) {
+        if (size < 1 || size > bars.size()) {
+            throw new IllegalArgumentException("size 超出范围: " + size);
+        }
+        this.size = size;
+    }
+
+    public BarColumns bars() {
+        return bars;
+    }
+
+    /** 获取序列数据，仅下标 [0, size) 有效 */
+    public double[] get(SeriesKey key) {
+        switch (key.kind()) {
+            case OPEN: return bars.getOpen();
+            case HIGH: return bars.getHigh();
+            case LOW: return bars.getLow();
+            case CLOSE: return bars.getClose();
+            default:
+                Integer slot = slots.get(key);
+                if (slot == null) {
+                    throw new IllegalStateException("序列未在计划中声明: " + key);
+                }
+                return series[slot];
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 具名指标序列：种类 + 参数，作为规则引擎中序列计算与去重的键（同参数的序列在一只股票上只计算一次）。
+ * 文本形式如 close、ema(12)、macd.dif(12,26)、macd.dea(12,26,9)、boll.upper(20,2.0)、volume.sma(10)。
+ */
+public record SeriesKey(Kind kind, int p1, int p2, int p3, double k) {
+
+    public enum Kind {
+        OPEN, HIGH, LOW, CLOSE, VOLUME,
+        SMA, EMA, STD, VOLUME_SMA,
+        MACD_DIF, MACD_DEA, MACD_HIST,
+        BOLL_UPPER, BOLL_LOWER
+    }
+
+    private static final Pattern EXPR = Pattern.compile("([a-z.]+)\\s*(?:\\(([^)]*)\\))?");
+
+    public static final SeriesKey OPEN = new SeriesKey(Kind.OPEN, 0, 0, 0, 0.0);
+    public static final SeriesKey HIGH = new SeriesKey(Kind.HIGH, 0, 0, 0, 0.0);
+    public static final SeriesKey LOW = new SeriesKey(Kind.LOW, 0, 0, 0, 0.0);
+    public static final SeriesKey CLOSE = new SeriesKey(Kind.CLOSE, 0, 0, 0, 0.0);
+    public static final SeriesKey VOLUME = new SeriesKey(Kind.VOLUME, 0, 0, 0, 0.0);
+
+    public static SeriesKey sma(int period) {
+        return new SeriesKey(Kind.SMA, positive(period), 0, 0, 0.0);
+    }
+
+    public static SeriesKey ema(int period) {
+        return new SeriesKey(Kind.EMA, positive(period), 0, 0, 0.0);
+    }
+
+    public static SeriesKey std(int period) {
+        return new SeriesKey(Kind.STD, positive(period), 0, 0, 0.0);
+    }
+
+    public static SeriesKey volumeSma(int period) {
+        return new SeriesKey(Kind.VOLUME_SMA, positive(period), 0, 0, 0.0);
+    }
+
+    public static SeriesKey macdDif(int shortPeriod, int longPeriod) {
+        checkMacd(shortPeriod, longPeriod);
+        return new SeriesKey(Kind.MACD_DIF, shortPeriod, longPeriod, 0, 0.0);
+    }
+
+    public static SeriesKey macdDea(int shortPeriod, int longPeriod, int signalPeriod) {
+        checkMacd(shortPeriod, longPeriod);
+        return new SeriesKey(Kind.MACD_DEA, shortPeriod, longPeriod, positive(signalPeriod), 0.0);
+    }
+
+    public static SeriesKey macdHist(int shortPeriod, int longPeriod, int signalPeriod) {
+        checkMacd(shortPeriod, longPeriod);
+        return new SeriesKey(Kind.MACD_HIST, shortPeriod, longPeriod, positive(signalPeriod), 0.0);
+    }
+
+    /** 布林中轨即同周期 SMA */
+    public static SeriesKey bollMiddle(int period) {
+        return sma(period);
+    }
+
+    public static SeriesKey bollUpper(int period, double k) {
+        return new SeriesKey(Kind.BOLL_UPPER, positive(period), 0, 0, k);
+    }
+
+    public static SeriesKey bollLower(int period, double k) {
+        return new SeriesKey(Kind.BOLL_LOWER, positive(period), 0, 0, k);
+    }
+
+    /**
+     * 解析文本形式的序列表达式。
+     */
+    public static SeriesKey parse(String expr) {
+        if (expr == null) {
+            throw new IllegalArgumentException("序列表达式不能为空");
+        }
+        Matcher m = EXPR.matcher(expr.trim().toLowerCase(Locale.ROOT));
+        if (!m.matches()) {
+            throw new IllegalArgumentException("无法解析的序列表达式: " + expr);
+        }
+        String name = m.group(1);
+        String[] args = m.group(2) == null || m.group(2).isBlank() ? new String[0] : m.group(2).split(",");
+        try {
+            return switch (name) {
+                case "open" -> OPEN;
+                case "high" -> HIGH;
+                case "low" -> LOW;
+                case "close" -> CLOSE;
+                case "volume" -> VOLUME;
+                case "sma" -> sma(intArg(args, 0, expr));
+                case "ema", "expma" -> ema(intArg(args, 0, expr));
+                case "std" -> std(intArg(args, 0, expr));
+                case "volume.sma" -> volumeSma(intArg(args, 0, expr));
+                case "macd.dif" -> macdDif(intArg(args, 0, expr), intArg(args, 1, expr));
+                case "macd.dea" -> macdDea(intArg(args, 0, expr), intArg(args, 1, expr), intArg(args, 2, expr));
+                case "macd.hist" -> macdHist(intArg(args, 0, expr), intArg(args, 1, expr), intArg(args, 2, expr));
+                case "boll.middle" -> bollMiddle(intArg(args, 0, expr));
+                case "boll.upper" -> bollUpper(intArg(args, 0, expr), doubleArg(args, 1, expr));
+                case "boll.lower" -> bollLower(intArg(args, 0, expr), doubleArg(args, 1, expr));
+                default -> throw new IllegalArgumentException("未知的序列: " + expr);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("序列参数格式错误: " + expr, e);
+        }
+    }
+
+    /** 直接依赖的序列（计算本序列前必须先计算） */
+    List<SeriesKey> dependencies() {
+        return switch (kind) {
+            case STD -> List.of(sma(p1));
+            case MACD_DIF -> List.of(ema(p1), ema(p2));
+            case MACD_DEA -> List.of(macdDif(p1, p2));
+            case MACD_HIST -> List.of(macdDif(p1, p2), macdDea(p1, p2, p3));
+            case BOLL_UPPER, BOLL_LOWER -> List.of(sma(p1), std(p1));
+            default -> List.of();
+        };
+    }
+
+    /** 是否直接引用原始K线列（无需计算与缓冲区） */
+    boolean isRaw() {
+        return kind == Kind.OPEN || kind == Kind.HIGH || kind == Kind.LOW || kind == Kind.CLOSE;
+    }
+
+    /** 预热所需的最少K线数（最长周期） */
+    int warmup() {
+        return switch (kind) {
+            case MACD_DIF, MACD_DEA, MACD_HIST -> p2;
+            default -> Math.max(p1, 1);
+        };
+    }
+
+    private static int positive(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("周期必须>0: " + period);
+        }
+        return period;
+    }
+
+    private static void checkMacd(int shortPeriod, int longPeriod) {
+        positive(shortPeriod);
+        if (shortPeriod > longPeriod) {
+            throw new IllegalArgumentException("MACD 长周期必须不小于短周期");
+        }
+    }
+
+    private static int intArg(String[] args, int i, String expr) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("序列参数不足: " + expr);
+        }
+        return Integer.parseInt(args[i].trim());
+    }
+
+    private static double doubleArg(String[] args, int i, String expr) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("序列参数不足: " + expr);
+        }
+        return Double.parseDouble(args[i].trim());
+    }
+}
@@ -0,0 +1,140 @@
+package com.xiahou.yu.stockindicatoranalyzer.scan;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 全市场扫描并行执行器：在有界 ForkJoinPool 中按股票代码区间二分拆分，逐股票计算后按输入顺序合并结果。
+ * 约定：并行段内只做纯内存计算（数据由调用方在请求线程上一次性加载为快照），不访问数据库，
+ * 因此并行度不受 Hikari 连接池大小约束；每个工作线程持有一组独立的 {@link KernelBuffers}。
+ */
+@Component
+public class ParallelScanExecutor implements DisposableBean {
+
+    /** 单个叶子任务处理的最少代码数，避免拆分过细 */
+    private static final int MIN_CHUNK = 16;
+
+    private final ForkJoinPool pool;
+
+    public ParallelScanExecutor(@Value("${indicator.scan.parallelism:0}") int parallelism) {
+        int p = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(p, ScanWorkerThread::new, null, false);
+    }
+
+    /**
+     * 并行计算每个代码的结果，返回值按 codes 的原始顺序排列，忽略返回 null 的代码。
+     * 调用方在此基础上做的稳定排序与串行执行时结果一致。
+     * @param codes 股票代码（已过滤空值）
+     * @param task 单股票计算逻辑，第二个参数为当前线程专用的缓冲区
+     */
+    public <T> List<T> map(List<String> codes, BiFunction<String, KernelBuffers, T> task) {
+        return map(codes, task, null);
+    }
+
+    /**
+     * 同 {@link #map(List, BiFunction)}，每得到一个非 null 结果即回调 onResult（在工作线程上调用，需线程安全），
+     * 用于流式输出；回调抛出的异常会中止扫描并在调用线程上重新抛出。
+     */
+    public <T> List<T> map(List<String> codes, BiFunction<String, KernelBuffers, T> task, Consumer<? super T> onResult) {
+        Object[] slots = new Object[codes.size()];
+        if (!codes.isEmpty()) {
+            BiFunction<String, KernelBuffers, T> effective = onResult == null ? task : (code, buffers) -> {
+                T value = task.apply(code, buffers);
+                if (value != null) {
+                    onResult.accept(value);
+                }
+                return value;
+            };
+            int chunk = Math.max(MIN_CHUNK, codes.size() / (pool.getParallelism() * 8));
+            pool.invoke(new ChunkTask(codes, effective, slots, 0, codes.size(), chunk));
+        }
+        List<T> results = new ArrayList<>();
+        for (Object slot : slots) {
+            if (slot != null) {
+                @SuppressWarnings("unchecked")
+                T value = (T) slot;
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 从股票主数据中提取非空代码，保持原有遍历顺序。
+     */
+    public static List<String> stockCodes(Iterable<StocksInfoMaster> infos) {
+        List<String> codes = new ArrayList<>();
+        for (StocksInfoMaster info : infos) {
+            String code = info.getStockCode();
+            if (code != null && !code.isEmpty()) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static KernelBuffers currentBuffers() {
+        // 若任务被调用线程（非池内线程）协助执行，则临时分配一组缓冲区
+        return Thread.currentThread() instanceof ScanWorkerThread worker ? worker.buffers : new KernelBuffers();
+    }
+
+    private static final class ScanWorkerThread extends ForkJoinWorkerThread {
+        private final KernelBuffers buffers = new KernelBuffers();
+
+        ScanWorkerThread(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private final List<String> codes;
+        private final BiFunction<String, KernelBuffers, ?> task;
+        private final Object[] slots;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        ChunkTask(List<String> codes, BiFunction<String, KernelBuffers, ?> task, Object[] slots, int from, int to, int chunk) {
+            this.codes = codes;
+            this.task = task;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                KernelBuffers buffers = currentBuffers();
+                for (int i = from; i < to; i++) {
+                    slots[i] = task.apply(codes.get(i), buffers);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(codes, task, slots, from, mid, chunk),
+                    new ChunkTask(codes, task, slots, mid, to, chunk));
+        }
+    }
+}
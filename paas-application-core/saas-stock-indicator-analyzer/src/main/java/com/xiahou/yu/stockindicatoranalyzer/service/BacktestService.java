@@ -0,0 +1,64 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.backtest.BacktestEngine;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestRequest;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.RuleDefinition;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rule;
+import com.xiahou.yu.stockindicatoranalyzer.rule.RulePresets;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rules;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 全市场回测：一次加载 回测窗口 + 预热 根日线的快照，由 {@link BacktestEngine} 在扫描线程池上按股票并行模拟。
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class BacktestService {
+
+    private static final String DEFAULT_ENTRY = "expma-macd-boll-buy";
+    private static final String DEFAULT_EXIT = "expma-macd-boll-sell";
+    private static final int DEFAULT_BARS = 250;
+    /** 回测窗口上限（约十年交易日），快照按 窗口 + 预热 为全市场加载 */
+    static final int MAX_BARS = 2500;
+
+    private final StocksInfoMasterRepository infoRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final ParallelScanExecutor scanExecutor;
+
+    public BacktestResult run(BacktestRequest request) {
+        // 先校验参数与规则，再加载任何数据
+        int bars = request.getBars() == null ? DEFAULT_BARS : request.getBars();
+        if (bars <= 0 || bars > MAX_BARS) {
+            throw new IllegalArgumentException("bars必须在1到" + MAX_BARS + "之间");
+        }
+        Rule entry = resolve(request.getEntry(), request.getEntryPreset(), DEFAULT_ENTRY);
+        Rule exit = resolve(request.getExit(), request.getExitPreset(), DEFAULT_EXIT);
+        BacktestEngine.Params params = new BacktestEngine.Params(
+                bars,
+                request.getMaxHoldingDays() == null ? 0 : request.getMaxHoldingDays(),
+                request.getStopLossPct() == null ? 0.0 : request.getStopLossPct(),
+                request.getFeeRate() == null ? 0.0 : request.getFeeRate(),
+                request.getIncludeTrades() == null || request.getIncludeTrades());
+        BacktestEngine engine = new BacktestEngine(entry, exit, params);
+
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(engine.barsPerCode());
+        return engine.run(snapshot, codes, scanExecutor);
+    }
+
+    private static Rule resolve(RuleDefinition definition, String preset, String defaultPreset) {
+        if (definition != null) {
+            return Rules.from(definition);
+        }
+        return RulePresets.named(preset == null || preset.isBlank() ? defaultPreset : preset);
+    }
+}
@@ -1,24 +1,19 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
 import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerNarrowResult;
 import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerUpperChannelResult;
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
-import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
-import org.ta4j.core.indicators.averages.SMAIndicator;
-import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
-
-import java.time.Duration;
-import java.time.Instant;
-import java.time.ZoneId;
+
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -29,7 +24,8 @@ import java.util.stream.Collectors;
 public class BollingerAnalysisService {
 
     private final StocksInfoMasterRepository infoRepo;
-    private final StocksDailyDataRepository dailyRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final ParallelScanExecutor scanExecutor;
 
 
     /**
@@ -42,6 +38,10 @@ public class BollingerAnalysisService {
     public List<BollingerNarrowResult> findNarrowChannelStocks(int lookbackDays, int period, double k, double threshold, int allowedExceedDays) {
         List<BollingerNarrowResult> results = new ArrayList<>();
 
+        // 一次性加载全市场最近 lookbackDays 的数据（按日期升序的列式数组）
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(lookbackDays);
+        KernelBuffers buffers = new KernelBuffers();
+
         // 读取所有股票元信息
         Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
 
@@ -50,63 +50,9 @@ public class BollingerAnalysisService {
             if (stockCode == null || stockCode.isEmpty()) {
                 continue;
             }
-            // 最近 lookbackDays 的数据，按 trade_date DESC 获取后再按日期 ASC 排序以构建序列
-            List<StocksDailyData> latestDesc = dailyRepo.listByStockCode(stockCode, lookbackDays, 0);
-            if (latestDesc == null || latestDesc.isEmpty()) {
-                continue;
-            }
-            List<StocksDailyData> latestAsc = latestDesc.stream()
-                    .sorted(Comparator.comparing(StocksDailyData::getTradeDate))
-                    .collect(Collectors.toList());
-
-            // 构建 TA4J BarSeries（使用 BaseBarSeriesBuilder）
-            BarSeries series = new BaseBarSeriesBuilder().withName(stockCode).build();
-            for (StocksDailyData d : latestAsc) {
-                Instant endTime = d.getTradeDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
-                series.addBar(series.barBuilder()
-                        .timePeriod(Duration.ofDays(1))
-                        .endTime(endTime)
-                        .openPrice(d.getOpenPrice() == null ? 0.0 : d.getOpenPrice().doubleValue())
-                        .highPrice(d.getHighPrice() == null ? 0.0 : d.getHighPrice().doubleValue())
-                        .lowPrice(d.getLowPrice() == null ? 0.0 : d.getLowPrice().doubleValue())
-                        .closePrice(d.getClosePrice() == null ? 0.0 : d.getClosePrice().doubleValue())
-                        .volume(d.getVolume() == null ? 0.0 : d.getVolume().doubleValue())
-                        .build());
-            }
-
-            if (series.getBarCount() < period) {
-                continue; // 数据不足以计算
-            }
-
-            // 指标（基于收盘价）
-            ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
-            SMAIndicator middle = new SMAIndicator(closePrice, period);
-            StandardDeviationIndicator sd = new StandardDeviationIndicator(closePrice, period);
-
-            List<java.time.LocalDate> matchedDates = new ArrayList<>();
-            int violationDays = 0;
-            for (int i = 0; i < series.getBarCount(); i++) {
-                if (i < period - 1) continue; // 指标尚未就绪
-                double m = middle.getValue(i).doubleValue();
-                double s = sd.getValue(i).doubleValue();
-                double upper = m + k * s;
-                double lower = m - k * s;
-                double widthRatio = (upper - lower) / (m == 0.0 ? 1.0 : m);
-                if (widthRatio <= threshold) {
-                    matchedDates.add(series.getBar(i).getEndTime().atZone(ZoneId.systemDefault()).toLocalDate());
-                } else {
-                    violationDays++;
-                }
-            }
-
-            // 仅当违规天数不超过允许值，且至少有一天满足窄通道时，纳入结果
-            if (violationDays <= allowedExceedDays && !matchedDates.isEmpty()) {
-                results.add(new BollingerNarrowResult(
-                        stockCode,
-                        matchedDates.size(),
-                        matchedDates.get(matchedDates.size() - 1),
-                        matchedDates
-                ));
+            BollingerNarrowResult result = evaluateNarrow(stockCode, snapshot.get(stockCode), period, k, threshold, allowedExceedDays, buffers);
+            if (result != null) {
+                results.add(result);
             }
         }
 
@@ -119,64 +65,11 @@ public class BollingerAnalysisService {
      * 最近 N 天内收盘价位于中轨与上轨之间，允许不超过 allowedExceedDays 天不满足 —— 返回详细信息
      */
     public List<BollingerUpperChannelResult> findUpperChannelDetails(int lookbackDays, int period, double k, int allowedExceedDays) {
-        List<BollingerUpperChannelResult> results = new ArrayList<>();
-        Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
-        for (StocksInfoMaster info : allInfos) {
-            String stockCode = info.getStockCode();
-            if (stockCode == null || stockCode.isEmpty()) continue;
-
-            int need = lookbackDays + period; // 保证指标在整个窗口内就绪
-            List<StocksDailyData> latestDesc = dailyRepo.listByStockCode(stockCode, need, 0);
-            if (latestDesc == null || latestDesc.size() < period) continue;
-
-            List<StocksDailyData> latestAsc = latestDesc.stream()
-                    .sorted(Comparator.comparing(StocksDailyData::getTradeDate))
-                    .collect(Collectors.toList());
-
-            BarSeries series = new BaseBarSeriesBuilder().withName(stockCode).build();
-            for (StocksDailyData d : latestAsc) {
-                Instant endTime = d.getTradeDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
-                series.addBar(series.barBuilder()
-                        .timePeriod(Duration.ofDays(1))
-                        .endTime(endTime)
-                        .openPrice(d.getOpenPrice() == null ? 0.0 : d.getOpenPrice().doubleValue())
-                        .highPrice(d.getHighPrice() == null ? 0.0 : d.getHighPrice().doubleValue())
-                        .lowPrice(d.getLowPrice() == null ? 0.0 : d.getLowPrice().doubleValue())
-                        .closePrice(d.getClosePrice() == null ? 0.0 : d.getClosePrice().doubleValue())
-                        .volume(d.getVolume() == null ? 0.0 : d.getVolume().doubleValue())
-                        .build());
-            }
-            if (series.getBarCount() < period) continue;
-
-            ClosePriceIndicator close = new ClosePriceIndicator(series);
-            SMAIndicator sma = new SMAIndicator(close, period);
-            StandardDeviationIndicator sd = new StandardDeviationIndicator(close, period);
-            BollingerBandsMiddleIndicator middle = new BollingerBandsMiddleIndicator(sma);
-
-            int startIndex = Math.max(period - 1, series.getBarCount() - lookbackDays);
-            int within = 0;
-            int violations = 0;
-            List<java.time.LocalDate> matchedDates = new ArrayList<>();
-            java.time.LocalDate lastMatchedDate = null;
-
-            for (int i = startIndex; i < series.getBarCount(); i++) {
-                double c = close.getValue(i).doubleValue();
-                double m = middle.getValue(i).doubleValue();
-                double s = sd.getValue(i).doubleValue();
-                double u = m + k * s;
-                if (c >= m && c <= u) {
-                    within++;
-                    java.time.LocalDate d = series.getBar(i).getEndTime().atZone(ZoneId.systemDefault()).toLocalDate();
-                    matchedDates.add(d);
-                    lastMatchedDate = d;
-                } else {
-                    violations++;
-                }
-            }
-            if (violations <= allowedExceedDays) {
-                results.add(new BollingerUpperChannelResult(stockCode, within, violations, lastMatchedDate, matchedDates));
-            }
-        }
+        int need = lookbackDays + period; // 保证指标在整个窗口内就绪
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(need);
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
+        List<BollingerUpperChannelResult> results = scanExecutor.map(codes,
+                (stockCode, buffers) -> evaluateUpperChannel(stockCode, snapshot.get(stockCode), lookbackDays, period, k, allowedExceedDays, buffers));
         results.sort(Comparator.comparingInt(BollingerUpperChannelResult::getWithinRangeCount)
                 .thenComparingInt(BollingerUpperChannelResult::getViolationDays));
         java.util.Collections.reverse(results);
@@ -190,4 +83,90 @@ public class BollingerAnalysisService {
         return findUpperChannelDetails(lookbackDays, period, k, allowedExceedDays)
                 .stream().map(BollingerUpperChannelResult::getStockCode).collect(Collectors.toList());
      }
-}
\ No newline at end of file
+
+    /**
+     * 单只股票的窄通道判定，不满足时返回 null。
+     */
+    static BollingerNarrowResult evaluateNarrow(String stockCode, BarColumns bars, int period, double k, double threshold,
+                                                int allowedExceedDays, KernelBuffers buffers) {
+        if (bars == null || bars.size() == 0) {
+            return null;
+        }
+        int n = bars.size();
+        if (n < period) {
+            return null; // 数据不足以计算
+        }
+
+        // 指标（基于收盘价）
+        double[] closePrice = bars.getClose();
+        double[] middle = buffers.get(0, n);
+        double[] sd = buffers.get(1, n);
+        IndicatorKernels.sma(closePrice, n, period, middle);
+        IndicatorKernels.stdDev(closePrice, n, period, middle, sd);
+
+        List<java.time.LocalDate> matchedDates = new ArrayList<>();
+        int violationDays = 0;
+        for (int i = 0; i < n; i++) {
+            if (i < period - 1) continue; // 指标尚未就绪
+            double m = middle[i];
+            double s = sd[i];
+            double upper = m + k * s;
+            double lower = m - k * s;
+            double widthRatio = (upper - lower) / (m == 0.0 ? 1.0 : m);
+            if (widthRatio <= threshold) {
+                matchedDates.add(bars.tradeDate(i));
+            } else {
+                violationDays++;
+            }
+        }
+
+        // 仅当违规天数不超过允许值，且至少有一天满足窄通道时，纳入结果
+        if (violationDays > allowedExceedDays || matchedDates.isEmpty()) {
+            return null;
+        }
+        return new BollingerNarrowResult(
+                stockCode,
+                matchedDates.size(),
+                matchedDates.get(matchedDates.size() - 1),
+                matchedDates
+        );
+    }
+
+    /**
+     * 单只股票最近 lookbackDays 天的上通道判定，违规天数超限时返回 null。
+     */
+    static BollingerUpperChannelResult evaluateUpperChannel(String stockCode, BarColumns bars, int lookbackDays, int period, double k,
+                                                            int allowedExceedDays, KernelBuffers buffers) {
+        if (bars == null || bars.size() < period) return null;
+
+        int n = bars.size();
+        double[] close = bars.getClose();
+        double[] middle = buffers.get(0, n);
+        double[] sd = buffers.get(1, n);
+        IndicatorKernels.sma(close, n, period, middle);
+        IndicatorKernels.stdDev(close, n, period, middle, sd);
+
+        int startIndex = Math.max(period - 1, n - lookbackDays);
+        int within = 0;
+        int violations = 0;
+        List<java.time.LocalDate> matchedDates = new ArrayList<>();
+        java.time.LocalDate lastMatchedDate = null;
+
+        for (int i = startIndex; i < n; i++) {
+            double c = close[i];
+            double m = middle[i];
+            double s = sd[i];
+            double u = m + k * s;
+            if (c >= m && c <= u) {
+                within++;
+                java.time.LocalDate d = bars.tradeDate(i);
+                matchedDates.add(d);
+                lastMatchedDate = d;
+            } else {
+                violations++;
+            }
+        }
+        if (violations > allowedExceedDays) return null;
+        return new BollingerUpperChannelResult(stockCode, within, violations, lastMatchedDate, matchedDates);
+    }
+}
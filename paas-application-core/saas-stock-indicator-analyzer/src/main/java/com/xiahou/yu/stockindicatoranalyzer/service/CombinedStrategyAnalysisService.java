@@ -1,27 +1,22 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
-import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.dto.StrategyCandidate;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
-import org.ta4j.core.indicators.MACDIndicator;
-import org.ta4j.core.indicators.averages.EMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
-import org.ta4j.core.indicators.averages.SMAIndicator;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,7 +24,8 @@ import java.util.stream.Collectors;
 public class CombinedStrategyAnalysisService {
 
     private final StocksInfoMasterRepository infoRepo;
-    private final StocksDailyDataRepository dailyRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final ParallelScanExecutor scanExecutor;
 
     @Value("${indicator.macd.cross.epsilon:0.0001}")
     private double macdCrossEpsilon;
@@ -53,7 +49,30 @@ public class CombinedStrategyAnalysisService {
             int volumeWindow,
             double volumeFactor
     ) {
-        return scan(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, allowSideway, sidewayEpsilonRatio, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, ScanMode.BUY);
+        return findBuyCandidates(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, allowSideway, sidewayEpsilonRatio, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, null);
+    }
+
+    /**
+     * 同上，每命中一只股票即回调 onCandidate（在扫描工作线程上调用，需线程安全），返回值仍为排序后的完整代码列表。
+     */
+    public List<String> findBuyCandidates(
+            int lookbackDays,
+            int withinDays,
+            int expmaShort,
+            int expmaLong,
+            int sustainDays,
+            boolean allowSideway,
+            double sidewayEpsilonRatio,
+            int macdShort,
+            int macdLong,
+            int macdSignal,
+            int bollPeriod,
+            double bollStdDev,
+            int volumeWindow,
+            double volumeFactor,
+            Consumer<StrategyCandidate> onCandidate
+    ) {
+        return scan(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, allowSideway, sidewayEpsilonRatio, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, ScanMode.BUY, onCandidate);
     }
 
     /**
@@ -72,13 +91,34 @@ public class CombinedStrategyAnalysisService {
             double bollStdDev,
             int volumeWindow,
             double volumeFactor
+    ) {
+        return findSellCandidates(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, null);
+    }
+
+    /**
+     * 同上，每命中一只股票即回调 onCandidate（在扫描工作线程上调用，需线程安全）。
+     */
+    public List<String> findSellCandidates(
+            int lookbackDays,
+            int withinDays,
+            int expmaShort,
+            int expmaLong,
+            int sustainDays,
+            int macdShort,
+            int macdLong,
+            int macdSignal,
+            int bollPeriod,
+            double bollStdDev,
+            int volumeWindow,
+            double volumeFactor,
+            Consumer<StrategyCandidate> onCandidate
     ) {
         // 卖出条件简化：
         // - 趋势：EXPMA(12) 持续低于 EXPMA(50) 至少 sustainDays（空头或转弱）
         // - MACD：最新交叉为死叉，且 withinDays 限制（可选）
         // - Bollinger：当前收盘低于中轨，或最近 withinDays 触及上轨且当前跌破中轨
         // - Volume（可选）：当前量能 >= 均量 × factor（放量下跌）
-        return scan(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, false, 0.0, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, ScanMode.SELL);
+        return scan(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, false, 0.0, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, ScanMode.SELL, onCandidate);
     }
 
     /**
@@ -95,14 +135,33 @@ public class CombinedStrategyAnalysisService {
             int macdSignal,
             int bollPeriod,
             double bollStdDev
+    ) {
+        return findWatchCandidates(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, null);
+    }
+
+    /**
+     * 同上，每命中一只股票即回调 onCandidate（在扫描工作线程上调用，需线程安全）。
+     */
+    public List<String> findWatchCandidates(
+            int lookbackDays,
+            int withinDays,
+            int expmaShort,
+            int expmaLong,
+            int sustainDays,
+            int macdShort,
+            int macdLong,
+            int macdSignal,
+            int bollPeriod,
+            double bollStdDev,
+            Consumer<StrategyCandidate> onCandidate
     ) {
         // 观望条件简化：
         // - 趋势与 MACD 信号冲突（如多头趋势但最新交叉为死叉；或空头趋势但最新交叉为金叉）
         // - Bollinger 不强（当前位于中轨附近），仅用于提示冲突关注
-        return scan(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, true, 0.005, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, 0, 0.0, ScanMode.WATCH);
+        return scan(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, true, 0.005, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, 0, 0.0, ScanMode.WATCH, onCandidate);
     }
 
-    private enum ScanMode { BUY, SELL, WATCH }
+    enum ScanMode { BUY, SELL, WATCH }
 
     private List<String> scan(
             int lookbackDays,
@@ -119,154 +178,145 @@ public class CombinedStrategyAnalysisService {
             double bollStdDev,
             int volumeWindow,
             double volumeFactor,
-            ScanMode mode
+            ScanMode mode,
+            Consumer<StrategyCandidate> onCandidate
     ) {
-        Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
-        List<Candidate> candidates = new ArrayList<>();
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
 
         int need = lookbackDays + Math.max(Math.max(expmaLong, macdLong), bollPeriod);
-        for (StocksInfoMaster info : allInfos) {
-            String stockCode = info.getStockCode();
-            if (stockCode == null || stockCode.isEmpty()) continue;
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(need);
+        ScanParams params = new ScanParams(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays, allowSideway, sidewayEpsilonRatio,
+                macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor, mode, LocalDate.now());
+        List<StrategyCandidate> candidates = scanExecutor.map(codes,
+                (stockCode, buffers) -> evaluate(stockCode, snapshot.get(stockCode), params, buffers), onCandidate);
 
-            List<StocksDailyData> latestDesc = dailyRepo.listByStockCode(stockCode, need, 0);
-            if (latestDesc == null || latestDesc.size() < Math.max(Math.max(expmaLong, macdLong), bollPeriod)) continue;
-
-            List<StocksDailyData> latestAsc = latestDesc.stream()
-                    .sorted(Comparator.comparing(StocksDailyData::getTradeDate))
-                    .collect(Collectors.toList());
+        candidates.sort(Comparator.comparing(StrategyCandidate::getSignalDate).reversed());
+        return candidates.stream().map(StrategyCandidate::getStockCode).collect(Collectors.toList());
+    }
 
-            BarSeries series = new BaseBarSeriesBuilder().withName(stockCode).build();
-            for (StocksDailyData d : latestAsc) {
-                Instant endTime = d.getTradeDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
-                series.addBar(series.barBuilder()
-                        .timePeriod(Duration.ofDays(1))
-                        .endTime(endTime)
-                        .openPrice(d.getOpenPrice() == null ? 0.0 : d.getOpenPrice().doubleValue())
-                        .highPrice(d.getHighPrice() == null ? 0.0 : d.getHighPrice().doubleValue())
-                        .lowPrice(d.getLowPrice() == null ? 0.0 : d.getLowPrice().doubleValue())
-                        .closePrice(d.getClosePrice() == null ? 0.0 : d.getClosePrice().doubleValue())
-                        .volume(d.getVolume() == null ? 0.0 : d.getVolume().doubleValue())
-                        .build());
-            }
-            if (series.getBarCount() < Math.max(Math.max(expmaLong, macdLong), bollPeriod)) continue;
+    /**
+     * 单只股票的买入/卖出/观望判定，不满足条件时返回 null。
+     */
+    StrategyCandidate evaluate(String stockCode, BarColumns bars, ScanParams p, KernelBuffers buffers) {
+        if (bars == null || bars.size() < Math.max(Math.max(p.expmaLong(), p.macdLong()), p.bollPeriod())) return null;
 
-            ClosePriceIndicator close = new ClosePriceIndicator(series);
-            EMAIndicator expShort = new EMAIndicator(close, expmaShort);
-            EMAIndicator expLong = new EMAIndicator(close, expmaLong);
-            int lastIndex = series.getBarCount() - 1;
+        int n = bars.size();
+        double[] close = bars.getClose();
+        double[] expShort = buffers.get(0, n);
+        double[] expLong = buffers.get(1, n);
+        IndicatorKernels.ema(close, n, p.expmaShort(), expShort);
+        IndicatorKernels.ema(close, n, p.expmaLong(), expLong);
+        int lastIndex = n - 1;
 
-            boolean sustainAbove = true;
-            for (int i = Math.max(0, lastIndex - sustainDays + 1); i <= lastIndex; i++) {
-                if (expShort.getValue(i).doubleValue() <= expLong.getValue(i).doubleValue()) { sustainAbove = false; break; }
-            }
-            boolean sustainBelow = true;
-            for (int i = Math.max(0, lastIndex - sustainDays + 1); i <= lastIndex; i++) {
-                if (expShort.getValue(i).doubleValue() >= expLong.getValue(i).doubleValue()) { sustainBelow = false; break; }
-            }
-            boolean sideway = false;
-            if (allowSideway) {
-                sideway = true;
-                for (int i = Math.max(0, lastIndex - sustainDays + 1); i <= lastIndex; i++) {
-                    double diff = Math.abs(expShort.getValue(i).doubleValue() - expLong.getValue(i).doubleValue());
-                    double px = close.getValue(i).doubleValue();
-                    double ratio = (px == 0.0) ? diff : diff / px;
-                    if (ratio > sidewayEpsilonRatio) { sideway = false; break; }
-                }
+        boolean sustainAbove = true;
+        for (int i = Math.max(0, lastIndex - p.sustainDays() + 1); i <= lastIndex; i++) {
+            if (expShort[i] <= expLong[i]) { sustainAbove = false; break; }
+        }
+        boolean sustainBelow = true;
+        for (int i = Math.max(0, lastIndex - p.sustainDays() + 1); i <= lastIndex; i++) {
+            if (expShort[i] >= expLong[i]) { sustainBelow = false; break; }
+        }
+        boolean sideway = false;
+        if (p.allowSideway()) {
+            sideway = true;
+            for (int i = Math.max(0, lastIndex - p.sustainDays() + 1); i <= lastIndex; i++) {
+                double diff = Math.abs(expShort[i] - expLong[i]);
+                double px = close[i];
+                double ratio = (px == 0.0) ? diff : diff / px;
+                if (ratio > p.sidewayEpsilonRatio()) { sideway = false; break; }
             }
-            boolean bullTrend = sustainAbove || sideway;
-            boolean bearTrend = sustainBelow;
+        }
+        boolean bullTrend = sustainAbove || sideway;
+        boolean bearTrend = sustainBelow;
 
-            MACDIndicator macd = new MACDIndicator(close, macdShort, macdLong);
-            EMAIndicator dea = new EMAIndicator(macd, macdSignal);
-            LocalDate now = LocalDate.now();
-            LocalDate lastGoldenDate = null;
-            LocalDate lastDeathDate = null;
-            for (int i = Math.max(1, series.getBarCount() - lookbackDays); i < series.getBarCount(); i++) {
-                double sPrev = macd.getValue(i - 1).doubleValue() - dea.getValue(i - 1).doubleValue();
-                double sNow  = macd.getValue(i).doubleValue()     - dea.getValue(i).doubleValue();
-                boolean golden = (sPrev <= 0.0) && (sNow > macdCrossEpsilon);
-                boolean death  = (sPrev >= 0.0) && (sNow < -macdCrossEpsilon);
-                if (golden) {
-                    lastGoldenDate = series.getBar(i).getEndTime().atZone(ZoneId.systemDefault()).toLocalDate();
-                } else if (death) {
-                    lastDeathDate = series.getBar(i).getEndTime().atZone(ZoneId.systemDefault()).toLocalDate();
-                }
+        double[] dif = buffers.get(2, n);
+        double[] dea = buffers.get(3, n);
+        double[] hist = buffers.get(4, n);
+        IndicatorKernels.macd(close, n, p.macdShort(), p.macdLong(), p.macdSignal(), dif, dea, hist);
+        LocalDate now = p.now();
+        LocalDate lastGoldenDate = null;
+        LocalDate lastDeathDate = null;
+        for (int i = Math.max(1, n - p.lookbackDays()); i < n; i++) {
+            double sPrev = dif[i - 1] - dea[i - 1];
+            double sNow  = dif[i]     - dea[i];
+            boolean golden = (sPrev <= 0.0) && (sNow > macdCrossEpsilon);
+            boolean death  = (sPrev >= 0.0) && (sNow < -macdCrossEpsilon);
+            if (golden) {
+                lastGoldenDate = bars.tradeDate(i);
+            } else if (death) {
+                lastDeathDate = bars.tradeDate(i);
             }
+        }
 
-            SMAIndicator middle = new SMAIndicator(close, bollPeriod);
-            StandardDeviationIndicator sd = new StandardDeviationIndicator(close, bollPeriod);
-            double midNow = middle.getValue(lastIndex).doubleValue();
-            double sdNow = sd.getValue(lastIndex).doubleValue();
-            double upperNow = midNow + sdNow * bollStdDev;
-            double lowerNow = midNow - sdNow * bollStdDev;
-            double closeNow = close.getValue(lastIndex).doubleValue();
-            boolean aboveMiddleNow = closeNow >= midNow;
-            boolean belowMiddleNow = closeNow < midNow;
-            boolean touchedLowerRecently = false;
-            boolean touchedUpperRecently = false;
-            int lookStart = Math.max(0, lastIndex - (withinDays > 0 ? withinDays : lookbackDays));
-            for (int i = lookStart; i <= lastIndex; i++) {
-                double mid = middle.getValue(i).doubleValue();
-                double sdv = sd.getValue(i).doubleValue();
-                double lower = mid - sdv * bollStdDev;
-                double upper = mid + sdv * bollStdDev;
-                double c = close.getValue(i).doubleValue();
-                if (c <= lower) touchedLowerRecently = true;
-                if (c >= upper) touchedUpperRecently = true;
-            }
+        double[] middle = buffers.get(5, n);
+        double[] sd = buffers.get(6, n);
+        IndicatorKernels.sma(close, n, p.bollPeriod(), middle);
+        IndicatorKernels.stdDev(close, n, p.bollPeriod(), middle, sd);
+        double midNow = middle[lastIndex];
+        double sdNow = sd[lastIndex];
+        double upperNow = midNow + sdNow * p.bollStdDev();
+        double lowerNow = midNow - sdNow * p.bollStdDev();
+        double closeNow = close[lastIndex];
+        boolean aboveMiddleNow = closeNow >= midNow;
+        boolean belowMiddleNow = closeNow < midNow;
+        boolean touchedLowerRecently = false;
+        boolean touchedUpperRecently = false;
+        int lookStart = Math.max(0, lastIndex - (p.withinDays() > 0 ? p.withinDays() : p.lookbackDays()));
+        for (int i = lookStart; i <= lastIndex; i++) {
+            double mid = middle[i];
+            double sdv = sd[i];
+            double lower = mid - sdv * p.bollStdDev();
+            double upper = mid + sdv * p.bollStdDev();
+            double c = close[i];
+            if (c <= lower) touchedLowerRecently = true;
+            if (c >= upper) touchedUpperRecently = true;
+        }
 
-            boolean volumeOk = true;
-            if (mode != ScanMode.WATCH && volumeWindow > 0 && volumeFactor > 0) {
-                int startVol = Math.max(0, lastIndex - volumeWindow);
-                double sum = 0.0; int cnt = 0;
-                for (int i = startVol; i < lastIndex; i++) { sum += series.getBar(i).getVolume().doubleValue(); cnt++; }
-                double avg = cnt == 0 ? 0.0 : sum / cnt;
-                double volNow = series.getBar(lastIndex).getVolume().doubleValue();
-                volumeOk = avg == 0.0 ? true : volNow >= avg * volumeFactor;
-            }
-            if (!volumeOk) continue;
+        boolean volumeOk = true;
+        if (p.mode() != ScanMode.WATCH && p.volumeWindow() > 0 && p.volumeFactor() > 0) {
+            int startVol = Math.max(0, lastIndex - p.volumeWindow());
+            double sum = 0.0; int cnt = 0;
+            long[] volume = bars.getVolume();
+            for (int i = startVol; i < lastIndex; i++) { sum += volume[i]; cnt++; }
+            double avg = cnt == 0 ? 0.0 : sum / cnt;
+            double volNow = volume[lastIndex];
+            volumeOk = avg == 0.0 ? true : volNow >= avg * p.volumeFactor();
+        }
+        if (!volumeOk) return null;
 
-            boolean pass = false;
-            LocalDate sortDate = null;
-            if (mode == ScanMode.BUY) {
-                // 买入：多头或震荡 + 最新金叉（且 withinDays 限制） + 中轨之上或下轨反弹站上中轨
-                if (lastGoldenDate == null) { pass = false; }
-                else {
-                    boolean withinOk = withinDays <= 0 || (ChronoUnit.DAYS.between(lastGoldenDate, now) >= 0 && ChronoUnit.DAYS.between(lastGoldenDate, now) <= withinDays);
-                    boolean bollOk = aboveMiddleNow || (touchedLowerRecently && aboveMiddleNow);
-                    pass = bullTrend && withinOk && bollOk;
-                    sortDate = lastGoldenDate;
-                }
-            } else if (mode == ScanMode.SELL) {
-                // 卖出：空头或转弱 + 最新死叉（且 withinDays 限制） + 中轨之下或上轨触及后跌破中轨
-                if (lastDeathDate == null) { pass = false; }
-                else {
-                    boolean withinOk = withinDays <= 0 || (ChronoUnit.DAYS.between(lastDeathDate, now) >= 0 && ChronoUnit.DAYS.between(lastDeathDate, now) <= withinDays);
-                    boolean bollOk = belowMiddleNow || (touchedUpperRecently && belowMiddleNow);
-                    pass = bearTrend && withinOk && bollOk;
-                    sortDate = lastDeathDate;
-                }
-            } else { // WATCH
-                // 观望：趋势与 MACD 冲突
-                boolean conflict1 = bullTrend && lastDeathDate != null && (withinDays <= 0 || ChronoUnit.DAYS.between(lastDeathDate, now) <= withinDays);
-                boolean conflict2 = bearTrend && lastGoldenDate != null && (withinDays <= 0 || ChronoUnit.DAYS.between(lastGoldenDate, now) <= withinDays);
-                pass = (conflict1 || conflict2);
-                sortDate = conflict1 ? lastDeathDate : (conflict2 ? lastGoldenDate : null);
+        boolean pass = false;
+        LocalDate sortDate = null;
+        if (p.mode() == ScanMode.BUY) {
+            // 买入：多头或震荡 + 最新金叉（且 withinDays 限制） + 中轨之上或下轨反弹站上中轨
+            if (lastGoldenDate == null) { pass = false; }
+            else {
+                boolean withinOk = p.withinDays() <= 0 || (ChronoUnit.DAYS.between(lastGoldenDate, now) >= 0 && ChronoUnit.DAYS.between(lastGoldenDate, now) <= p.withinDays());
+                boolean bollOk = aboveMiddleNow || (touchedLowerRecently && aboveMiddleNow);
+                pass = bullTrend && withinOk && bollOk;
+                sortDate = lastGoldenDate;
             }
-
-            if (pass) {
-                candidates.add(new Candidate(stockCode, sortDate));
+        } else if (p.mode() == ScanMode.SELL) {
+            // 卖出：空头或转弱 + 最新死叉（且 withinDays 限制） + 中轨之下或上轨触及后跌破中轨
+            if (lastDeathDate == null) { pass = false; }
+            else {
+                boolean withinOk = p.withinDays() <= 0 || (ChronoUnit.DAYS.between(lastDeathDate, now) >= 0 && ChronoUnit.DAYS.between(lastDeathDate, now) <= p.withinDays());
+                boolean bollOk = belowMiddleNow || (touchedUpperRecently && belowMiddleNow);
+                pass = bearTrend && withinOk && bollOk;
+                sortDate = lastDeathDate;
             }
+        } else { // WATCH
+            // 观望：趋势与 MACD 冲突
+            boolean conflict1 = bullTrend && lastDeathDate != null && (p.withinDays() <= 0 || ChronoUnit.DAYS.between(lastDeathDate, now) <= p.withinDays());
+            boolean conflict2 = bearTrend && lastGoldenDate != null && (p.withinDays() <= 0 || ChronoUnit.DAYS.between(lastGoldenDate, now) <= p.withinDays());
+            pass = (conflict1 || conflict2);
+            sortDate = conflict1 ? lastDeathDate : (conflict2 ? lastGoldenDate : null);
         }
 
-        candidates.sort(Comparator.comparing((Candidate c) -> c.lastCrossDate).reversed());
-        return candidates.stream().map(c -> c.stockCode).collect(Collectors.toList());
+        return pass ? new StrategyCandidate(stockCode, sortDate) : null;
     }
 
-    private static class Candidate {
-        String stockCode;
-        LocalDate lastCrossDate;
-        Candidate(String code, LocalDate d) { this.stockCode = code; this.lastCrossDate = d; }
-    }
+    /** 一次扫描的参数 */
+    record ScanParams(int lookbackDays, int withinDays, int expmaShort, int expmaLong, int sustainDays,
+                      boolean allowSideway, double sidewayEpsilonRatio, int macdShort, int macdLong, int macdSignal,
+                      int bollPeriod, double bollStdDev, int volumeWindow, double volumeFactor, ScanMode mode, LocalDate now) {}
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
+import com.xiahou.yu.stockindicatoranalyzer.crosssection.CrossSectionMath;
+import com.xiahou.yu.stockindicatoranalyzer.dto.FactorRankResult;
+import com.xiahou.yu.stockindicatoranalyzer.entity.IndustryIndexesDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
+import com.xiahou.yu.stockindicatoranalyzer.repository.IndustryIndexesDailyDataRepository;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 横截面因子与排名：对指定交易日一次遍历全市场列式快照，计算 N 日收益率、相对行业指数强度、量比，
+ * 再在原始类型数组上做百分位排名 / z 分数，并用最小堆选出前 K 名（不对全体结果排序）。
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CrossSectionalFactorService {
+
+    public static final String RANK_BY_RETURN = "return";
+    public static final String RANK_BY_RELATIVE_STRENGTH = "relative-strength";
+    public static final String RANK_BY_VOLUME = "volume";
+    public static final String RANK_BY_COMPOSITE = "composite";
+
+    private static final Set<String> RANK_FACTORS =
+            Set.of(RANK_BY_RETURN, RANK_BY_RELATIVE_STRENGTH, RANK_BY_VOLUME, RANK_BY_COMPOSITE);
+
+    private final StocksInfoMasterRepository infoRepo;
+    private final IndustryIndexesDailyDataRepository industryRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final MarketDataVersion marketDataVersion;
+
+    /**
+     * @param asOf 计算日期，为空时取最新交易日；股票在该日无K线（停牌等）时不参与排名
+     * @param returnDays 收益率回看交易日数
+     * @param volumeWindow 量比均量窗口
+     * @param topK 返回前 K 名
+     * @param rankBy return | relative-strength | volume | composite
+     */
+    public FactorRankResult rank(LocalDate asOf, int returnDays, int volumeWindow, int topK, String rankBy) {
+        if (returnDays <= 0 || volumeWindow <= 0) {
+            throw new IllegalArgumentException("returnDays 与 volumeWindow 必须>0");
+        }
+        String by = rankBy == null || rankBy.isEmpty() ? RANK_BY_COMPOSITE : rankBy.toLowerCase(Locale.ROOT);
+        if (!RANK_FACTORS.contains(by)) {
+            throw new IllegalArgumentException("未知的排序因子: " + rankBy);
+        }
+        LocalDate date = asOf != null ? asOf : marketDataVersion.current().latestTradeDate();
+        if (date == null) {
+            return new FactorRankResult(null, by, 0, List.of());
+        }
+        // 只加载不晚于 date 的窗口，历史日期与最新日期的加载量相同
+        int barsPerCode = Math.max(returnDays, volumeWindow) + 1;
+        int day = (int) date.toEpochDay();
+
+        MarketBarSnapshot stocks = snapshotLoader.loadLatest(BarMarket.STOCK, barsPerCode, date);
+        MarketBarSnapshot industries = snapshotLoader.loadLatest(BarMarket.INDUSTRY, barsPerCode, date);
+        Map<String, String> industryIndex = new HashMap<>();
+        for (IndustryIndexesDailyData row : industryRepo.findLatestPerIndustry()) {
+            industryIndex.put(row.getIndustryName(), row.getIndexCode());
+        }
+        Map<String, Double> industryReturns = new HashMap<>();
+
+        // 一次遍历写入列数组
+        List<StocksInfoMaster> infos = new ArrayList<>();
+        infoRepo.findAll().forEach(infos::add);
+        int n = infos.size();
+        String[] codes = new String[n];
+        String[] industryNames = new String[n];
+        double[] ret = new double[n];
+        double[] industryRet = new double[n];
+        double[] rel = new double[n];
+        double[] volRatio = new double[n];
+        int m = 0;
+        for (StocksInfoMaster info : infos) {
+            String code = info.getStockCode();
+            BarColumns bars = code == null ? null : stocks.get(code);
+            if (bars == null) continue;
+            int t = Arrays.binarySearch(bars.getEpochDays(), day);
+            if (t < 0) continue;
+
+            codes[m] = code;
+            industryNames[m] = info.getIndustryCategory();
+            ret[m] = t >= returnDays ? change(bars.getClose(), t - returnDays, t) : Double.NaN;
+            volRatio[m] = t >= volumeWindow ? volumeRatio(bars.getVolume(), t, volumeWindow) : Double.NaN;
+            String indexCode = info.getIndustryCategory() == null ? null : industryIndex.get(info.getIndustryCategory());
+            double ir = Double.NaN;
+            if (indexCode != null && t >= returnDays) {
+                int from = bars.getEpochDays()[t - returnDays];
+                ir = industryReturns.computeIfAbsent(indexCode + '@' + from,
+                        k -> industryReturn(industries.get(indexCode), from, day));
+            }
+            industryRet[m] = ir;
+            rel[m] = ret[m] - ir;
+            m++;
+        }
+        ret = Arrays.copyOf(ret, m);
+        rel = Arrays.copyOf(rel, m);
+        volRatio = Arrays.copyOf(volRatio, m);
+
+        double[] retRank = CrossSectionMath.percentileRank(ret);
+        double[] relRank = CrossSectionMath.percentileRank(rel);
+        double[] volZ = CrossSectionMath.zScore(volRatio);
+        double[] volRank = CrossSectionMath.percentileRank(volZ);
+        double[] composite = new double[m];
+        for (int i = 0; i < m; i++) {
+            composite[i] = nanMean(retRank[i], relRank[i], volRank[i]);
+        }
+        double[] score = switch (by) {
+            case RANK_BY_RETURN -> ret;
+            case RANK_BY_RELATIVE_STRENGTH -> rel;
+            case RANK_BY_VOLUME -> volZ;
+            case RANK_BY_COMPOSITE -> composite;
+            default -> throw new IllegalArgumentException("未知的排序因子: " + rankBy);
+        };
+
+        int[] top = CrossSectionMath.topK(score, topK);
+        List<FactorRankResult.FactorRow> rows = new ArrayList<>(top.length);
+        for (int i : top) {
+            rows.add(new FactorRankResult.FactorRow(codes[i], industryNames[i],
+                    value(ret[i] * 100.0), value(retRank[i]), value(industryRet[i] * 100.0),
+                    value(rel[i] * 100.0), value(relRank[i]), value(volRatio[i]), value(volZ[i]), value(composite[i])));
+        }
+        return new FactorRankResult(date, by, m, rows);
+    }
+
+    /** close[to] / close[from] - 1，价格缺失时为 NaN */
+    private static double change(double[] close, int from, int to) {
+        return close[from] > 0 ? close[to] / close[from] - 1 : Double.NaN;
+    }
+
+    private static double volumeRatio(long[] volume, int t, int window) {
+        long sum = 0L;
+        for (int i = t - window; i < t; i++) sum += volume[i];
+        return sum == 0L ? Double.NaN : volume[t] * (double) window / sum;
+    }
+
+    /** 行业指数在 [from, to] 两个交易日（取不晚于该日的最近一根）之间的收益率 */
+    private static double industryReturn(BarColumns bars, int from, int to) {
+        if (bars == null) return Double.NaN;
+        int a = floorIndex(bars.getEpochDays(), from);
+        int b = floorIndex(bars.getEpochDays(), to);
+        if (a < 0 || b < 0) return Double.NaN;
+        return change(bars.getClose(), a, b);
+    }
+
+    private static int floorIndex(int[] days, int day) {
+        int i = Arrays.binarySearch(days, day);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private static double nanMean(double... xs) {
+        double sum = 0.0;
+        int cnt = 0;
+        for (double x : xs) {
+            if (!Double.isNaN(x)) { sum += x; cnt++; }
+        }
+        return cnt == 0 ? Double.NaN : sum / cnt;
+    }
+
+    private static Double value(double v) {
+        return Double.isNaN(v) || Double.isInfinite(v) ? null : v;
+    }
+}
@@ -1,9 +1,13 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
 import com.xiahou.yu.stockindicatoranalyzer.entity.IndexesDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.repository.IndexesDailyDataRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,7 +19,10 @@ import java.util.Optional;
 public class IndexesDailyDataService {
 
     private final IndexesDailyDataRepository repository;
+    private final MarketDataVersion marketDataVersion;
+    private final MappedBarStore barStore;
 
+    @Transactional
     public IndexesDailyData saveOrUpdate(IndexesDailyData data) {
         Optional<IndexesDailyData> existing = repository.findByIndexCodeAndTradeDate(data.getIndexCode(), data.getTradeDate());
         if (existing.isPresent()) {
@@ -24,7 +31,10 @@ public class IndexesDailyDataService {
             data.setCreatedAt(old.getCreatedAt());
             data.setUpdatedAt(LocalDateTime.now());
         }
-        return repository.save(data);
+        IndexesDailyData saved = repository.save(data);
+        marketDataVersion.onDailyWritten(saved.getTradeDate());
+        barStore.markDirty(BarMarket.INDEX, saved.getIndexCode(), saved.getTradeDate());
+        return saved;
     }
 
     public Optional<IndexesDailyData> get(String indexCode, LocalDate date) {
@@ -1,6 +1,9 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.DailyIndicatorValues;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorMaterializationService;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorParamSet;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
 import com.xiahou.yu.stockindicatoranalyzer.strategy.BollingerIndicatorStrategy;
 import com.xiahou.yu.stockindicatoranalyzer.strategy.EmaIndicatorStrategy;
@@ -23,8 +26,8 @@ import java.util.*;
 /**
  * 指标计算编排服务：
  * 1) 读取指定股票代码与日期范围的日线数据；
- * 2) 构建 ta4j BarSeries；
- * 3) 应用策略模式的四个实现（布林带、SMA、EMA、MACD），将指标填充到非数据库字段；
+ * 2) 若该参数组的物化指标（stocks_daily_indicators）完整覆盖所有交易日，直接填充物化值；
+ * 3) 否则构建 ta4j BarSeries，应用策略模式的四个实现（布林带、SMA、EMA、MACD），将指标填充到非数据库字段；
  * 4) 返回已填充的列表。
  */
 @Service
@@ -32,6 +35,7 @@ import java.util.*;
 public class IndicatorAugmentationService {
 
     private final StocksDailyDataRepository dailyRepo;
+    private final IndicatorMaterializationService materializationService;
 
     @Value("${indicator.macd.shortPeriod}")
     private int macdShortPeriod;
@@ -71,6 +75,20 @@ public class IndicatorAugmentationService {
         if (list == null || list.isEmpty()) {
             return Collections.emptyList();
         }
+        int shortPeriod = macdShortOverride != null ? macdShortOverride : macdShortPeriod;
+        int longPeriod = macdLongOverride != null ? macdLongOverride : macdLongPeriod;
+        int signalPeriod = macdSignalOverride != null ? macdSignalOverride : macdSignalPeriod;
+        double histMultiplier = macdHistMultiplierOverride != null ? macdHistMultiplierOverride : macdHistMultiplier;
+
+        // 优先读取物化指标
+        IndicatorParamSet paramSet = new IndicatorParamSet(bollingerPeriod, bollingerK, shortPeriod, longPeriod, signalPeriod);
+        List<LocalDate> dates = list.stream().map(StocksDailyData::getTradeDate).toList();
+        List<DailyIndicatorValues> materialized = materializationService.findAligned(stockCode, paramSet, dates);
+        if (materialized != null) {
+            DailyIndicatorValues.applyTo(list, materialized, histMultiplier);
+            return list;
+        }
+
         // 构建系列（日期升序）
         BarSeries series = new BaseBarSeriesBuilder().withName(stockCode).build();
         for (StocksDailyData d : list) {
@@ -90,10 +108,10 @@ public class IndicatorAugmentationService {
         bollParams.put("period", bollingerPeriod);
         bollParams.put("k", bollingerK);
         Map<String, Object> macdParams = new HashMap<>();
-        macdParams.put("shortPeriod", macdShortOverride != null ? macdShortOverride : macdShortPeriod);
-        macdParams.put("longPeriod", macdLongOverride != null ? macdLongOverride : macdLongPeriod);
-        macdParams.put("signalPeriod", macdSignalOverride != null ? macdSignalOverride : macdSignalPeriod);
-        macdParams.put("histMultiplier", macdHistMultiplierOverride != null ? macdHistMultiplierOverride : macdHistMultiplier);
+        macdParams.put("shortPeriod", shortPeriod);
+        macdParams.put("longPeriod", longPeriod);
+        macdParams.put("signalPeriod", signalPeriod);
+        macdParams.put("histMultiplier", histMultiplier);
 
         List<IndicatorAugmentationStrategy> strategies = Arrays.asList(
                 new BollingerIndicatorStrategy(),
@@ -0,0 +1,197 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksIndicatorState;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.DailyIndicatorValues;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorMaterializationService;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorParamSet;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksIndicatorStateRepository;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import com.xiahou.yu.stockindicatoranalyzer.state.IncrementalIndicatorState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 增量指标状态服务：日线入库后推进对应股票的指标状态，并同步标准口径的指标物化行。
+ * - 新K线晚于状态日期：在已持久化状态上 O(1) 推进一根，写入当日物化行；
+ * - 重复写入状态日期当天：O(1) 替换最后一根，重写当日物化行；
+ * - 写入的是更早的历史日期（补数/修正）：按该股票全量日线重建状态，只重写该日期及之后的物化行；
+ * - 状态缺失：全量重建并物化全部交易日。
+ * 非标准参数组不随日线维护，以上各路径都会清除其在变化日期及之后的物化行，读取时回退为实时计算。
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class IndicatorStateService {
+
+    private final StocksIndicatorStateRepository stateRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final IndicatorMaterializationService materializationService;
+
+    /** 读取“某日之后全部日线”时的区间上界 */
+    private static final LocalDate OPEN_END = LocalDate.of(9999, 12, 31);
+
+    /**
+     * 日线保存后调用，返回推进后的状态。
+     */
+    public IncrementalIndicatorState onDailySaved(StocksDailyData bar) {
+        Optional<StocksIndicatorState> existing = stateRepo.findByStockCode(bar.getStockCode());
+        if (existing.isPresent()) {
+            StocksIndicatorState row = existing.get();
+            if (!bar.getTradeDate().isBefore(row.getLastTradeDate())) {
+                IncrementalIndicatorState state = toState(row);
+                push(state, bar.getTradeDate(), toDouble(bar.getClosePrice()));
+                save(bar.getStockCode(), state, row);
+                materializationService.writeLatest(bar.getStockCode(), state);
+                materializationService.invalidateNonStandard(bar.getStockCode(), bar.getTradeDate());
+                return state;
+            }
+            return rebuild(bar.getStockCode(), bar.getTradeDate());
+        }
+        return rebuild(bar.getStockCode());
+    }
+
+    /**
+     * 批量入库提交后调用：firstDate 为该股票本次写入的最早交易日。
+     * 不早于状态日期时从库中读取状态日期及之后的日线，在内存中替换最后一根并逐根推进，状态与物化行各写一次；
+     * 否则（含补历史数据）整体重建状态，只重写 firstDate 及之后的物化行。
+     */
+    public IncrementalIndicatorState onDailyBatchSaved(String stockCode, LocalDate firstDate) {
+        Optional<StocksIndicatorState> existing = stateRepo.findByStockCode(stockCode);
+        if (existing.isEmpty()) {
+            return rebuild(stockCode);
+        }
+        if (firstDate.isBefore(existing.get().getLastTradeDate())) {
+            return rebuild(stockCode, firstDate);
+        }
+        StocksIndicatorState row = existing.get();
+        BarColumns bars = snapshotLoader.loadRange(stockCode, row.getLastTradeDate(), OPEN_END);
+        if (bars == null) {
+            return toState(row);
+        }
+        IncrementalIndicatorState state = toState(row);
+        double[] close = bars.getClose();
+        List<DailyIndicatorValues> values = new ArrayList<>(bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            push(state, bars.tradeDate(i), close[i]);
+            values.add(IndicatorMaterializationService.latestValues(stockCode, state));
+        }
+        save(stockCode, state, row);
+        materializationService.write(values);
+        materializationService.invalidateNonStandard(stockCode, firstDate);
+        return state;
+    }
+
+    /**
+     * 按全量日线重建某只股票的指标状态。无日线数据时删除已有状态并返回 null。
+     */
+    public IncrementalIndicatorState rebuild(String stockCode) {
+        return rebuild(stockCode, null);
+    }
+
+    /**
+     * 按全量日线重建状态；from 非空时只重写 from 及之后的物化行（更早的行不受影响），避免在写入事务内重写全部历史。
+     */
+    private IncrementalIndicatorState rebuild(String stockCode, LocalDate from) {
+        BarColumns history = snapshotLoader.loadHistory(stockCode);
+        Optional<StocksIndicatorState> existing = stateRepo.findByStockCode(stockCode);
+        if (history == null) {
+            existing.ifPresent(stateRepo::delete);
+            materializationService.invalidateNonStandard(stockCode, null);
+            return null;
+        }
+        IncrementalIndicatorState state = new IncrementalIndicatorState();
+        double[] close = history.getClose();
+        for (int i = 0; i < history.size(); i++) {
+            state.advance(history.tradeDate(i), close[i]);
+        }
+        save(stockCode, state, existing.orElse(null));
+        if (from == null) {
+            materializationService.materialize(history, IndicatorParamSet.STANDARD);
+        } else {
+            materializationService.materialize(history, IndicatorParamSet.STANDARD, from);
+        }
+        materializationService.invalidateNonStandard(stockCode, from);
+        return state;
+    }
+
+    /** 与状态日期相同则替换最后一根，否则推进一根 */
+    private static void push(IncrementalIndicatorState state, LocalDate tradeDate, double close) {
+        if (tradeDate.equals(state.getLastTradeDate())) {
+            state.replaceLast(tradeDate, close);
+        } else {
+            state.advance(tradeDate, close);
+        }
+    }
+
+    /**
+     * 读取某只股票当前的指标状态。
+     */
+    public Optional<IncrementalIndicatorState> find(String stockCode) {
+        return stateRepo.findByStockCode(stockCode).map(IndicatorStateService::toState);
+    }
+
+    private void save(String stockCode, IncrementalIndicatorState state, StocksIndicatorState old) {
+        double[] ema = state.emaValues();
+        LocalDateTime now = LocalDateTime.now();
+        StocksIndicatorState row = StocksIndicatorState.builder()
+                .id(old == null ? null : old.getId())
+                .stockCode(stockCode)
+                .lastTradeDate(state.getLastTradeDate())
+                .barCount(state.getBarCount())
+                .recentCloses(encode(state.recentCloses()))
+                .ema5(ema[0])
+                .ema10(ema[1])
+                .ema20(ema[2])
+                .ema60(ema[3])
+                .macdEmaShort(state.getEmaShort())
+                .macdEmaLong(state.getEmaLong())
+                .macdDea(state.macdDea())
+                .createdAt(old == null ? now : old.getCreatedAt())
+                .updatedAt(now)
+                .build();
+        stateRepo.save(row);
+    }
+
+    private static IncrementalIndicatorState toState(StocksIndicatorState row) {
+        return IncrementalIndicatorState.restore(
+                row.getBarCount(),
+                row.getLastTradeDate(),
+                decode(row.getRecentCloses()),
+                new double[]{row.getEma5(), row.getEma10(), row.getEma20(), row.getEma60()},
+                row.getMacdEmaShort(),
+                row.getMacdEmaLong(),
+                row.getMacdDea());
+    }
+
+    private static byte[] encode(double[] values) {
+        ByteBuffer buf = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (double v : values) {
+            buf.putDouble(v);
+        }
+        return buf.array();
+    }
+
+    private static double[] decode(byte[] bytes) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        double[] values = new double[bytes.length / Double.BYTES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buf.getDouble();
+        }
+        return values;
+    }
+
+    private static double toDouble(BigDecimal v) {
+        return v == null ? 0.0 : v.doubleValue();
+    }
+}
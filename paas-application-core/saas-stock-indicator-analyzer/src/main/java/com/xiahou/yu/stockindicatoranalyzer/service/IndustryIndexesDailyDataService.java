@@ -1,9 +1,13 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
 import com.xiahou.yu.stockindicatoranalyzer.entity.IndustryIndexesDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.repository.IndustryIndexesDailyDataRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,7 +19,11 @@ import java.util.Optional;
 public class IndustryIndexesDailyDataService {
 
     private final IndustryIndexesDailyDataRepository repository;
+    private final IndustryVerdictCache verdictCache;
+    private final MarketDataVersion marketDataVersion;
+    private final MappedBarStore barStore;
 
+    @Transactional
     public IndustryIndexesDailyData saveOrUpdate(IndustryIndexesDailyData data) {
         Optional<IndustryIndexesDailyData> existing = repository.findByIndexCodeAndTradeDate(data.getIndexCode(), data.getTradeDate());
         if (existing.isPresent()) {
@@ -24,7 +32,11 @@ public class IndustryIndexesDailyDataService {
             data.setCreatedAt(old.getCreatedAt());
             data.setUpdatedAt(LocalDateTime.now());
         }
-        return repository.save(data);
+        IndustryIndexesDailyData saved = repository.save(data);
+        verdictCache.clear();
+        marketDataVersion.onDailyWritten(saved.getTradeDate());
+        barStore.markDirty(BarMarket.INDUSTRY, saved.getIndexCode(), saved.getTradeDate());
+        return saved;
     }
 
     public Optional<IndustryIndexesDailyData> get(String indexCode, LocalDate date) {
@@ -47,6 +59,10 @@ public class IndustryIndexesDailyDataService {
         return repository.findByIndustryNameOrderByTradeDateAsc(industryName);
     }
 
+    public Optional<IndustryIndexesDailyData> latestByIndustryName(String industryName) {
+        return repository.findLatestByIndustryName(industryName);
+    }
+
     // 分页
     public List<IndustryIndexesDailyData> listAll(Integer pageNum, Integer pageSize) {
         int s = pageSize == null || pageSize <= 0 ? 50 : pageSize;
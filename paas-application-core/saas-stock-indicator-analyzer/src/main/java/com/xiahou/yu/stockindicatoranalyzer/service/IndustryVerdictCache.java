@@ -0,0 +1,69 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 行业判定的跨请求缓存：按 (行业名称, 指标参数) 保存解析出的行业指数代码与“增长阶段”判定结果，
+ * 条目在 TTL 到期后失效。TTL 为 0（默认）时不做跨请求缓存，仅依赖单次筛选内的去重。
+ */
+@Component
+public class IndustryVerdictCache {
+
+    /** 单个行业的判定结果；indexCode 为 null 表示该行业没有可用的指数数据 */
+    public record Verdict(String indexCode, boolean growth) {}
+
+    /** 缓存键：行业名称与影响判定的全部参数 */
+    public record Key(String industryName, int industryLookbackDays, int withinDays, int bollPeriod, double bollK, int emaSlopeDays) {}
+
+    private record Entry(Verdict verdict, long expiresAtMillis) {}
+
+    private final long ttlMillis;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public IndustryVerdictCache(@Value("${indicator.screening.industry-cache-ttl-seconds:0}") long ttlSeconds) {
+        this.ttlMillis = Math.max(0L, ttlSeconds) * 1000L;
+    }
+
+    /**
+     * 读取缓存的判定，缺失或过期时调用 loader 计算并写入。
+     */
+    public Verdict get(Key key, Supplier<Verdict> loader) {
+        if (ttlMillis == 0L) {
+            return loader.get();
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtMillis() > now) {
+            return entry.verdict();
+        }
+        Verdict verdict = loader.get();
+        entries.put(key, new Entry(verdict, now + ttlMillis));
+        if (entries.size() > 4096) {
+            entries.values().removeIf(e -> e.expiresAtMillis() <= now);
+        }
+        return verdict;
+    }
+
+    /**
+     * 清空全部缓存（行业日线更新后调用）：存在事务时在提交后清空，避免提交前的并发筛选把旧判定重新写入缓存。
+     */
+    public void clear() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.clear();
+                }
+            });
+        } else {
+            entries.clear();
+        }
+    }
+}
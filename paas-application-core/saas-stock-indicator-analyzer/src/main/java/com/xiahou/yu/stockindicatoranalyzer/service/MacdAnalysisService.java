@@ -1,29 +1,27 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
 import com.xiahou.yu.stockindicatoranalyzer.dto.MacdCrossEvent;
 import com.xiahou.yu.stockindicatoranalyzer.dto.MacdCrossResult;
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
-import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
+import com.xiahou.yu.stockindicatoranalyzer.dto.MacdSweepResult;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
-import org.ta4j.core.indicators.MACDIndicator;
-import org.ta4j.core.indicators.averages.EMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-
-import java.time.Duration;
-import java.time.Instant;
+
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,7 +29,8 @@ import java.util.stream.Collectors;
 public class MacdAnalysisService {
 
     private final StocksInfoMasterRepository infoRepo;
-    private final StocksDailyDataRepository dailyRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final ParallelScanExecutor scanExecutor;
 
     @Value("${indicator.macd.shortPeriod}")
     private int defaultShortPeriod;
@@ -82,74 +81,193 @@ public class MacdAnalysisService {
         int sp = shortPeriod > 0 ? shortPeriod : defaultShortPeriod;
         int lp = longPeriod > 0 ? longPeriod : defaultLongPeriod;
         int sgp = signalPeriod > 0 ? signalPeriod : defaultSignalPeriod;
-        List<MacdCrossResult> results = new ArrayList<>();
-
-        Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
-        for (StocksInfoMaster info : allInfos) {
-            String stockCode = info.getStockCode();
-            if (stockCode == null || stockCode.isEmpty()) continue;
-
-            int need = lookbackDays + Math.max(lp, sgp);
-            List<StocksDailyData> latestDesc = dailyRepo.listByStockCode(stockCode, need, 0);
-            if (latestDesc == null || latestDesc.size() < Math.max(lp, sgp)) continue;
-
-            List<StocksDailyData> latestAsc = latestDesc.stream()
-                    .sorted(Comparator.comparing(StocksDailyData::getTradeDate))
-                    .collect(Collectors.toList());
-
-            BarSeries series = new BaseBarSeriesBuilder().withName(stockCode).build();
-            for (StocksDailyData d : latestAsc) {
-                Instant endTime = d.getTradeDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
-                series.addBar(series.barBuilder()
-                        .timePeriod(Duration.ofDays(1))
-                        .endTime(endTime)
-                        .openPrice(d.getOpenPrice() == null ? 0.0 : d.getOpenPrice().doubleValue())
-                        .highPrice(d.getHighPrice() == null ? 0.0 : d.getHighPrice().doubleValue())
-                        .lowPrice(d.getLowPrice() == null ? 0.0 : d.getLowPrice().doubleValue())
-                        .closePrice(d.getClosePrice() == null ? 0.0 : d.getClosePrice().doubleValue())
-                        .volume(d.getVolume() == null ? 0.0 : d.getVolume().doubleValue())
-                        .build());
+        int need = lookbackDays + Math.max(lp, sgp);
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(need);
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
+        List<MacdCrossResult> results = scanExecutor.map(codes,
+                (stockCode, buffers) -> evaluate(stockCode, snapshot.get(stockCode), sp, lp, sgp, lookbackDays, t, buffers));
+
+        results.sort(Comparator.comparing((MacdCrossResult r) -> r.getEvents().size()).reversed());
+        return results;
+    }
+
+    /**
+     * MACD 参数扫描：对多组 (short, long, signal) 一次加载快照、一次全市场遍历，
+     * 每只股票上每个不同的 EMA 周期只计算一次，同一 (short, long) 的 DIF 共享，仅 DEA 按组合计算。
+     * 所有组合共用同一窗口（lookbackDays + 最大预热周期）的K线，因此 EMA 起点可能早于逐组调用
+     * {@link #findMacdCrossDetails}，窗口内事件在预热足够时一致。返回顺序与 tuples 相同。
+     * @param tuples 参数组合，周期 <=0 时使用默认配置
+     */
+    public List<MacdSweepResult> sweepMacdCrossDetails(int lookbackDays, List<MacdTuple> tuples, String type) {
+        if (tuples == null || tuples.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一组 MACD 参数");
+        }
+        String t = (type == null || type.isEmpty()) ? "both" : type.toLowerCase();
+        List<MacdTuple> resolved = new ArrayList<>(tuples.size());
+        int maxNeed = 0;
+        for (MacdTuple tuple : tuples) {
+            MacdTuple r = new MacdTuple(
+                    tuple.shortPeriod() > 0 ? tuple.shortPeriod() : defaultShortPeriod,
+                    tuple.longPeriod() > 0 ? tuple.longPeriod() : defaultLongPeriod,
+                    tuple.signalPeriod() > 0 ? tuple.signalPeriod() : defaultSignalPeriod);
+            if (r.shortPeriod() > r.longPeriod()) {
+                throw new IllegalArgumentException("Long term period count must be greater than short term period count");
             }
+            resolved.add(r);
+            maxNeed = Math.max(maxNeed, r.minBars());
+        }
+        SweepPlan plan = new SweepPlan(resolved);
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(lookbackDays + maxNeed);
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
+        List<MacdCrossResult[]> perStock = scanExecutor.map(codes,
+                (stockCode, buffers) -> sweep(stockCode, snapshot.get(stockCode), plan, lookbackDays, t, buffers));
 
-            if (series.getBarCount() < Math.max(lp, sgp)) continue;
-
-            ClosePriceIndicator close = new ClosePriceIndicator(series);
-            MACDIndicator macd = new MACDIndicator(close, sp, lp); // DIF
-            EMAIndicator dea = new EMAIndicator(macd, sgp); // DEA
-
-            List<MacdCrossEvent> events = new ArrayList<>();
-            int startIndex = Math.max(1, series.getBarCount() - lookbackDays);
-            for (int i = startIndex; i < series.getBarCount(); i++) {
-                double difPrev = macd.getValue(i - 1).doubleValue();
-                double difNow = macd.getValue(i).doubleValue();
-                double deaPrev = dea.getValue(i - 1).doubleValue();
-                double deaNow = dea.getValue(i).doubleValue();
-                double sPrev = difPrev - deaPrev;
-                double sNow = difNow - deaNow;
-                boolean golden = (sPrev <= 0.0) && (sNow > crossEpsilon);
-                boolean death = (sPrev >= 0.0) && (sNow < -crossEpsilon);
-                String eventType = golden ? "golden" : (death ? "death" : null);
-                if (eventType == null) continue;
-                if ("golden".equals(t) && !golden) continue;
-                if ("death".equals(t) && !death) continue;
-
-                double hist = (difNow - deaNow) * histMultiplier; // 直方图乘配置倍数
-                MacdCrossEvent evt = new MacdCrossEvent(
-                        series.getBar(i).getEndTime().atZone(ZoneId.systemDefault()).toLocalDate(),
-                        eventType,
-                        difNow,
-                        deaNow,
-                        hist
-                );
-                events.add(evt);
+        List<MacdSweepResult> out = new ArrayList<>(resolved.size());
+        for (int k = 0; k < resolved.size(); k++) {
+            List<MacdCrossResult> results = new ArrayList<>();
+            for (MacdCrossResult[] row : perStock) {
+                if (row[k] != null) results.add(row[k]);
             }
+            results.sort(Comparator.comparing((MacdCrossResult r) -> r.getEvents().size()).reversed());
+            MacdTuple tuple = resolved.get(k);
+            out.add(new MacdSweepResult(tuple.shortPeriod(), tuple.longPeriod(), tuple.signalPeriod(), results));
+        }
+        return out;
+    }
+
+    /**
+     * 单只股票、单组参数的交叉事件，数据不足或无事件时返回 null。
+     */
+    MacdCrossResult evaluate(String stockCode, BarColumns bars, int sp, int lp, int sgp, int lookbackDays, String type, KernelBuffers buffers) {
+        if (bars == null || bars.size() < Math.max(lp, sgp)) return null;
 
-            if (!events.isEmpty()) {
-                results.add(new MacdCrossResult(stockCode, events));
+        int n = bars.size();
+        double[] dif = buffers.get(0, n); // DIF
+        double[] dea = buffers.get(1, n); // DEA
+        double[] macdHist = buffers.get(2, n);
+        IndicatorKernels.macd(bars.getClose(), n, sp, lp, sgp, dif, dea, macdHist);
+        return crossEvents(stockCode, bars, dif, dea, lookbackDays, type);
+    }
+
+    /**
+     * 单只股票上的参数扫描：槽位布局为 [各 EMA 周期 | 各 (short, long) 的 DIF | DEA 临时区]。
+     * 返回数组与 plan.tuples 一一对应，全部为空时返回 null。
+     */
+    MacdCrossResult[] sweep(String stockCode, BarColumns bars, SweepPlan plan, int lookbackDays, String type, KernelBuffers buffers) {
+        if (bars == null) return null;
+        int n = bars.size();
+        double[] close = bars.getClose();
+        int[] periods = plan.emaPeriods;
+        for (int e = 0; e < periods.length; e++) {
+            IndicatorKernels.ema(close, n, periods[e], buffers.get(e, n));
+        }
+        int difBase = periods.length;
+        for (int d = 0; d < plan.difPairs.length; d++) {
+            double[] emaShort = buffers.get(plan.difPairs[d][0], n);
+            double[] emaLong = buffers.get(plan.difPairs[d][1], n);
+            double[] dif = buffers.get(difBase + d, n);
+            for (int i = 0; i < n; i++) {
+                dif[i] = emaShort[i] - emaLong[i];
             }
         }
+        int deaSlot = difBase + plan.difPairs.length;
 
-        results.sort(Comparator.comparing((MacdCrossResult r) -> r.getEvents().size()).reversed());
-        return results;
+        MacdCrossResult[] row = new MacdCrossResult[plan.tuples.size()];
+        boolean any = false;
+        for (int k = 0; k < row.length; k++) {
+            MacdTuple tuple = plan.tuples.get(k);
+            if (n < tuple.minBars()) continue;
+            double[] dif = buffers.get(difBase + plan.difIndex[k], n);
+            double[] dea = buffers.get(deaSlot, n);
+            IndicatorKernels.ema(dif, n, tuple.signalPeriod(), dea);
+            row[k] = crossEvents(stockCode, bars, dif, dea, lookbackDays, type);
+            any |= row[k] != null;
+        }
+        return any ? row : null;
+    }
+
+    private MacdCrossResult crossEvents(String stockCode, BarColumns bars, double[] dif, double[] dea, int lookbackDays, String t) {
+        int n = bars.size();
+        List<MacdCrossEvent> events = new ArrayList<>();
+        int startIndex = Math.max(1, n - lookbackDays);
+        for (int i = startIndex; i < n; i++) {
+            double difPrev = dif[i - 1];
+            double difNow = dif[i];
+            double deaPrev = dea[i - 1];
+            double deaNow = dea[i];
+            double sPrev = difPrev - deaPrev;
+            double sNow = difNow - deaNow;
+            boolean golden = (sPrev <= 0.0) && (sNow > crossEpsilon);
+            boolean death = (sPrev >= 0.0) && (sNow < -crossEpsilon);
+            String eventType = golden ? "golden" : (death ? "death" : null);
+            if (eventType == null) continue;
+            if ("golden".equals(t) && !golden) continue;
+            if ("death".equals(t) && !death) continue;
+
+            double hist = (difNow - deaNow) * histMultiplier; // 直方图乘配置倍数
+            MacdCrossEvent evt = new MacdCrossEvent(
+                    bars.tradeDate(i),
+                    eventType,
+                    difNow,
+                    deaNow,
+                    hist
+            );
+            events.add(evt);
+        }
+        return events.isEmpty() ? null : new MacdCrossResult(stockCode, events);
+    }
+
+    /** MACD 参数组合 */
+    public record MacdTuple(int shortPeriod, int longPeriod, int signalPeriod) {
+
+        /**
+         * 解析 "12-26-9" 形式的参数组合。
+         */
+        public static MacdTuple parse(String text) {
+            String[] parts = text.trim().split("[-:/]");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("MACD 参数格式应为 short-long-signal: " + text);
+            }
+            try {
+                return new MacdTuple(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("MACD 参数格式应为 short-long-signal: " + text, e);
+            }
+        }
+
+        int minBars() {
+            return Math.max(longPeriod, signalPeriod);
+        }
+    }
+
+    /** 扫描计划：去重后的 EMA 周期、(short, long) 对，以及每个组合对应的 DIF 下标 */
+    static final class SweepPlan {
+        final List<MacdTuple> tuples;
+        final int[] emaPeriods;
+        final int[][] difPairs;   // [短周期 EMA 槽位, 长周期 EMA 槽位]
+        final int[] difIndex;
+
+        SweepPlan(List<MacdTuple> tuples) {
+            this.tuples = List.copyOf(tuples);
+            Map<Integer, Integer> emaSlots = new LinkedHashMap<>();
+            Map<Long, Integer> pairSlots = new LinkedHashMap<>();
+            List<int[]> pairs = new ArrayList<>();
+            this.difIndex = new int[tuples.size()];
+            for (int k = 0; k < tuples.size(); k++) {
+                MacdTuple tuple = tuples.get(k);
+                int s = emaSlots.computeIfAbsent(tuple.shortPeriod(), p -> emaSlots.size());
+                int l = emaSlots.computeIfAbsent(tuple.longPeriod(), p -> emaSlots.size());
+                long key = ((long) tuple.shortPeriod() << 32) | tuple.longPeriod();
+                Integer d = pairSlots.get(key);
+                if (d == null) {
+                    d = pairs.size();
+                    pairSlots.put(key, d);
+                    pairs.add(new int[]{s, l});
+                }
+                difIndex[k] = d;
+            }
+            this.emaPeriods = emaSlots.keySet().stream().mapToInt(Integer::intValue).toArray();
+            this.difPairs = pairs.toArray(new int[0][]);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.RuleDefinition;
+import com.xiahou.yu.stockindicatoranalyzer.dto.RuleScreenRequest;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rule;
+import com.xiahou.yu.stockindicatoranalyzer.rule.RulePlan;
+import com.xiahou.yu.stockindicatoranalyzer.rule.RulePresets;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rules;
+import com.xiahou.yu.stockindicatoranalyzer.rule.SeriesFrame;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 多规则筛选：一次加载全市场快照，对每只股票按规则并集计算一次所需指标序列，然后在同一轮中判定所有规则。
+ * 同时运行多个筛选的开销与运行一个基本相当（主要成本在序列计算，而序列按参数去重）。
+ */
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class RuleScreeningService {
+
+    /** 单次扫描最多判定的规则数（命中结果以 long 位掩码表示） */
+    public static final int MAX_RULES = Long.SIZE;
+
+    private final StocksInfoMasterRepository infoRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
+    private final ParallelScanExecutor scanExecutor;
+
+    /**
+     * 按请求中的自定义规则与内置规则筛选，返回 规则名 -> 命中股票代码（按股票主数据顺序）。
+     */
+    public Map<String, List<String>> screen(RuleScreenRequest request) {
+        Map<String, Rule> rules = new LinkedHashMap<>();
+        if (request.getPresets() != null) {
+            for (String name : request.getPresets()) {
+                rules.put(name, RulePresets.named(name));
+            }
+        }
+        if (request.getScreens() != null) {
+            for (Map.Entry<String, RuleDefinition> e : request.getScreens().entrySet()) {
+                rules.put(e.getKey(), Rules.from(e.getValue()));
+            }
+        }
+        int lookbackDays = request.getLookbackDays() == null ? 120 : request.getLookbackDays();
+        return screen(rules, lookbackDays);
+    }
+
+    /**
+     * 在一轮扫描中判定所有规则。
+     * @param lookbackDays 指标预热之外额外加载的K线数
+     */
+    public Map<String, List<String>> screen(Map<String, Rule> rules, int lookbackDays) {
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一条规则");
+        }
+        if (rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("单次最多判定 " + MAX_RULES + " 条规则");
+        }
+        List<String> names = new ArrayList<>(rules.keySet());
+        Rule[] compiled = rules.values().toArray(new Rule[0]);
+        RulePlan plan = RulePlan.compile(rules.values());
+
+        List<String> codes = ParallelScanExecutor.stockCodes(infoRepo.findAll());
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(Math.max(1, lookbackDays) + plan.warmup());
+        List<Hit> hits = scanExecutor.map(codes, (code, buffers) -> {
+            BarColumns bars = snapshot.get(code);
+            if (bars == null || bars.size() < plan.warmup()) return null;
+            SeriesFrame frame = plan.compute(bars, buffers);
+            long mask = 0L;
+            for (int i = 0; i < compiled.length; i++) {
+                if (compiled[i].test(frame)) mask |= 1L << i;
+            }
+            return mask == 0L ? null : new Hit(code, mask);
+        });
+
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            List<String> matched = new ArrayList<>();
+            for (Hit hit : hits) {
+                if ((hit.mask() & (1L << i)) != 0L) matched.add(hit.code());
+            }
+            result.put(names.get(i), matched);
+        }
+        return result;
+    }
+
+    private record Hit(String code, long mask) {}
+}
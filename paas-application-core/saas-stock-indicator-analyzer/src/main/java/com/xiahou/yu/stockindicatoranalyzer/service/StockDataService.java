@@ -1,5 +1,8 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
@@ -7,6 +10,7 @@ import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepositor
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -19,6 +23,9 @@ public class StockDataService {
 
     private final StocksInfoMasterRepository infoRepo;
     private final StocksDailyDataRepository dailyRepo;
+    private final IndicatorStateService indicatorStateService;
+    private final MarketDataVersion marketDataVersion;
+    private final MappedBarStore barStore;
 
     // 基础元数据保存/查询
     public StocksInfoMaster saveInfo(StocksInfoMaster info) {
@@ -52,7 +59,8 @@ public class StockDataService {
         return infoRepo.countWithFilters(exchange, assetType, status);
     }
 
-    // 每日行情数据保存：根据唯一索引 (stock_code, trade_date) 实现幂等保存（存在则更新，不存在则插入）
+    // 每日行情数据保存：根据唯一索引 (stock_code, trade_date) 实现幂等保存（存在则更新，不存在则插入），并推进增量指标状态
+    @Transactional
     public StocksDailyData saveOrUpdateDaily(StocksDailyData data) {
         Optional<StocksDailyData> existing = dailyRepo.findByStockCodeAndTradeDate(data.getStockCode(), data.getTradeDate());
         if (existing.isPresent()) {
@@ -62,7 +70,11 @@ public class StockDataService {
             data.setCreatedAt(old.getCreatedAt());
             data.setUpdatedAt(LocalDateTime.now());
         }
-        return dailyRepo.save(data);
+        StocksDailyData saved = dailyRepo.save(data);
+        indicatorStateService.onDailySaved(saved);
+        marketDataVersion.onDailyWritten(saved.getTradeDate());
+        barStore.markDirty(BarMarket.STOCK, saved.getStockCode(), saved.getTradeDate());
+        return saved;
     }
 
     public Optional<StocksDailyData> getLatestDaily(String stockCode) {
@@ -15,6 +15,7 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +31,7 @@ public class StockScreeningService {
     private final IndustryIndexesDailyDataService industryDailyService;
     private final IndustryDtoIndicatorAnalysisService industryDtoAnalysisService;
     private final StockDtoAnalysisService stockDtoAnalysisService;
+    private final IndustryVerdictCache verdictCache;
 
     /**
      * 主筛选方法。
@@ -49,40 +51,22 @@ public class StockScreeningService {
             double bollK,
             int emaSlopeDays
     ) {
-        Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
-        List<String> passed = new ArrayList<>();
-
-        for (StocksInfoMaster info : allInfos) {
-            String stockCode = info.getStockCode();
-            String industryName = info.getIndustryCategory();
-            if (stockCode == null || stockCode.isEmpty()) continue;
-            if (industryName == null || industryName.isEmpty()) continue;
-
-            // 1) 获取行业指数代码（通过行业名称找到最近的日线记录，取其 indexCode）
-            List<IndustryIndexesDailyData> industryList = industryDailyService.listByIndustryName(industryName);
-            if (industryList == null || industryList.isEmpty()) continue;
-            IndustryIndexesDailyData latestIndustry = industryList.stream()
-                    .max(Comparator.comparing(IndustryIndexesDailyData::getTradeDate))
-                    .orElse(null);
-            if (latestIndustry == null || latestIndustry.getIndexCode() == null) continue;
-            String indexCode = latestIndustry.getIndexCode();
-
-            // 2) 行业是否处于增长阶段
-            List<DailyLineDTO> industryDtos = industryDtoAnalysisService.augmentLatest(indexCode, Math.max(industryLookbackDays, 60), bollPeriod, bollK);
-            if (!isIndustryGrowthPhase(industryDtos, emaSlopeDays, withinDays)) {
-                continue;
-            }
-
-            // 3) 股票自身是否处于较优指标阶段
-            List<DailyLineDTO> stockDtos = stockDtoAnalysisService.augmentLatest(stockCode, Math.max(lookbackDays, 60), bollPeriod, bollK);
-            if (!isStockFavorablePhase(stockDtos, emaSlopeDays, withinDays)) {
-                continue;
-            }
-
-            passed.add(stockCode);
-        }
+        return screen(infoRepo.findAll(), lookbackDays, industryLookbackDays, withinDays, bollPeriod, bollK, emaSlopeDays, null);
+    }
 
-        return passed;
+    /**
+     * 同上，每通过一只股票即回调 onPassed，供流式输出使用。
+     */
+    public List<String> screenGrowthAndIndicators(
+            int lookbackDays,
+            int industryLookbackDays,
+            int withinDays,
+            int bollPeriod,
+            double bollK,
+            int emaSlopeDays,
+            Consumer<String> onPassed
+    ) {
+        return screen(infoRepo.findAll(), lookbackDays, industryLookbackDays, withinDays, bollPeriod, bollK, emaSlopeDays, onPassed);
     }
 
     /**
@@ -100,8 +84,43 @@ public class StockScreeningService {
             int bollPeriod,
             double bollK,
             int emaSlopeDays
+    ) {
+        return screenGrowthAndIndicatorsFiltered(exchange, assetType, status, limit, offset, lookbackDays, industryLookbackDays, withinDays, bollPeriod, bollK, emaSlopeDays, null);
+    }
+
+    /**
+     * 同上，每通过一只股票即回调 onPassed，供流式输出使用。
+     */
+    public List<String> screenGrowthAndIndicatorsFiltered(
+            String exchange,
+            String assetType,
+            String status,
+            int limit,
+            int offset,
+            int lookbackDays,
+            int industryLookbackDays,
+            int withinDays,
+            int bollPeriod,
+            double bollK,
+            int emaSlopeDays,
+            Consumer<String> onPassed
     ) {
         List<StocksInfoMaster> infos = infoRepo.listWithFilters(exchange, assetType, status, Math.max(limit, 1), Math.max(offset, 0));
+        return screen(infos, lookbackDays, industryLookbackDays, withinDays, bollPeriod, bollK, emaSlopeDays, onPassed);
+    }
+
+    private List<String> screen(
+            Iterable<StocksInfoMaster> infos,
+            int lookbackDays,
+            int industryLookbackDays,
+            int withinDays,
+            int bollPeriod,
+            double bollK,
+            int emaSlopeDays,
+            Consumer<String> onPassed
+    ) {
+        // 同一行业下的股票共享一次行业判定
+        Map<String, IndustryVerdictCache.Verdict> industryVerdicts = new HashMap<>();
         List<String> passed = new ArrayList<>();
         for (StocksInfoMaster info : infos) {
             String stockCode = info.getStockCode();
@@ -109,29 +128,41 @@ public class StockScreeningService {
             if (stockCode == null || stockCode.isEmpty()) continue;
             if (industryName == null || industryName.isEmpty()) continue;
 
-            List<IndustryIndexesDailyData> industryList = industryDailyService.listByIndustryName(industryName);
-            if (industryList == null || industryList.isEmpty()) continue;
-            IndustryIndexesDailyData latestIndustry = industryList.stream()
-                    .max(Comparator.comparing(IndustryIndexesDailyData::getTradeDate))
-                    .orElse(null);
-            if (latestIndustry == null || latestIndustry.getIndexCode() == null) continue;
-            String indexCode = latestIndustry.getIndexCode();
-
-            List<DailyLineDTO> industryDtos = industryDtoAnalysisService.augmentLatest(indexCode, Math.max(industryLookbackDays, 60), bollPeriod, bollK);
-            if (!isIndustryGrowthPhase(industryDtos, emaSlopeDays, withinDays)) {
+            // 1) + 2) 行业指数代码与行业是否处于增长阶段
+            IndustryVerdictCache.Verdict verdict = industryVerdicts.computeIfAbsent(industryName, name -> verdictCache.get(
+                    new IndustryVerdictCache.Key(name, industryLookbackDays, withinDays, bollPeriod, bollK, emaSlopeDays),
+                    () -> evaluateIndustry(name, industryLookbackDays, withinDays, bollPeriod, bollK, emaSlopeDays)));
+            if (verdict.indexCode() == null || !verdict.growth()) {
                 continue;
             }
 
+            // 3) 股票自身是否处于较优指标阶段
             List<DailyLineDTO> stockDtos = stockDtoAnalysisService.augmentLatest(stockCode, Math.max(lookbackDays, 60), bollPeriod, bollK);
             if (!isStockFavorablePhase(stockDtos, emaSlopeDays, withinDays)) {
                 continue;
             }
 
             passed.add(stockCode);
+            if (onPassed != null) {
+                onPassed.accept(stockCode);
+            }
         }
         return passed;
     }
 
+    /** 解析行业指数代码（通过行业名称找到最近的日线记录，取其 indexCode）并判定行业是否处于增长阶段 */
+    private IndustryVerdictCache.Verdict evaluateIndustry(String industryName, int industryLookbackDays, int withinDays,
+                                                          int bollPeriod, double bollK, int emaSlopeDays) {
+        String indexCode = industryDailyService.latestByIndustryName(industryName)
+                .map(IndustryIndexesDailyData::getIndexCode)
+                .orElse(null);
+        if (indexCode == null) {
+            return new IndustryVerdictCache.Verdict(null, false);
+        }
+        List<DailyLineDTO> industryDtos = industryDtoAnalysisService.augmentLatest(indexCode, Math.max(industryLookbackDays, 60), bollPeriod, bollK);
+        return new IndustryVerdictCache.Verdict(indexCode, isIndustryGrowthPhase(industryDtos, emaSlopeDays, withinDays));
+    }
+
     /** 行业“增长阶段”简化判定 */
     private boolean isIndustryGrowthPhase(List<DailyLineDTO> list, int emaSlopeDays, int withinDays) {
         if (list == null || list.size() < Math.max(emaSlopeDays + 1, 5)) return false;
@@ -1,9 +1,13 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -13,9 +17,17 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class StocksDailyDataService {
     private final StocksDailyDataRepository repository;
+    private final IndicatorStateService indicatorStateService;
+    private final MarketDataVersion marketDataVersion;
+    private final MappedBarStore barStore;
 
+    @Transactional
     public StocksDailyData save(StocksDailyData data) {
-        return repository.save(data);
+        StocksDailyData saved = repository.save(data);
+        indicatorStateService.onDailySaved(saved);
+        marketDataVersion.onDailyWritten(saved.getTradeDate());
+        barStore.markDirty(BarMarket.STOCK, saved.getStockCode(), saved.getTradeDate());
+        return saved;
     }
 
     public Optional<StocksDailyData> get(String stockCode, LocalDate date) {
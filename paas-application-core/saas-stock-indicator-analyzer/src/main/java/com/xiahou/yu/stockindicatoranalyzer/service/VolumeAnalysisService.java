@@ -1,10 +1,11 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
 import com.xiahou.yu.stockindicatoranalyzer.dto.VolumeCompareResult;
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
-import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -26,7 +27,7 @@ import java.util.stream.Collectors;
 public class VolumeAnalysisService {
 
     private final StocksInfoMasterRepository infoRepo;
-    private final StocksDailyDataRepository dailyRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
 
     /**
      * 返回股票代码列表，按照 (最近recent窗口成交量总和 / 之前previous窗口成交量总和) 倍数倒序排序。
@@ -53,28 +54,30 @@ public class VolumeAnalysisService {
         int need = recentSize + previousSize;
         List<VolumeCompareResult> results = new ArrayList<>();
 
+        // 一次性加载全市场最近 need 条（列式数组，日期升序，最新在末尾）
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(need);
         Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
         for (StocksInfoMaster info : allInfos) {
             String code = info.getStockCode();
             if (code == null || code.isEmpty()) continue;
 
-            // 获取最近 need 条（trade_date DESC，最新在前）
-            List<StocksDailyData> latestDesc = dailyRepo.listByStockCode(code, need, 0);
-            if (latestDesc == null || latestDesc.size() < need) {
+            BarColumns bars = snapshot.get(code);
+            if (bars == null || bars.size() < need) {
                 // 数据不足，跳过该股票
                 continue;
             }
 
-            long recentSum = latestDesc.stream()
-                    .limit(recentSize)
-                    .mapToLong(d -> d.getVolume() == null ? 0L : d.getVolume())
-                    .sum();
+            long[] volume = bars.getVolume();
+            int last = bars.size() - 1;
+            long recentSum = 0L;
+            for (int i = last; i > last - recentSize; i--) {
+                recentSum += volume[i];
+            }
 
-            long previousSum = latestDesc.stream()
-                    .skip(recentSize)
-                    .limit(previousSize)
-                    .mapToLong(d -> d.getVolume() == null ? 0L : d.getVolume())
-                    .sum();
+            long previousSum = 0L;
+            for (int i = last - recentSize; i > last - recentSize - previousSize; i--) {
+                previousSum += volume[i];
+            }
 
             if (previousSum <= 0) {
                 // 为避免除零或无意义比值，跳过previous为0的情况；也可选择设置为极大值或1。
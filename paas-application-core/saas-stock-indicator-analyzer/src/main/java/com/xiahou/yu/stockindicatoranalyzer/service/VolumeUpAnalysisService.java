@@ -1,22 +1,17 @@
 package com.xiahou.yu.stockindicatoranalyzer.service;
 
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
 import com.xiahou.yu.stockindicatoranalyzer.dto.VolumeUpResult;
-import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
-import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
 import com.xiahou.yu.stockindicatoranalyzer.repository.StocksInfoMasterRepository;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBarSeriesBuilder;
-import org.ta4j.core.indicators.averages.SMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.helpers.VolumeIndicator;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -34,7 +29,7 @@ import java.util.stream.Collectors;
 public class VolumeUpAnalysisService {
 
     private final StocksInfoMasterRepository infoRepo;
-    private final StocksDailyDataRepository dailyRepo;
+    private final MarketBarSnapshotLoader snapshotLoader;
 
     /**
      * 返回满足“放量上涨”条件的股票代码列表，按匹配次数降序、峰值放量比降序排序。
@@ -54,63 +49,44 @@ public class VolumeUpAnalysisService {
         }
         List<VolumeUpResult> results = new ArrayList<>();
 
+        // 为了构造指标，需要至少 volumePeriod 天的数据；额外留出 lookbackDays 检测窗口
+        int need = lookbackDays + volumePeriod + 1; // 确保在最近 lookbackDays 内，SMA 就绪的天数都有检测机会
+        MarketBarSnapshot snapshot = snapshotLoader.loadLatest(need);
+        KernelBuffers buffers = new KernelBuffers();
         Iterable<StocksInfoMaster> allInfos = infoRepo.findAll();
         for (StocksInfoMaster info : allInfos) {
             String stockCode = info.getStockCode();
             if (stockCode == null || stockCode.isEmpty()) continue;
 
-            // 为了构造指标，需要至少 volumePeriod 天的数据；额外留出 lookbackDays 检测窗口
-            int need = lookbackDays + volumePeriod + 1; // 确保在最近 lookbackDays 内，SMA 就绪的天数都有检测机会
-            List<StocksDailyData> latestDesc = dailyRepo.listByStockCode(stockCode, need, 0);
-            if (latestDesc == null || latestDesc.size() < need) {
+            BarColumns bars = snapshot.get(stockCode);
+            if (bars == null || bars.size() < need) {
                 continue; // 数据不足
             }
 
-            // 构建 BarSeries（按日期升序）
-            List<StocksDailyData> latestAsc = latestDesc.stream()
-                    .sorted(Comparator.comparing(StocksDailyData::getTradeDate))
-                    .collect(Collectors.toList());
-
-            BarSeries series = new BaseBarSeriesBuilder().withName(stockCode).build();
-            for (StocksDailyData d : latestAsc) {
-                Instant endTime = d.getTradeDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
-                series.addBar(series.barBuilder()
-                        .timePeriod(Duration.ofDays(1))
-                        .endTime(endTime)
-                        .openPrice(d.getOpenPrice() == null ? 0.0 : d.getOpenPrice().doubleValue())
-                        .highPrice(d.getHighPrice() == null ? 0.0 : d.getHighPrice().doubleValue())
-                        .lowPrice(d.getLowPrice() == null ? 0.0 : d.getLowPrice().doubleValue())
-                        .closePrice(d.getClosePrice() == null ? 0.0 : d.getClosePrice().doubleValue())
-                        .volume(d.getVolume() == null ? 0.0 : d.getVolume().doubleValue())
-                        .build());
-            }
-
-            if (series.getBarCount() < need) {
-                continue;
-            }
-
-            // 指标
-            ClosePriceIndicator close = new ClosePriceIndicator(series);
-            VolumeIndicator volume = new VolumeIndicator(series);
-            SMAIndicator volSma = new SMAIndicator(volume, volumePeriod);
+            // 指标（按日期升序）
+            int n = bars.size();
+            double[] close = bars.getClose();
+            long[] volume = bars.getVolume();
+            double[] volSma = buffers.get(0, n);
+            IndicatorKernels.volumeSma(volume, n, volumePeriod, volSma);
 
             List<java.time.LocalDate> matchedDates = new ArrayList<>();
             double peakRatio = 0.0;
             double peakPriceChange = 0.0; // 百分比
 
-            int startIndex = Math.max(1, series.getBarCount() - lookbackDays); // 从最近lookbackDays开始，且至少从1开始以便比较前一天
-            for (int i = startIndex; i < series.getBarCount(); i++) {
+            int startIndex = Math.max(1, n - lookbackDays); // 从最近lookbackDays开始，且至少从1开始以便比较前一天
+            for (int i = startIndex; i < n; i++) {
                 if (i < volumePeriod) continue; // SMA尚未就绪
-                double vol = volume.getValue(i).doubleValue();
-                double volAvg = volSma.getValue(i).doubleValue();
+                double vol = volume[i];
+                double volAvg = volSma[i];
                 double ratio = (volAvg == 0.0 ? 0.0 : vol / volAvg);
 
-                double prevClose = close.getValue(i - 1).doubleValue();
-                double currClose = close.getValue(i).doubleValue();
+                double prevClose = close[i - 1];
+                double currClose = close[i];
                 double priceChangePct = (prevClose == 0.0 ? 0.0 : (currClose / prevClose - 1.0) * 100.0);
 
                 if (ratio >= volumeRatioThreshold && priceChangePct >= minPriceChangePercent) {
-                    matchedDates.add(series.getBar(i).getEndTime().atZone(ZoneId.systemDefault()).toLocalDate());
+                    matchedDates.add(bars.tradeDate(i));
                     if (ratio > peakRatio) {
                         peakRatio = ratio;
                         peakPriceChange = priceChangePct;
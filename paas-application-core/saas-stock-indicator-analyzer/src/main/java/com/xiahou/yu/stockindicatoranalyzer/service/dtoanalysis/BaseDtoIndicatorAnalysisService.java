@@ -2,21 +2,32 @@ package com.xiahou.yu.stockindicatoranalyzer.service.dtoanalysis;
 
 import com.xiahou.yu.stockindicatoranalyzer.calculator.BollingerDtoCalculator;
 import com.xiahou.yu.stockindicatoranalyzer.calculator.EmaDtoCalculator;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.FusedDtoIndicatorCalculator;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorColumns;
 import com.xiahou.yu.stockindicatoranalyzer.calculator.MacdDtoCalculator;
 import com.xiahou.yu.stockindicatoranalyzer.calculator.SmaDtoCalculator;
 import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.List;
 
 /**
  * 基于统一 DTO 的指标增强基类：对列表进行 SMA/EMA/MACD/BOLL 统一计算。
+ * 计算实现由 indicator.dto.calculator 选择：classic（默认，四个计算器依次执行）或 fused（单趟融合计算）。
  */
 public abstract class BaseDtoIndicatorAnalysisService {
 
+    private static final String CALCULATOR_FUSED = "fused";
+
+    @Value("${indicator.dto.calculator:classic}")
+    private String calculatorMode;
+
     private final SmaDtoCalculator smaCalculator = new SmaDtoCalculator();
     private final EmaDtoCalculator emaCalculator = new EmaDtoCalculator();
     private final MacdDtoCalculator macdCalculator = new MacdDtoCalculator();
     private final BollingerDtoCalculator bollCalculator = new BollingerDtoCalculator();
+    private final FusedDtoIndicatorCalculator fusedCalculator = new FusedDtoIndicatorCalculator();
 
     /**
      * 对 DTO 列表进行指标增强（原地填充 DTO 指标字段）
@@ -31,10 +42,28 @@ public abstract class BaseDtoIndicatorAnalysisService {
      */
     protected void augmentIndicators(List<DailyLineDTO> list, int period, double k) {
         if (list == null || list.isEmpty()) return;
+        if (CALCULATOR_FUSED.equalsIgnoreCase(calculatorMode)) {
+            fusedCalculator.apply(list, period, k);
+            return;
+        }
         smaCalculator.apply(list);
         emaCalculator.apply(list);
         macdCalculator.apply(list, 12, 26, 9);
         // 使用传入的布林参数
         bollCalculator.apply(list, period, k);
     }
-}
\ No newline at end of file
+
+    /**
+     * 计算指标到列式容器（单趟融合，MACD 12/26/9），不修改 DTO。
+     */
+    protected IndicatorColumns computeIndicatorColumns(List<DailyLineDTO> list, int period, double k) {
+        return fusedCalculator.compute(list, period, k, 12, 26, 9);
+    }
+
+    /**
+     * 基于列式日线计算指标（单趟融合，MACD 12/26/9），全程不构造 BigDecimal。
+     */
+    protected IndicatorColumns computeIndicatorColumns(BarColumns bars, int period, double k) {
+        return fusedCalculator.compute(bars.getClose(), bars.size(), period, k, 12, 26, 9);
+    }
+}
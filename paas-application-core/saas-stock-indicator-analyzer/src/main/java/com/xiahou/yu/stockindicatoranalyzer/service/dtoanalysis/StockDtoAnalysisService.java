@@ -1,44 +1,98 @@
 package com.xiahou.yu.stockindicatoranalyzer.service.dtoanalysis;
 
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineColumns;
 import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.DailyIndicatorValues;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorMaterializationService;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorParamSet;
 import com.xiahou.yu.stockindicatoranalyzer.service.provider.StockDailyLineProvider;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class StockDtoAnalysisService extends BaseDtoIndicatorAnalysisService {
 
     private final StockDailyLineProvider provider;
+    private final IndicatorMaterializationService materializationService;
+    private final MarketBarSnapshotLoader barLoader;
 
-    public StockDtoAnalysisService(StockDailyLineProvider provider) {
+    public StockDtoAnalysisService(StockDailyLineProvider provider, IndicatorMaterializationService materializationService,
+                                   MarketBarSnapshotLoader barLoader) {
         this.provider = provider;
+        this.materializationService = materializationService;
+        this.barLoader = barLoader;
     }
 
     public List<DailyLineDTO> augmentByCodeBetween(String stockCode, LocalDate start, LocalDate end) {
         List<DailyLineDTO> list = provider.listByCodeBetween(stockCode, start, end);
-        augmentIndicators(list);
+        augmentIndicators(stockCode, list, 20, 2.0);
         return list;
     }
 
     // 新增：支持自定义 BOLL 参数
     public List<DailyLineDTO> augmentByCodeBetween(String stockCode, LocalDate start, LocalDate end, int period, double k) {
         List<DailyLineDTO> list = provider.listByCodeBetween(stockCode, start, end);
-        augmentIndicators(list, period, k);
+        augmentIndicators(stockCode, list, period, k);
         return list;
     }
 
     public List<DailyLineDTO> augmentLatest(String stockCode, int limit) {
         List<DailyLineDTO> list = provider.listLatestAsc(stockCode, limit);
-        augmentIndicators(list);
+        augmentIndicators(stockCode, list, 20, 2.0);
         return list;
     }
 
     // 新增：最新数据支持自定义 BOLL 参数
     public List<DailyLineDTO> augmentLatest(String stockCode, int limit, int period, double k) {
         List<DailyLineDTO> list = provider.listLatestAsc(stockCode, limit);
-        augmentIndicators(list, period, k);
+        augmentIndicators(stockCode, list, period, k);
         return list;
     }
+
+    /**
+     * 列式返回：日线直接读入原始类型数组并计算指标，不构造 DTO/BigDecimal。
+     */
+    public DailyLineColumns augmentColumnsBetween(String stockCode, LocalDate start, LocalDate end, int period, double k) {
+        return toColumns(stockCode, barLoader.loadRange(stockCode, start, end), period, k);
+    }
+
+    public DailyLineColumns augmentColumnsLatest(String stockCode, int limit, int period, double k) {
+        return toColumns(stockCode, barLoader.loadTail(stockCode, limit), period, k);
+    }
+
+    private DailyLineColumns toColumns(String stockCode, BarColumns bars, int period, double k) {
+        if (bars == null) {
+            return new DailyLineColumns(stockCode, null, null);
+        }
+        IndicatorParamSet paramSet = new IndicatorParamSet(period, k, 12, 26, 9);
+        List<LocalDate> dates = new ArrayList<>(bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            dates.add(bars.tradeDate(i));
+        }
+        List<DailyIndicatorValues> materialized = materializationService.findAligned(stockCode, paramSet, dates);
+        if (materialized == null) {
+            return new DailyLineColumns(stockCode, bars, computeIndicatorColumns(bars, period, k));
+        }
+        return new DailyLineColumns(stockCode, bars, DailyIndicatorValues.toColumns(materialized));
+    }
+
+    /**
+     * 物化指标完整覆盖时直接填充，否则实时计算（MACD 固定 12/26/9）。
+     */
+    private void augmentIndicators(String stockCode, List<DailyLineDTO> list, int period, double k) {
+        if (list == null || list.isEmpty()) return;
+        IndicatorParamSet paramSet = new IndicatorParamSet(period, k, 12, 26, 9);
+        List<LocalDate> dates = list.stream().map(DailyLineDTO::getTradeDate).toList();
+        List<DailyIndicatorValues> materialized = materializationService.findAligned(stockCode, paramSet, dates);
+        if (materialized == null) {
+            augmentIndicators(list, period, k);
+            return;
+        }
+        DailyIndicatorValues.applyTo(list, materialized, 1.0);
+    }
 }
\ No newline at end of file
@@ -6,7 +6,8 @@ import com.xiahou.yu.stockindicatoranalyzer.repository.IndustryIndexesDailyDataR
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,13 +28,11 @@ public class IndustryDailyLineProvider implements DailyLineProvider {
 
     @Override
     public List<DailyLineDTO> listLatestAsc(String code, int limit) {
-        List<IndustryIndexesDailyData> allAsc = repository.findByIndexCodeOrderByTradeDateAsc(code);
-        List<IndustryIndexesDailyData> tail = allAsc.stream()
-                .sorted(Comparator.comparing(IndustryIndexesDailyData::getTradeDate).reversed())
-                .limit(limit)
-                .sorted(Comparator.comparing(IndustryIndexesDailyData::getTradeDate))
-                .collect(Collectors.toList());
-        return tail.stream().map(this::map).collect(Collectors.toList());
+        if (limit <= 0) return new ArrayList<>();
+        List<IndustryIndexesDailyData> desc = repository.listByIndexCode(code, limit, 0);
+        List<DailyLineDTO> list = desc.stream().map(this::map).collect(Collectors.toList());
+        Collections.reverse(list);
+        return list;
     }
 
     private DailyLineDTO map(IndustryIndexesDailyData s) {
@@ -6,7 +6,8 @@ import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,13 +28,11 @@ public class StockDailyLineProvider implements DailyLineProvider {
 
     @Override
     public List<DailyLineDTO> listLatestAsc(String code, int limit) {
-        List<StocksDailyData> allAsc = repository.findByStockCodeOrderByTradeDateAsc(code);
-        List<StocksDailyData> tail = allAsc.stream()
-                .sorted(Comparator.comparing(StocksDailyData::getTradeDate).reversed())
-                .limit(limit)
-                .sorted(Comparator.comparing(StocksDailyData::getTradeDate))
-                .collect(Collectors.toList());
-        return tail.stream().map(this::map).collect(Collectors.toList());
+        if (limit <= 0) return new ArrayList<>();
+        List<StocksDailyData> desc = repository.listByStockCode(code, limit, 0);
+        List<DailyLineDTO> list = desc.stream().map(this::map).collect(Collectors.toList());
+        Collections.reverse(list);
+        return list;
     }
 
     private DailyLineDTO map(StocksDailyData s) {
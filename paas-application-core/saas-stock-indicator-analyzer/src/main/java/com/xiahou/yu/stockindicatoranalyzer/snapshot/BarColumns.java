@@ -0,0 +1,45 @@
+package com.xiahou.yu.stockindicatoranalyzer.snapshot;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * 单个标的的列式日线数据：按交易日升序，将 OHLCV 存放在原始类型数组中。
+ * 交易日以 epochDay 表示，避免每根K线构造 LocalDate/BigDecimal 对象。
+ */
+@Getter
+public final class BarColumns {
+
+    /** 标的代码 */
+    private final String code;
+
+    /** 交易日（LocalDate#toEpochDay），升序 */
+    private final int[] epochDays;
+
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    public BarColumns(String code, int[] epochDays, double[] open, double[] high, double[] low, double[] close, long[] volume) {
+        this.code = code;
+        this.epochDays = epochDays;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /** K线数量 */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /** 第 i 根K线的交易日 */
+    public LocalDate tradeDate(int i) {
+        return LocalDate.ofEpochDay(epochDays[i]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.xiahou.yu.stockindicatoranalyzer.snapshot;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 全市场日线快照：每个代码最近 N 根K线的列式数据，一次查询加载，供扫描器按代码查找。
+ */
+public final class MarketBarSnapshot {
+
+    private final int barsPerCode;
+    private final Map<String, BarColumns> columnsByCode;
+
+    public MarketBarSnapshot(int barsPerCode, Map<String, BarColumns> columnsByCode) {
+        this.barsPerCode = barsPerCode;
+        this.columnsByCode = Collections.unmodifiableMap(columnsByCode);
+    }
+
+    /** 加载时每个代码请求的最大K线数 */
+    public int getBarsPerCode() {
+        return barsPerCode;
+    }
+
+    /** 获取代码对应的列式数据，不存在时返回 null */
+    public BarColumns get(String code) {
+        return columnsByCode.get(code);
+    }
+
+    public Map<String, BarColumns> asMap() {
+        return columnsByCode;
+    }
+
+    public int size() {
+        return columnsByCode.size();
+    }
+}
@@ -0,0 +1,279 @@
+package com.xiahou.yu.stockindicatoranalyzer.snapshot;
+
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 全市场日线批量加载器：
+ * 使用窗口函数 ROW_NUMBER() OVER (PARTITION BY stock_code ORDER BY trade_date DESC) 一次查询取回每只股票最近 N 根K线，
+ * 按 (stock_code, trade_date ASC) 顺序流式读取并写入每个代码的原始类型列数组，替代逐股票的 listByStockCode 查询。
+ * 开启本地K线存储（{@link MappedBarStore}）时，loadLatest/loadRange/loadTail 改为从内存映射文件读取；
+ * loadHistory 始终读库，以便在写入事务内看到未提交的新行。
+ */
+@Component
+public class MarketBarSnapshotLoader {
+
+    /** 游标读取批大小（PostgreSQL 仅在事务内按 fetchSize 分批拉取） */
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String LATEST_BARS_SQL = latestBarsSql(BarMarket.STOCK);
+
+    private static final String HISTORY_SQL =
+            "SELECT stock_code, trade_date, open_price, high_price, low_price, close_price, volume"
+                    + " FROM stocks_daily_data WHERE stock_code = :code ORDER BY trade_date ASC";
+
+    private static final String HISTORIES_SQL =
+            "SELECT stock_code, trade_date, open_price, high_price, low_price, close_price, volume"
+                    + " FROM stocks_daily_data WHERE stock_code IN (:codes) ORDER BY stock_code ASC, trade_date ASC";
+
+    private static final String RANGE_SQL =
+            "SELECT stock_code, trade_date, open_price, high_price, low_price, close_price, volume"
+                    + " FROM stocks_daily_data WHERE stock_code = :code AND trade_date BETWEEN :startDate AND :endDate"
+                    + " ORDER BY trade_date ASC";
+
+    private static final String TAIL_SQL =
+            "SELECT stock_code, trade_date, open_price, high_price, low_price, close_price, volume FROM ("
+                    + " SELECT stock_code, trade_date, open_price, high_price, low_price, close_price, volume"
+                    + " FROM stocks_daily_data WHERE stock_code = :code ORDER BY trade_date DESC LIMIT :limit) t"
+                    + " ORDER BY trade_date ASC";
+
+    /** 单只股票全量历史的初始缓冲区容量，不足时自动扩容 */
+    private static final int HISTORY_INITIAL_CAPACITY = 1024;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MappedBarStore barStore;
+
+    public MarketBarSnapshotLoader(DataSource dataSource, MappedBarStore barStore) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.barStore = barStore;
+    }
+
+    /**
+     * 加载全市场每只股票最近 barsPerCode 根日线（日期升序）。
+     */
+    @Transactional(readOnly = true)
+    public MarketBarSnapshot loadLatest(int barsPerCode) {
+        if (barsPerCode <= 0) {
+            throw new IllegalArgumentException("barsPerCode必须>0");
+        }
+        if (barStore.isEnabled()) {
+            return barStore.snapshotLatest(BarMarket.STOCK, barsPerCode);
+        }
+        ColumnAccumulator acc = new ColumnAccumulator(barsPerCode, false);
+        jdbcTemplate.query(LATEST_BARS_SQL, new MapSqlParameterSource("limit", barsPerCode), acc);
+        acc.flush();
+        return new MarketBarSnapshot(barsPerCode, acc.result);
+    }
+
+    /**
+     * 加载指定市场（个股/指数/行业指数）每个代码最近 barsPerCode 根日线（日期升序）。
+     */
+    @Transactional(readOnly = true)
+    public MarketBarSnapshot loadLatest(BarMarket market, int barsPerCode) {
+        if (market == BarMarket.STOCK) {
+            return loadLatest(barsPerCode);
+        }
+        if (barsPerCode <= 0) {
+            throw new IllegalArgumentException("barsPerCode必须>0");
+        }
+        if (barStore.isEnabled()) {
+            return barStore.snapshotLatest(market, barsPerCode);
+        }
+        ColumnAccumulator acc = new ColumnAccumulator(barsPerCode, false);
+        jdbcTemplate.query(latestBarsSql(market), new MapSqlParameterSource("limit", barsPerCode), acc);
+        acc.flush();
+        return new MarketBarSnapshot(barsPerCode, acc.result);
+    }
+
+    /**
+     * 加载指定市场每个代码交易日不晚于 asOf 的最近 barsPerCode 根日线（日期升序），用于按历史日期计算；
+     * asOf 为空时等同 {@link #loadLatest(BarMarket, int)}。
+     */
+    @Transactional(readOnly = true)
+    public MarketBarSnapshot loadLatest(BarMarket market, int barsPerCode, LocalDate asOf) {
+        if (asOf == null) {
+            return loadLatest(market, barsPerCode);
+        }
+        if (barsPerCode <= 0) {
+            throw new IllegalArgumentException("barsPerCode必须>0");
+        }
+        if (barStore.isEnabled()) {
+            return barStore.snapshotLatest(market, barsPerCode, asOf);
+        }
+        ColumnAccumulator acc = new ColumnAccumulator(barsPerCode, false);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", barsPerCode)
+                .addValue("asOf", asOf);
+        jdbcTemplate.query(latestBarsSql(market, true), params, acc);
+        acc.flush();
+        return new MarketBarSnapshot(barsPerCode, acc.result);
+    }
+
+    /**
+     * 加载单只股票的全量日线（日期升序），无数据时返回 null。
+     */
+    @Transactional(readOnly = true)
+    public BarColumns loadHistory(String code) {
+        return loadSingle(HISTORY_SQL, new MapSqlParameterSource("code", code), code, HISTORY_INITIAL_CAPACITY);
+    }
+
+    /**
+     * 一次查询加载一批股票的全量日线（日期升序），无数据的代码不出现在快照中；始终读库。
+     * 快照的 barsPerCode 为 Integer.MAX_VALUE（不限根数）。
+     */
+    @Transactional(readOnly = true)
+    public MarketBarSnapshot loadHistories(Collection<String> codes) {
+        ColumnAccumulator acc = new ColumnAccumulator(HISTORY_INITIAL_CAPACITY, true);
+        if (!codes.isEmpty()) {
+            jdbcTemplate.query(HISTORIES_SQL, new MapSqlParameterSource("codes", codes), acc);
+            acc.flush();
+        }
+        return new MarketBarSnapshot(Integer.MAX_VALUE, acc.result);
+    }
+
+    /**
+     * 加载单只股票在日期区间内的日线（日期升序），无数据时返回 null。
+     */
+    @Transactional(readOnly = true)
+    public BarColumns loadRange(String code, LocalDate start, LocalDate end) {
+        if (barStore.isEnabled()) {
+            return barStore.range(BarMarket.STOCK, code, start, end);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("code", code)
+                .addValue("startDate", start)
+                .addValue("endDate", end);
+        return loadSingle(RANGE_SQL, params, code, HISTORY_INITIAL_CAPACITY);
+    }
+
+    /**
+     * 加载单只股票最近 limit 根日线（日期升序），无数据时返回 null。
+     */
+    @Transactional(readOnly = true)
+    public BarColumns loadTail(String code, int limit) {
+        if (limit <= 0) {
+            return null;
+        }
+        if (barStore.isEnabled()) {
+            return barStore.tail(BarMarket.STOCK, code, limit);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("code", code)
+                .addValue("limit", limit);
+        // 初始容量不超过默认值，按实际行数扩容，避免超大 limit 预先分配
+        return loadSingle(TAIL_SQL, params, code, Math.min(limit, HISTORY_INITIAL_CAPACITY));
+    }
+
+    private static String latestBarsSql(BarMarket market) {
+        return latestBarsSql(market, false);
+    }
+
+    /** @param bounded 是否只取 trade_date <= :asOf 的K线 */
+    private static String latestBarsSql(BarMarket market, boolean bounded) {
+        String code = market.getCodeColumn();
+        return "SELECT " + code + ", trade_date, open_price, high_price, low_price, close_price, volume FROM ("
+                + " SELECT " + code + ", trade_date, open_price, high_price, low_price, close_price, volume,"
+                + " ROW_NUMBER() OVER (PARTITION BY " + code + " ORDER BY trade_date DESC) AS rn"
+                + " FROM " + market.getTable()
+                + (bounded ? " WHERE trade_date <= :asOf" : "") + ") t"
+                + " WHERE rn <= :limit"
+                + " ORDER BY " + code + " ASC, trade_date ASC";
+    }
+
+    private BarColumns loadSingle(String sql, MapSqlParameterSource params, String code, int capacity) {
+        ColumnAccumulator acc = new ColumnAccumulator(capacity, true);
+        jdbcTemplate.query(sql, params, acc);
+        acc.flush();
+        return acc.result.get(code);
+    }
+
+    /**
+     * 按代码分组累积行数据：复用缓冲区，代码切换时按实际长度拷贝为该代码的列数组。
+     * growable=false 时容量固定（窗口查询已限制行数），否则按需倍增扩容。
+     */
+    private static final class ColumnAccumulator implements RowCallbackHandler {
+        private final Map<String, BarColumns> result = new HashMap<>();
+        private final boolean growable;
+        private int[] days;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private long[] volume;
+        private String currentCode;
+        private int count;
+
+        ColumnAccumulator(int capacity, boolean growable) {
+            this.growable = growable;
+            this.days = new int[capacity];
+            this.open = new double[capacity];
+            this.high = new double[capacity];
+            this.low = new double[capacity];
+            this.close = new double[capacity];
+            this.volume = new long[capacity];
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String code = rs.getString(1);
+            if (!code.equals(currentCode)) {
+                flush();
+                currentCode = code;
+            }
+            if (count == days.length) {
+                if (!growable) {
+                    return; // 窗口函数已限制行数，防御性忽略
+                }
+                grow();
+            }
+            days[count] = (int) rs.getObject(2, LocalDate.class).toEpochDay();
+            // getDouble/getLong 对 NULL 返回 0，与原先 "null -> 0.0" 的处理一致
+            open[count] = rs.getDouble(3);
+            high[count] = rs.getDouble(4);
+            low[count] = rs.getDouble(5);
+            close[count] = rs.getDouble(6);
+            volume[count] = rs.getLong(7);
+            count++;
+        }
+
+        private void grow() {
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+
+        void flush() {
+            if (currentCode != null && count > 0) {
+                result.put(currentCode, new BarColumns(currentCode,
+                        Arrays.copyOf(days, count),
+                        Arrays.copyOf(open, count),
+                        Arrays.copyOf(high, count),
+                        Arrays.copyOf(low, count),
+                        Arrays.copyOf(close, count),
+                        Arrays.copyOf(volume, count)));
+            }
+            count = 0;
+        }
+    }
+}
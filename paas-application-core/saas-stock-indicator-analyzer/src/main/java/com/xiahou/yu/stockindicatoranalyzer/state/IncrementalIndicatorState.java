@@ -0,0 +1,250 @@
+package com.xiahou.yu.stockindicatoranalyzer.state;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * 单只股票的增量指标状态：每到一根新K线以 O(1) 推进一次，得到最新一根的 SMA/EMA/布林带/MACD。
+ * 参数为系统标准口径：SMA/EMA 5/10/20/60，布林带 20 / 2 倍标准差，MACD 12/26/9。
+ * 计算口径与 {@link com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels} 及 ta4j 一致
+ * （EMA 以首根收盘价为种子，不足周期时 SMA 按已有样本求均值）。
+ * 最近 60 根收盘价保存在环形缓冲区中，滚动和与布林带标准差由其派生，持久化时只需保存缓冲区。
+ * 同一交易日重复写入时用 {@link #replaceLast} 替换最后一根，无需重放历史。
+ */
+public final class IncrementalIndicatorState {
+
+    public static final int[] SMA_PERIODS = {5, 10, 20, 60};
+    public static final int[] EMA_PERIODS = {5, 10, 20, 60};
+    public static final int BOLL_PERIOD = 20;
+    public static final double BOLL_K = 2.0;
+    public static final int MACD_SHORT = 12;
+    public static final int MACD_LONG = 26;
+    public static final int MACD_SIGNAL = 9;
+
+    /** 环形缓冲区容量：最大 SMA 周期 */
+    public static final int WINDOW = 60;
+
+    private final double[] window = new double[WINDOW];
+    private final double[] smaSums = new double[SMA_PERIODS.length];
+    private final double[] emaValues = new double[EMA_PERIODS.length];
+    /** 最近 BOLL_PERIOD 根的总体标准差，每次推进/替换后重算 */
+    private double bollStd;
+    private double emaShort;
+    private double emaLong;
+    private double dea;
+    private long barCount;
+    private LocalDate lastTradeDate;
+
+    /**
+     * 推进一根K线，要求 tradeDate 严格晚于上一根。
+     */
+    public void advance(LocalDate tradeDate, double close) {
+        if (lastTradeDate != null && !tradeDate.isAfter(lastTradeDate)) {
+            throw new IllegalArgumentException("tradeDate必须晚于最近一次推进的日期: " + lastTradeDate);
+        }
+        push(close);
+        lastTradeDate = tradeDate;
+    }
+
+    /**
+     * 替换最后一根K线的收盘价（同一交易日重复写入），结果与以新收盘价推进该根一致。
+     */
+    public void replaceLast(LocalDate tradeDate, double close) {
+        if (barCount == 0 || !tradeDate.equals(lastTradeDate)) {
+            throw new IllegalArgumentException("只能替换最近一次推进的交易日: " + lastTradeDate);
+        }
+        int pos = (int) ((barCount - 1) % WINDOW);
+        double delta = close - window[pos];
+        window[pos] = close;
+        for (int j = 0; j < SMA_PERIODS.length; j++) {
+            smaSums[j] += delta;
+        }
+        if (barCount == 1) {
+            Arrays.fill(emaValues, close);
+            emaShort = close;
+            emaLong = close;
+            dea = 0.0;
+        } else {
+            // EMA 对最新值是线性的：新值 = 原值 + α × (新收盘 - 原收盘)
+            for (int j = 0; j < EMA_PERIODS.length; j++) {
+                emaValues[j] += alpha(EMA_PERIODS[j]) * delta;
+            }
+            double dif = emaShort - emaLong;
+            emaShort += alpha(MACD_SHORT) * delta;
+            emaLong += alpha(MACD_LONG) * delta;
+            dea += alpha(MACD_SIGNAL) * (emaShort - emaLong - dif);
+        }
+        updateBollStd();
+    }
+
+    /**
+     * 推进一根K线但不记录日期，供分钟线等非日线序列使用（由调用方保证时间顺序）。
+     */
+    public void push(double close) {
+        int pos = (int) (barCount % WINDOW);
+        for (int j = 0; j < SMA_PERIODS.length; j++) {
+            int p = SMA_PERIODS[j];
+            smaSums[j] += close;
+            if (barCount >= p) {
+                smaSums[j] -= closeAgo(p);
+            }
+        }
+        window[pos] = close;
+
+        if (barCount == 0) {
+            Arrays.fill(emaValues, close);
+            emaShort = close;
+            emaLong = close;
+            dea = 0.0;
+        } else {
+            for (int j = 0; j < EMA_PERIODS.length; j++) {
+                emaValues[j] = ema(emaValues[j], close, EMA_PERIODS[j]);
+            }
+            emaShort = ema(emaShort, close, MACD_SHORT);
+            emaLong = ema(emaLong, close, MACD_LONG);
+            dea = ema(dea, emaShort - emaLong, MACD_SIGNAL);
+        }
+        barCount++;
+        updateBollStd();
+    }
+
+    /** 已推进的K线数 */
+    public long getBarCount() {
+        return barCount;
+    }
+
+    public LocalDate getLastTradeDate() {
+        return lastTradeDate;
+    }
+
+    public double sma(int period) {
+        return smaSums[indexOf(SMA_PERIODS, period)] / Math.min(period, barCount);
+    }
+
+    public double ema(int period) {
+        return emaValues[indexOf(EMA_PERIODS, period)];
+    }
+
+    public double bollMiddle() {
+        return sma(BOLL_PERIOD);
+    }
+
+    /** 布林带总体标准差 */
+    public double bollStdDev() {
+        return bollStd;
+    }
+
+    public double bollUpper() {
+        return bollMiddle() + BOLL_K * bollStdDev();
+    }
+
+    public double bollLower() {
+        return bollMiddle() - BOLL_K * bollStdDev();
+    }
+
+    public double macdDif() {
+        return emaShort - emaLong;
+    }
+
+    public double macdDea() {
+        return dea;
+    }
+
+    /** 柱 = DIF - DEA（不乘系数） */
+    public double macdHist() {
+        return macdDif() - dea;
+    }
+
+    // ================= 持久化支持 =================
+
+    /** 最近 min(barCount, 60) 根收盘价，按时间升序 */
+    public double[] recentCloses() {
+        int m = (int) Math.min(barCount, WINDOW);
+        double[] out = new double[m];
+        for (int i = 0; i < m; i++) {
+            out[i] = closeAgo(m - i);
+        }
+        return out;
+    }
+
+    public double[] emaValues() {
+        return emaValues.clone();
+    }
+
+    public double getEmaShort() {
+        return emaShort;
+    }
+
+    public double getEmaLong() {
+        return emaLong;
+    }
+
+    /**
+     * 由持久化字段恢复状态，滚动和与标准差由最近收盘价重新计算（同时消除长期滚动带来的浮点漂移）。
+     */
+    public static IncrementalIndicatorState restore(long barCount, LocalDate lastTradeDate, double[] recentCloses,
+                                                    double[] emaValues, double emaShort, double emaLong, double dea) {
+        int expected = (int) Math.min(barCount, WINDOW);
+        if (recentCloses.length != expected || emaValues.length != EMA_PERIODS.length) {
+            throw new IllegalArgumentException("指标状态数据不完整");
+        }
+        IncrementalIndicatorState s = new IncrementalIndicatorState();
+        s.barCount = barCount;
+        s.lastTradeDate = lastTradeDate;
+        for (int i = 0; i < expected; i++) {
+            s.window[(int) ((barCount - expected + i) % WINDOW)] = recentCloses[i];
+        }
+        for (int j = 0; j < SMA_PERIODS.length; j++) {
+            int p = (int) Math.min(SMA_PERIODS[j], barCount);
+            double sum = 0.0;
+            for (int k = 1; k <= p; k++) {
+                sum += s.closeAgo(k);
+            }
+            s.smaSums[j] = sum;
+        }
+        s.updateBollStd();
+        System.arraycopy(emaValues, 0, s.emaValues, 0, emaValues.length);
+        s.emaShort = emaShort;
+        s.emaLong = emaLong;
+        s.dea = dea;
+        return s;
+    }
+
+    /** 第 k 根之前的收盘价（k=1 为最近一根），要求 k <= min(barCount, WINDOW) */
+    private double closeAgo(int k) {
+        return window[(int) ((barCount - k) % WINDOW)];
+    }
+
+    /**
+     * 以同周期 SMA 为均值对窗口内样本逐个求偏差平方和，与 {@link com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels#stdDev} 口径一致。
+     */
+    private void updateBollStd() {
+        int m = (int) Math.min(BOLL_PERIOD, barCount);
+        if (m == 0) {
+            bollStd = 0.0;
+            return;
+        }
+        double mean = sma(BOLL_PERIOD);
+        double acc = 0.0;
+        for (int k = 1; k <= m; k++) {
+            double d = closeAgo(k) - mean;
+            acc += d * d;
+        }
+        bollStd = Math.sqrt(acc / m);
+    }
+
+    private static double ema(double prev, double value, int period) {
+        return (value - prev) * alpha(period) + prev;
+    }
+
+    private static double alpha(int period) {
+        return 2.0 / (period + 1);
+    }
+
+    private static int indexOf(int[] periods, int period) {
+        for (int i = 0; i < periods.length; i++) {
+            if (periods[i] == period) return i;
+        }
+        throw new IllegalArgumentException("不支持的周期: " + period);
+    }
+}
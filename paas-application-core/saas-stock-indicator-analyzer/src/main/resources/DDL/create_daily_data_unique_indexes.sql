@@ -0,0 +1,31 @@
+-- PostgreSQL 唯一索引
+-- 日线批量入库（DailyBarIngestionService）使用 INSERT ... ON CONFLICT (代码, trade_date) 合并，依赖以下唯一索引
+-- 建索引前先删除重复行：每组 (代码, trade_date) 保留最近更新（同时间取 id 最大）的一行
+
+BEGIN;
+
+DELETE FROM stocks_daily_data WHERE id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY stock_code, trade_date ORDER BY updated_at DESC NULLS LAST, id DESC) AS rn
+        FROM stocks_daily_data
+    ) t WHERE rn > 1
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_stocks_daily_data_code_date ON stocks_daily_data(stock_code, trade_date);
+
+DELETE FROM indexes_daily_data WHERE id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY index_code, trade_date ORDER BY updated_at DESC NULLS LAST, id DESC) AS rn
+        FROM indexes_daily_data
+    ) t WHERE rn > 1
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_indexes_daily_data_code_date ON indexes_daily_data(index_code, trade_date);
+
+DELETE FROM industry_indexes_daily_data WHERE id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY index_code, trade_date ORDER BY updated_at DESC NULLS LAST, id DESC) AS rn
+        FROM industry_indexes_daily_data
+    ) t WHERE rn > 1
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_industry_indexes_daily_data_code_date ON industry_indexes_daily_data(index_code, trade_date);
+
+COMMIT;
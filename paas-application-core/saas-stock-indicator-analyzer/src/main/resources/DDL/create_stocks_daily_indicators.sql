@@ -0,0 +1,26 @@
+-- PostgreSQL 建表语句
+-- 日线指标物化表 (stocks_daily_indicators)
+-- 按 (股票代码, 交易日, 参数组) 保存预计算的 SMA/EMA/布林带/MACD，供图表类接口直接读取
+-- param_set 取值见 IndicatorParamSet#key，例如 B20-2_M12-26-9
+
+CREATE TABLE stocks_daily_indicators (
+    stock_code VARCHAR(20) NOT NULL,
+    trade_date DATE NOT NULL,
+    param_set VARCHAR(64) NOT NULL,
+    bb_upper DOUBLE PRECISION,
+    bb_middle DOUBLE PRECISION,
+    bb_lower DOUBLE PRECISION,
+    sma5 DOUBLE PRECISION,
+    sma10 DOUBLE PRECISION,
+    sma20 DOUBLE PRECISION,
+    sma60 DOUBLE PRECISION,
+    ema5 DOUBLE PRECISION,
+    ema10 DOUBLE PRECISION,
+    ema20 DOUBLE PRECISION,
+    ema60 DOUBLE PRECISION,
+    macd_dif DOUBLE PRECISION,
+    macd_dea DOUBLE PRECISION,
+    macd_hist DOUBLE PRECISION,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (stock_code, param_set, trade_date)
+);
@@ -0,0 +1,23 @@
+-- PostgreSQL 建表语句
+-- 增量指标状态表 (stocks_indicator_state)
+-- 每只股票一行，保存推进到最近交易日的 EMA/MACD 中间值与最近 60 根收盘价，日线入库时按一根K线 O(1) 推进
+
+CREATE TABLE stocks_indicator_state (
+    id SERIAL PRIMARY KEY,
+    stock_code VARCHAR(20) NOT NULL,
+    last_trade_date DATE NOT NULL,
+    bar_count BIGINT NOT NULL,
+    recent_closes BYTEA NOT NULL,
+    ema5 DOUBLE PRECISION,
+    ema10 DOUBLE PRECISION,
+    ema20 DOUBLE PRECISION,
+    ema60 DOUBLE PRECISION,
+    macd_ema_short DOUBLE PRECISION,
+    macd_ema_long DOUBLE PRECISION,
+    macd_dea DOUBLE PRECISION,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 创建索引
+CREATE UNIQUE INDEX idx_stocks_indicator_state_code ON stocks_indicator_state(stock_code);
@@ -0,0 +1,124 @@
+package com.xiahou.yu.stockindicatoranalyzer.backtest;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestTrade;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rule;
+import com.xiahou.yu.stockindicatoranalyzer.rule.Rules;
+import com.xiahou.yu.stockindicatoranalyzer.rule.SeriesKey;
+import com.xiahou.yu.stockindicatoranalyzer.scan.ParallelScanExecutor;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 回测引擎测试：次日开盘成交（无未来函数），单只股票时组合净值与逐笔收益复利一致，价格缺失时顺延成交
+ */
+class BacktestEngineTest {
+
+    private static final int N = 300;
+
+    private static BarColumns bars(String code, long seed) {
+        Random random = new Random(seed);
+        int[] days = new int[N];
+        double[] open = new double[N], high = new double[N], low = new double[N], close = new double[N];
+        long[] volume = new long[N];
+        double px = 10.0;
+        for (int i = 0; i < N; i++) {
+            double o = px;
+            px = Math.max(1.0, px + random.nextGaussian() * 0.3);
+            days[i] = 19000 + i;
+            open[i] = o;
+            high[i] = Math.max(o, px) + 0.05;
+            low[i] = Math.min(o, px) - 0.05;
+            close[i] = px;
+            volume[i] = 1000;
+        }
+        return new BarColumns(code, days, open, high, low, close, volume);
+    }
+
+    private static BacktestResult run(Map<String, BarColumns> data, BacktestEngine engine) {
+        ParallelScanExecutor executor = new ParallelScanExecutor(2);
+        try {
+            return engine.run(new MarketBarSnapshot(N, data), new ArrayList<>(data.keySet()), executor);
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void entersAtNextOpenAfterSignal() {
+        BarColumns bars = bars("000001", 7L);
+        Rule entry = Rules.crossAbove(SeriesKey.CLOSE, SeriesKey.sma(10), 1, 0.0);
+        Rule exit = Rules.crossBelow(SeriesKey.CLOSE, SeriesKey.sma(10), 1, 0.0);
+        BacktestEngine engine = new BacktestEngine(entry, exit, new BacktestEngine.Params(200, 0, 0.0, 0.0, true));
+
+        BacktestResult result = run(Map.of("000001", bars), engine);
+        assertTrue(result.getTradeCount() > 0);
+        double[] sma = new double[N];
+        IndicatorKernels.sma(bars.getClose(), N, 10, sma);
+        for (BacktestTrade trade : result.getTrades()) {
+            int entryIndex = (int) trade.getEntryDate().toEpochDay() - 19000;
+            int signal = entryIndex - 1;
+            // 信号日收盘上穿均线，入场价为次日开盘价
+            assertTrue(bars.getClose()[signal] > sma[signal]);
+            assertTrue(bars.getClose()[signal - 1] <= sma[signal - 1]);
+            assertEquals(bars.getOpen()[entryIndex], trade.getEntryPrice(), 0.0);
+        }
+    }
+
+    @Test
+    void singleStockEquityMatchesCompoundedTrades() {
+        Map<String, BarColumns> data = new HashMap<>();
+        data.put("000001", bars("000001", 11L));
+        Rule entry = Rules.crossAbove(SeriesKey.ema(5), SeriesKey.ema(20), 1, 0.0);
+        Rule exit = Rules.crossBelow(SeriesKey.ema(5), SeriesKey.ema(20), 1, 0.0);
+        BacktestEngine engine = new BacktestEngine(entry, exit, new BacktestEngine.Params(250, 0, 0.0, 0.001, true));
+
+        BacktestResult result = run(data, engine);
+        double compounded = 1.0;
+        for (BacktestTrade trade : result.getTrades()) {
+            compounded *= 1 + trade.getReturnPct() / 100.0;
+        }
+        assertEquals((compounded - 1) * 100.0, result.getTotalReturnPct(), 1e-9);
+        assertTrue(result.getMaxDrawdownPct() >= 0.0);
+
+        // 增加股票不影响单只股票的交易明细
+        data.put("000002", bars("000002", 12L));
+        BacktestResult multi = run(data, engine);
+        List<BacktestTrade> first = multi.getTrades().stream().filter(t -> t.getStockCode().equals("000001")).toList();
+        assertEquals(result.getTrades(), first);
+    }
+
+    @Test
+    void missingPricesDeferFillsInsteadOfTradingAtZero() {
+        BarColumns bars = bars("000001", 21L);
+        // 每隔 7 根停牌一天：开/收盘价为 0
+        for (int i = 100; i < N; i += 7) {
+            bars.getOpen()[i] = 0.0;
+            bars.getClose()[i] = 0.0;
+        }
+        bars.getClose()[N - 1] = 0.0;
+        Rule entry = Rules.crossAbove(SeriesKey.CLOSE, SeriesKey.sma(5), 1, 0.0);
+        Rule exit = Rules.crossBelow(SeriesKey.CLOSE, SeriesKey.sma(5), 1, 0.0);
+        BacktestEngine engine = new BacktestEngine(entry, exit, new BacktestEngine.Params(200, 0, 5.0, 0.0, true));
+
+        BacktestResult result = run(Map.of("000001", bars), engine);
+        assertTrue(result.getTradeCount() > 0);
+        double compounded = 1.0;
+        for (BacktestTrade trade : result.getTrades()) {
+            assertTrue(trade.getEntryPrice() > 0);
+            assertTrue(trade.getExitPrice() > 0);
+            compounded *= 1 + trade.getReturnPct() / 100.0;
+        }
+        assertEquals((compounded - 1) * 100.0, result.getTotalReturnPct(), 1e-9);
+    }
+}
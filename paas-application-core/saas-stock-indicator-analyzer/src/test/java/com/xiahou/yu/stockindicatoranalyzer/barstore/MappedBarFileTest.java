@@ -0,0 +1,159 @@
+package com.xiahou.yu.stockindicatoranalyzer.barstore;
+
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存映射K线文件测试：追加、尾部替换、扩容迁移、崩溃与全量重建切换后按索引恢复
+ */
+class MappedBarFileTest {
+
+    /** 小分段，便于覆盖跨段分配与迁移 */
+    private static final int SEGMENT = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private static void write(MappedBarFile file, String code, int firstDay, int n, double base) {
+        int[] days = new int[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = firstDay + i;
+            close[i] = base + i;
+            open[i] = close[i] - 0.5;
+            high[i] = close[i] + 1.0;
+            low[i] = close[i] - 1.0;
+            volume[i] = 1000L + i;
+        }
+        file.upsert(code, days, open, high, low, close, volume, n);
+    }
+
+    @Test
+    void testAppendGrowAndReplaceTail() throws Exception {
+        try (MappedBarFile file = new MappedBarFile(dir, "stocks", SEGMENT)) {
+            write(file, "000001", 100, 50, 10.0);
+            write(file, "000002", 100, 10, 50.0);
+            write(file, "000001", 150, 500, 60.0); // 超出初始容量，触发迁移
+            assertEquals(550, file.size("000001"));
+            assertEquals(649, file.watermark());
+
+            BarColumns tail = file.tail("000001", 3);
+            assertArrayEquals(new int[]{647, 648, 649}, tail.getEpochDays());
+            assertEquals(60.0 + 499, tail.getClose()[2]);
+            assertEquals(10.0, file.tail("000001", 1000).getClose()[0]);
+            // 截止某日的最近K线
+            BarColumns asOf = file.tail("000001", 3, 200);
+            assertArrayEquals(new int[]{198, 199, 200}, asOf.getEpochDays());
+            assertEquals(110.0, asOf.getClose()[2]);
+            assertEquals(2, file.tail("000001", 3, 101).size());
+            assertNull(file.tail("000001", 3, 99));
+
+            // 从 645 起重写：645 之后的旧数据被替换
+            write(file, "000001", 645, 2, 900.0);
+            assertEquals(547, file.size("000001"));
+            assertEquals(901.0, file.tail("000001", 1).getClose()[0]);
+
+            BarColumns range = file.range("000002", 105, 200);
+            assertEquals(5, range.size());
+            assertEquals(55.0, range.getClose()[0]);
+            assertEquals(1005L, range.getVolume()[0]);
+        }
+    }
+
+    @Test
+    void testHistoryRewriteKeepsIndexedDataIntact() throws Exception {
+        MappedBarFile file = new MappedBarFile(dir, "stocks", SEGMENT);
+        write(file, "000001", 100, 50, 10.0);
+        write(file, "000002", 100, 50, 20.0);
+        file.flush();
+        // 回补历史（早于已持久化最大交易日）与重写最后一个交易日后不写索引，模拟刷新中途崩溃
+        write(file, "000001", 90, 60, 500.0);
+        write(file, "000002", 149, 1, 900.0);
+        assertEquals(60, file.size("000001"));
+        assertEquals(500.0, file.tail("000001", 60).getClose()[0]);
+
+        try (MappedBarFile reopened = new MappedBarFile(dir, "stocks", SEGMENT)) {
+            BarColumns bars = reopened.tail("000001", 100);
+            assertEquals(50, bars.size());
+            assertEquals(100, bars.getEpochDays()[0]);
+            assertEquals(10.0, bars.getClose()[0]);
+            assertEquals(59.0, bars.getClose()[49]);
+            assertEquals(149, reopened.watermark());
+        }
+    }
+
+    @Test
+    void testInterruptedRebuildLeavesIndexedFile() throws Exception {
+        Path live;
+        try (MappedBarFile file = new MappedBarFile(dir, "industries", SEGMENT)) {
+            write(file, "BK01", 100, 30, 1.0);
+            live = file.dataPath();
+        }
+        MappedBarFile rebuilding = MappedBarFile.create(dir, "industries", SEGMENT);
+        write(rebuilding, "BK01", 80, 50, 100.0);
+        Path partial = rebuilding.dataPath();
+        assertNotEquals(live, partial);
+
+        try (MappedBarFile reopened = new MappedBarFile(dir, "industries", SEGMENT)) {
+            assertEquals(live, reopened.dataPath());
+            assertEquals(30, reopened.size("BK01"));
+            assertEquals(1.0, reopened.tail("BK01", 30).getClose()[0]);
+        }
+        assertFalse(Files.exists(partial)); // 未被索引引用的数据文件在打开时清理
+    }
+
+    @Test
+    void testRebuildSwitchesDataFileOnFlush() throws Exception {
+        MappedBarFile live = new MappedBarFile(dir, "industries", SEGMENT);
+        write(live, "BK01", 100, 30, 1.0);
+        live.flush();
+        Path oldData = live.dataPath();
+
+        MappedBarFile rebuilt = MappedBarFile.create(dir, "industries", SEGMENT);
+        write(rebuilt, "BK01", 80, 50, 100.0);
+        write(rebuilt, "BK02", 80, 10, 200.0);
+        rebuilt.flush();
+        live.discard();
+        assertFalse(Files.exists(oldData));
+        // 旧文件丢弃后新文件继续可用
+        assertEquals(200.0, rebuilt.tail("BK02", 10).getClose()[0]);
+        rebuilt.close();
+
+        try (MappedBarFile reopened = new MappedBarFile(dir, "industries", SEGMENT)) {
+            assertEquals(rebuilt.dataPath(), reopened.dataPath());
+            assertEquals(50, reopened.size("BK01"));
+            assertEquals(10, reopened.size("BK02"));
+            assertEquals(100.0, reopened.tail("BK01", 50).getClose()[0]);
+        }
+    }
+
+    @Test
+    void testReopenRestoresFromIndex() throws Exception {
+        try (MappedBarFile file = new MappedBarFile(dir, "indexes", SEGMENT)) {
+            for (int c = 0; c < 40; c++) {
+                write(file, "IDX" + c, 1000, 120, c);
+            }
+        }
+        try (MappedBarFile reopened = new MappedBarFile(dir, "indexes", SEGMENT)) {
+            assertEquals(40, reopened.codes().size());
+            assertEquals(1119, reopened.watermark());
+            BarColumns bars = reopened.tail("IDX39", 120);
+            assertEquals(120, bars.size());
+            assertEquals(1000, bars.getEpochDays()[0]);
+            assertEquals(39.0 + 119, bars.getClose()[119]);
+        }
+        try (MappedBarFile mismatched = new MappedBarFile(dir, "indexes", SEGMENT * 2)) {
+            assertTrue(mismatched.codes().isEmpty()); // 分段大小不一致时索引作废，等待全量重建
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.xiahou.yu.stockindicatoranalyzer.cache;
+
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 扫描结果缓存测试：版本失效、LRU 淘汰、single-flight 与预计算固定结果
+ */
+class AnalysisResultCacheTest {
+
+    private static MarketDataVersion version() {
+        StocksDailyDataRepository repo = Mockito.mock(StocksDailyDataRepository.class);
+        Mockito.when(repo.findMaxTradeDate()).thenReturn(LocalDate.of(2024, 6, 3));
+        return new MarketDataVersion(repo);
+    }
+
+    @Test
+    void testHitUntilDataVersionChanges() {
+        MarketDataVersion version = version();
+        AnalysisResultCache cache = new AnalysisResultCache(version, true, 16);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("r1", cache.get("scan", List.of(50, 2.0), () -> "r" + calls.incrementAndGet()));
+        assertEquals("r1", cache.get("scan", List.of(50, 2.0), () -> "r" + calls.incrementAndGet()));
+        assertEquals("r2", cache.get("scan", List.of(60, 2.0), () -> "r" + calls.incrementAndGet()));
+
+        version.onDailyWritten(LocalDate.of(2024, 6, 4));
+        assertEquals(LocalDate.of(2024, 6, 4), version.current().latestTradeDate());
+        assertEquals("r3", cache.get("scan", List.of(50, 2.0), () -> "r" + calls.incrementAndGet()));
+    }
+
+    @Test
+    void testLruEviction() {
+        AnalysisResultCache cache = new AnalysisResultCache(version(), true, 2);
+        AtomicInteger calls = new AtomicInteger();
+        cache.get("scan", List.of(1), calls::incrementAndGet);
+        cache.get("scan", List.of(2), calls::incrementAndGet);
+        cache.get("scan", List.of(1), calls::incrementAndGet); // 访问 1，使 2 成为最久未用
+        cache.get("scan", List.of(3), calls::incrementAndGet);
+        assertEquals(2, cache.size());
+        assertEquals(3, calls.get());
+
+        cache.get("scan", List.of(1), calls::incrementAndGet);
+        assertEquals(3, calls.get());
+        cache.get("scan", List.of(2), calls::incrementAndGet);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void testPinnedResultsSurviveEvictionUntilVersionChanges() {
+        MarketDataVersion version = version();
+        AnalysisResultCache cache = new AnalysisResultCache(version, false, 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("p1", cache.pin("scan", List.of(50), () -> "p" + calls.incrementAndGet()));
+        assertEquals("p1", cache.get("scan", List.of(50), () -> "p" + calls.incrementAndGet()));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.pinnedEntries().size());
+        assertNotNull(cache.pinnedEntries().get(0).computedAt());
+
+        version.onDailyWritten(LocalDate.of(2024, 6, 4));
+        assertTrue(cache.pinnedEntries().isEmpty());
+        assertEquals("p2", cache.get("scan", List.of(50), () -> "p" + calls.incrementAndGet()));
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsShareOneComputation() throws Exception {
+        AnalysisResultCache cache = new AnalysisResultCache(version(), true, 16);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = pool.submit(() -> cache.get("scan", List.of(20), () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "shared";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> second = pool.submit(() -> cache.get("scan", List.of(20), () -> {
+                calls.incrementAndGet();
+                return "duplicate";
+            }));
+            Thread.sleep(50);
+            release.countDown();
+            assertEquals("shared", first.get(5, TimeUnit.SECONDS));
+            assertEquals("shared", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
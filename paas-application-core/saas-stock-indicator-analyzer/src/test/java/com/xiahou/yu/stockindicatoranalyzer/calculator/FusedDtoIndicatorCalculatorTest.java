@@ -0,0 +1,87 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 单趟融合计算器测试：结果应与分步计算器逐位一致
+ */
+class FusedDtoIndicatorCalculatorTest {
+
+    private static List<DailyLineDTO> series(int n, long seed) {
+        Random random = new Random(seed);
+        List<DailyLineDTO> list = new ArrayList<>();
+        double price = 15.0;
+        for (int i = 0; i < n; i++) {
+            price = Math.max(1.0, price * (1.0 + random.nextGaussian() * 0.02));
+            list.add(DailyLineDTO.builder()
+                    .tradeDate(LocalDate.of(2020, 1, 1).plusDays(i))
+                    .close(i == 7 ? null : BigDecimal.valueOf(Math.round(price * 100.0) / 100.0))
+                    .build());
+        }
+        return list;
+    }
+
+    @Test
+    void testMatchesClassicCalculators() {
+        List<DailyLineDTO> classic = series(300, 3L);
+        List<DailyLineDTO> fused = series(300, 3L);
+
+        new SmaDtoCalculator().apply(classic);
+        new EmaDtoCalculator().apply(classic);
+        new MacdDtoCalculator().apply(classic, 12, 26, 9);
+        new BollingerDtoCalculator().apply(classic, 26, 2.5);
+        new FusedDtoIndicatorCalculator().apply(fused, 26, 2.5);
+
+        for (int i = 0; i < classic.size(); i++) {
+            DailyLineDTO a = classic.get(i);
+            DailyLineDTO b = fused.get(i);
+            assertEquals(a.getSma5(), b.getSma5());
+            assertEquals(a.getSma60(), b.getSma60());
+            assertEquals(a.getEma10(), b.getEma10());
+            assertEquals(a.getEma60(), b.getEma60());
+            assertEquals(a.getMacdDif(), b.getMacdDif());
+            assertEquals(a.getMacdDea(), b.getMacdDea());
+            assertEquals(a.getMacdHist(), b.getMacdHist());
+            assertEquals(a.getBbMiddle(), b.getBbMiddle());
+            assertEquals(a.getBbUpper(), b.getBbUpper());
+            assertEquals(a.getBbLower(), b.getBbLower());
+        }
+    }
+
+    @Test
+    void testComputeColumnsLeavesDtoUntouched() {
+        List<DailyLineDTO> list = series(80, 5L);
+        IndicatorColumns columns = new FusedDtoIndicatorCalculator().compute(list, 20, 2.0, 12, 26, 9);
+        assertEquals(80, columns.getSize());
+        assertNull(list.get(79).getSma5());
+
+        new FusedDtoIndicatorCalculator().apply(list, 20, 2.0);
+        assertEquals(list.get(79).getSma20().doubleValue(), columns.getSma20()[79]);
+        assertEquals(list.get(79).getMacdHist().doubleValue(), columns.getMacdHist()[79]);
+    }
+
+    @Test
+    void testComputeFromCloseArrayMatchesDtoPath() {
+        List<DailyLineDTO> list = series(120, 9L);
+        double[] close = new double[list.size()];
+        for (int i = 0; i < close.length; i++) {
+            close[i] = list.get(i).getClose() == null ? 0.0 : list.get(i).getClose().doubleValue();
+        }
+        FusedDtoIndicatorCalculator calculator = new FusedDtoIndicatorCalculator();
+        IndicatorColumns fromDto = calculator.compute(list, 20, 2.0, 12, 26, 9);
+        IndicatorColumns fromArray = calculator.compute(close, close.length, 20, 2.0, 12, 26, 9);
+        assertArrayEquals(fromDto.getBbUpper(), fromArray.getBbUpper());
+        assertArrayEquals(fromDto.getSma60(), fromArray.getSma60());
+        assertArrayEquals(fromDto.getEma20(), fromArray.getEma20());
+        assertArrayEquals(fromDto.getMacdHist(), fromArray.getMacdHist());
+    }
+}
@@ -0,0 +1,171 @@
+package com.xiahou.yu.stockindicatoranalyzer.calculator;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.averages.EMAIndicator;
+import org.ta4j.core.indicators.averages.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.VolumeIndicator;
+import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
+import org.ta4j.core.num.Num;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标内核黄金测试：以 ta4j 的计算结果为基准，校验原始类型数组内核的数值一致性
+ */
+class IndicatorKernelsTest {
+
+    private static final int N = 300;
+    private static final double REL_TOLERANCE = 1e-9;
+
+    private double[] close;
+    private long[] volume;
+    private BarSeries series;
+
+    @BeforeEach
+    void setUp() {
+        // 固定种子的随机游走序列
+        Random random = new Random(20240601L);
+        List<DailyLineDTO> list = new ArrayList<>();
+        close = new double[N];
+        volume = new long[N];
+        double price = 10.0;
+        LocalDate date = LocalDate.of(2023, 1, 2);
+        for (int i = 0; i < N; i++) {
+            price = Math.max(0.5, price * (1.0 + random.nextGaussian() * 0.02));
+            double c = Math.round(price * 100.0) / 100.0;
+            long v = 100_000L + random.nextInt(5_000_000);
+            close[i] = c;
+            volume[i] = v;
+            list.add(DailyLineDTO.builder()
+                    .tradeDate(date.plusDays(i))
+                    .open(BigDecimal.valueOf(c))
+                    .high(BigDecimal.valueOf(c))
+                    .low(BigDecimal.valueOf(c))
+                    .close(BigDecimal.valueOf(c))
+                    .volume(v)
+                    .build());
+        }
+        series = Ta4jSeriesMapper.buildSeries("golden", list);
+    }
+
+    @Test
+    void testSma() {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        for (int period : new int[]{1, 5, 20, 60}) {
+            double[] out = new double[N];
+            IndicatorKernels.sma(close, N, period, out);
+            assertMatches(new SMAIndicator(closePrice, period), out, "SMA(" + period + ")");
+        }
+    }
+
+    @Test
+    void testVolumeSma() {
+        VolumeIndicator vol = new VolumeIndicator(series);
+        double[] out = new double[N];
+        IndicatorKernels.volumeSma(volume, N, 20, out);
+        assertMatches(new SMAIndicator(vol, 20), out, "VolumeSMA(20)");
+    }
+
+    @Test
+    void testEma() {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        for (int period : new int[]{5, 10, 20, 60}) {
+            double[] out = new double[N];
+            IndicatorKernels.ema(close, N, period, out);
+            assertMatches(new EMAIndicator(closePrice, period), out, "EMA(" + period + ")");
+        }
+    }
+
+    @Test
+    void testEmaInPlace() {
+        double[] expected = new double[N];
+        IndicatorKernels.ema(close, N, 12, expected);
+        double[] buf = close.clone();
+        IndicatorKernels.ema(buf, N, 12, buf);
+        assertArrayEquals(expected, buf);
+    }
+
+    @Test
+    void testMacd() {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        MACDIndicator dif = new MACDIndicator(closePrice, 12, 26);
+        EMAIndicator dea = new EMAIndicator(dif, 9);
+
+        double[] outDif = new double[N];
+        double[] outDea = new double[N];
+        double[] outHist = new double[N];
+        IndicatorKernels.macd(close, N, 12, 26, 9, outDif, outDea, outHist);
+
+        assertMatches(dif, outDif, "DIF");
+        assertMatches(dea, outDea, "DEA");
+        for (int i = 0; i < N; i++) {
+            double expected = dif.getValue(i).minus(dea.getValue(i)).doubleValue();
+            assertClose(expected, outHist[i], "HIST@" + i);
+        }
+    }
+
+    @Test
+    void testMacdRejectsInvalidPeriods() {
+        double[] buf = new double[N];
+        assertThrows(IllegalArgumentException.class,
+                () -> IndicatorKernels.macd(close, N, 26, 12, 9, buf, buf.clone(), buf.clone()));
+    }
+
+    @Test
+    void testStdDevAndBollinger() {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        StandardDeviationIndicator sd = new StandardDeviationIndicator(closePrice, 20);
+        SMAIndicator sma = new SMAIndicator(closePrice, 20);
+
+        double[] mean = new double[N];
+        double[] out = new double[N];
+        IndicatorKernels.sma(close, N, 20, mean);
+        IndicatorKernels.stdDev(close, N, 20, mean, out);
+        assertMatches(sd, out, "SD(20)");
+
+        double[] middle = new double[N];
+        double[] upper = new double[N];
+        double[] lower = new double[N];
+        IndicatorKernels.bollinger(close, N, 20, 2.0, middle, upper, lower);
+        for (int i = 0; i < N; i++) {
+            double m = sma.getValue(i).doubleValue();
+            double s = sd.getValue(i).doubleValue();
+            assertClose(m, middle[i], "BB middle@" + i);
+            assertClose(m + 2.0 * s, upper[i], "BB upper@" + i);
+            assertClose(m - 2.0 * s, lower[i], "BB lower@" + i);
+        }
+    }
+
+    @Test
+    void testPartialLength() {
+        // 只计算前 n 个元素，缓冲区多余部分保持不变
+        double[] out = new double[N];
+        java.util.Arrays.fill(out, -1.0);
+        IndicatorKernels.sma(close, 50, 20, out);
+        assertEquals(-1.0, out[50]);
+        assertClose(new SMAIndicator(new ClosePriceIndicator(series), 20).getValue(49).doubleValue(), out[49], "SMA@49");
+    }
+
+    private static void assertMatches(Indicator<Num> expected, double[] actual, String name) {
+        for (int i = 0; i < N; i++) {
+            assertClose(expected.getValue(i).doubleValue(), actual[i], name + "@" + i);
+        }
+    }
+
+    private static void assertClose(double expected, double actual, String message) {
+        double tolerance = REL_TOLERANCE * Math.max(1.0, Math.abs(expected));
+        assertEquals(expected, actual, tolerance, message);
+    }
+}
@@ -0,0 +1,51 @@
+package com.xiahou.yu.stockindicatoranalyzer.crosssection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 横截面统计测试：百分位排名（并列、缺失值）、z 分数与堆选 Top-K 对照全排序
+ */
+class CrossSectionMathTest {
+
+    @Test
+    void testPercentileRankWithTiesAndMissing() {
+        double[] rank = CrossSectionMath.percentileRank(new double[]{3.0, 1.0, Double.NaN, 3.0, 2.0});
+        assertEquals(5.0 / 6.0, rank[0], 1e-12);
+        assertEquals(0.0, rank[1], 1e-12);
+        assertTrue(Double.isNaN(rank[2]));
+        assertEquals(rank[0], rank[3], 1e-12);
+        assertEquals(1.0 / 3.0, rank[4], 1e-12);
+
+        double[] z = CrossSectionMath.zScore(new double[]{1.0, 3.0, Double.NaN});
+        assertEquals(-1.0, z[0], 1e-12);
+        assertEquals(1.0, z[1], 1e-12);
+        assertTrue(Double.isNaN(z[2]));
+    }
+
+    @Test
+    void testTopKMatchesFullSort() {
+        Random random = new Random(7);
+        double[] score = new double[500];
+        for (int i = 0; i < score.length; i++) {
+            score[i] = i % 17 == 0 ? Double.NaN : Math.floor(random.nextDouble() * 100);
+        }
+        int[] expected = IntStream.range(0, score.length)
+                .filter(i -> !Double.isNaN(score[i]))
+                .boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> -score[i]).thenComparingInt(i -> i))
+                .limit(25)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertArrayEquals(expected, CrossSectionMath.topK(score, 25));
+        assertEquals(0, CrossSectionMath.topK(score, 0).length);
+        assertEquals(3, CrossSectionMath.topK(new double[]{1.0, Double.NaN, 2.0, 0.5}, 10).length);
+        assertEquals(2, CrossSectionMath.topK(new double[]{1.0, Double.NaN, 2.0, 0.5}, 10)[0]);
+    }
+}
@@ -0,0 +1,48 @@
+package com.xiahou.yu.stockindicatoranalyzer.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * COPY 行编码测试：NULL、引号转义与合并语句的关键子句
+ */
+class CsvCopyWriterTest {
+
+    @Test
+    void testEncodesNullsAndQuotes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CopyIn copyIn = Mockito.mock(CopyIn.class);
+        Mockito.doAnswer(inv -> {
+            out.write((byte[]) inv.getArgument(0), (int) inv.getArgument(1), (int) inv.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+
+        CsvCopyWriter writer = new CsvCopyWriter(copyIn);
+        writer.number(1L).text("BK\"01").text("半导体").date(LocalDate.of(2024, 6, 3))
+                .number(new BigDecimal("1.2300")).number((Long) null).number(new BigDecimal("1E+3"));
+        writer.endRow();
+        writer.number(2L).text(null).date(null);
+        writer.endRow();
+        writer.flush();
+
+        assertEquals("1,\"BK\"\"01\",\"半导体\",2024-06-03,1.2300,,1000\n2,,\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMergeSqlKeepsLastDuplicateAndUpdatesDataColumns() {
+        String sql = DailyBarTable.STOCK.mergeSql();
+        assertTrue(sql.contains("DISTINCT ON (stock_code, trade_date)"));
+        assertTrue(sql.contains("ORDER BY stock_code, trade_date, seq DESC"));
+        assertTrue(sql.contains("ON CONFLICT (stock_code, trade_date) DO UPDATE SET open_price = EXCLUDED.open_price"));
+        assertFalse(sql.contains("stock_code = EXCLUDED"));
+        assertTrue(DailyBarTable.INDUSTRY.copySql().startsWith("COPY ingest_industry_indexes_daily_data (seq, index_code, industry_name, trade_date"));
+    }
+}
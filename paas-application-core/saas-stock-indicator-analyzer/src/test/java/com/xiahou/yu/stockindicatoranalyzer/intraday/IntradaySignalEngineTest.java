@@ -0,0 +1,200 @@
+package com.xiahou.yu.stockindicatoranalyzer.intraday;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.state.IncrementalIndicatorState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 盘中信号引擎测试：MACD 交叉与数组内核结果一致、乱序丢弃、整市场分钟线突发与行解析、
+ * 慢订阅方隔离、交易日切换与数据源白名单
+ */
+class IntradaySignalEngineTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void testMacdCrossesMatchKernels() {
+        int n = 240;
+        double[] close = new double[n];
+        for (int i = 0; i < n; i++) {
+            close[i] = 10.0 + Math.sin(i / 9.0) + i * 0.002;
+        }
+        double[] dif = new double[n], dea = new double[n], hist = new double[n];
+        IndicatorKernels.macd(close, n, IncrementalIndicatorState.MACD_SHORT, IncrementalIndicatorState.MACD_LONG,
+                IncrementalIndicatorState.MACD_SIGNAL, dif, dea, hist);
+        List<Long> expected = new ArrayList<>();
+        for (int i = IntradaySignalEngine.MACD_WARMUP; i < n; i++) {
+            if ((hist[i - 1] <= 0 && hist[i] > 0) || (hist[i - 1] >= 0 && hist[i] < 0)) {
+                expected.add(i * MINUTE);
+            }
+        }
+
+        IntradaySignalEngine engine = new IntradaySignalEngine();
+        List<Long> actual = Collections.synchronizedList(new ArrayList<>());
+        engine.subscribe(s -> {
+            if (s.type() == IntradaySignal.Type.MACD_GOLDEN_CROSS || s.type() == IntradaySignal.Type.MACD_DEATH_CROSS) {
+                actual.add(s.time());
+            }
+        });
+        for (int i = 0; i < n; i++) {
+            assertTrue(engine.onBar(new MinuteBar("600000", i * MINUTE, close[i], close[i], close[i], close[i], 100L)));
+        }
+        assertFalse(expected.isEmpty());
+        awaitSize(actual, expected.size());
+        assertEquals(expected, actual);
+
+        assertFalse(engine.onBar(new MinuteBar("600000", (n - 1) * MINUTE, 1, 1, 1, 1, 1L)));
+        assertEquals(1, engine.droppedCount());
+    }
+
+    @Test
+    void testFullMarketBurstAndLineParsing() {
+        IntradaySignalEngine engine = new IntradaySignalEngine();
+        int codes = 5_000;
+        int minutes = 60;
+        for (int m = 0; m < minutes; m++) {
+            for (int c = 0; c < codes; c++) {
+                double px = 10.0 + c % 7 + Math.sin((m + c) / 5.0);
+                engine.onBar(new MinuteBar(String.valueOf(c), m * MINUTE, px, px, px, px, 100L));
+            }
+        }
+        assertEquals(codes, engine.trackedCodes());
+        assertEquals((long) codes * minutes, engine.processedCount());
+        assertTrue(engine.signalCount() > 0);
+
+        MinuteBar bar = LineMinuteBarSource.parseLine("600000, 2024-03-01 09:31, 10.0,10.5,9.9,10.2,1200");
+        assertNotNull(bar);
+        assertEquals("600000", bar.code());
+        assertEquals(10.2, bar.close());
+        assertEquals(1200L, bar.volume());
+        assertEquals(1709256660000L, bar.time());
+        assertNull(LineMinuteBarSource.parseLine("code,time,open,high,low,close,volume"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> LineMinuteBarSource.parseLine("secret-content,1,2"));
+        assertFalse(e.getMessage().contains("secret-content"));
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnectedWithoutBlockingIngest() throws InterruptedException {
+        IntradaySignalEngine engine = new IntradaySignalEngine(4);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        engine.subscribe(s -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        }, disconnected::countDown);
+        AtomicInteger fastReceived = new AtomicInteger();
+        engine.subscribe(s -> fastReceived.incrementAndGet());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 2_000; i++) {
+            double px = 10.0 + Math.sin(i / 3.0);
+            engine.onBar(new MinuteBar("600000", i * MINUTE, px, px, px, px, 100L));
+            if (i % 10 == 9) {
+                // 快订阅方每批追平后再继续，只有被阻塞的订阅方会积压
+                awaitCount(fastReceived, engine.signalCount());
+            }
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        assertTrue(engine.signalCount() > 4);
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        assertEquals(1, engine.disconnectedSubscriberCount());
+        assertEquals(1, engine.subscriberCount());
+        release.countDown();
+
+        awaitCount(fastReceived, engine.signalCount());
+        assertEquals(engine.signalCount(), fastReceived.get());
+    }
+
+    @Test
+    void testNewTradingDayRestartsStateAndEvictsIdleCodes() {
+        IntradaySignalEngine engine = new IntradaySignalEngine();
+        long day1 = 1709256660000L; // 2024-03-01 09:31 北京时间
+        long day2 = day1 + 3 * 24 * 3600_000L;
+        for (int i = 0; i < 40; i++) {
+            engine.onBar(new MinuteBar("600000", day1 + i * MINUTE, 10, 10, 10, 10, 1L));
+            engine.onBar(new MinuteBar("000001", day1 + i * MINUTE, 10, 10, 10, 10, 1L));
+        }
+        assertEquals(2, engine.trackedCodes());
+
+        engine.onBar(new MinuteBar("600000", day2, 10, 10, 10, 10, 1L));
+        assertEquals(1, engine.trackedCodes());
+        assertFalse(engine.onBar(new MinuteBar("600000", day1 + 50 * MINUTE, 10, 10, 10, 10, 1L)));
+
+        engine.reset();
+        assertEquals(0, engine.trackedCodes());
+        assertTrue(engine.onBar(new MinuteBar("600000", day2, 10, 10, 10, 10, 1L)));
+    }
+
+    @Test
+    void testMalformedLinesAreSkippedAndCounted(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("bars.csv");
+        Files.writeString(file, String.join("\n",
+                "code,time,open,high,low,close,volume",
+                "600000,1000,10,10,10,10,100",
+                "600000,oops",
+                "600000,2000,10,10,10,abc,100",
+                "600000,3000,10,10,10,10,100"));
+        List<MinuteBar> bars = new ArrayList<>();
+        LineMinuteBarSource source = LineMinuteBarSource.file(file);
+        source.run(bars::add);
+        assertEquals(2, bars.size());
+        assertEquals(2, source.malformedLines());
+    }
+
+    @Test
+    void testFeedOnlyStartsConfiguredSources(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("bars.csv");
+        Files.writeString(file, "600000,1000,10,10,10,10,100\nbad line\n");
+        String configured = "file:" + file;
+        IntradaySignalEngine engine = new IntradaySignalEngine();
+        IntradayFeedService service = new IntradayFeedService(engine, configured, List.of());
+        try {
+            assertThrows(IllegalArgumentException.class, () -> service.start("file:/etc/passwd"));
+            assertThrows(IllegalArgumentException.class, () -> service.start("socket:127.0.0.1:22"));
+            assertNull(service.status().getSource());
+
+            service.start((String) null);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (service.status().isRunning() && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertEquals(configured, service.status().getSource());
+            assertEquals(1, service.status().getProcessedBars());
+            assertEquals(1, service.status().getMalformedLines());
+            assertNull(service.status().getLastError());
+        } finally {
+            service.destroy();
+        }
+    }
+
+    private static void awaitCount(AtomicInteger counter, long count) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (counter.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitSize(List<?> list, int size) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
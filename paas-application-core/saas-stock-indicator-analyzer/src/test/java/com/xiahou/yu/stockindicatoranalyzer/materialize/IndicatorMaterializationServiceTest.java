@@ -0,0 +1,54 @@
+package com.xiahou.yu.stockindicatoranalyzer.materialize;
+
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.state.IncrementalIndicatorState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标物化测试：批量物化结果应与增量状态逐日推进写入的标准口径一致
+ */
+class IndicatorMaterializationServiceTest {
+
+    @Test
+    void testParamSetKey() {
+        assertEquals("B20-2_M12-26-9", IndicatorParamSet.STANDARD.key());
+        assertEquals("B26-2.5_M5-35-5", new IndicatorParamSet(26, 2.5, 5, 35, 5).key());
+        assertThrows(IllegalArgumentException.class, () -> new IndicatorParamSet(20, 2.0, 26, 12, 9));
+    }
+
+    @Test
+    void testBatchMatchesIncrementalState() {
+        int n = 120;
+        Random random = new Random(11L);
+        int[] days = new int[n];
+        double[] close = new double[n];
+        double price = 8.0;
+        int day0 = (int) LocalDate.of(2024, 3, 1).toEpochDay();
+        for (int i = 0; i < n; i++) {
+            price = Math.max(1.0, price * (1.0 + random.nextGaussian() * 0.02));
+            close[i] = Math.round(price * 100.0) / 100.0;
+            days[i] = day0 + i;
+        }
+        BarColumns bars = new BarColumns("000001", days, close.clone(), close.clone(), close.clone(), close, new long[n]);
+        List<DailyIndicatorValues> rows = IndicatorMaterializationService.compute(bars, IndicatorParamSet.STANDARD);
+        assertEquals(n, rows.size());
+
+        IncrementalIndicatorState state = new IncrementalIndicatorState();
+        for (int i = 0; i < n; i++) {
+            state.advance(bars.tradeDate(i), close[i]);
+            DailyIndicatorValues row = rows.get(i);
+            assertEquals(bars.tradeDate(i), row.getTradeDate());
+            assertEquals(state.sma(60), row.getSma60(), 1e-9);
+            assertEquals(state.ema(20), row.getEma20(), 1e-9);
+            assertEquals(state.bollUpper(), row.getBbUpper(), 1e-6);
+            assertEquals(state.macdDif(), row.getMacdDif(), 1e-9);
+            assertEquals(state.macdHist(), row.getMacdHist(), 1e-9);
+        }
+    }
+}
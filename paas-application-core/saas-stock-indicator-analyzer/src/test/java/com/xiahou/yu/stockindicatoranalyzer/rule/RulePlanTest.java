@@ -0,0 +1,117 @@
+package com.xiahou.yu.stockindicatoranalyzer.rule;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.dto.RuleDefinition;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 规则计划测试：序列按并集去重且依赖在前、计算结果与指标内核一致、声明式定义可正确转换
+ */
+class RulePlanTest {
+
+    private static final int N = 200;
+
+    private static BarColumns bars() {
+        Random random = new Random(20240701L);
+        int[] days = new int[N];
+        double[] open = new double[N], high = new double[N], low = new double[N], close = new double[N];
+        long[] volume = new long[N];
+        double px = 10.0;
+        for (int i = 0; i < N; i++) {
+            px = Math.max(1.0, px + random.nextGaussian() * 0.2);
+            days[i] = 19000 + i;
+            open[i] = px;
+            high[i] = px + 0.1;
+            low[i] = px - 0.1;
+            close[i] = px;
+            volume[i] = 1000 + random.nextInt(500);
+        }
+        return new BarColumns("000001", days, open, high, low, close, volume);
+    }
+
+    @Test
+    void sharedSeriesAreComputedOnce() {
+        SeriesKey dif = SeriesKey.macdDif(12, 26);
+        SeriesKey dea = SeriesKey.macdDea(12, 26, 9);
+        RulePlan plan = RulePlan.compile(List.of(
+                Rules.crossAbove(dif, dea, 5, 0.0),
+                Rules.crossBelow(dif, dea, 5, 0.0),
+                Rules.sustainAbove(SeriesKey.ema(12), SeriesKey.ema(26), 3),
+                Rules.atLeast(SeriesKey.CLOSE, SeriesKey.bollMiddle(20))));
+
+        // ema12, ema26, dif, dea, sma20（close 直接引用原始列）
+        assertEquals(5, plan.series().size());
+        assertTrue(plan.series().indexOf(SeriesKey.ema(26)) < plan.series().indexOf(dif));
+        assertTrue(plan.series().indexOf(dif) < plan.series().indexOf(dea));
+        assertEquals(26, plan.warmup());
+    }
+
+    @Test
+    void computedSeriesMatchKernels() {
+        BarColumns bars = bars();
+        SeriesKey hist = SeriesKey.macdHist(12, 26, 9);
+        SeriesKey upper = SeriesKey.bollUpper(20, 2.0);
+        RulePlan plan = RulePlan.compile(List.of(Rules.above(hist, upper)));
+        SeriesFrame frame = plan.compute(bars, new KernelBuffers());
+
+        double[] dif = new double[N], dea = new double[N], h = new double[N];
+        IndicatorKernels.macd(bars.getClose(), N, 12, 26, 9, dif, dea, h);
+        double[] mid = new double[N], up = new double[N], lo = new double[N];
+        IndicatorKernels.bollinger(bars.getClose(), N, 20, 2.0, mid, up, lo);
+        for (int i = 0; i < N; i++) {
+            assertEquals(h[i], frame.get(hist)[i], 1e-12);
+            assertEquals(up[i], frame.get(upper)[i], 1e-12);
+        }
+    }
+
+    @Test
+    void definitionConvertsToEquivalentRule() {
+        BarColumns bars = bars();
+        RuleDefinition left = new RuleDefinition();
+        left.setType("slopeUp");
+        left.setLeft("ema(20)");
+        left.setDays(3);
+        RuleDefinition right = new RuleDefinition();
+        right.setType("crossAbove");
+        right.setLeft("macd.dif(12,26)");
+        right.setRight("macd.dea(12,26,9)");
+        right.setDays(30);
+        RuleDefinition def = new RuleDefinition();
+        def.setType("or");
+        def.setRules(List.of(left, right));
+
+        Rule parsed = Rules.from(def);
+        Rule built = Rules.or(Rules.slopeUp(SeriesKey.ema(20), 3),
+                Rules.crossAbove(SeriesKey.macdDif(12, 26), SeriesKey.macdDea(12, 26, 9), 30, 0.0));
+        RulePlan plan = RulePlan.compile(List.of(parsed, built));
+        SeriesFrame frame = plan.compute(bars, new KernelBuffers());
+        assertEquals(built.test(frame), parsed.test(frame));
+        assertEquals(5, plan.series().size()); // ema20、ema12、ema26、dif、dea
+
+        assertThrows(IllegalArgumentException.class, () -> SeriesKey.parse("macd.dif(26,12)"));
+        assertThrows(IllegalArgumentException.class, () -> SeriesKey.parse("rsi(14)"));
+    }
+
+    @Test
+    void favorablePresetRequiresNonNegativeHistogram() {
+        BarColumns bars = bars();
+        SeriesKey hist = SeriesKey.macdHist(12, 26, 9);
+        RulePlan plan = RulePlan.compile(List.of(RulePresets.stockFavorable()));
+        assertTrue(plan.series().contains(hist));
+
+        SeriesFrame frame = plan.compute(bars, new KernelBuffers());
+        double last = frame.get(hist)[N - 1];
+        assertEquals(last >= 0.0, Rules.atLeast(hist, 0.0).test(frame));
+        assertEquals(last >= 1.0, Rules.atLeast(hist, 1.0).test(frame));
+
+        assertTrue(RulePresets.names().contains("growth-phase"));
+        assertThrows(IllegalArgumentException.class, () -> RulePresets.named("industry-growth"));
+    }
+}
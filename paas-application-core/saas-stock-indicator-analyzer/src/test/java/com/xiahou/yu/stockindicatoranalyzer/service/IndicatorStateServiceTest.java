@@ -0,0 +1,186 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.entity.StocksIndicatorState;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.DailyIndicatorStore;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.DailyIndicatorValues;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorMaterializationService;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorParamSet;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksIndicatorStateRepository;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.MarketBarSnapshotLoader;
+import com.xiahou.yu.stockindicatoranalyzer.state.IncrementalIndicatorState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 增量指标状态服务测试：修正日线后标准口径物化行与全量计算一致，非标准参数组在修正日及之后不再返回旧值
+ */
+class IndicatorStateServiceTest {
+
+    private static final String CODE = "000001";
+    private static final int N = 120;
+    private static final IndicatorParamSet CUSTOM = new IndicatorParamSet(26, 2.5, 5, 35, 5);
+
+    /** 内存版物化表：按 (股票, 参数组) 存放日期有序的行 */
+    static class InMemoryIndicatorStore extends DailyIndicatorStore {
+
+        final Map<String, TreeMap<LocalDate, DailyIndicatorValues>> rows = new HashMap<>();
+
+        InMemoryIndicatorStore() {
+            super(mock(DataSource.class));
+        }
+
+        @Override
+        public int upsert(List<DailyIndicatorValues> values) {
+            for (DailyIndicatorValues v : values) {
+                rows.computeIfAbsent(v.getStockCode() + "|" + v.getParamSet(), k -> new TreeMap<>())
+                        .put(v.getTradeDate(), v);
+            }
+            return values.size();
+        }
+
+        @Override
+        public List<DailyIndicatorValues> findRange(String stockCode, String paramSet, LocalDate start, LocalDate end) {
+            TreeMap<LocalDate, DailyIndicatorValues> series = rows.get(stockCode + "|" + paramSet);
+            return series == null ? List.of() : new ArrayList<>(series.subMap(start, true, end, true).values());
+        }
+
+        @Override
+        public int delete(String stockCode, String paramSet) {
+            TreeMap<LocalDate, DailyIndicatorValues> removed = rows.remove(stockCode + "|" + paramSet);
+            return removed == null ? 0 : removed.size();
+        }
+
+        @Override
+        public int deleteOtherParamSets(String stockCode, String keepParamSet, LocalDate from) {
+            int deleted = 0;
+            for (Map.Entry<String, TreeMap<LocalDate, DailyIndicatorValues>> e : rows.entrySet()) {
+                if (e.getKey().startsWith(stockCode + "|") && !e.getKey().equals(stockCode + "|" + keepParamSet)) {
+                    Map<LocalDate, DailyIndicatorValues> tail = from == null ? e.getValue() : e.getValue().tailMap(from, true);
+                    deleted += tail.size();
+                    tail.clear();
+                }
+            }
+            return deleted;
+        }
+    }
+
+    private final StocksIndicatorStateRepository stateRepo = mock(StocksIndicatorStateRepository.class);
+    private final MarketBarSnapshotLoader snapshotLoader = mock(MarketBarSnapshotLoader.class);
+    private final InMemoryIndicatorStore store = new InMemoryIndicatorStore();
+    private final IndicatorMaterializationService materializationService =
+            new IndicatorMaterializationService(null, snapshotLoader, store, null);
+    private final IndicatorStateService service =
+            new IndicatorStateService(stateRepo, snapshotLoader, materializationService);
+    private final AtomicReference<StocksIndicatorState> savedState = new AtomicReference<>();
+
+    private int[] days;
+    private double[] close;
+
+    @BeforeEach
+    void setUp() {
+        when(stateRepo.findByStockCode(CODE)).thenAnswer(invocation -> Optional.ofNullable(savedState.get()));
+        when(stateRepo.save(any())).thenAnswer(invocation -> {
+            savedState.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        Random random = new Random(7L);
+        days = new int[N];
+        close = new double[N];
+        double price = 10.0;
+        int day0 = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        for (int i = 0; i < N; i++) {
+            price = Math.max(1.0, price * (1.0 + random.nextGaussian() * 0.02));
+            close[i] = Math.round(price * 100.0) / 100.0;
+            days[i] = day0 + i;
+        }
+        // 初始状态与标准口径物化行，外加一组批量物化的非标准参数
+        when(snapshotLoader.loadHistory(CODE)).thenReturn(bars(close));
+        service.rebuild(CODE);
+        materializationService.materialize(bars(close), CUSTOM);
+    }
+
+    private BarColumns bars(double[] c) {
+        return new BarColumns(CODE, days.clone(), c.clone(), c.clone(), c.clone(), c.clone(), new long[N]);
+    }
+
+    private List<LocalDate> dates(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> LocalDate.ofEpochDay(days[i])).toList();
+    }
+
+    private static void assertSameValues(List<DailyIndicatorValues> expected, List<DailyIndicatorValues> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTradeDate(), actual.get(i).getTradeDate());
+            assertEquals(expected.get(i).getSma20(), actual.get(i).getSma20(), 1e-9);
+            assertEquals(expected.get(i).getEma60(), actual.get(i).getEma60(), 1e-9);
+            assertEquals(expected.get(i).getBbUpper(), actual.get(i).getBbUpper(), 1e-6);
+            assertEquals(expected.get(i).getMacdDif(), actual.get(i).getMacdDif(), 1e-9);
+            assertEquals(expected.get(i).getMacdHist(), actual.get(i).getMacdHist(), 1e-9);
+        }
+    }
+
+    /** 全量计算某参数组的物化行（与批量任务同一口径） */
+    private List<DailyIndicatorValues> expected(double[] c, IndicatorParamSet ps) {
+        InMemoryIndicatorStore reference = new InMemoryIndicatorStore();
+        new IndicatorMaterializationService(null, null, reference, null).materialize(bars(c), ps);
+        return reference.findRange(CODE, ps.key(), LocalDate.ofEpochDay(days[0]), LocalDate.ofEpochDay(days[N - 1]));
+    }
+
+    @Test
+    void testHistoricalCorrectionDropsStaleNonStandardRows() {
+        List<DailyIndicatorValues> before = materializationService.findAligned(CODE, CUSTOM, dates(0, N));
+        assertNotNull(before);
+
+        double[] corrected = close.clone();
+        corrected[100] = Math.round(corrected[100] * 110.0) / 100.0;
+        when(snapshotLoader.loadHistory(CODE)).thenReturn(bars(corrected));
+        service.onDailyBatchSaved(CODE, LocalDate.ofEpochDay(days[100]));
+
+        // 修正日及之后的非标准行已被清除，调用方回退为实时计算
+        assertNull(materializationService.findAligned(CODE, CUSTOM, dates(90, N)));
+        assertNull(materializationService.findAligned(CODE, CUSTOM, dates(100, 101)));
+        // 修正日之前的行不受影响，仍可直接读取
+        assertSameValues(before.subList(0, 100), materializationService.findAligned(CODE, CUSTOM, dates(0, 100)));
+        // 标准口径重写后与修正后的全量计算一致
+        assertSameValues(expected(corrected, IndicatorParamSet.STANDARD),
+                materializationService.findAligned(CODE, IndicatorParamSet.STANDARD, dates(0, N)));
+    }
+
+    @Test
+    void testSameDayCorrectionDropsStaleNonStandardRow() {
+        double[] corrected = close.clone();
+        corrected[N - 1] = Math.round(corrected[N - 1] * 95.0) / 100.0;
+        LocalDate last = LocalDate.ofEpochDay(days[N - 1]);
+        when(snapshotLoader.loadRange(eq(CODE), eq(last), any())).thenReturn(new BarColumns(CODE,
+                new int[]{days[N - 1]}, new double[]{corrected[N - 1]}, new double[]{corrected[N - 1]},
+                new double[]{corrected[N - 1]}, new double[]{corrected[N - 1]}, new long[1]));
+
+        IncrementalIndicatorState state = service.onDailyBatchSaved(CODE, last);
+
+        assertEquals(last, state.getLastTradeDate());
+        assertNull(materializationService.findAligned(CODE, CUSTOM, dates(N - 1, N)));
+        assertNotNull(materializationService.findAligned(CODE, CUSTOM, dates(0, N - 1)));
+        // 增量替换最后一根写入的标准口径行与全量计算一致
+        assertSameValues(expected(corrected, IndicatorParamSet.STANDARD),
+                materializationService.findAligned(CODE, IndicatorParamSet.STANDARD, dates(0, N)));
+        verify(snapshotLoader, times(1)).loadHistory(CODE);
+    }
+}
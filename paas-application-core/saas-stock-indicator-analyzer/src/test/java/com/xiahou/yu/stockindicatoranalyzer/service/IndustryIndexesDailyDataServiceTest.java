@@ -0,0 +1,81 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.MarketDataVersion;
+import com.xiahou.yu.stockindicatoranalyzer.entity.IndustryIndexesDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.repository.IndustryIndexesDailyDataRepository;
+import com.xiahou.yu.stockindicatoranalyzer.repository.StocksDailyDataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 行业指数日线写入测试：数据版本推进与行业判定缓存清空都发生在事务提交之后
+ */
+class IndustryIndexesDailyDataServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 4);
+    private static final IndustryVerdictCache.Key KEY = new IndustryVerdictCache.Key("银行", 60, 5, 20, 2.0, 3);
+
+    private final IndustryIndexesDailyDataRepository repository = mock(IndustryIndexesDailyDataRepository.class);
+    private final IndustryVerdictCache verdictCache = new IndustryVerdictCache(60);
+    private final MarketDataVersion marketDataVersion = version();
+    private final IndustryIndexesDailyDataService service =
+            new IndustryIndexesDailyDataService(repository, verdictCache, marketDataVersion, mock(MappedBarStore.class));
+
+    private static MarketDataVersion version() {
+        StocksDailyDataRepository dailyRepo = mock(StocksDailyDataRepository.class);
+        when(dailyRepo.findMaxTradeDate()).thenReturn(DAY.minusDays(1));
+        return new MarketDataVersion(dailyRepo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testInvalidationWaitsForCommit() {
+        when(repository.findByIndexCodeAndTradeDate("BK0475", DAY)).thenReturn(Optional.empty());
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        verdictCache.get(KEY, () -> new IndustryVerdictCache.Verdict("BK0475", true));
+        long generation = marketDataVersion.current().generation();
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.saveOrUpdate(IndustryIndexesDailyData.builder().indexCode("BK0475").tradeDate(DAY).build());
+
+        // 提交前：并发读取仍看到旧版本，缓存未被清空
+        assertEquals(generation, marketDataVersion.current().generation());
+        assertTrue(verdictCache.get(KEY, () -> new IndustryVerdictCache.Verdict("BK0475", false)).growth());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(generation + 1, marketDataVersion.current().generation());
+        assertEquals(DAY, marketDataVersion.current().latestTradeDate());
+        assertFalse(verdictCache.get(KEY, () -> new IndustryVerdictCache.Verdict("BK0475", false)).growth());
+    }
+
+    @Test
+    void testInvalidatesImmediatelyWithoutTransaction() {
+        when(repository.findByIndexCodeAndTradeDate("BK0475", DAY)).thenReturn(Optional.empty());
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        verdictCache.get(KEY, () -> new IndustryVerdictCache.Verdict("BK0475", true));
+        long generation = marketDataVersion.current().generation();
+
+        service.saveOrUpdate(IndustryIndexesDailyData.builder().indexCode("BK0475").tradeDate(DAY).build());
+
+        assertEquals(generation + 1, marketDataVersion.current().generation());
+        assertFalse(verdictCache.get(KEY, () -> new IndustryVerdictCache.Verdict("BK0475", false)).growth());
+    }
+}
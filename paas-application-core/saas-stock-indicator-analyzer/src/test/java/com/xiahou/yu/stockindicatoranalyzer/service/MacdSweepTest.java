@@ -0,0 +1,69 @@
+package com.xiahou.yu.stockindicatoranalyzer.service;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.KernelBuffers;
+import com.xiahou.yu.stockindicatoranalyzer.dto.MacdCrossResult;
+import com.xiahou.yu.stockindicatoranalyzer.service.MacdAnalysisService.MacdTuple;
+import com.xiahou.yu.stockindicatoranalyzer.service.MacdAnalysisService.SweepPlan;
+import com.xiahou.yu.stockindicatoranalyzer.snapshot.BarColumns;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MACD 参数扫描测试：共享 EMA 的结果与逐组计算一致，EMA 周期与 DIF 按参数去重
+ */
+class MacdSweepTest {
+
+    private static final int N = 400;
+
+    private static MacdAnalysisService service() {
+        MacdAnalysisService service = new MacdAnalysisService(null, null, null);
+        ReflectionTestUtils.setField(service, "crossEpsilon", 0.0001);
+        ReflectionTestUtils.setField(service, "histMultiplier", 2.0);
+        return service;
+    }
+
+    private static BarColumns bars() {
+        Random random = new Random(20240801L);
+        int[] days = new int[N];
+        double[] close = new double[N];
+        double px = 20.0;
+        for (int i = 0; i < N; i++) {
+            px = Math.max(1.0, px + random.nextGaussian() * 0.4);
+            days[i] = 19000 + i;
+            close[i] = px;
+        }
+        return new BarColumns("600000", days, close, close, close, close, new long[N]);
+    }
+
+    @Test
+    void sweepMatchesPerTupleEvaluation() {
+        MacdAnalysisService service = service();
+        BarColumns bars = bars();
+        List<MacdTuple> tuples = List.of(new MacdTuple(12, 26, 9), new MacdTuple(12, 26, 5),
+                new MacdTuple(5, 35, 5), new MacdTuple(8, 17, 9), new MacdTuple(12, 50, 9));
+
+        MacdCrossResult[] swept = service.sweep("600000", bars, new SweepPlan(tuples), 120, "both", new KernelBuffers());
+        assertNotNull(swept);
+        for (int k = 0; k < tuples.size(); k++) {
+            MacdTuple t = tuples.get(k);
+            MacdCrossResult single = service.evaluate("600000", bars, t.shortPeriod(), t.longPeriod(), t.signalPeriod(), 120, "both", new KernelBuffers());
+            assertEquals(single, swept[k], "tuple " + t);
+        }
+    }
+
+    @Test
+    void planSharesEmaPeriodsAndDifPairs() {
+        SweepPlan plan = new SweepPlan(List.of(new MacdTuple(12, 26, 9), new MacdTuple(12, 26, 5),
+                new MacdTuple(5, 26, 9), new MacdTuple(5, 12, 9)));
+        assertArrayEquals(new int[]{12, 26, 5}, plan.emaPeriods);
+        assertEquals(3, plan.difPairs.length);
+        assertArrayEquals(new int[]{0, 0, 1, 2}, plan.difIndex);
+        assertEquals(new MacdTuple(5, 35, 5), MacdTuple.parse("5-35-5"));
+        assertThrows(IllegalArgumentException.class, () -> MacdTuple.parse("12-26"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.xiahou.yu.stockindicatoranalyzer.state;
+
+import com.xiahou.yu.stockindicatoranalyzer.calculator.IndicatorKernels;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量指标状态测试：逐根推进的结果应与全量内核计算的最后一根一致，替换最后一根与以修正值推进一致
+ */
+class IncrementalIndicatorStateTest {
+
+    private static final int N = 250;
+
+    private double[] close;
+    private LocalDate start;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7L);
+        close = new double[N];
+        double price = 20.0;
+        for (int i = 0; i < N; i++) {
+            price = Math.max(1.0, price * (1.0 + random.nextGaussian() * 0.03));
+            close[i] = Math.round(price * 100.0) / 100.0;
+        }
+        start = LocalDate.of(2024, 1, 2);
+    }
+
+    @Test
+    void testAdvanceMatchesKernels() {
+        IncrementalIndicatorState state = new IncrementalIndicatorState();
+        double[] buf = new double[N];
+        double[] dif = new double[N];
+        double[] dea = new double[N];
+        double[] hist = new double[N];
+        for (int i = 0; i < N; i++) {
+            state.advance(start.plusDays(i), close[i]);
+            int n = i + 1;
+            for (int p : IncrementalIndicatorState.SMA_PERIODS) {
+                IndicatorKernels.sma(close, n, p, buf);
+                assertEquals(buf[i], state.sma(p), 1e-9, "SMA(" + p + ")@" + i);
+            }
+            for (int p : IncrementalIndicatorState.EMA_PERIODS) {
+                IndicatorKernels.ema(close, n, p, buf);
+                assertEquals(buf[i], state.ema(p), 1e-9, "EMA(" + p + ")@" + i);
+            }
+            IndicatorKernels.macd(close, n, 12, 26, 9, dif, dea, hist);
+            assertEquals(dif[i], state.macdDif(), 1e-9, "DIF@" + i);
+            assertEquals(dea[i], state.macdDea(), 1e-9, "DEA@" + i);
+            assertEquals(hist[i], state.macdHist(), 1e-9, "HIST@" + i);
+
+            double[] upper = new double[n];
+            double[] lower = new double[n];
+            IndicatorKernels.bollinger(close, n, 20, 2.0, buf, upper, lower);
+            assertEquals(buf[i], state.bollMiddle(), 1e-9, "BB middle@" + i);
+            assertEquals(upper[i], state.bollUpper(), 1e-9, "BB upper@" + i);
+            assertEquals(lower[i], state.bollLower(), 1e-9, "BB lower@" + i);
+        }
+        assertEquals(N, state.getBarCount());
+        assertEquals(start.plusDays(N - 1), state.getLastTradeDate());
+    }
+
+    @Test
+    void testRestoreThenAdvance() {
+        IncrementalIndicatorState full = new IncrementalIndicatorState();
+        IncrementalIndicatorState partial = new IncrementalIndicatorState();
+        int cut = 137;
+        for (int i = 0; i < cut; i++) {
+            full.advance(start.plusDays(i), close[i]);
+            partial.advance(start.plusDays(i), close[i]);
+        }
+        IncrementalIndicatorState restored = IncrementalIndicatorState.restore(
+                partial.getBarCount(), partial.getLastTradeDate(), partial.recentCloses(),
+                partial.emaValues(), partial.getEmaShort(), partial.getEmaLong(), partial.macdDea());
+        for (int i = cut; i < N; i++) {
+            full.advance(start.plusDays(i), close[i]);
+            restored.advance(start.plusDays(i), close[i]);
+        }
+        assertEquals(full.getBarCount(), restored.getBarCount());
+        assertEquals(full.sma(60), restored.sma(60), 1e-9);
+        assertEquals(full.ema(20), restored.ema(20), 1e-12);
+        assertEquals(full.bollUpper(), restored.bollUpper(), 1e-6);
+        assertEquals(full.macdHist(), restored.macdHist(), 1e-12);
+    }
+
+    @Test
+    void testRestoreShortHistory() {
+        IncrementalIndicatorState s = new IncrementalIndicatorState();
+        for (int i = 0; i < 3; i++) {
+            s.advance(start.plusDays(i), close[i]);
+        }
+        assertEquals(3, s.recentCloses().length);
+        IncrementalIndicatorState r = IncrementalIndicatorState.restore(
+                s.getBarCount(), s.getLastTradeDate(), s.recentCloses(),
+                s.emaValues(), s.getEmaShort(), s.getEmaLong(), s.macdDea());
+        assertEquals(s.sma(5), r.sma(5), 1e-12);
+        assertEquals(s.bollStdDev(), r.bollStdDev(), 1e-12);
+    }
+
+    @Test
+    void testReplaceLastMatchesAdvancingCorrectedBar() {
+        for (int cut : new int[]{1, 2, 30, N}) {
+            IncrementalIndicatorState replaced = new IncrementalIndicatorState();
+            IncrementalIndicatorState expected = new IncrementalIndicatorState();
+            for (int i = 0; i < cut - 1; i++) {
+                replaced.advance(start.plusDays(i), close[i]);
+                expected.advance(start.plusDays(i), close[i]);
+            }
+            LocalDate last = start.plusDays(cut - 1);
+            replaced.advance(last, close[cut - 1]);
+            replaced.replaceLast(last, close[cut - 1] * 1.07);
+            expected.advance(last, close[cut - 1] * 1.07);
+
+            assertEquals(expected.getBarCount(), replaced.getBarCount());
+            assertArrayEquals(expected.recentCloses(), replaced.recentCloses());
+            assertEquals(expected.sma(5), replaced.sma(5), 1e-9, "SMA@" + cut);
+            assertEquals(expected.ema(60), replaced.ema(60), 1e-9, "EMA@" + cut);
+            assertEquals(expected.macdDif(), replaced.macdDif(), 1e-9, "DIF@" + cut);
+            assertEquals(expected.macdDea(), replaced.macdDea(), 1e-9, "DEA@" + cut);
+            assertEquals(expected.bollUpper(), replaced.bollUpper(), 1e-9, "BB upper@" + cut);
+        }
+        IncrementalIndicatorState s = new IncrementalIndicatorState();
+        s.advance(start, 10.0);
+        assertThrows(IllegalArgumentException.class, () -> s.replaceLast(start.plusDays(1), 11.0));
+    }
+
+    @Test
+    void testRejectsNonIncreasingDate() {
+        IncrementalIndicatorState s = new IncrementalIndicatorState();
+        s.advance(start, 10.0);
+        assertThrows(IllegalArgumentException.class, () -> s.advance(start, 11.0));
+        assertThrows(IllegalArgumentException.class, () -> s.advance(start.minusDays(1), 11.0));
+    }
+}
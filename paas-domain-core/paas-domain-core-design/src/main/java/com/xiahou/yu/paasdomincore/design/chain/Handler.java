@@ -1,6 +1,7 @@
 package com.xiahou.yu.paasdomincore.design.chain;
 
 import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
 
 /**
  * 处理器接口 - 职责链模式核心接口
@@ -36,4 +37,15 @@ public interface Handler {
      * @return 是否支持
      */
     boolean supports(CommandContext context);
+
+    /**
+     * 判断仅凭实体名与命令类型能否确定是否支持，用于编译处理器管道时预先裁剪
+     * 默认返回 {@link HandlerSupport#CONTEXT}，即每次执行时调用 {@link #supports(CommandContext)}
+     * @param entityName 实体名称
+     * @param commandType 命令类型
+     * @return 静态适用性
+     */
+    default HandlerSupport staticSupport(String entityName, CommandType commandType) {
+        return HandlerSupport.CONTEXT;
+    }
 }
@@ -0,0 +1,25 @@
+package com.xiahou.yu.paasdomincore.design.chain;
+
+/**
+ * 处理器静态适用性
+ * 用于在编译处理器管道时按 (实体, 命令类型) 预先裁剪处理器
+ *
+ * @author xiahou
+ */
+public enum HandlerSupport {
+
+    /**
+     * 总是适用，执行时无需再调用 supports
+     */
+    ALWAYS,
+
+    /**
+     * 不适用，编译时直接剔除
+     */
+    NEVER,
+
+    /**
+     * 取决于上下文内容，执行时仍需调用 supports
+     */
+    CONTEXT
+}
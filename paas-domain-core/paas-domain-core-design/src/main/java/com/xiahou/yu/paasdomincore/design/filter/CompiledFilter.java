@@ -0,0 +1,51 @@
+package com.xiahou.yu.paasdomincore.design.filter;
+
+import com.xiahou.yu.paasdomincore.design.dto.DynamicDataObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 编译后的过滤谓词，由 {@link FilterCompiler} 生成，可跨线程复用
+ * （条件与常量不可变，运行时类型的取值器缓存为线程安全的单态缓存）。
+ * 支持 DynamicDataObject（按其原始对象取值）、Map 与 POJO。
+ *
+ * @author xiahou
+ */
+public final class CompiledFilter implements Predicate<Object> {
+
+    private final FilterCompiler.Node root;
+    private final Class<?> targetType;
+
+    CompiledFilter(FilterCompiler.Node root, Class<?> targetType) {
+        this.root = root;
+        this.targetType = targetType;
+    }
+
+    /**
+     * 判断对象是否满足过滤条件
+     */
+    @Override
+    public boolean test(Object target) {
+        Object value = target instanceof DynamicDataObject d ? d.getOriginalObject() : target;
+        if (value == null) {
+            return false;
+        }
+        return root.test(value, targetType != null && targetType.isInstance(value));
+    }
+
+    /**
+     * 过滤集合，返回满足条件的元素（保持原有顺序）
+     */
+    public <T> List<T> filter(Collection<? extends T> rows) {
+        List<T> result = new ArrayList<>();
+        for (T row : rows) {
+            if (test(row)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,705 @@
+package com.xiahou.yu.paasdomincore.design.filter;
+
+import com.xiahou.yu.paasdomincore.design.dto.DynamicDataObject;
+import com.xiahou.yu.paasdomincore.design.metaobject.Invoker;
+import com.xiahou.yu.paasdomincore.design.metaobject.MetaClass;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Filter 内存谓词编译器
+ * 将 {@link Filter} 编译为可复用的谓词树（{@link CompiledFilter}），用于对 DynamicDataObject、Map 或 POJO 做进程内过滤：
+ * - 字段路径预先切分，目标类型已知时通过 {@link MetaClass} 预先解析取值器，未知类型按运行时类型做单态缓存；
+ * - 常量预先转换：IN 列表转为哈希集合，数值、时间统一为 long/double 可比较形式（时间为毫秒时间戳）；
+ * - 编译计划按过滤器形状（连接方式、表达式、字段、操作符、右值类型、目标类型）缓存（LRU），形状相同的过滤器只重新转换常量。
+ * 比较语义与 SQL 一致：字段值为 null 时除 IS_NULL 外的条件均不成立。
+ *
+ * @author xiahou
+ */
+public final class FilterCompiler {
+
+    /** 编译计划缓存上限，超出后淘汰最久未使用的计划 */
+    static final int MAX_CACHED_PLANS = 1024;
+
+    private static final Map<Shape, Plan> PLANS = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Shape, Plan> eldest) {
+                    return size() > MAX_CACHED_PLANS;
+                }
+            });
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private static final Pattern INTEGER = Pattern.compile("[+-]?\\d{1,18}");
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private FilterCompiler() {
+    }
+
+    /**
+     * 编译过滤器，目标类型在运行时按对象实际类型解析（适用于 Map、DynamicDataObject 或混合类型）
+     */
+    public static CompiledFilter compile(Filter filter) {
+        return compile(filter, null);
+    }
+
+    /**
+     * 按目标类型编译过滤器，字段取值器与常量类型在编译期确定
+     *
+     * @param filter 过滤器，为 null 或无条件时匹配所有对象
+     * @param targetType 目标类型，为 null、Map 或 DynamicDataObject 时按运行时类型解析
+     * @return 编译后的谓词
+     */
+    public static CompiledFilter compile(Filter filter, Class<?> targetType) {
+        Filter effective = filter != null ? filter : Filter.empty();
+        effective.validate();
+        Class<?> type = isDynamic(targetType) ? null : targetType;
+        return new CompiledFilter(plan(effective, type).bind(effective), type);
+    }
+
+    /**
+     * 读取或构建编译计划：未命中时在锁外构建，并发构建同一形状时先写入者胜出
+     */
+    static Plan plan(Filter filter, Class<?> type) {
+        Shape shape = Shape.of(filter, type);
+        Plan plan = PLANS.get(shape);
+        if (plan == null) {
+            Plan built = Plan.build(filter, type, shape);
+            Plan existing = PLANS.putIfAbsent(shape, built);
+            plan = existing != null ? existing : built;
+        }
+        return plan;
+    }
+
+    /** 当前缓存的编译计划数量 */
+    public static int cachedPlans() {
+        return PLANS.size();
+    }
+
+    private static boolean isDynamic(Class<?> type) {
+        return type == null || type == Object.class || type.isInterface()
+                || Map.class.isAssignableFrom(type) || DynamicDataObject.class.isAssignableFrom(type);
+    }
+
+    // ---------------------------------------------------------------- 谓词节点
+
+    /**
+     * 谓词节点；typed 表示根对象是编译时的目标类型，可直接使用预解析的取值器
+     */
+    interface Node {
+        boolean test(Object root, boolean typed);
+    }
+
+    private static final Node TRUE = (root, typed) -> true;
+    private static final Node FALSE = (root, typed) -> false;
+
+    private record And(Node[] children) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            for (Node child : children) {
+                if (!child.test(root, typed)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Or(Node[] children) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            for (Node child : children) {
+                if (child.test(root, typed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record IsNull(Accessor field, boolean negate) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            return (field.get(root, typed) == null) != negate;
+        }
+    }
+
+    private record Compare(Accessor field, Filter.Operator op, Constant value) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            Object v = canonical(field.get(root, typed));
+            if (v == null) {
+                return false;
+            }
+            return switch (op) {
+                case EQ -> value.matches(v);
+                case NE -> !value.matches(v);
+                default -> {
+                    int r = value.compareFrom(v);
+                    yield r != INCOMPARABLE && holds(op, r);
+                }
+            };
+        }
+    }
+
+    private record FieldCompare(Accessor left, Accessor right, Filter.Operator op) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            Object l = canonical(left.get(root, typed));
+            Object r = canonical(right.get(root, typed));
+            if (l == null || r == null) {
+                return false;
+            }
+            if (op == Filter.Operator.EQ || op == Filter.Operator.NE) {
+                return l.equals(r) == (op == Filter.Operator.EQ);
+            }
+            int c = compare(l, r);
+            return c != INCOMPARABLE && holds(op, c);
+        }
+    }
+
+    private record In(Accessor field, Set<Object> values, boolean negate) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            Object v = canonical(field.get(root, typed));
+            return v != null && values.contains(v) != negate;
+        }
+    }
+
+    private record Between(Accessor field, Constant low, Constant high) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            Object v = canonical(field.get(root, typed));
+            if (v == null) {
+                return false;
+            }
+            int lo = low.compareFrom(v);
+            int hi = high.compareFrom(v);
+            return lo != INCOMPARABLE && hi != INCOMPARABLE && lo >= 0 && hi <= 0;
+        }
+    }
+
+    private record Text(Accessor field, Filter.Operator op, String needle) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            Object v = field.get(root, typed);
+            if (v == null) {
+                return false;
+            }
+            String s = v instanceof Enum<?> e ? e.name() : v.toString();
+            return switch (op) {
+                case CONTAINS -> s.contains(needle);
+                case NOT_CONTAINS -> !s.contains(needle);
+                case STARTS_WITH -> s.startsWith(needle);
+                default -> s.endsWith(needle);
+            };
+        }
+    }
+
+    /** 相对当前时间的天数窗口，当前时间在每次判断时读取 */
+    private record DayWindow(Accessor field, Filter.Operator op, long days) implements Node {
+        @Override
+        public boolean test(Object root, boolean typed) {
+            if (!(canonical(field.get(root, typed)) instanceof Number n)) {
+                return false;
+            }
+            long t = n.longValue();
+            long now = System.currentTimeMillis();
+            return switch (op) {
+                case BEFORE_DAYS -> t < now - days * DAY_MILLIS;
+                case AFTER_DAYS -> t > now + days * DAY_MILLIS;
+                default -> t >= now - days * DAY_MILLIS && t <= now;
+            };
+        }
+    }
+
+    private static boolean holds(Filter.Operator op, int c) {
+        return switch (op) {
+            case GT -> c > 0;
+            case GTE -> c >= 0;
+            case LT -> c < 0;
+            case LTE -> c <= 0;
+            default -> throw new IllegalArgumentException("Operator " + op + " is not a comparison");
+        };
+    }
+
+    // ---------------------------------------------------------------- 取值
+
+    /**
+     * 预切分的字段路径；typed[i] 为编译期解析的取值器，动态步骤按对象实际类型缓存 MetaClass 取值器。
+     * 取值器随编译计划跨线程共享，动态步骤的缓存槽位用原子数组读写，缓存项为不可变记录。
+     */
+    private static final class Accessor {
+        private final String[] path;
+        private final Invoker[] typed;
+        private final AtomicReferenceArray<Resolved> resolved;
+        private static final Object[] NO_ARGS = new Object[0];
+
+        private record Resolved(Class<?> type, Invoker invoker) {}
+
+        Accessor(String[] path, Invoker[] typed) {
+            this.path = path;
+            this.typed = typed;
+            this.resolved = new AtomicReferenceArray<>(path.length);
+        }
+
+        Object get(Object root, boolean typedRoot) {
+            Object current = root;
+            for (int i = 0; i < path.length; i++) {
+                if (current == null) {
+                    return null;
+                }
+                if (current instanceof DynamicDataObject d) {
+                    current = d.getOriginalObject();
+                }
+                Invoker invoker = typedRoot ? typed[i] : null;
+                current = invoker != null ? invoke(invoker, current) : step(i, current);
+            }
+            return current instanceof DynamicDataObject d ? d.getOriginalObject() : current;
+        }
+
+        private Object step(int i, Object current) {
+            if (current instanceof Map<?, ?> map) {
+                return map.get(path[i]);
+            }
+            Resolved r = resolved.get(i);
+            if (r == null || r.type() != current.getClass()) {
+                MetaClass metaClass = MetaClass.forClass(current.getClass());
+                r = new Resolved(current.getClass(), metaClass.hasGetter(path[i]) ? metaClass.getGetInvoker(path[i]) : null);
+                resolved.set(i, r);
+            }
+            return r.invoker() == null ? null : invoke(r.invoker(), current);
+        }
+
+        private static Object invoke(Invoker invoker, Object target) {
+            try {
+                return invoker.invoke(target, NO_ARGS);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not read property from " + target.getClass() + ": " + e, e);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- 常量与比较
+
+    private static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    /**
+     * 预转换的常量；目标类型未知时字符串常量另存一份按数值/时间/布尔解析的备选值
+     */
+    private record Constant(Object primary, Object alternative) {
+
+        static Constant of(Object raw, Class<?> type) {
+            if (type != null) {
+                return new Constant(canonical(convert(raw, type)), null);
+            }
+            Object alternative = raw instanceof String s ? canonical(parseLoose(s)) : null;
+            return new Constant(canonical(raw), alternative);
+        }
+
+        boolean matches(Object v) {
+            return v.equals(primary) || (alternative != null && v.equals(alternative));
+        }
+
+        /** compare(v, 常量)，类型不可比较时返回 INCOMPARABLE */
+        int compareFrom(Object v) {
+            int r = compare(v, primary);
+            if (r == INCOMPARABLE && alternative != null) {
+                r = compare(v, alternative);
+            }
+            return r;
+        }
+
+        void addTo(Set<Object> set) {
+            set.add(primary);
+            if (alternative != null) {
+                set.add(alternative);
+            }
+        }
+    }
+
+    private static int compare(Object a, Object b) {
+        if (a instanceof Long x && b instanceof Long y) {
+            return Long.compare(x, y);
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return Integer.signum(Double.compare(x.doubleValue(), y.doubleValue()));
+        }
+        if (a instanceof String x && b instanceof String y) {
+            return Integer.signum(x.compareTo(y));
+        }
+        if (a != null && b != null && a.getClass() == b.getClass() && a instanceof Comparable) {
+            @SuppressWarnings("unchecked")
+            int r = ((Comparable<Object>) a).compareTo(b);
+            return Integer.signum(r);
+        }
+        return INCOMPARABLE;
+    }
+
+    /**
+     * 统一为可比较形式：整数值为 Long，其余数值为 Double，时间为毫秒时间戳，枚举为名称
+     */
+    static Object canonical(Object v) {
+        if (v == null || v instanceof String || v instanceof Long) {
+            return v;
+        }
+        if (v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            return ((Number) v).longValue();
+        }
+        if (v instanceof Double || v instanceof Float) {
+            double d = ((Number) v).doubleValue();
+            long l = (long) d;
+            return l == d ? (Object) l : (Object) d;
+        }
+        if (v instanceof BigDecimal bd) {
+            BigDecimal stripped = bd.stripTrailingZeros();
+            if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 18) {
+                return stripped.longValue();
+            }
+            return bd.doubleValue();
+        }
+        if (v instanceof BigInteger bi) {
+            return bi.bitLength() < 64 ? (Object) bi.longValue() : (Object) bi.doubleValue();
+        }
+        if (v instanceof Number n) {
+            return canonical(n.doubleValue());
+        }
+        if (v instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (v instanceof Character c) {
+            return c.toString();
+        }
+        if (v instanceof LocalDate d) {
+            return d.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        if (v instanceof LocalDateTime t) {
+            return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        if (v instanceof OffsetDateTime t) {
+            return t.toInstant().toEpochMilli();
+        }
+        if (v instanceof ZonedDateTime t) {
+            return t.toInstant().toEpochMilli();
+        }
+        if (v instanceof Instant t) {
+            return t.toEpochMilli();
+        }
+        if (v instanceof Date d) {
+            return d.getTime();
+        }
+        return v;
+    }
+
+    /**
+     * 按字段类型转换常量（只处理字符串与数值时间戳，其余原样返回，由 canonical 统一）
+     */
+    private static Object convert(Object raw, Class<?> type) {
+        if (!(raw instanceof String s)) {
+            return raw;
+        }
+        String text = s.trim();
+        try {
+            if (type == String.class || type.isEnum() || type == Character.class || type == char.class) {
+                return s;
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return Boolean.valueOf(text);
+            }
+            if (Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class)) {
+                return new BigDecimal(text);
+            }
+            if (isTemporal(type)) {
+                return parseTemporal(text);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cannot convert '" + s + "' to " + type.getSimpleName(), e);
+        }
+        return s;
+    }
+
+    private static boolean isTemporal(Class<?> type) {
+        return type == LocalDate.class || type == LocalDateTime.class || type == OffsetDateTime.class
+                || type == ZonedDateTime.class || type == Instant.class || Date.class.isAssignableFrom(type);
+    }
+
+    /** 目标类型未知时尝试把字符串常量解析为数值、布尔或时间，无法解析时返回 null */
+    private static Object parseLoose(String s) {
+        String text = s.trim();
+        if (INTEGER.matcher(text).matches()) {
+            return Long.parseLong(text);
+        }
+        if (DECIMAL.matcher(text).matches()) {
+            return new BigDecimal(text);
+        }
+        if ("true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+            return Boolean.valueOf(text);
+        }
+        if (text.length() >= 10 && Character.isDigit(text.charAt(0)) && text.charAt(4) == '-') {
+            try {
+                return parseTemporal(text);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Instant parseTemporal(String text) {
+        if (text.length() == 10) {
+            return LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        }
+        if (text.endsWith("Z") || text.matches(".*[+-]\\d{2}:\\d{2}$")) {
+            return OffsetDateTime.parse(text).toInstant();
+        }
+        return LocalDateTime.parse(text.replace(' ', 'T')).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    // ---------------------------------------------------------------- 编译计划
+
+    /** 右值形状：NULL 编译为判空，EMPTY（空集合）编译为恒真/恒假 */
+    private enum ValueShape { VALUE, NULL, EMPTY }
+
+    private record ItemShape(String key, String field, Filter.Operator operator, String rightField, ValueShape value) {}
+
+    private record Shape(Class<?> targetType, Filter.ConjunctionType conjunction, String expression, List<ItemShape> items) {
+
+        static Shape of(Filter filter, Class<?> targetType) {
+            boolean advanced = isAdvanced(filter);
+            List<ItemShape> items = new ArrayList<>(filter.getConditions().size());
+            for (Filter.FilterItem item : filter.getConditions()) {
+                boolean field = item.getRightType() == Filter.RightValueType.FIELD;
+                items.add(new ItemShape(
+                        advanced ? item.getKey() : null,
+                        item.getLeftField(),
+                        item.getOperator(),
+                        field ? String.valueOf(item.getRightValue()) : null,
+                        field ? ValueShape.VALUE : valueShape(item)));
+            }
+            return new Shape(targetType, filter.getConjunction(), advanced ? filter.getExpression() : null, items);
+        }
+    }
+
+    /** 条件树模板：叶子为条件下标 */
+    private sealed interface Template permits Leaf, AllOf, AnyOf {}
+
+    private record Leaf(int index) implements Template {}
+
+    private record AllOf(List<Template> children) implements Template {}
+
+    private record AnyOf(List<Template> children) implements Template {}
+
+    /**
+     * 与常量无关的编译结果：取值器、字段类型与条件树，按形状缓存
+     */
+    private record Plan(Accessor[] left, Accessor[] right, Class<?>[] types, ValueShape[] shapes, Template template) {
+
+        static Plan build(Filter filter, Class<?> targetType, Shape shape) {
+            List<Filter.FilterItem> items = filter.getConditions();
+            int n = items.size();
+            Accessor[] left = new Accessor[n];
+            Accessor[] right = new Accessor[n];
+            Class<?>[] types = new Class<?>[n];
+            ValueShape[] shapes = new ValueShape[n];
+            for (int i = 0; i < n; i++) {
+                Filter.FilterItem item = items.get(i);
+                Class<?>[] leafType = new Class<?>[1];
+                left[i] = accessor(targetType, item.getLeftField(), leafType);
+                types[i] = leafType[0];
+                shapes[i] = shape.items().get(i).value();
+                if (item.getRightType() == Filter.RightValueType.FIELD) {
+                    right[i] = accessor(targetType, String.valueOf(item.getRightValue()), new Class<?>[1]);
+                }
+            }
+            return new Plan(left, right, types, shapes, template(filter));
+        }
+
+        private static Template template(Filter filter) {
+            int n = filter.getConditions().size();
+            if (isAdvanced(filter)) {
+                Map<String, Integer> byKey = new HashMap<>();
+                for (int i = 0; i < n; i++) {
+                    byKey.putIfAbsent(filter.getConditions().get(i).getKey(), i);
+                }
+                return FilterExpressionParser.<Template>parse(filter.getExpression(),
+                        key -> {
+                            Integer index = byKey.get(key);
+                            if (index == null) {
+                                throw new IllegalArgumentException("Unknown condition key in filter expression: " + key);
+                            }
+                            return new Leaf(index);
+                        },
+                        AllOf::new,
+                        AnyOf::new);
+            }
+            List<Template> leaves = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                leaves.add(new Leaf(i));
+            }
+            return filter.getConjunction() == Filter.ConjunctionType.OR ? new AnyOf(leaves) : new AllOf(leaves);
+        }
+
+        /**
+         * 构造字段取值器：目标类型已知时逐级通过 MetaClass 解析取值器，遇到 Map/接口/Object 类型后转为运行时解析
+         */
+        private static Accessor accessor(Class<?> targetType, String field, Class<?>[] leafType) {
+            String[] path = field.split("\\.");
+            Invoker[] typed = new Invoker[path.length];
+            Class<?> type = targetType;
+            for (int i = 0; i < path.length; i++) {
+                if (type == null || isDynamic(type)) {
+                    type = null;
+                    continue;
+                }
+                MetaClass metaClass = MetaClass.forClass(type);
+                if (!metaClass.hasGetter(path[i])) {
+                    throw new IllegalArgumentException("Unknown field '" + field + "' for type " + type.getName());
+                }
+                typed[i] = metaClass.getGetInvoker(path[i]);
+                type = metaClass.getGetterType(path[i]);
+            }
+            leafType[0] = type;
+            return new Accessor(path, typed);
+        }
+
+        Node bind(Filter filter) {
+            return instantiate(template, filter.getConditions());
+        }
+
+        private Node instantiate(Template t, List<Filter.FilterItem> items) {
+            if (t instanceof Leaf leaf) {
+                return node(leaf.index(), items.get(leaf.index()));
+            }
+            List<Template> children = t instanceof AllOf all ? all.children() : ((AnyOf) t).children();
+            if (children.isEmpty()) {
+                return TRUE;
+            }
+            if (children.size() == 1) {
+                return instantiate(children.get(0), items);
+            }
+            Node[] nodes = new Node[children.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = instantiate(children.get(i), items);
+            }
+            return t instanceof AllOf ? new And(nodes) : new Or(nodes);
+        }
+
+        private Node node(int i, Filter.FilterItem item) {
+            Filter.Operator op = item.getOperator();
+            Accessor field = left[i];
+            Class<?> type = types[i];
+            if (right[i] != null) {
+                return switch (op) {
+                    case EQ, NE, GT, GTE, LT, LTE -> new FieldCompare(field, right[i], op);
+                    default -> throw new IllegalArgumentException("Operator " + op + " does not support field reference");
+                };
+            }
+            if (op == Filter.Operator.IS_NULL || op == Filter.Operator.IS_NOT_NULL) {
+                return new IsNull(field, op == Filter.Operator.IS_NOT_NULL);
+            }
+            if (shapes[i] == ValueShape.NULL) {
+                return switch (op) {
+                    case EQ -> new IsNull(field, false);
+                    case NE -> new IsNull(field, true);
+                    default -> throw new IllegalArgumentException("Operator " + op + " requires a value: " + item.getLeftField());
+                };
+            }
+            Object value = rightValue(item);
+            return switch (op) {
+                case EQ, NE, GT, GTE, LT, LTE -> new Compare(field, op, Constant.of(value, type));
+                case IN, NOT_IN -> {
+                    if (shapes[i] == ValueShape.EMPTY) {
+                        yield op == Filter.Operator.IN ? FALSE : TRUE;
+                    }
+                    Set<Object> set = new HashSet<>();
+                    for (Object v : asList(value)) {
+                        if (v != null) {
+                            Constant.of(v, type).addTo(set);
+                        }
+                    }
+                    yield new In(field, set, op == Filter.Operator.NOT_IN);
+                }
+                case BETWEEN -> {
+                    List<?> range = asList(value);
+                    if (range.size() != 2) {
+                        throw new IllegalArgumentException("BETWEEN requires exactly two values: " + item.getLeftField());
+                    }
+                    yield new Between(field, Constant.of(range.get(0), type), Constant.of(range.get(1), type));
+                }
+                case CONTAINS, NOT_CONTAINS, STARTS_WITH, ENDS_WITH -> new Text(field, op, String.valueOf(value));
+                case BEFORE_DAYS, AFTER_DAYS, WITHIN_DAYS -> new DayWindow(field, op,
+                        value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value).trim()));
+                case IS_NULL, IS_NOT_NULL -> throw new IllegalStateException("unreachable");
+            };
+        }
+    }
+
+    private static boolean isAdvanced(Filter filter) {
+        return filter.getConjunction() == Filter.ConjunctionType.ADVANCED
+                && filter.getExpression() != null && !filter.getExpression().isBlank();
+    }
+
+    private static ValueShape valueShape(Filter.FilterItem item) {
+        Filter.Operator op = item.getOperator();
+        if (op == Filter.Operator.IS_NULL || op == Filter.Operator.IS_NOT_NULL) {
+            return ValueShape.VALUE;
+        }
+        Object value = rightValue(item);
+        if (value == null) {
+            return ValueShape.NULL;
+        }
+        if ((op == Filter.Operator.IN || op == Filter.Operator.NOT_IN) && asList(value).isEmpty()) {
+            return ValueShape.EMPTY;
+        }
+        return ValueShape.VALUE;
+    }
+
+    private static Object rightValue(Filter.FilterItem item) {
+        if (item.getRightType() == null || item.getRightType() == Filter.RightValueType.VALUE) {
+            return item.getRightValue();
+        }
+        Object value = item.resolveRightValue(null);
+        if (value instanceof long[] range) {
+            return List.of(range[0], range[1]);
+        }
+        return value;
+    }
+
+    private static List<?> asList(Object value) {
+        if (value instanceof List<?> list) {
+            return list;
+        }
+        if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+        if (value instanceof Object[] array) {
+            return Arrays.asList(array);
+        }
+        if (value instanceof String text && text.contains(",")) {
+            return List.of(text.split("\\s*,\\s*"));
+        }
+        return List.of(value);
+    }
+}
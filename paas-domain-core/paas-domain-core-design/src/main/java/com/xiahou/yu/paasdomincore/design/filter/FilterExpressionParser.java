@@ -0,0 +1,109 @@
+package com.xiahou.yu.paasdomincore.design.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 高级过滤表达式解析器
+ * 解析 ADVANCED 连接方式的条件表达式，如 "(k1 AND k2) OR k3"，文法：
+ * expr := term (OR term)*；term := factor (AND factor)*；factor := '(' expr ')' | key。
+ * 解析结果通过回调构造，SQL 编译与内存谓词编译共用同一套文法。
+ *
+ * @author xiahou
+ */
+public final class FilterExpressionParser<T> {
+
+    private final List<String> tokens;
+    private final Function<String, T> leaf;
+    private final Function<List<T>, T> and;
+    private final Function<List<T>, T> or;
+    private int pos;
+
+    private FilterExpressionParser(String expression, Function<String, T> leaf,
+                                   Function<List<T>, T> and, Function<List<T>, T> or) {
+        this.tokens = tokenize(expression);
+        this.leaf = leaf;
+        this.and = and;
+        this.or = or;
+    }
+
+    /**
+     * 解析表达式
+     *
+     * @param expression 表达式
+     * @param leaf 条件 key 到结果的映射，未知 key 应抛出 IllegalArgumentException
+     * @param and AND 组合（至少两个元素）
+     * @param or OR 组合（至少两个元素）
+     * @return 解析结果
+     */
+    public static <T> T parse(String expression, Function<String, T> leaf,
+                              Function<List<T>, T> and, Function<List<T>, T> or) {
+        FilterExpressionParser<T> parser = new FilterExpressionParser<>(expression, leaf, and, or);
+        T result = parser.expr();
+        if (parser.pos != parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected token in filter expression: " + parser.tokens.get(parser.pos));
+        }
+        return result;
+    }
+
+    private T expr() {
+        List<T> parts = new ArrayList<>();
+        parts.add(term());
+        while (pos < tokens.size() && "OR".equalsIgnoreCase(tokens.get(pos))) {
+            pos++;
+            parts.add(term());
+        }
+        return parts.size() == 1 ? parts.get(0) : or.apply(parts);
+    }
+
+    private T term() {
+        List<T> parts = new ArrayList<>();
+        parts.add(factor());
+        while (pos < tokens.size() && "AND".equalsIgnoreCase(tokens.get(pos))) {
+            pos++;
+            parts.add(factor());
+        }
+        return parts.size() == 1 ? parts.get(0) : and.apply(parts);
+    }
+
+    private T factor() {
+        if (pos >= tokens.size()) {
+            throw new IllegalArgumentException("Unexpected end of filter expression");
+        }
+        String token = tokens.get(pos++);
+        if ("(".equals(token)) {
+            T inner = expr();
+            if (pos >= tokens.size() || !")".equals(tokens.get(pos++))) {
+                throw new IllegalArgumentException("Unbalanced parentheses in filter expression");
+            }
+            return inner;
+        }
+        if (")".equals(token) || "AND".equalsIgnoreCase(token) || "OR".equalsIgnoreCase(token)) {
+            throw new IllegalArgumentException("Unexpected token in filter expression: " + token);
+        }
+        return leaf.apply(token);
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (char c : expression.toCharArray()) {
+            if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+                if (!Character.isWhitespace(c)) {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
@@ -42,4 +42,12 @@ public interface EntityRegister {
     default Class<?> getEntityClass() {
         return this.getClass();
     }
+
+    /**
+     * 获取查询结果缓存时长（秒），null 表示使用全局默认值，0 表示不缓存
+     * @return 缓存时长
+     */
+    default Long getCacheTtlSeconds() {
+        return null;
+    }
 }
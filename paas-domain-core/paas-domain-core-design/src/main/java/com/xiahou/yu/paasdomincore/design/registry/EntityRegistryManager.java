@@ -96,6 +96,26 @@ public class EntityRegistryManager {
         return entityTypeRegister.getEntityDescription(entityName);
     }
 
+    /**
+     * 设置实体查询结果缓存时长
+     *
+     * @param entityName 实体名称
+     * @param ttlSeconds 缓存时长（秒），null 表示使用全局默认值，0 表示不缓存
+     */
+    public void setCacheTtlSeconds(String entityName, Long ttlSeconds) {
+        entityTypeRegister.setCacheTtlSeconds(entityName, ttlSeconds);
+    }
+
+    /**
+     * 获取实体查询结果缓存时长
+     *
+     * @param entityName 实体名称
+     * @return 缓存时长（秒），未配置时返回 null
+     */
+    public Long getCacheTtlSeconds(String entityName) {
+        return entityTypeRegister.getCacheTtlSeconds(entityName);
+    }
+
     /**
      * 根据类获取实体名称
      *
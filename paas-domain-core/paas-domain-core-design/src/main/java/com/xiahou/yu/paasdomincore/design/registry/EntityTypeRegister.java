@@ -20,6 +20,7 @@ public class EntityTypeRegister {
     private static final Map<String, EntityTypeEnum> ENTITY_TYPE_ENUM_MAP = new ConcurrentHashMap<>();
     private static final Map<String, Class<?>> ENTITY_CLASS_MAP = new ConcurrentHashMap<>();
     private static final Map<String, String> ENTITY_DESCRIPTION_MAP = new ConcurrentHashMap<>();
+    private static final Map<String, Long> ENTITY_CACHE_TTL_MAP = new ConcurrentHashMap<>();
 
     /**
      * 注册实体
@@ -31,6 +32,7 @@ public class EntityTypeRegister {
         ENTITY_TYPE_ENUM_MAP.put(entityName, entityRegister.getEntityType());
         ENTITY_CLASS_MAP.put(entityName, entityRegister.getEntityClass());
         ENTITY_DESCRIPTION_MAP.put(entityName, entityRegister.getDesc());
+        setCacheTtlSeconds(entityName, entityRegister.getCacheTtlSeconds());
         log.debug("Entity registered: {} -> {}", entityName, entityRegister.getEntityType());
     }
 
@@ -100,6 +102,30 @@ public class EntityTypeRegister {
         return ENTITY_DESCRIPTION_MAP.get(entityName);
     }
 
+    /**
+     * 设置实体查询结果缓存时长
+     *
+     * @param entityName 实体名称
+     * @param ttlSeconds 缓存时长（秒），null 表示使用全局默认值，0 表示不缓存
+     */
+    public void setCacheTtlSeconds(String entityName, Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            ENTITY_CACHE_TTL_MAP.remove(entityName);
+        } else {
+            ENTITY_CACHE_TTL_MAP.put(entityName, ttlSeconds);
+        }
+    }
+
+    /**
+     * 获取实体查询结果缓存时长
+     *
+     * @param entityName 实体名称
+     * @return 缓存时长（秒），未配置时返回 null
+     */
+    public Long getCacheTtlSeconds(String entityName) {
+        return ENTITY_CACHE_TTL_MAP.get(entityName);
+    }
+
     /**
      * 根据类获取实体名称
      *
@@ -237,6 +263,7 @@ public class EntityTypeRegister {
         ENTITY_TYPE_ENUM_MAP.clear();
         ENTITY_CLASS_MAP.clear();
         ENTITY_DESCRIPTION_MAP.clear();
+        ENTITY_CACHE_TTL_MAP.clear();
         log.info("Entity type register cleared");
     }
 }
@@ -0,0 +1,249 @@
+package com.xiahou.yu.paasdomincore.design.repository;
+
+import com.xiahou.yu.paasdomincore.design.metadatamodel.AbstractModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jdbc.core.convert.JdbcConverter;
+import org.springframework.data.jdbc.core.mapping.JdbcValue;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体批量写入
+ * 按实体映射元数据生成 INSERT 语句，以 JDBC batch 分块写入，所有分块在同一事务（同一连接）中执行，
+ * 替代 CrudRepository.saveAll 的逐条 INSERT。
+ * 仅支持不含一对一/一对多引用、集合属性与乐观锁版本的 {@link AbstractModel} 子类；
+ * 不触发 Spring Data 的实体回调与事件。
+ * 主键已赋值的实体按原值写入；主键为空的实体由数据库生成主键，并按输入顺序回填。
+ *
+ * @author xiahou
+ */
+@Slf4j
+@Component
+public class BatchEntityWriter {
+
+    private final JdbcOperations jdbcOperations;
+    private final RelationalMappingContext mappingContext;
+    private final JdbcConverter converter;
+    private final IdentifierProcessing identifierProcessing;
+    private final int batchSize;
+    private final Map<Class<?>, Optional<InsertPlan>> plans = new ConcurrentHashMap<>();
+
+    public BatchEntityWriter(NamedParameterJdbcTemplate jdbcTemplate, RelationalMappingContext mappingContext,
+                             JdbcConverter converter, Dialect dialect,
+                             @Value("${paas.jdbc.batch-size:1000}") int batchSize) {
+        this.jdbcOperations = jdbcTemplate.getJdbcOperations();
+        this.mappingContext = mappingContext;
+        this.converter = converter;
+        this.identifierProcessing = dialect.getIdentifierProcessing();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 是否支持批量写入该实体类型
+     */
+    public boolean supports(Class<?> entityType) {
+        return AbstractModel.class.isAssignableFrom(entityType) && plan(entityType).isPresent();
+    }
+
+    /**
+     * 批量插入实体
+     *
+     * @param entities 待插入实体，须为同一类型
+     * @return 输入列表本身，主键已回填且实体已标记为非新建
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public <T extends AbstractModel> List<T> insertAll(List<T> entities) {
+        if (entities.isEmpty()) {
+            return entities;
+        }
+        Class<?> entityType = entities.get(0).getClass();
+        InsertPlan plan = plan(entityType).orElseThrow(() ->
+                new IllegalArgumentException("Batch insert is not supported for entity: " + entityType.getName()));
+
+        long start = System.currentTimeMillis();
+        List<T> assigned = new ArrayList<>(Math.min(entities.size(), batchSize));
+        List<T> generated = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i += batchSize) {
+            assigned.clear();
+            generated.clear();
+            for (T entity : entities.subList(i, Math.min(i + batchSize, entities.size()))) {
+                if (entity.getClass() != entityType) {
+                    throw new IllegalArgumentException("Batch insert requires a single entity type, got "
+                            + entityType.getName() + " and " + entity.getClass().getName());
+                }
+                (entity.getId() != null ? assigned : generated).add(entity);
+            }
+            if (!assigned.isEmpty()) {
+                jdbcOperations.batchUpdate(plan.sql(true), setter(plan, assigned, true));
+            }
+            if (!generated.isEmpty()) {
+                insertGenerated(plan, generated);
+            }
+        }
+        entities.forEach(AbstractModel::markAsNotNew);
+        log.info("Batch inserted {} {} rows in {} ms", entities.size(), entityType.getSimpleName(),
+                System.currentTimeMillis() - start);
+        return entities;
+    }
+
+    private <T extends AbstractModel> void insertGenerated(InsertPlan plan, List<T> entities) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        String idColumn = plan.idColumn();
+        jdbcOperations.batchUpdate(con -> con.prepareStatement(plan.sql(false), new String[]{idColumn}),
+                setter(plan, entities, false), keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != entities.size()) {
+            throw new IllegalStateException("Expected " + entities.size() + " generated keys but got " + keys.size());
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            Map<String, Object> row = keys.get(i);
+            Object key = row.size() == 1 ? row.values().iterator().next() : row.get(idColumn);
+            entities.get(i).setId(key instanceof Number n ? n.longValue() : null);
+        }
+    }
+
+    private BatchPreparedStatementSetter setter(InsertPlan plan, List<? extends AbstractModel> rows, boolean withId) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PersistentPropertyAccessor<?> accessor = plan.entity().getPropertyAccessor(rows.get(i));
+                int index = 1;
+                for (ColumnPlan column : plan.columns()) {
+                    if (!withId && column.id()) {
+                        continue;
+                    }
+                    JdbcValue value = write(column, accessor);
+                    SQLType type = value.getJdbcType();
+                    StatementCreatorUtils.setParameterValue(ps, index++,
+                            type != null && type.getVendorTypeNumber() != null
+                                    ? type.getVendorTypeNumber() : SqlTypeValue.TYPE_UNKNOWN,
+                            value.getValue());
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        };
+    }
+
+    /** 沿属性路径取值（嵌入对象为 null 时列值为 null）并转换为 JDBC 值 */
+    private JdbcValue write(ColumnPlan column, PersistentPropertyAccessor<?> rootAccessor) {
+        RelationalPersistentProperty[] path = column.path();
+        Object value = rootAccessor.getProperty(path[0]);
+        for (int i = 1; i < path.length && value != null; i++) {
+            value = mappingContext.getRequiredPersistentEntity(value.getClass()).getPropertyAccessor(value)
+                    .getProperty(path[i]);
+        }
+        return converter.writeJdbcValue(value, column.columnType(), column.sqlType());
+    }
+
+    // ---------------------------------------------------------------- 映射元数据
+
+    private Optional<InsertPlan> plan(Class<?> entityType) {
+        return plans.computeIfAbsent(entityType, this::buildPlan);
+    }
+
+    private Optional<InsertPlan> buildPlan(Class<?> entityType) {
+        RelationalPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(entityType);
+        if (entity.getIdProperty() == null || entity.hasVersionProperty()) {
+            log.debug("Batch insert disabled for {}: missing id or has version property", entityType.getSimpleName());
+            return Optional.empty();
+        }
+        List<ColumnPlan> columns = new ArrayList<>();
+        if (!collectColumns(entity, new RelationalPersistentProperty[0], columns)) {
+            log.debug("Batch insert disabled for {}: has references or collection properties", entityType.getSimpleName());
+            return Optional.empty();
+        }
+        String table = entity.getQualifiedTableName().toSql(identifierProcessing);
+        String idColumn = entity.getRequiredIdProperty().getColumnName().getReference();
+        return Optional.of(new InsertPlan(entity, columns, insertSql(table, columns, true),
+                insertSql(table, columns, false), idColumn));
+    }
+
+    /**
+     * 收集可写列，嵌入属性展开为其各列（列名已带前缀）；存在不支持的属性时返回 false
+     */
+    private boolean collectColumns(RelationalPersistentEntity<?> entity, RelationalPersistentProperty[] path,
+                                   List<ColumnPlan> columns) {
+        for (RelationalPersistentProperty property : entity) {
+            RelationalPersistentProperty[] propertyPath = append(path, property);
+            if (property.isEmbedded()) {
+                if (!collectColumns(mappingContext.getRequiredPersistentEntity(property), propertyPath, columns)) {
+                    return false;
+                }
+                continue;
+            }
+            if (property.isEntity() || property.isCollectionLike() || property.isMap()) {
+                return false;
+            }
+            if (!property.isWritable()) {
+                continue;
+            }
+            columns.add(new ColumnPlan(propertyPath, property.getColumnName().toSql(identifierProcessing),
+                    path.length == 0 && property.isIdProperty(),
+                    TypeInformation.of(converter.getColumnType(property)), converter.getTargetSqlType(property)));
+        }
+        return true;
+    }
+
+    private static String insertSql(String table, List<ColumnPlan> columns, boolean withId) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (ColumnPlan column : columns) {
+            if (!withId && column.id()) {
+                continue;
+            }
+            if (!names.isEmpty()) {
+                names.append(", ");
+                values.append(", ");
+            }
+            names.append(column.name());
+            values.append('?');
+        }
+        return "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ")";
+    }
+
+    private static RelationalPersistentProperty[] append(RelationalPersistentProperty[] path,
+                                                         RelationalPersistentProperty property) {
+        RelationalPersistentProperty[] result = new RelationalPersistentProperty[path.length + 1];
+        System.arraycopy(path, 0, result, 0, path.length);
+        result[path.length] = property;
+        return result;
+    }
+
+    private record InsertPlan(RelationalPersistentEntity<?> entity, List<ColumnPlan> columns,
+                              String insertWithId, String insertWithoutId, String idColumn) {
+
+        String sql(boolean withId) {
+            return withId ? insertWithId : insertWithoutId;
+        }
+    }
+
+    private record ColumnPlan(RelationalPersistentProperty[] path, String name, boolean id,
+                              TypeInformation<?> columnType, SQLType sqlType) {}
+}
@@ -1,16 +1,16 @@
 package com.xiahou.yu.paasdomincore.design.repository;
 
+import com.xiahou.yu.paasdomincore.design.metadatamodel.AbstractModel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * 仓储管理服务 - Spring Data JDBC 版本
@@ -24,6 +24,7 @@ import java.util.stream.StreamSupport;
 public class RepositoryManager {
 
     private final RepositoryRegister repositoryRegister;
+    private final BatchEntityWriter batchEntityWriter;
 
     /**
      * 根据实体名称获取 Repository
@@ -39,6 +40,21 @@ public class RepositoryManager {
         return (BaseRepository<T, ID>) repository;
     }
 
+    /**
+     * 根据实体名称获取 Repository 管理的实体类型
+     *
+     * @param entityName 实体名称
+     * @return 实体类型
+     */
+    public Class<?> getEntityClass(String entityName) {
+        BaseRepository<?, ?> repository = getRepository(entityName);
+        Class<?> entityClass = ResolvableType.forClass(repository.getClass()).as(BaseRepository.class).resolveGeneric(0);
+        if (entityClass == null) {
+            throw new IllegalArgumentException("Cannot resolve entity type for repository: " + entityName);
+        }
+        return entityClass;
+    }
+
     /**
      * 根据实体名称和ID查找实体
      *
@@ -63,19 +79,47 @@ public class RepositoryManager {
         return repository.save(entity);
     }
 
+    /**
+     * 根据实体名称批量保存实体
+     * 全部为新建的 {@link AbstractModel} 实体且类型支持时走 {@link BatchEntityWriter} 批量插入，
+     * 否则按分页调用 Repository.saveAll。
+     *
+     * @param entityName 实体名称
+     * @param entities 实体列表
+     * @return 保存后的实体，顺序与输入一致
+     */
+    @SuppressWarnings("unchecked")
     public <T> List<T> saveAll(String entityName, List<T> entities) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (isBatchInsertable(entities)) {
+            return (List<T>) batchEntityWriter.insertAll((List<AbstractModel>) entities);
+        }
         return saveByPage(entityName, entities);
     }
 
+    private boolean isBatchInsertable(List<?> entities) {
+        Class<?> type = entities.get(0).getClass();
+        if (!batchEntityWriter.supports(type)) {
+            return false;
+        }
+        for (Object entity : entities) {
+            if (entity == null || entity.getClass() != type || !((AbstractModel) entity).isNew()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private <T> List<T> saveByPage(String entityName, List<T> entities) {
         BaseRepository<T, Serializable> repository = getRepository(entityName);
         int batchSize = 1000;
-        List<T> result = new ArrayList<>();
+        List<T> result = new ArrayList<>(entities.size());
         for (int i = 0; i < entities.size(); i += batchSize) {
             int end = Math.min(i + batchSize, entities.size());
             List<T> batch = entities.subList(i, end);
-            Iterable<T> saved = repository.saveAll(batch);
-            return StreamSupport.stream(saved.spliterator(), false).collect(Collectors.toList());
+            repository.saveAll(batch).forEach(result::add);
         }
         return result;
     }
@@ -0,0 +1,352 @@
+package com.xiahou.yu.paasdomincore.design.filter;
+
+import com.xiahou.yu.paasdomincore.design.dto.DynamicDataObject;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存谓词编译测试：编译结果与逐行解释的参考实现一致（POJO 按类型/按运行时类型、Map、DynamicDataObject），
+ * 同形状过滤器复用编译计划，共享计划可被多线程并发判定
+ */
+class FilterCompilerTest {
+
+    public enum Status { ACTIVE, LOCKED }
+
+    public static class Address {
+        private final String city;
+        private final Integer zip;
+
+        Address(String city, Integer zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public Integer getZip() {
+            return zip;
+        }
+    }
+
+    public static class Person {
+        private final String name;
+        private final Integer age;
+        private final Integer minAge;
+        private final BigDecimal salary;
+        private final LocalDate joined;
+        private final Status status;
+        private final Address address;
+
+        Person(String name, Integer age, Integer minAge, BigDecimal salary, LocalDate joined, Status status, Address address) {
+            this.name = name;
+            this.age = age;
+            this.minAge = minAge;
+            this.salary = salary;
+            this.joined = joined;
+            this.status = status;
+            this.address = address;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public Integer getMinAge() {
+            return minAge;
+        }
+
+        public BigDecimal getSalary() {
+            return salary;
+        }
+
+        public LocalDate getJoined() {
+            return joined;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("name", name);
+            map.put("age", age);
+            map.put("minAge", minAge);
+            map.put("salary", salary);
+            map.put("joined", joined);
+            map.put("status", status);
+            if (address != null) {
+                Map<String, Object> a = new HashMap<>();
+                a.put("city", address.getCity());
+                a.put("zip", address.getZip());
+                map.put("address", a);
+            }
+            return map;
+        }
+    }
+
+    /** 与 Person 同名属性的另一类型，用于运行时类型切换 */
+    public static class PersonView extends Person {
+        PersonView(Person p) {
+            super(p.name, p.age, p.minAge, p.salary, p.joined, p.status, p.address);
+        }
+    }
+
+    private static final String[] NAMES = {"alice", "bob", "carol", "dave", "erin", "frank"};
+    private static final String[] CITIES = {"beijing", "shanghai", "shenzhen"};
+
+    private static List<Person> people(long seed, int n) {
+        Random random = new Random(seed);
+        List<Person> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(new Person(
+                    random.nextInt(10) == 0 ? null : NAMES[random.nextInt(NAMES.length)] + i,
+                    random.nextInt(10) == 0 ? null : 18 + random.nextInt(50),
+                    18 + random.nextInt(50),
+                    random.nextInt(10) == 0 ? null : BigDecimal.valueOf(3000 + random.nextInt(20000), 2),
+                    random.nextInt(10) == 0 ? null : LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500)),
+                    random.nextInt(10) == 0 ? null : Status.values()[random.nextInt(2)],
+                    random.nextInt(8) == 0 ? null : new Address(CITIES[random.nextInt(CITIES.length)],
+                            random.nextInt(5) == 0 ? null : 100000 + random.nextInt(5))));
+        }
+        return rows;
+    }
+
+    private static List<Filter> filters() {
+        List<Filter> filters = new ArrayList<>();
+        filters.add(Filter.empty());
+        filters.add(Filter.empty().eq("k", "age", 30));
+        filters.add(Filter.empty().eq("k", "age", "30"));
+        filters.add(Filter.empty().ne("k", "age", 30));
+        filters.add(Filter.empty().gt("k", "age", 40).lt("k2", "age", 60));
+        filters.add(Filter.single("salary", Filter.Operator.GTE, new BigDecimal("100.00")));
+        filters.add(Filter.single("salary", Filter.Operator.LTE, 80));
+        filters.add(Filter.empty().in("k", "age", List.of(20, 21L, new BigDecimal("22.0"))));
+        filters.add(Filter.single("age", Filter.Operator.NOT_IN, List.of(20, 21, 22)));
+        filters.add(Filter.empty().between("k", "joined", "2021-01-01", "2022-06-30"));
+        filters.add(Filter.empty().between("k", "salary", 50, 120.5));
+        filters.add(Filter.empty().contains("k", "name", "a"));
+        filters.add(Filter.single("name", Filter.Operator.STARTS_WITH, "bo"));
+        filters.add(Filter.single("name", Filter.Operator.ENDS_WITH, "7"));
+        filters.add(Filter.empty().isNull("k", "address"));
+        filters.add(Filter.empty().isNotNull("k", "address.zip"));
+        filters.add(Filter.empty().eq("k", "status", "ACTIVE"));
+        filters.add(Filter.empty().eq("k", "status", Status.LOCKED));
+        filters.add(Filter.empty().eq("k", "name", null));
+        filters.add(Filter.empty().nestedEq("k", "address.city", "shanghai").gt("k2", "address.zip", 100002));
+        filters.add(Filter.empty().addCondition(Filter.FilterItem.fieldRef("k", "age", "minAge", Filter.Operator.GT)));
+        filters.add(Filter.single("age", Filter.Operator.LT, 25).or(Filter.single("address.city", Filter.Operator.EQ, "beijing")));
+        filters.add(Filter.empty().in("k", "age", List.of()));
+        filters.add(Filter.single("age", Filter.Operator.NOT_IN, List.of()));
+
+        Filter advanced = Filter.empty()
+                .gt("a", "age", 30)
+                .eq("b", "status", "ACTIVE")
+                .eq("c", "address.city", "shenzhen")
+                .isNull("d", "salary");
+        advanced.setConjunction(Filter.ConjunctionType.ADVANCED);
+        advanced.setExpression("(a AND b) OR c OR d");
+        filters.add(advanced);
+        return filters;
+    }
+
+    @Test
+    void testParityWithReferenceEvaluator() {
+        List<Person> rows = people(42L, 500);
+        List<Map<String, Object>> maps = rows.stream().map(Person::toMap).toList();
+        List<DynamicDataObject> dynamic = rows.stream().map(DynamicDataObject::fromObject).toList();
+        for (Filter filter : filters()) {
+            Predicate<Object> reference = ReferenceEvaluator.of(filter);
+            boolean[] expected = new boolean[rows.size()];
+            int hits = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                expected[i] = reference.test(rows.get(i));
+                hits += expected[i] ? 1 : 0;
+            }
+            CompiledFilter typed = FilterCompiler.compile(filter, Person.class);
+            CompiledFilter untyped = FilterCompiler.compile(filter);
+            for (int i = 0; i < rows.size(); i++) {
+                String message = filter + " @" + i;
+                assertEquals(expected[i], typed.test(rows.get(i)), message);
+                assertEquals(expected[i], untyped.test(rows.get(i)), message);
+                assertEquals(expected[i], untyped.test(maps.get(i)), message);
+                assertEquals(expected[i], untyped.test(dynamic.get(i)), message);
+            }
+            assertEquals(hits, typed.filter(rows).size());
+        }
+    }
+
+    @Test
+    void testSameShapeReusesPlanWithNewConstants() {
+        List<Person> rows = people(7L, 200);
+        FilterCompiler.compile(Filter.empty().gt("k", "age", 20).eq("k2", "address.city", "beijing"), Person.class);
+        int plans = FilterCompiler.cachedPlans();
+        for (int age = 20; age < 60; age += 7) {
+            Filter filter = Filter.empty().gt("k", "age", age).eq("k2", "address.city", CITIES[age % CITIES.length]);
+            CompiledFilter compiled = FilterCompiler.compile(filter, Person.class);
+            Predicate<Object> reference = ReferenceEvaluator.of(filter);
+            for (Person row : rows) {
+                assertEquals(reference.test(row), compiled.test(row));
+            }
+        }
+        assertEquals(plans, FilterCompiler.cachedPlans());
+    }
+
+    @Test
+    void testHotPlanSurvivesEviction() {
+        Filter hot = Filter.empty().gt("k", "hotAge", 20);
+        Filter cold = Filter.empty().gt("k", "coldAge", 20);
+        Object hotPlan = FilterCompiler.plan(hot, null);
+        Object coldPlan = FilterCompiler.plan(cold, null);
+        for (int i = 0; i < FilterCompiler.MAX_CACHED_PLANS * 2; i++) {
+            FilterCompiler.compile(Filter.empty().eq("k", "field" + i, i));
+            if (i % 100 == 0) {
+                FilterCompiler.compile(Filter.empty().gt("k", "hotAge", i));
+            }
+        }
+        assertTrue(FilterCompiler.cachedPlans() <= FilterCompiler.MAX_CACHED_PLANS);
+        // 频繁使用的计划一直留在缓存中，长期未使用的计划被淘汰后重新构建
+        assertSame(hotPlan, FilterCompiler.plan(hot, null));
+        assertNotSame(coldPlan, FilterCompiler.plan(cold, null));
+    }
+
+    @Test
+    void testSharedPlanUnderConcurrentMixedTypes() throws Exception {
+        List<Person> base = people(99L, 2000);
+        List<Object> rows = new ArrayList<>(base.size());
+        for (int i = 0; i < base.size(); i++) {
+            Person p = base.get(i);
+            rows.add(switch (i % 3) {
+                case 0 -> p;
+                case 1 -> new PersonView(p);
+                default -> p.toMap();
+            });
+        }
+        Filter filter = Filter.empty().gt("k", "age", 30).nestedEq("k2", "address.city", "shanghai");
+        CompiledFilter compiled = FilterCompiler.compile(filter);
+        Predicate<Object> reference = ReferenceEvaluator.of(filter);
+        List<Object> expected = rows.stream().filter(reference).toList();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Object>>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(pool.submit(() -> {
+                    List<Object> result = null;
+                    for (int round = 0; round < 20; round++) {
+                        result = compiled.filter(rows);
+                    }
+                    return result;
+                }));
+            }
+            for (Future<List<Object>> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsUnknownTypedField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FilterCompiler.compile(Filter.empty().eq("k", "missing", 1), Person.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> FilterCompiler.compile(Filter.empty().eq("k", "age", "abc"), Person.class));
+    }
+
+    /**
+     * 参考实现：每行通过 DynamicDataObject 按完整路径取值，逐条件解释执行（SQL 语义：null 仅匹配判空，空 IN 列表为常量条件）
+     */
+    private static final class ReferenceEvaluator {
+
+        static Predicate<Object> of(Filter filter) {
+            List<Filter.FilterItem> items = filter.getConditions();
+            if (filter.getConjunction() == Filter.ConjunctionType.ADVANCED && filter.getExpression() != null) {
+                Map<String, Filter.FilterItem> byKey = new HashMap<>();
+                items.forEach(item -> byKey.putIfAbsent(item.getKey(), item));
+                return FilterExpressionParser.<Predicate<Object>>parse(filter.getExpression(),
+                        key -> row -> test(row, byKey.get(key)),
+                        parts -> row -> parts.stream().allMatch(p -> p.test(row)),
+                        parts -> row -> parts.stream().anyMatch(p -> p.test(row)));
+            }
+            if (filter.getConjunction() == Filter.ConjunctionType.OR) {
+                return row -> items.stream().anyMatch(item -> test(row, item));
+            }
+            return row -> items.stream().allMatch(item -> test(row, item));
+        }
+
+        private static Object value(Object row, String path) {
+            Object v = DynamicDataObject.fromObject(row).getValue(path);
+            return v instanceof Enum<?> e ? e.name() : v;
+        }
+
+        private static boolean test(Object row, Filter.FilterItem item) {
+            Object v = value(row, item.getLeftField());
+            Filter.Operator op = item.getOperator();
+            if (op == Filter.Operator.IS_NULL) return v == null;
+            if (op == Filter.Operator.IS_NOT_NULL) return v != null;
+            Object right = item.getRightType() == Filter.RightValueType.FIELD
+                    ? value(row, String.valueOf(item.getRightValue()))
+                    : item.getRightValue();
+            if (right == null && item.getRightType() != Filter.RightValueType.FIELD) {
+                return op == Filter.Operator.EQ ? v == null : v != null;
+            }
+            // 与 SQL 编译一致：空 IN 恒假、空 NOT IN 恒真
+            if (right instanceof List<?> list && list.isEmpty()) {
+                return op == Filter.Operator.NOT_IN;
+            }
+            if (v == null) return false;
+            return switch (op) {
+                case EQ -> right != null && compare(v, right) == 0;
+                case NE -> right != null && compare(v, right) != 0;
+                case GT -> right != null && compare(v, right) > 0;
+                case GTE -> right != null && compare(v, right) >= 0;
+                case LT -> right != null && compare(v, right) < 0;
+                case LTE -> right != null && compare(v, right) <= 0;
+                case IN -> ((List<?>) right).stream().anyMatch(x -> compare(v, x) == 0);
+                case NOT_IN -> ((List<?>) right).stream().noneMatch(x -> compare(v, x) == 0);
+                case BETWEEN -> compare(v, ((List<?>) right).get(0)) >= 0 && compare(v, ((List<?>) right).get(1)) <= 0;
+                case CONTAINS -> v.toString().contains(right.toString());
+                case STARTS_WITH -> v.toString().startsWith(right.toString());
+                case ENDS_WITH -> v.toString().endsWith(right.toString());
+                default -> throw new UnsupportedOperationException(op.name());
+            };
+        }
+
+        /** 常量按字段值类型转换后比较 */
+        private static int compare(Object v, Object constant) {
+            Object c = constant instanceof Enum<?> e ? e.name() : constant;
+            if (v instanceof Number n) {
+                return new BigDecimal(n.toString()).compareTo(new BigDecimal(c.toString()));
+            }
+            if (v instanceof LocalDate d) {
+                return d.compareTo(c instanceof LocalDate x ? x : LocalDate.parse(c.toString()));
+            }
+            return v.toString().compareTo(c.toString());
+        }
+    }
+}
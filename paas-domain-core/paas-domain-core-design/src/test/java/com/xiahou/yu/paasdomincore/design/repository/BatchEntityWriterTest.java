@@ -0,0 +1,166 @@
+package com.xiahou.yu.paasdomincore.design.repository;
+
+import com.xiahou.yu.paasdomincore.design.metadatamodel.AbstractModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jdbc.core.convert.MappingJdbcConverter;
+import org.springframework.data.jdbc.core.mapping.JdbcMappingContext;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 实体批量写入测试：按批分块、已赋值主键原样写入、生成主键按输入顺序回填、不支持的实体类型
+ */
+class BatchEntityWriterTest {
+
+    @Table("sample_model")
+    static class SampleModel extends AbstractModel {
+        String color;
+    }
+
+    @Table("other_model")
+    static class OtherModel extends AbstractModel {
+    }
+
+    @Table("owner_model")
+    static class OwnerModel extends AbstractModel {
+        SampleModel child;
+    }
+
+    private final JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    private final PreparedStatement ps = mock(PreparedStatement.class);
+    private final List<Map<String, Object>> generatedKeys = new ArrayList<>();
+    private final List<String> assignedSql = new ArrayList<>();
+    private final List<Integer> assignedBatches = new ArrayList<>();
+    private final List<Integer> generatedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 空值绑定时 StatementCreatorUtils 会按驱动名称选择 setNull 方式
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(ps.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(metaData.getDriverName()).thenReturn("PostgreSQL JDBC Driver");
+    }
+
+    private BatchEntityWriter writer(int batchSize) {
+        NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        // 批量插入在调用期间绑定每一行；生成主键的批次按行依次返回下一个主键
+        when(jdbcOperations.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            assignedSql.add(invocation.getArgument(0));
+            assignedBatches.add(bindAll(invocation.getArgument(1)));
+            return new int[assignedBatches.get(assignedBatches.size() - 1)];
+        });
+        when(jdbcOperations.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+            int rows = bindAll(invocation.getArgument(1));
+            generatedBatches.add(rows);
+            KeyHolder keyHolder = invocation.getArgument(2);
+            for (int i = 0; i < rows && !generatedKeys.isEmpty(); i++) {
+                keyHolder.getKeyList().add(generatedKeys.remove(0));
+            }
+            return new int[rows];
+        });
+        JdbcMappingContext mappingContext = new JdbcMappingContext();
+        return new BatchEntityWriter(jdbcTemplate, mappingContext,
+                new MappingJdbcConverter(mappingContext, (identifier, path) -> List.of()),
+                PostgresDialect.INSTANCE, batchSize);
+    }
+
+    private static SampleModel model(Long id, String color) {
+        SampleModel model = new SampleModel();
+        model.setId(id);
+        model.setName("n-" + color);
+        model.color = color;
+        model.setNew(true);
+        return model;
+    }
+
+    private int bindAll(BatchPreparedStatementSetter setter) throws Exception {
+        for (int i = 0; i < setter.getBatchSize(); i++) {
+            setter.setValues(ps, i);
+        }
+        return setter.getBatchSize();
+    }
+
+    private void keys(long... ids) {
+        for (long id : ids) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            generatedKeys.add(row);
+        }
+    }
+
+    @Test
+    void testChunksAndBackfillsGeneratedKeysInInputOrder() throws Exception {
+        BatchEntityWriter writer = writer(2);
+        List<SampleModel> models = List.of(model(null, "a"), model(7L, "b"), model(null, "c"),
+                model(null, "d"), model(9L, "e"));
+        keys(101L, 102L, 103L);
+
+        assertSame(models, writer.insertAll(models));
+
+        assertEquals(List.of(101L, 7L, 102L, 103L, 9L), models.stream().map(AbstractModel::getId).toList());
+        assertTrue(models.stream().noneMatch(AbstractModel::isNew));
+
+        // 分块 [a, b] [c, d] [e]：主键已赋值的两批（b、e），生成主键的两批（a 与 c、d）
+        assertEquals(List.of(1, 1), assignedBatches);
+        assertEquals(List.of(1, 2), generatedBatches);
+        String sql = assignedSql.get(0);
+        assertTrue(sql.startsWith("INSERT INTO \"sample_model\" ("), sql);
+        assertTrue(sql.contains("\"id\"") && sql.contains("\"color\"") && sql.contains("\"ukey\""), sql);
+        assertFalse(sql.contains("is_new"), sql);
+
+        // 每行绑定的是对应实体的属性值
+        for (String color : List.of("a", "b", "c", "d", "e")) {
+            verify(ps).setString(anyInt(), eq(color));
+            verify(ps).setString(anyInt(), eq("n-" + color));
+        }
+    }
+
+    @Test
+    void testKeyCountMismatchFails() {
+        BatchEntityWriter writer = writer(10);
+        keys(1L);
+        assertThrows(IllegalStateException.class,
+                () -> writer.insertAll(List.of(model(null, "a"), model(null, "b"))));
+    }
+
+    @Test
+    void testRejectsMixedOrUnsupportedTypes() {
+        BatchEntityWriter writer = writer(10);
+        OtherModel other = new OtherModel();
+        other.setId(1L);
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.insertAll(List.<AbstractModel>of(model(2L, "a"), other)));
+
+        assertTrue(writer.supports(SampleModel.class));
+        assertFalse(writer.supports(OwnerModel.class));
+        assertFalse(writer.supports(String.class));
+        assertThrows(IllegalArgumentException.class, () -> writer.insertAll(List.of(new OwnerModel())));
+        verify(jdbcOperations, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+}
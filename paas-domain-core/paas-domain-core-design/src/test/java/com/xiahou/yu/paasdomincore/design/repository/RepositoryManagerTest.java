@@ -0,0 +1,84 @@
+package com.xiahou.yu.paasdomincore.design.repository;
+
+import com.xiahou.yu.paasdomincore.design.metadatamodel.AbstractModel;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 仓储管理服务批量保存测试：新建实体走批量写入，其余按页保存全部实体并保持顺序
+ */
+class RepositoryManagerTest {
+
+    static class SampleModel extends AbstractModel {
+    }
+
+    private final RepositoryRegister repositoryRegister = mock(RepositoryRegister.class);
+    private final BatchEntityWriter batchEntityWriter = mock(BatchEntityWriter.class);
+    @SuppressWarnings("unchecked")
+    private final BaseRepository<Object, Serializable> repository = mock(BaseRepository.class);
+    private final RepositoryManager repositoryManager = new RepositoryManager(repositoryRegister, batchEntityWriter);
+
+    private static List<SampleModel> models(int n, boolean isNew) {
+        return new ArrayList<>(IntStream.range(0, n).mapToObj(i -> {
+            SampleModel model = new SampleModel();
+            model.setCode("c" + i);
+            model.setNew(isNew);
+            return model;
+        }).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNewSupportedEntitiesUseBatchWriter() {
+        List<SampleModel> models = models(3, true);
+        when(batchEntityWriter.supports(SampleModel.class)).thenReturn(true);
+        when(batchEntityWriter.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertSame(models, repositoryManager.saveAll("Sample", models));
+        verify(batchEntityWriter).insertAll((List<AbstractModel>) (List<?>) models);
+        verifyNoInteractions(repositoryRegister);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveByPageSavesEveryPageInOrder() {
+        doReturn(repository).when(repositoryRegister).getRepository("Sample");
+        when(repository.saveAll(any())).thenAnswer(invocation -> new ArrayList<>((List<Object>) invocation.getArgument(0)));
+        when(batchEntityWriter.supports(SampleModel.class)).thenReturn(true);
+        List<SampleModel> models = models(2500, true);
+        // 含已存在的实体时不能走批量插入
+        models.get(1200).setNew(false);
+
+        List<SampleModel> saved = repositoryManager.saveAll("Sample", models);
+
+        assertEquals(models, saved);
+        ArgumentCaptor<List<Object>> pages = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(3)).saveAll(pages.capture());
+        assertEquals(List.of(1000, 1000, 500), pages.getAllValues().stream().map(List::size).toList());
+        verify(batchEntityWriter, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testUnsupportedTypeAndEmptyInput() {
+        doReturn(repository).when(repositoryRegister).getRepository("Sample");
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<SampleModel> models = models(2, true);
+
+        assertEquals(models, repositoryManager.saveAll("Sample", models));
+        verify(repository).saveAll(models);
+
+        assertTrue(repositoryManager.saveAll("Sample", List.of()).isEmpty());
+        verifyNoMoreInteractions(repository);
+        verify(batchEntityWriter, never()).insertAll(anyList());
+    }
+}
@@ -0,0 +1,57 @@
+package com.xiahou.yu.paasdomincore.runtime.cache;
+
+/**
+ * 访问频率估计（Count-Min Sketch）
+ * 4 组哈希计数器取最小值作为估计频率，计数上限 15；累计访问次数达到样本量后所有计数减半，使频率随时间衰减。
+ * 非线程安全，由调用方加锁。
+ *
+ * @author xiahou
+ */
+final class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xb0f11ba5, 0x2c64b1b7, 0x6f1e2b4d};
+
+    private final int[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        this.table = new int[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    /** 估计频率 */
+    int frequency(int hash) {
+        int min = MAX_COUNT;
+        for (int seed : SEEDS) {
+            min = Math.min(min, table[index(hash, seed)]);
+        }
+        return min;
+    }
+
+    /** 记录一次访问 */
+    void increment(int hash) {
+        for (int seed : SEEDS) {
+            int i = index(hash, seed);
+            if (table[i] < MAX_COUNT) {
+                table[i]++;
+            }
+        }
+        // 每次访问都计入样本量，计数器饱和时也能按期衰减
+        if (++additions >= sampleSize) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>>= 1;
+            }
+            additions >>>= 1;
+        }
+    }
+
+    private int index(int hash, int seed) {
+        int h = (hash ^ seed) * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
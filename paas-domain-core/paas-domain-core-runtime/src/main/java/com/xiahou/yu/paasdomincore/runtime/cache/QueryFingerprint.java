@@ -0,0 +1,120 @@
+package com.xiahou.yu.paasdomincore.runtime.cache;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import com.xiahou.yu.paasdomincore.design.filter.FilterExpressionParser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询指纹：由 system/module/aggr、过滤条件、排序与分页生成的规范化字符串
+ * 过滤条件与条件 key、条件顺序无关：AND/OR 的子条件排序后拼接，IN/NOT_IN 的值按集合处理，数值去掉末尾 0。
+ *
+ * @author xiahou
+ */
+final class QueryFingerprint {
+
+    private QueryFingerprint() {
+    }
+
+    static String of(CommandContext context) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(context.<Object>getAttribute("system")).append('/')
+                .append(context.<Object>getAttribute("module")).append('/')
+                .append(context.<Object>getAttribute("aggr")).append('|')
+                .append(filter(context.getFilter()));
+        CommandContext.Sort sort = context.getSort();
+        if (sort != null) {
+            sb.append("|sort:");
+            sort.getSortMapping().forEach((field, dir) -> sb.append(field).append(' ').append(dir).append(','));
+        }
+        CommandContext.Page page = context.getPage();
+        if (page != null) {
+            sb.append("|page:").append(page.getPageNum()).append('/').append(page.getPageSize());
+        }
+        return sb.toString();
+    }
+
+    static String filter(Filter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return "*";
+        }
+        List<Filter.FilterItem> items = filter.getConditions();
+        if (filter.getConjunction() == Filter.ConjunctionType.ADVANCED
+                && filter.getExpression() != null && !filter.getExpression().isBlank()) {
+            Map<String, String> byKey = new HashMap<>();
+            for (Filter.FilterItem item : items) {
+                byKey.putIfAbsent(item.getKey(), item(item));
+            }
+            return FilterExpressionParser.parse(filter.getExpression(),
+                    key -> {
+                        String fp = byKey.get(key);
+                        if (fp == null) {
+                            throw new IllegalArgumentException("Unknown condition key in filter expression: " + key);
+                        }
+                        return fp;
+                    },
+                    parts -> group("and", parts),
+                    parts -> group("or", parts));
+        }
+        List<String> parts = new ArrayList<>(items.size());
+        for (Filter.FilterItem item : items) {
+            parts.add(item(item));
+        }
+        return group(filter.getConjunction() == Filter.ConjunctionType.OR ? "or" : "and", parts);
+    }
+
+    private static String group(String op, List<String> parts) {
+        List<String> sorted = new ArrayList<>(parts);
+        sorted.sort(null);
+        return op + "(" + String.join(",", sorted) + ")";
+    }
+
+    private static String item(Filter.FilterItem item) {
+        StringBuilder sb = new StringBuilder()
+                .append(item.getLeftField()).append(' ').append(item.getOperator().getValue()).append(' ');
+        Filter.RightValueType type = item.getRightType() == null ? Filter.RightValueType.VALUE : item.getRightType();
+        if (type != Filter.RightValueType.VALUE) {
+            sb.append(type.getValue()).append(':');
+        }
+        Object value = item.getRightValue();
+        boolean set = item.getOperator() == Filter.Operator.IN || item.getOperator() == Filter.Operator.NOT_IN;
+        if (value instanceof Collection<?> || value instanceof Object[]) {
+            Collection<?> values = value instanceof Object[] array ? Arrays.asList(array) : (Collection<?>) value;
+            List<String> out = new ArrayList<>(values.size());
+            for (Object v : values) {
+                out.add(value(v));
+            }
+            if (set) {
+                out = out.stream().distinct().sorted().toList();
+            }
+            sb.append('[').append(String.join(",", out)).append(']');
+        } else {
+            sb.append(value(value));
+        }
+        return sb.toString();
+    }
+
+    private static String value(Object v) {
+        if (v == null) {
+            return "null";
+        }
+        if (v instanceof String s) {
+            return "'" + s.replace("'", "''") + "'";
+        }
+        if (v instanceof Number n) {
+            try {
+                return new BigDecimal(n.toString()).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return n.toString();
+            }
+        }
+        return v.getClass().getSimpleName() + ":" + v;
+    }
+}
@@ -0,0 +1,365 @@
+package com.xiahou.yu.paasdomincore.runtime.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.dto.DataOperationResult;
+import com.xiahou.yu.paasdomincore.design.registry.EntityRegistryManager;
+import com.xiahou.yu.paasinfracommon.context.RequestContextHolder;
+import com.xiahou.yu.paasmetacore.constant.ResultStatusEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 查询结果缓存
+ * - 键为 (租户, 实体, 代数, 查询指纹)，指纹见 {@link QueryFingerprint}，与条件 key 及条件顺序无关；
+ * - 写操作只递增 (租户, 实体) 的代数，旧代数的条目不再命中，随淘汰自然移除，失效为 O(1)；
+ * - 同时按条目数与权重（结果行数）限容，LRU 顺序选择淘汰候选，新条目的访问频率（Count-Min Sketch 估计）
+ *   不高于被淘汰条目时拒绝写入，避免一次性查询挤掉热点结果；
+ * - 过期时间按实体配置（{@link EntityRegistryManager#getCacheTtlSeconds}），未配置时使用全局默认值，0 表示不缓存；
+ * - 结果以 JSON 快照保存，写入时只序列化一次，每次命中反序列化出一份新的结果对象，调用方修改返回值不影响缓存；
+ *   命中时无法还原的条目被移除，其结果类型此后不再缓存；
+ * - 事务内的写操作立即使缓存失效，并在提交后再次失效，避免提交前被其他请求重新缓存的旧结果继续命中；
+ *   发生过写操作的事务内的查询结果不写入缓存。
+ * 失效只在本进程内生效，多实例部署或存在绕过执行器的写入时应关闭（paas.cache.query.enabled，默认关闭）。
+ *
+ * @author xiahou
+ */
+@Slf4j
+@Component
+public class QueryResultCache {
+
+    /** 上下文属性：查询前计算的缓存键，查询完成后按此键写入，保证写入的代数不晚于查询开始时 */
+    public static final String KEY_ATTRIBUTE = "queryCacheKey";
+
+    /** 缓存统计 */
+    public record Stats(long hits, long misses, long puts, long rejections, long evictions,
+                        long expirations, long invalidations, int size, long weight) {}
+
+    private record Key(String tenant, String entity, long generation, String fingerprint) {}
+
+    /** 结果快照：状态字段与 data 的 JSON */
+    private record Snapshot(String requestId, String code, String message, ResultStatusEnum status,
+                            JavaType type, byte[] payload) {}
+
+    private record Entry(Snapshot value, int weight, long expiresAt, int frequencyHash) {}
+
+    /** 事务资源键：当前事务已执行过写操作 */
+    private final Object writeMarker = new Object();
+
+    private final EntityRegistryManager entityRegistryManager;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier clock;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long defaultTtlMillis;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    /** 反序列化失败过的结果类型，不再缓存 */
+    private final Set<JavaType> unrestorable = ConcurrentHashMap.newKeySet();
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public QueryResultCache(EntityRegistryManager entityRegistryManager, ObjectMapper objectMapper,
+                            @Value("${paas.cache.query.enabled:false}") boolean enabled,
+                            @Value("${paas.cache.query.max-entries:10000}") int maxEntries,
+                            @Value("${paas.cache.query.max-weight:200000}") long maxWeight,
+                            @Value("${paas.cache.query.default-ttl-seconds:300}") long defaultTtlSeconds) {
+        this(entityRegistryManager, objectMapper, enabled, maxEntries, maxWeight, defaultTtlSeconds,
+                System::currentTimeMillis);
+    }
+
+    QueryResultCache(EntityRegistryManager entityRegistryManager, ObjectMapper objectMapper, boolean enabled,
+                     int maxEntries, long maxWeight, long defaultTtlSeconds, LongSupplier clock) {
+        this.entityRegistryManager = entityRegistryManager;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.enabled = enabled && maxEntries > 0 && maxWeight > 0;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.defaultTtlMillis = defaultTtlSeconds * 1000L;
+        this.sketch = new FrequencySketch(this.maxEntries);
+    }
+
+    /**
+     * 查询缓存，未命中返回 null；同时把本次查询的缓存键记入上下文供 {@link #put} 使用
+     */
+    public DataOperationResult get(CommandContext context) {
+        if (!enabled || ttlMillis(context.getEntityName()) <= 0) {
+            return null;
+        }
+        Key key = key(context);
+        context.setAttribute(KEY_ATTRIBUTE, key);
+        long now = clock.getAsLong();
+        Snapshot snapshot = null;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            int frequencyHash = entry != null ? entry.frequencyHash() : frequencyHash(key);
+            sketch.increment(frequencyHash);
+            if (entry != null && entry.expiresAt() > now) {
+                snapshot = entry.value();
+            } else if (entry != null) {
+                remove(key, entry);
+                expirations.increment();
+            }
+        }
+        if (snapshot != null) {
+            DataOperationResult result = restore(snapshot);
+            if (result != null) {
+                hits.increment();
+                return result;
+            }
+            unrestorable.add(snapshot.type());
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.value() == snapshot) {
+                    remove(key, entry);
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 写入查询结果；结果为空、非成功或超过权重上限时不缓存
+     */
+    public void put(CommandContext context, DataOperationResult result) {
+        long ttl = ttlMillis(context.getEntityName());
+        if (!enabled || ttl <= 0 || result == null || result.getData() == null
+                || result.getStatus() != ResultStatusEnum.SUCCESS) {
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(writeMarker)) {
+            return; // 当前事务有未提交的写操作，查询结果可能包含未提交数据
+        }
+        Object attr = context.getAttribute(KEY_ATTRIBUTE);
+        Key key = attr instanceof Key k ? k : key(context);
+        if (key.generation() != generation(key.tenant(), key.entity()).get()) {
+            return; // 查询期间发生了写操作
+        }
+        int weight = weigh(result);
+        if (weight > maxWeight) {
+            rejections.increment();
+            return;
+        }
+        Snapshot snapshot = snapshot(result);
+        if (snapshot == null) {
+            rejections.increment();
+            return;
+        }
+        Entry entry = new Entry(snapshot, weight, clock.getAsLong() + ttl, frequencyHash(key));
+        synchronized (entries) {
+            Entry old = entries.remove(key);
+            if (old != null) {
+                totalWeight -= old.weight();
+            }
+            if (!makeRoom(entry)) {
+                rejections.increment();
+                return;
+            }
+            entries.put(key, entry);
+            totalWeight += weight;
+        }
+        puts.increment();
+    }
+
+    /**
+     * 使 (租户, 实体) 的全部缓存结果失效；处于事务中时提交后再失效一次
+     */
+    public void invalidate(String tenant, String entityName) {
+        AtomicLong generation = generation(tenant == null ? "" : tenant, entityName);
+        generation.incrementAndGet();
+        invalidations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!TransactionSynchronizationManager.hasResource(writeMarker)) {
+                TransactionSynchronizationManager.bindResource(writeMarker, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+                    }
+                });
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * 使当前上下文所属 (租户, 实体) 的全部缓存结果失效
+     */
+    public void invalidate(CommandContext context) {
+        invalidate(tenant(context), context.getEntityName());
+    }
+
+    /** 清空缓存 */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    /** 当前统计 */
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), puts.sum(), rejections.sum(), evictions.sum(),
+                    expirations.sum(), invalidations.sum(), entries.size(), totalWeight);
+        }
+    }
+
+    /**
+     * 按 LRU 顺序挑选淘汰候选直到容纳新条目；候选中存在仍有效且频率不低于新条目的条目时拒绝写入。
+     * 已过期或代数落后的候选总是可以淘汰。调用方持有锁。
+     */
+    private boolean makeRoom(Entry candidate) {
+        int needEntries = entries.size() + 1 - maxEntries;
+        long needWeight = totalWeight + candidate.weight() - maxWeight;
+        if (needEntries <= 0 && needWeight <= 0) {
+            return true;
+        }
+        int candidateFrequency = sketch.frequency(candidate.frequencyHash());
+        long now = clock.getAsLong();
+        List<Map.Entry<Key, Entry>> victims = new ArrayList<>();
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while ((needEntries > 0 || needWeight > 0) && it.hasNext()) {
+            Map.Entry<Key, Entry> victim = it.next();
+            boolean dead = victim.getValue().expiresAt() <= now || isStale(victim.getKey());
+            if (!dead && sketch.frequency(victim.getValue().frequencyHash()) >= candidateFrequency) {
+                return false;
+            }
+            victims.add(victim);
+            needEntries--;
+            needWeight -= victim.getValue().weight();
+        }
+        for (Map.Entry<Key, Entry> victim : victims) {
+            remove(victim.getKey(), victim.getValue());
+            evictions.increment();
+        }
+        return true;
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight();
+    }
+
+    private boolean isStale(Key key) {
+        AtomicLong current = generations.get(key.tenant() + '\u0000' + key.entity());
+        return current != null && current.get() != key.generation();
+    }
+
+    private Key key(CommandContext context) {
+        String tenant = tenant(context);
+        String entity = context.getEntityName();
+        return new Key(tenant, entity, generation(tenant, entity).get(), QueryFingerprint.of(context));
+    }
+
+    private AtomicLong generation(String tenant, String entityName) {
+        return generations.computeIfAbsent(tenant + '\u0000' + entityName, k -> new AtomicLong());
+    }
+
+    private long ttlMillis(String entityName) {
+        Long seconds = entityName == null ? null : entityRegistryManager.getCacheTtlSeconds(entityName);
+        return seconds == null ? defaultTtlMillis : seconds * 1000L;
+    }
+
+    /** 频率按 (租户, 实体, 指纹) 统计，不随代数变化 */
+    private static int frequencyHash(Key key) {
+        int h = key.tenant().hashCode();
+        h = 31 * h + String.valueOf(key.entity()).hashCode();
+        return 31 * h + key.fingerprint().hashCode();
+    }
+
+    /** 序列化结果，类型不可还原或序列化失败时返回 null（不缓存） */
+    private Snapshot snapshot(DataOperationResult result) {
+        Object data = result.getData();
+        JavaType type = typeOf(data);
+        if (type == null || unrestorable.contains(type)) {
+            return null;
+        }
+        try {
+            return new Snapshot(result.getRequestId(), result.getCode(), result.getMessage(),
+                    result.getStatus(), type, objectMapper.writeValueAsBytes(data));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Query result of type {} is not cacheable: {}", type, e.getMessage());
+            return null;
+        }
+    }
+
+    private DataOperationResult restore(Snapshot snapshot) {
+        try {
+            DataOperationResult result = new DataOperationResult(snapshot.status());
+            result.setRequestId(snapshot.requestId());
+            result.setCode(snapshot.code());
+            result.setMessage(snapshot.message());
+            result.setData(objectMapper.readValue(snapshot.payload(), snapshot.type()));
+            return result;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to restore cached query result: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** 单一元素类型的集合按元素类型还原，其余按 data 的运行时类型还原；元素类型不一致时返回 null */
+    private JavaType typeOf(Object data) {
+        if (!(data instanceof Collection<?> collection)) {
+            return objectMapper.constructType(data.getClass());
+        }
+        Class<?> elementType = null;
+        for (Object element : collection) {
+            if (element == null || (elementType != null && element.getClass() != elementType)) {
+                return null;
+            }
+            elementType = element.getClass();
+        }
+        return objectMapper.getTypeFactory().constructCollectionType(ArrayList.class,
+                elementType != null ? elementType : Object.class);
+    }
+
+    private static int weigh(DataOperationResult result) {
+        Object data = result.getData();
+        long rows = data instanceof Collection<?> c ? c.size() : 1;
+        return (int) Math.min(Integer.MAX_VALUE, rows + 1);
+    }
+
+    private static String tenant(CommandContext context) {
+        String tenant = context.getRequestContext() != null
+                ? context.getRequestContext().getTenantId()
+                : RequestContextHolder.getTenantId();
+        return tenant == null ? "" : tenant;
+    }
+}
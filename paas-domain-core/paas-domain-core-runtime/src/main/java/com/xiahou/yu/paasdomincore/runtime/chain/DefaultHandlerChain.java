@@ -7,7 +7,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 处理器链默认实现
@@ -25,26 +24,23 @@ public class DefaultHandlerChain implements HandlerChain {
     }
 
     public DefaultHandlerChain(List<Handler> handlers) {
-        this.handlers = handlers.stream()
-                .sorted((h1, h2) -> Integer.compare(h1.getOrder(), h2.getOrder()))
-                .collect(Collectors.toList());
+        this.handlers = new ArrayList<>(handlers);
+        this.handlers.sort((h1, h2) -> Integer.compare(h1.getOrder(), h2.getOrder()));
     }
 
     @Override
     public boolean proceed(CommandContext context) {
-        if (currentIndex >= handlers.size()) {
-            return true;
+        // 跳过不支持的处理器时循环前进，避免递归
+        while (currentIndex < handlers.size()) {
+            Handler handler = handlers.get(currentIndex);
+            currentIndex++;
+
+            if (handler.supports(context)) {
+                log.debug("Executing handler: {}", handler.getName());
+                return handler.handle(context, this);
+            }
         }
-
-        Handler handler = handlers.get(currentIndex);
-        currentIndex++;
-
-        if (!handler.supports(context)) {
-            return proceed(context);
-        }
-
-        log.debug("Executing handler: {}", handler.getName());
-        return handler.handle(context, this);
+        return true;
     }
 
     @Override
@@ -0,0 +1,128 @@
+package com.xiahou.yu.paasdomincore.runtime.chain;
+
+import com.xiahou.yu.paasdomincore.design.chain.Handler;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerSupport;
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 编译后的处理器管道
+ * 针对某个 (实体, 命令类型) 预先按优先级排序并剔除静态不适用的处理器，内容不可变，可被并发执行共享
+ *
+ * @author xiahou
+ */
+public final class HandlerPipeline {
+
+    private static final Comparator<Handler> BY_ORDER = Comparator.comparingInt(Handler::getOrder);
+
+    private final Handler[] handlers;
+
+    /**
+     * 对应下标的处理器是否需要在执行时调用 supports
+     */
+    private final boolean[] contextChecks;
+
+    private HandlerPipeline(Handler[] handlers, boolean[] contextChecks) {
+        this.handlers = handlers;
+        this.contextChecks = contextChecks;
+    }
+
+    /**
+     * 编译管道
+     * @param handlers 已注册的处理器
+     * @param entityName 实体名称
+     * @param commandType 命令类型
+     * @return 编译后的管道
+     */
+    public static HandlerPipeline compile(Iterable<Handler> handlers, String entityName, CommandType commandType) {
+        List<Handler> sorted = new ArrayList<>();
+        for (Handler handler : handlers) {
+            sorted.add(handler);
+        }
+        sorted.sort(BY_ORDER);
+
+        List<Handler> kept = new ArrayList<>(sorted.size());
+        List<Boolean> checks = new ArrayList<>(sorted.size());
+        for (Handler handler : sorted) {
+            HandlerSupport support = handler.staticSupport(entityName, commandType);
+            if (support == HandlerSupport.NEVER) {
+                continue;
+            }
+            kept.add(handler);
+            checks.add(support != HandlerSupport.ALWAYS);
+        }
+
+        boolean[] contextChecks = new boolean[kept.size()];
+        for (int i = 0; i < contextChecks.length; i++) {
+            contextChecks[i] = checks.get(i);
+        }
+        return new HandlerPipeline(kept.toArray(new Handler[0]), contextChecks);
+    }
+
+    /**
+     * 创建一次执行用的链条（仅分配一个游标对象）
+     */
+    public HandlerChain newChain() {
+        return new Cursor(this);
+    }
+
+    /**
+     * 管道中的处理器数量
+     */
+    public int size() {
+        return handlers.length;
+    }
+
+    /**
+     * 管道中的处理器名称（按执行顺序）
+     */
+    public List<String> handlerNames() {
+        List<String> names = new ArrayList<>(handlers.length);
+        for (Handler handler : handlers) {
+            names.add(handler.getName());
+        }
+        return names;
+    }
+
+    /**
+     * 管道执行游标：跳过不适用的处理器时循环前进而不是递归
+     */
+    private static final class Cursor implements HandlerChain {
+
+        private final HandlerPipeline pipeline;
+        private int currentIndex = 0;
+
+        Cursor(HandlerPipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        public boolean proceed(CommandContext context) {
+            Handler[] handlers = pipeline.handlers;
+            boolean[] contextChecks = pipeline.contextChecks;
+            while (currentIndex < handlers.length) {
+                int i = currentIndex++;
+                if (contextChecks[i] && !handlers[i].supports(context)) {
+                    continue;
+                }
+                return handlers[i].handle(context, this);
+            }
+            return true;
+        }
+
+        @Override
+        public HandlerChain addHandler(Handler handler) {
+            throw new UnsupportedOperationException("Compiled handler pipeline is immutable, register handlers via the executor");
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return currentIndex;
+        }
+    }
+}
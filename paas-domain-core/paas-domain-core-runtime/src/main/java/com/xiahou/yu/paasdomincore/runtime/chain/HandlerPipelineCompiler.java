@@ -0,0 +1,103 @@
+package com.xiahou.yu.paasdomincore.runtime.chain;
+
+import com.xiahou.yu.paasdomincore.design.chain.Handler;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 处理器管道编译器
+ * 按 (实体, 命令类型) 懒编译并缓存前置/后置管道，每个命令类型下按实体名 LRU 缓存，超出上限时淘汰最久未使用的管道；
+ * 处理器注册或移除时整体替换处理器快照，旧快照下编译的管道随之作废，执行中的请求继续使用旧管道直至结束
+ *
+ * @author xiahou
+ */
+public final class HandlerPipelineCompiler {
+
+    /** 每个命令类型下缓存的实体管道上限 */
+    static final int MAX_CACHED_ENTITIES = 1024;
+
+    /**
+     * 某一时刻的处理器快照及其编译结果
+     */
+    private record Generation(List<Handler> preHandlers, List<Handler> postHandlers,
+                              Map<CommandType, Map<String, HandlerPipeline>> prePipelines,
+                              Map<CommandType, Map<String, HandlerPipeline>> postPipelines) {
+
+        Generation(Collection<Handler> preHandlers, Collection<Handler> postHandlers) {
+            this(List.copyOf(preHandlers), List.copyOf(postHandlers), byCommandType(), byCommandType());
+        }
+
+        private static Map<CommandType, Map<String, HandlerPipeline>> byCommandType() {
+            Map<CommandType, Map<String, HandlerPipeline>> map = new EnumMap<>(CommandType.class);
+            for (CommandType type : CommandType.values()) {
+                map.put(type, Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, HandlerPipeline> eldest) {
+                        return size() > MAX_CACHED_ENTITIES;
+                    }
+                }));
+            }
+            return map;
+        }
+    }
+
+    private volatile Generation current = new Generation(List.of(), List.of());
+
+    /**
+     * 替换处理器快照，调用方需保证对同一编译器的更新串行执行
+     * @param preHandlers 前置处理器
+     * @param postHandlers 后置处理器
+     */
+    public void update(Collection<Handler> preHandlers, Collection<Handler> postHandlers) {
+        current = new Generation(preHandlers, postHandlers);
+    }
+
+    /**
+     * 获取前置管道
+     */
+    public HandlerPipeline pre(String entityName, CommandType commandType) {
+        Generation generation = current;
+        return lookup(generation.prePipelines(), generation.preHandlers(), entityName, commandType);
+    }
+
+    /**
+     * 获取后置管道
+     */
+    public HandlerPipeline post(String entityName, CommandType commandType) {
+        Generation generation = current;
+        return lookup(generation.postPipelines(), generation.postHandlers(), entityName, commandType);
+    }
+
+    /**
+     * 当前快照下缓存的前置与后置管道总数
+     */
+    public int cachedPipelines() {
+        Generation generation = current;
+        int count = 0;
+        for (CommandType type : CommandType.values()) {
+            count += generation.prePipelines().get(type).size() + generation.postPipelines().get(type).size();
+        }
+        return count;
+    }
+
+    private static HandlerPipeline lookup(Map<CommandType, Map<String, HandlerPipeline>> pipelines, List<Handler> handlers,
+                                          String entityName, CommandType commandType) {
+        // 按命令类型分桶、实体名为键，命中时不分配对象；空实体名归一为 ""
+        String entity = entityName == null ? "" : entityName;
+        Map<String, HandlerPipeline> bucket = pipelines.get(commandType);
+        HandlerPipeline pipeline = bucket.get(entity);
+        if (pipeline == null) {
+            // 在锁外编译，并发编译同一管道时结果相同，以先写入者为准
+            HandlerPipeline compiled = HandlerPipeline.compile(handlers, entityName, commandType);
+            HandlerPipeline existing = bucket.putIfAbsent(entity, compiled);
+            pipeline = existing != null ? existing : compiled;
+        }
+        return pipeline;
+    }
+}
@@ -7,12 +7,14 @@ import com.xiahou.yu.paasdomincore.design.command.CommandContext;
 import com.xiahou.yu.paasdomincore.design.command.CommandType;
 import com.xiahou.yu.paasdomincore.design.dto.DataOperationResult;
 import com.xiahou.yu.paasdomincore.design.executor.DataOperationExecutor;
-import com.xiahou.yu.paasdomincore.runtime.chain.DefaultHandlerChain;
+import com.xiahou.yu.paasdomincore.runtime.cache.QueryResultCache;
+import com.xiahou.yu.paasdomincore.runtime.chain.HandlerPipelineCompiler;
 import com.xiahou.yu.paasdomincore.runtime.strategy.DataOperationStrategy;
 import com.xiahou.yu.paasdomincore.runtime.strategy.impl.CreateOperationStrategy;
 import com.xiahou.yu.paasdomincore.runtime.strategy.impl.DeleteOperationStrategy;
 import com.xiahou.yu.paasdomincore.runtime.strategy.impl.QueryOperationStrategy;
 import com.xiahou.yu.paasdomincore.runtime.strategy.impl.UpdateOperationStrategy;
+import com.xiahou.yu.paasmetacore.constant.exception.PaaSException;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,8 +22,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -38,6 +38,10 @@ public class DefaultDataOperationExecutor implements DataOperationExecutor {
 
     private static final Map<String, Handler> PRE_HANDLERS = new ConcurrentHashMap<>();
     private static final Map<String, Handler> POST_HANDLERS = new ConcurrentHashMap<>();
+    /**
+     * 按 (实体, 命令类型) 编译好的前置/后置管道，处理器注册或移除时整体替换
+     */
+    private static final HandlerPipelineCompiler PIPELINES = new HandlerPipelineCompiler();
     private final Map<CommandType, DataOperationStrategy> strategies = new ConcurrentHashMap<>();
 
     private final ApplicationContext applicationContext;
@@ -45,6 +49,7 @@ public class DefaultDataOperationExecutor implements DataOperationExecutor {
     private final UpdateOperationStrategy updateOperationStrategy;
     private final DeleteOperationStrategy deleteOperationStrategy;
     private final QueryOperationStrategy queryOperationStrategy;
+    private final QueryResultCache queryResultCache;
 
     @PostConstruct
     private void initializeStrategies() {
@@ -67,34 +72,45 @@ public class DefaultDataOperationExecutor implements DataOperationExecutor {
         log.info("Executing {} operation for entity: {}.{}",
                 commandType, aggr, context.getEntityName());
 
+        // 管道按 commandType 编译，处理器依赖的 commandType 属性须与之一致，始终以本次执行的命令类型覆盖
+        context.setAttribute("commandType", commandType.name());
+
         try {
             // 1. 执行前置处理器链
-            HandlerChain preChain = createPreHandlerChain(context);
+            HandlerChain preChain = createPreHandlerChain(context, commandType);
             boolean preResult = preChain.proceed(context);
             if (!preResult) {
                 log.warn("Pre-processing failed, operation aborted");
                 return null;
             }
 
-            // 2. 执行核心业务逻辑
-            DataOperationStrategy strategy = strategies.get(commandType);
-            if (strategy == null) {
-                throw new UnsupportedOperationException("Unsupported command type: " + commandType);
+            // 2. 查询优先读取结果缓存，命中时跳过核心业务逻辑（后置处理器照常执行）
+            DataOperationResult result = commandType == CommandType.QUERY ? queryResultCache.get(context) : null;
+            if (result != null) {
+                context.setAttribute("fromCache", true);
+            } else {
+                // 执行核心业务逻辑
+                DataOperationStrategy strategy = strategies.get(commandType);
+                if (strategy == null) {
+                    throw new UnsupportedOperationException("Unsupported command type: " + commandType);
+                }
+                result = strategy.execute(context);
             }
 
-            DataOperationResult result =  strategy.execute(context);
-
             // 3. 将结果放入上下文以便后置处理器使用
             context.setAttribute("result", result);
 
             // 4. 执行后置处理器链
-            HandlerChain postChain = createPostHandlerChain(context);
+            HandlerChain postChain = createPostHandlerChain(context, commandType);
             boolean postResult = postChain.proceed(context);
             if (!postResult) {
                 log.warn("Post-processing failed, but operation completed");
             }
 
             return result;
+        } catch (PaaSException e) {
+            // 业务异常保留状态码，交由调用方转换为响应
+            throw e;
         } catch (Exception e) {
             log.error("Error executing {} operation", commandType, e);
             throw new RuntimeException("Operation execution failed", e);
@@ -104,7 +120,10 @@ public class DefaultDataOperationExecutor implements DataOperationExecutor {
     @Override
     public void registerPreHandler(String handlerName, Object handler) {
         if (handler instanceof Handler) {
-            PRE_HANDLERS.put(handlerName, (Handler) handler);
+            synchronized (PIPELINES) {
+                PRE_HANDLERS.put(handlerName, (Handler) handler);
+                recompilePipelines();
+            }
             log.info("Registered pre-handler: {}", handlerName);
         } else {
             throw new IllegalArgumentException("Handler must implement Handler interface");
@@ -114,7 +133,10 @@ public class DefaultDataOperationExecutor implements DataOperationExecutor {
     @Override
     public void registerPostHandler(String handlerName, Object handler) {
         if (handler instanceof Handler) {
-            POST_HANDLERS.put(handlerName, (Handler) handler);
+            synchronized (PIPELINES) {
+                POST_HANDLERS.put(handlerName, (Handler) handler);
+                recompilePipelines();
+            }
             log.info("Registered post-handler: {}", handlerName);
         } else {
             throw new IllegalArgumentException("Handler must implement Handler interface");
@@ -123,18 +145,26 @@ public class DefaultDataOperationExecutor implements DataOperationExecutor {
 
     @Override
     public void removeHandler(String handlerName) {
-        PRE_HANDLERS.remove(handlerName);
-        POST_HANDLERS.remove(handlerName);
+        synchronized (PIPELINES) {
+            PRE_HANDLERS.remove(handlerName);
+            POST_HANDLERS.remove(handlerName);
+            recompilePipelines();
+        }
         log.info("Removed handler: {}", handlerName);
     }
 
-    private HandlerChain createPreHandlerChain(CommandContext context) {
-        List<Handler> handlers = new ArrayList<>(PRE_HANDLERS.values());
-        return new DefaultHandlerChain(handlers);
+    /**
+     * 替换处理器快照，已编译的管道在下次使用时按新快照重新编译
+     */
+    private static void recompilePipelines() {
+        PIPELINES.update(PRE_HANDLERS.values(), POST_HANDLERS.values());
+    }
+
+    private HandlerChain createPreHandlerChain(CommandContext context, CommandType commandType) {
+        return PIPELINES.pre(context.getEntityName(), commandType).newChain();
     }
 
-    private HandlerChain createPostHandlerChain(CommandContext context) {
-        List<Handler> handlers = new ArrayList<>(POST_HANDLERS.values());
-        return new DefaultHandlerChain(handlers);
+    private HandlerChain createPostHandlerChain(CommandContext context, CommandType commandType) {
+        return PIPELINES.post(context.getEntityName(), commandType).newChain();
     }
 }
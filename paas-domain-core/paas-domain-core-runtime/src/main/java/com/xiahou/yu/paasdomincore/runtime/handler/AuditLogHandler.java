@@ -2,7 +2,9 @@ package com.xiahou.yu.paasdomincore.runtime.handler;
 
 import com.xiahou.yu.paasdomincore.design.chain.Handler;
 import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerSupport;
 import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -50,6 +52,11 @@ public class AuditLogHandler implements Handler {
         return true;
     }
 
+    @Override
+    public HandlerSupport staticSupport(String entityName, CommandType commandType) {
+        return HandlerSupport.ALWAYS;
+    }
+
     private void logOperationStart(CommandContext context, String operation) {
         String aggr = context.getAttribute("aggr");
         log.info("AUDIT_START: Operation={}, Entity={}.{}, User={}, Time={}",
@@ -3,7 +3,9 @@ package com.xiahou.yu.paasdomincore.runtime.handler;
 import com.xiahou.yu.paasdomincore.common.snowflake.SnowflakeIdGenerator;
 import com.xiahou.yu.paasdomincore.design.chain.Handler;
 import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerSupport;
 import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
 import com.xiahou.yu.paasdomincore.design.dto.DynamicDataObject;
 import com.xiahou.yu.paasmetacore.constant.ResultStatusEnum;
 import com.xiahou.yu.paasmetacore.constant.exception.PaaSException;
@@ -61,6 +63,12 @@ public class DataAutoFillHandler implements Handler {
         return "CREATE".equals(operation) || "UPDATE".equals(operation);
     }
 
+    @Override
+    public HandlerSupport staticSupport(String entityName, CommandType commandType) {
+        return commandType == CommandType.CREATE || commandType == CommandType.UPDATE
+                ? HandlerSupport.ALWAYS : HandlerSupport.NEVER;
+    }
+
     private void fillCreateFields(CommandContext context) {
         if (CollectionUtils.isEmpty(context.getRecords())) {
             log.error("No records found");
@@ -2,6 +2,7 @@ package com.xiahou.yu.paasdomincore.runtime.handler;
 
 import com.xiahou.yu.paasdomincore.design.chain.Handler;
 import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerSupport;
 import com.xiahou.yu.paasdomincore.design.command.CommandContext;
 import com.xiahou.yu.paasdomincore.design.command.CommandType;
 import lombok.extern.slf4j.Slf4j;
@@ -56,6 +57,12 @@ public class DataValidationHandler implements Handler {
                !CommandType.QUERY.name().equals(context.getAttribute("commandType"));
     }
 
+    @Override
+    public HandlerSupport staticSupport(String entityName, CommandType commandType) {
+        // 查询操作一律不适用，其余仍取决于是否携带记录
+        return commandType == CommandType.QUERY ? HandlerSupport.NEVER : HandlerSupport.CONTEXT;
+    }
+
     private boolean validateContext(CommandContext context) {
         String system = context.getRequestContext().getSystem();
         String module = context.getRequestContext().getModule();
@@ -0,0 +1,93 @@
+package com.xiahou.yu.paasdomincore.runtime.query;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.repository.BaseRepository;
+import com.xiahou.yu.paasdomincore.design.repository.RepositoryManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jdbc.core.convert.EntityRowMapper;
+import org.springframework.data.jdbc.core.convert.JdbcConverter;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 CommandContext 中的过滤、排序与分页条件查询标准实体
+ * 条件由 {@link FilterSqlCompiler} 编译为 SQL 在数据库端执行，不再加载整表后在内存中过滤。
+ * 实体不含一对一/一对多引用时直接映射结果行；否则先按条件查出主键，再由 Repository 加载完整聚合。
+ *
+ * @author xiahou
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class FilterQueryExecutor {
+
+    private final FilterSqlCompiler compiler;
+    private final RepositoryManager repositoryManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final RelationalMappingContext mappingContext;
+    private final JdbcConverter converter;
+
+    /**
+     * 查询实体
+     *
+     * @param entityName 实体名称
+     * @param context 命令上下文（filter/sort/page 均可为空）
+     * @return 实体列表
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> query(String entityName, CommandContext context) {
+        Class<T> entityType = (Class<T>) repositoryManager.getEntityClass(entityName);
+        RelationalPersistentEntity<T> entity =
+                (RelationalPersistentEntity<T>) mappingContext.getRequiredPersistentEntity(entityType);
+
+        if (!hasReferences(entity) || entity.getIdProperty() == null) {
+            FilterSqlCompiler.BoundQuery query = compiler.compile(
+                    entityType, context.getFilter(), context.getSort(), context.getPage(), false);
+            return jdbcTemplate.query(query.sql(), query.parameters(), new EntityRowMapper<>(entity, converter));
+        }
+
+        FilterSqlCompiler.BoundQuery query = compiler.compile(
+                entityType, context.getFilter(), context.getSort(), context.getPage(), true);
+        Class<?> idType = ClassUtils.resolvePrimitiveIfNecessary(entity.getRequiredIdProperty().getType());
+        List<?> ids = jdbcTemplate.query(query.sql(), query.parameters(), SingleColumnRowMapper.newInstance(idType));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        BaseRepository<T, Serializable> repository = repositoryManager.getRepository(entityName);
+        Map<Object, T> byId = new HashMap<>();
+        for (T loaded : repository.findAllById((List<Serializable>) (List<?>) ids)) {
+            byId.put(entity.getIdentifierAccessor(loaded).getIdentifier(), loaded);
+        }
+        // 保持 SQL 中的排序
+        List<T> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T loaded = byId.get(id);
+            if (loaded != null) {
+                result.add(loaded);
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasReferences(RelationalPersistentEntity<?> entity) {
+        for (RelationalPersistentProperty property : entity) {
+            if (property.isEntity() && !property.isEmbedded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,475 @@
+package com.xiahou.yu.paasdomincore.runtime.query;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import com.xiahou.yu.paasdomincore.design.filter.FilterExpressionParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.jdbc.core.convert.JdbcConverter;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter 到参数化 SQL 的编译器
+ * 将 {@link Filter}、排序与分页编译为单表查询语句，列名通过 Spring Data JDBC 映射上下文（即 JdbcRepositoryConfig 中的命名策略）解析。
+ * 编译结果按过滤器形状（连接方式、表达式、字段、操作符、右值类型、排序、是否分页）缓存（LRU），
+ * 形状相同的查询只重新绑定参数，不再重复解析字段与拼接 SQL。
+ * 过滤与排序中的未知字段均抛出 IllegalArgumentException。
+ * 分页大小为空时不分页；分页但未指定排序时按主键升序，保证各页稳定。
+ *
+ * @author xiahou
+ */
+@Slf4j
+@Component
+public class FilterSqlCompiler {
+
+    /** 语句缓存上限，超出后淘汰最久未使用的语句（形状数量通常远小于此值） */
+    static final int MAX_CACHED_STATEMENTS = 1024;
+
+    private final RelationalMappingContext mappingContext;
+    private final JdbcConverter converter;
+    private final IdentifierProcessing identifierProcessing;
+    private final Map<Shape, Statement> statements = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Shape, Statement> eldest) {
+                    return size() > MAX_CACHED_STATEMENTS;
+                }
+            });
+
+    public FilterSqlCompiler(RelationalMappingContext mappingContext, JdbcConverter converter, Dialect dialect) {
+        this.mappingContext = mappingContext;
+        this.converter = converter;
+        this.identifierProcessing = dialect.getIdentifierProcessing();
+    }
+
+    /**
+     * 编译后的查询：SQL 与本次绑定的参数
+     */
+    public record BoundQuery(String sql, MapSqlParameterSource parameters) {}
+
+    /**
+     * 编译查询
+     *
+     * @param entityType 实体类型
+     * @param filter 过滤条件，可为 null
+     * @param sort 排序，可为 null
+     * @param page 分页，为 null 或 pageSize 为 null 时不分页；pageNum 为空或小于 1 时取第一页
+     * @param idOnly 是否只查询主键列
+     * @return 参数化 SQL 与绑定参数
+     */
+    public BoundQuery compile(Class<?> entityType, Filter filter, CommandContext.Sort sort,
+                              CommandContext.Page page, boolean idOnly) {
+        Filter effective = filter != null ? filter : Filter.empty();
+        effective.validate();
+        Shape shape = Shape.of(entityType, effective, sort, page != null && page.getPageSize() != null, idOnly);
+        Statement statement = statements.get(shape);
+        if (statement == null) {
+            // 在锁外编译，并发编译同一形状时结果相同，以先写入者为准
+            Statement built = build(entityType, effective, sort, shape);
+            Statement existing = statements.putIfAbsent(shape, built);
+            statement = existing != null ? existing : built;
+            log.debug("Compiled filter statement for {}: {}", entityType.getSimpleName(), statement.sql());
+        }
+        return new BoundQuery(statement.sql(), bind(statement, effective, shape.paged() ? page : null));
+    }
+
+    /** 当前缓存的语句数量 */
+    public int cachedStatements() {
+        return statements.size();
+    }
+
+    // ---------------------------------------------------------------- 编译
+
+    private Statement build(Class<?> entityType, Filter filter, CommandContext.Sort sort, Shape shape) {
+        RelationalPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(entityType);
+        List<Filter.FilterItem> items = filter.getConditions();
+        Slot[] slots = new Slot[items.size()];
+        String[] predicates = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Filter.FilterItem item = items.get(i);
+            RelationalPersistentProperty property = resolveProperty(entity, item.getLeftField());
+            String column = property.getColumnName().toSql(identifierProcessing);
+            slots[i] = new Slot("p" + i, item.getOperator(), property, shape.items().get(i).value());
+            predicates[i] = predicate(entity, column, item, slots[i]);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (shape.idOnly()) {
+            sql.append(entity.getRequiredIdProperty().getColumnName().toSql(identifierProcessing));
+        } else {
+            sql.append('*');
+        }
+        sql.append(" FROM ").append(entity.getQualifiedTableName().toSql(identifierProcessing));
+
+        String where = where(filter, predicates);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(where);
+        }
+        String orderBy = orderBy(entity, sort);
+        if (orderBy.isEmpty() && shape.paged() && entity.getIdProperty() != null) {
+            orderBy = entity.getRequiredIdProperty().getColumnName().toSql(identifierProcessing) + " ASC";
+        }
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ").append(orderBy);
+        }
+        if (shape.paged()) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+        }
+        return new Statement(sql.toString(), slots);
+    }
+
+    private String predicate(RelationalPersistentEntity<?> entity, String column, Filter.FilterItem item, Slot slot) {
+        Filter.Operator op = item.getOperator();
+        String p = ":" + slot.param();
+        if (item.getRightType() == Filter.RightValueType.FIELD) {
+            String other = columnOf(entity, String.valueOf(item.getRightValue()));
+            return switch (op) {
+                case EQ -> column + " = " + other;
+                case NE -> column + " <> " + other;
+                case GT -> column + " > " + other;
+                case GTE -> column + " >= " + other;
+                case LT -> column + " < " + other;
+                case LTE -> column + " <= " + other;
+                default -> throw new IllegalArgumentException("Operator " + op + " does not support field reference");
+            };
+        }
+        if (slot.value() == ValueShape.NULL) {
+            return switch (op) {
+                case EQ, IS_NULL -> column + " IS NULL";
+                case NE, IS_NOT_NULL -> column + " IS NOT NULL";
+                default -> throw new IllegalArgumentException("Operator " + op + " requires a value: " + item.getLeftField());
+            };
+        }
+        return switch (op) {
+            case EQ -> column + " = " + p;
+            case NE -> column + " <> " + p;
+            case GT, AFTER_DAYS -> column + " > " + p;
+            case GTE -> column + " >= " + p;
+            case LT, BEFORE_DAYS -> column + " < " + p;
+            case LTE -> column + " <= " + p;
+            case IN -> slot.value() == ValueShape.EMPTY ? "1 = 0" : column + " IN (" + p + ")";
+            case NOT_IN -> slot.value() == ValueShape.EMPTY ? "1 = 1" : column + " NOT IN (" + p + ")";
+            case BETWEEN, WITHIN_DAYS -> column + " BETWEEN " + p + "_0 AND " + p + "_1";
+            case CONTAINS, STARTS_WITH, ENDS_WITH -> column + " LIKE " + p + " ESCAPE '\\'";
+            case NOT_CONTAINS -> column + " NOT LIKE " + p + " ESCAPE '\\'";
+            case IS_NULL -> column + " IS NULL";
+            case IS_NOT_NULL -> column + " IS NOT NULL";
+        };
+    }
+
+    private String where(Filter filter, String[] predicates) {
+        if (predicates.length == 0) {
+            return "";
+        }
+        if (filter.getConjunction() == Filter.ConjunctionType.ADVANCED
+                && filter.getExpression() != null && !filter.getExpression().isBlank()) {
+            Map<String, String> byKey = new HashMap<>();
+            List<Filter.FilterItem> items = filter.getConditions();
+            for (int i = 0; i < items.size(); i++) {
+                byKey.putIfAbsent(items.get(i).getKey(), predicates[i]);
+            }
+            return FilterExpressionParser.parse(filter.getExpression(),
+                    key -> {
+                        String predicate = byKey.get(key);
+                        if (predicate == null) {
+                            throw new IllegalArgumentException("Unknown condition key in filter expression: " + key);
+                        }
+                        return "(" + predicate + ")";
+                    },
+                    parts -> String.join(" AND ", parts),
+                    parts -> "(" + String.join(" OR ", parts) + ")");
+        }
+        String joiner = filter.getConjunction() == Filter.ConjunctionType.OR ? " OR " : " AND ";
+        return String.join(joiner, predicates);
+    }
+
+    private String orderBy(RelationalPersistentEntity<?> entity, CommandContext.Sort sort) {
+        if (sort == null) {
+            return "";
+        }
+        List<String> parts = new ArrayList<>();
+        for (Map.Entry<String, CommandContext.SortEnum> e : sort.getSortMapping().entrySet()) {
+            if (e.getKey() == null || e.getKey().isBlank()) {
+                throw new IllegalArgumentException("Sort field cannot be empty");
+            }
+            parts.add(columnOf(entity, e.getKey()) + (e.getValue() == CommandContext.SortEnum.DESC ? " DESC" : " ASC"));
+        }
+        return String.join(", ", parts);
+    }
+
+    /**
+     * 解析字段路径对应的列名
+     */
+    private String columnOf(RelationalPersistentEntity<?> root, String path) {
+        return resolveProperty(root, path).getColumnName().toSql(identifierProcessing);
+    }
+
+    /**
+     * 解析字段路径对应的属性，嵌套路径只支持 @Embedded 属性（嵌入实体的列名已带前缀）
+     */
+    private RelationalPersistentProperty resolveProperty(RelationalPersistentEntity<?> root, String path) {
+        RelationalPersistentEntity<?> current = root;
+        String[] parts = path.split("\\.");
+        for (int i = 0; i < parts.length - 1; i++) {
+            RelationalPersistentProperty property = requiredProperty(current, parts[i], path);
+            if (!property.isEmbedded()) {
+                throw new IllegalArgumentException("Nested field must go through an embedded property: " + path);
+            }
+            current = mappingContext.getRequiredPersistentEntity(property);
+        }
+        RelationalPersistentProperty leaf = requiredProperty(current, parts[parts.length - 1], path);
+        if (leaf.isEntity()) {
+            throw new IllegalArgumentException("Field is a reference, not a column: " + path);
+        }
+        return leaf;
+    }
+
+    private static RelationalPersistentProperty requiredProperty(RelationalPersistentEntity<?> entity, String name, String path) {
+        RelationalPersistentProperty property = entity.getPersistentProperty(name);
+        if (property == null) {
+            throw new IllegalArgumentException("Unknown field '" + path + "' for entity " + entity.getName());
+        }
+        return property;
+    }
+
+    // ---------------------------------------------------------------- 绑定
+
+    private MapSqlParameterSource bind(Statement statement, Filter filter, CommandContext.Page page) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<Filter.FilterItem> items = filter.getConditions();
+        Instant now = Instant.now();
+        for (int i = 0; i < items.size(); i++) {
+            Filter.FilterItem item = items.get(i);
+            Slot slot = statement.slots()[i];
+            if (item.getRightType() == Filter.RightValueType.FIELD || slot.value() != ValueShape.VALUE) {
+                continue;
+            }
+            Object value = rightValue(item);
+            String p = slot.param();
+            switch (slot.operator()) {
+                case IN, NOT_IN -> {
+                    List<Object> values = new ArrayList<>();
+                    for (Object v : asList(value)) {
+                        values.add(write(v, slot.property()));
+                    }
+                    params.addValue(p, values);
+                }
+                case BETWEEN -> {
+                    List<?> range = asList(value);
+                    if (range.size() != 2) {
+                        throw new IllegalArgumentException("BETWEEN requires exactly two values: " + item.getLeftField());
+                    }
+                    params.addValue(p + "_0", write(range.get(0), slot.property()));
+                    params.addValue(p + "_1", write(range.get(1), slot.property()));
+                }
+                case CONTAINS, NOT_CONTAINS -> params.addValue(p, "%" + escapeLike(value) + "%");
+                case STARTS_WITH -> params.addValue(p, escapeLike(value) + "%");
+                case ENDS_WITH -> params.addValue(p, "%" + escapeLike(value));
+                case BEFORE_DAYS -> params.addValue(p, daysFrom(now, value, -1, slot.property()));
+                case AFTER_DAYS -> params.addValue(p, daysFrom(now, value, 1, slot.property()));
+                case WITHIN_DAYS -> {
+                    params.addValue(p + "_0", daysFrom(now, value, -1, slot.property()));
+                    params.addValue(p + "_1", write(temporal(now, slot.property().getType()), slot.property()));
+                }
+                case IS_NULL, IS_NOT_NULL -> {
+                }
+                default -> params.addValue(p, write(value, slot.property()));
+            }
+        }
+        if (page != null) {
+            // Page 可能经全参构造器创建而绕过 setter 的默认值
+            int pageSize = page.getPageSize() < 1 ? CommandContext.Page.DEFAULT_PAGE_SIZE : page.getPageSize();
+            int pageNum = page.getPageNum() == null || page.getPageNum() < 1 ? 1 : page.getPageNum();
+            params.addValue("limit", pageSize);
+            params.addValue("offset", (long) (pageNum - 1) * pageSize);
+        }
+        return params;
+    }
+
+    private static Object rightValue(Filter.FilterItem item) {
+        if (item.getRightType() == null || item.getRightType() == Filter.RightValueType.VALUE) {
+            return item.getRightValue();
+        }
+        Object value = item.resolveRightValue(null);
+        if (value instanceof long[] range) {
+            return List.of(range[0], range[1]);
+        }
+        return value;
+    }
+
+    private Object daysFrom(Instant now, Object days, int sign, RelationalPersistentProperty property) {
+        long n = days instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(days).trim());
+        return write(temporal(now.plus(Duration.ofDays(sign * n)), property.getType()), property);
+    }
+
+    /**
+     * 将请求中的值转换为属性类型，再交给 JdbcConverter 转为列类型（如枚举转字符串）
+     */
+    private Object write(Object value, RelationalPersistentProperty property) {
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(property.getType());
+        Object typed = value;
+        if (value != null && !type.isInstance(value)) {
+            ConversionService conversions = converter.getConversionService();
+            if (isTemporal(type)) {
+                typed = temporal(toInstant(value), type);
+            } else if (conversions.canConvert(value.getClass(), type)) {
+                typed = conversions.convert(value, type);
+            }
+        }
+        return converter.writeValue(typed, TypeInformation.of(converter.getColumnType(property)));
+    }
+
+    private static boolean isTemporal(Class<?> type) {
+        return type == LocalDate.class || type == LocalDateTime.class || type == OffsetDateTime.class
+                || type == ZonedDateTime.class || type == Instant.class || Date.class.isAssignableFrom(type);
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Number number) {
+            return Instant.ofEpochMilli(number.longValue());
+        }
+        if (value instanceof Date date) {
+            return date.toInstant();
+        }
+        if (value instanceof LocalDate date) {
+            return date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        }
+        String text = String.valueOf(value).trim();
+        if (text.length() == 10) {
+            return LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        }
+        if (text.endsWith("Z") || text.matches(".*[+-]\\d{2}:\\d{2}$")) {
+            return OffsetDateTime.parse(text).toInstant();
+        }
+        return LocalDateTime.parse(text.replace(' ', 'T')).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * 按属性类型表示时间点；非时间类型按毫秒时间戳处理
+     */
+    private static Object temporal(Instant instant, Class<?> type) {
+        ZoneId zone = ZoneId.systemDefault();
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.ofInstant(instant, zone);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.ofInstant(instant, zone);
+        }
+        if (type == OffsetDateTime.class) {
+            return instant.atZone(zone).toOffsetDateTime();
+        }
+        if (type == ZonedDateTime.class) {
+            return instant.atZone(zone);
+        }
+        if (type == Instant.class) {
+            return instant;
+        }
+        if (Timestamp.class.isAssignableFrom(type)) {
+            return Timestamp.from(instant);
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return Date.from(instant);
+        }
+        return instant.toEpochMilli();
+    }
+
+    private static String escapeLike(Object value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static List<?> asList(Object value) {
+        if (value instanceof List<?> list) {
+            return list;
+        }
+        if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+        if (value instanceof Object[] array) {
+            return List.of(array);
+        }
+        if (value instanceof String text && text.contains(",")) {
+            return List.of(text.split("\\s*,\\s*"));
+        }
+        return List.of(value);
+    }
+
+    // ---------------------------------------------------------------- 形状
+
+    /** 右值形状：影响 SQL 结构的部分（NULL 编译为 IS NULL，空集合编译为恒真/恒假） */
+    private enum ValueShape { VALUE, NULL, EMPTY }
+
+    private record Slot(String param, Filter.Operator operator, RelationalPersistentProperty property, ValueShape value) {}
+
+    private record Statement(String sql, Slot[] slots) {}
+
+    private record ItemShape(String key, String field, Filter.Operator operator, Filter.RightValueType rightType,
+                             String rightField, ValueShape value) {}
+
+    private record Shape(Class<?> entityType, Filter.ConjunctionType conjunction, String expression,
+                         List<ItemShape> items, List<String> sort, boolean paged, boolean idOnly) {
+
+        static Shape of(Class<?> entityType, Filter filter, CommandContext.Sort sort, boolean paged, boolean idOnly) {
+            boolean advanced = filter.getConjunction() == Filter.ConjunctionType.ADVANCED;
+            List<ItemShape> items = new ArrayList<>(filter.getConditions().size());
+            for (Filter.FilterItem item : filter.getConditions()) {
+                boolean field = item.getRightType() == Filter.RightValueType.FIELD;
+                items.add(new ItemShape(
+                        advanced ? item.getKey() : null,
+                        item.getLeftField(),
+                        item.getOperator(),
+                        field ? Filter.RightValueType.FIELD : null,
+                        field ? String.valueOf(item.getRightValue()) : null,
+                        field ? ValueShape.VALUE : valueShape(item)));
+            }
+            List<String> order = new ArrayList<>();
+            if (sort != null) {
+                sort.getSortMapping().forEach((k, v) -> order.add(k + " " + v));
+            }
+            return new Shape(entityType, filter.getConjunction(), advanced ? filter.getExpression() : null,
+                    items, order, paged, idOnly);
+        }
+
+        private static ValueShape valueShape(Filter.FilterItem item) {
+            Filter.Operator op = item.getOperator();
+            if (op == Filter.Operator.IS_NULL || op == Filter.Operator.IS_NOT_NULL) {
+                return ValueShape.VALUE;
+            }
+            Object value = rightValue(item);
+            if (value == null) {
+                return ValueShape.NULL;
+            }
+            if ((op == Filter.Operator.IN || op == Filter.Operator.NOT_IN) && asList(value).isEmpty()) {
+                return ValueShape.EMPTY;
+            }
+            return ValueShape.VALUE;
+        }
+    }
+}
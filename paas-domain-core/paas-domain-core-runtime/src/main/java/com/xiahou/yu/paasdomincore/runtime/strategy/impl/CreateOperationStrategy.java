@@ -113,9 +113,10 @@ public class CreateOperationStrategy implements DataOperationStrategy, EntityExe
                     return new DataOperationResult(entities);
                 }
 
+                // 多条记录：转换后交由 RepositoryManager 批量写入（新建的 AbstractModel 实体走 JDBC 批量插入）
+                Class<?> entityClass = entityRegistryManager.getEntityClass(entityName);
                 for (DynamicDataObject record : records) {
                     // 将 Map 数据转换为对应的实体对象
-                    Class<?> entityClass = entityRegistryManager.getEntityClass(entityName);
                     Object entity = convertToEntity(entityName, record, entityClass);
                     if (entity != null) {
                         // 保存实体
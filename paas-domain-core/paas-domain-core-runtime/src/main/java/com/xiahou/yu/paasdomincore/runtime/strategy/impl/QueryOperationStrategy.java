@@ -2,10 +2,15 @@ package com.xiahou.yu.paasdomincore.runtime.strategy.impl;
 
 import com.xiahou.yu.paasdomincore.design.command.CommandContext;
 import com.xiahou.yu.paasdomincore.design.dto.DataOperationResult;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import com.xiahou.yu.paasdomincore.design.filter.FilterCompiler;
 import com.xiahou.yu.paasdomincore.design.registry.EntityRegistryManager;
 import com.xiahou.yu.paasdomincore.design.repository.RepositoryManager;
+import com.xiahou.yu.paasdomincore.runtime.query.FilterQueryExecutor;
 import com.xiahou.yu.paasdomincore.runtime.strategy.DataOperationStrategy;
 import com.xiahou.yu.paasdomincore.runtime.strategy.EntityExecutor;
+import com.xiahou.yu.paasmetacore.constant.ResultStatusEnum;
+import com.xiahou.yu.paasmetacore.constant.exception.PaaSException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +30,7 @@ public class QueryOperationStrategy implements DataOperationStrategy, EntityExec
 
     private final RepositoryManager repositoryManager;
     private final EntityRegistryManager entityRegistryManager;
+    private final FilterQueryExecutor filterQueryExecutor;
 
     @Override
     public EntityRegistryManager getEntityRegistryManager() {
@@ -45,12 +51,18 @@ public class QueryOperationStrategy implements DataOperationStrategy, EntityExec
 
         try {
             if (repositoryManager != null && repositoryManager.hasRepository(entityName)) {
-                // 查询元数据实体
+                // 查询元数据实体：整表加载，过滤条件编译为内存谓词判定
                 List<?> entities = repositoryManager.findAll(entityName);
+                Filter filter = context.getFilter();
+                if (filter != null && !filter.isEmpty()) {
+                    entities = FilterCompiler.compile(filter, repositoryManager.getEntityClass(entityName)).filter(entities);
+                }
                 return new DataOperationResult(entities);
             } else {
                 return new DataOperationResult();
             }
+        } catch (IllegalArgumentException e) {
+            throw invalidQuery(entityName, e);
         } catch (Exception e) {
             log.error("Error querying meta entity: {}", entityName, e);
             return new DataOperationResult();
@@ -64,19 +76,28 @@ public class QueryOperationStrategy implements DataOperationStrategy, EntityExec
 
         try {
             if (repositoryManager != null && repositoryManager.hasRepository(entityName)) {
-                // 根据过滤条件查询标准实体
-                // TODO: 使用 context.getFilter() 来构建查询条件
-                List<?> entities = repositoryManager.findAll(entityName);
+                // 过滤、排序与分页条件编译为 SQL 在数据库端执行
+                List<?> entities = filterQueryExecutor.query(entityName, context);
                 return new DataOperationResult(entities);
             } else {
                 return new DataOperationResult();
             }
+        } catch (IllegalArgumentException e) {
+            throw invalidQuery(entityName, e);
         } catch (Exception e) {
             log.error("Error querying standard entity: {}", entityName, e);
             return new DataOperationResult();
         }
     }
 
+    /**
+     * 过滤、排序中的未知字段等非法条件属于调用方错误，不能当作空结果返回
+     */
+    private static PaaSException invalidQuery(String entityName, IllegalArgumentException e) {
+        log.warn("Invalid query for entity {}: {}", entityName, e.getMessage());
+        return new PaaSException(ResultStatusEnum.PARAMS_NOT_MATCHES, e.getMessage(), e);
+    }
+
     @Override
     public DataOperationResult customEntityExecute(CommandContext context) {
         log.info("Executing CUSTOM entity QUERY for {}", context.getEntityName());
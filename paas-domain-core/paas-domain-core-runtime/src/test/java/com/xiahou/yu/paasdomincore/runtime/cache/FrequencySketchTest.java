@@ -0,0 +1,43 @@
+package com.xiahou.yu.paasdomincore.runtime.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 访问频率估计测试：计数、上限与衰减
+ */
+class FrequencySketchTest {
+
+    @Test
+    void testCountsAndCap() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+        assertEquals(5, sketch.frequency(42));
+        assertEquals(0, sketch.frequency(43));
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(42);
+        }
+        assertEquals(15, sketch.frequency(42));
+    }
+
+    @Test
+    void testAging() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(7);
+        }
+        // 16 个槽位，累计 160 次增加后整体减半；其他键的增加只会抬高估计值，下降只能来自减半
+        boolean halved = false;
+        int previous = sketch.frequency(7);
+        for (int i = 0; i < 200 && !halved; i++) {
+            sketch.increment(1_000 + i);
+            int current = sketch.frequency(7);
+            halved = current < previous;
+            previous = current;
+        }
+        assertTrue(halved);
+    }
+}
@@ -0,0 +1,64 @@
+package com.xiahou.yu.paasdomincore.runtime.cache;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 查询指纹测试：与条件顺序、条件 key、IN 值顺序及数值写法无关，排序与分页参与区分
+ */
+class QueryFingerprintTest {
+
+    @Test
+    void testOrderAndKeyIndependence() {
+        Filter a = Filter.empty().eq("k1", "name", "x").in("k2", "age", List.of(3, 1, 2, 2));
+        Filter b = Filter.empty().in("other", "age", List.of(1L, 2, new BigDecimal("3.00"))).eq("k9", "name", "x");
+        assertEquals(QueryFingerprint.filter(a), QueryFingerprint.filter(b));
+        assertEquals("and(age in [1,2,3],name eq 'x')", QueryFingerprint.filter(a));
+    }
+
+    @Test
+    void testDistinguishesValuesAndConjunctions() {
+        Filter and = Filter.empty().eq("k1", "name", "x").eq("k2", "age", 1);
+        Filter or = Filter.single("name", Filter.Operator.EQ, "x").or(Filter.single("age", Filter.Operator.EQ, 1));
+        assertNotEquals(QueryFingerprint.filter(and), QueryFingerprint.filter(or));
+        assertNotEquals(QueryFingerprint.filter(Filter.empty().eq("k", "age", 1)),
+                QueryFingerprint.filter(Filter.empty().eq("k", "age", "1")));
+        assertEquals("*", QueryFingerprint.filter(null));
+        assertEquals("*", QueryFingerprint.filter(Filter.empty()));
+    }
+
+    @Test
+    void testAdvancedExpressionIsCanonical() {
+        Filter a = Filter.empty().eq("k1", "a", 1).eq("k2", "b", 2).eq("k3", "c", 3);
+        a.setConjunction(Filter.ConjunctionType.ADVANCED);
+        a.setExpression("(k1 AND k2) OR k3");
+        Filter b = Filter.empty().eq("x3", "c", 3).eq("x2", "b", 2).eq("x1", "a", 1);
+        b.setConjunction(Filter.ConjunctionType.ADVANCED);
+        b.setExpression("x3 OR (x2 AND x1)");
+        assertEquals(QueryFingerprint.filter(a), QueryFingerprint.filter(b));
+
+        a.setExpression("k1 AND missing");
+        assertThrows(IllegalArgumentException.class, () -> QueryFingerprint.filter(a));
+    }
+
+    @Test
+    void testSortAndPageAreIncluded() {
+        CommandContext p1 = CommandContext.builder().entityName("User").page(new CommandContext.Page()).build();
+        CommandContext p2 = CommandContext.builder().entityName("User").page(new CommandContext.Page()).build();
+        p2.getPage().setPageNum(2);
+        assertNotEquals(QueryFingerprint.of(p1), QueryFingerprint.of(p2));
+
+        CommandContext s1 = CommandContext.builder().entityName("User").sort(new CommandContext.Sort()).build();
+        CommandContext s2 = CommandContext.builder().entityName("User").sort(new CommandContext.Sort()).build();
+        s1.getSort().setField("name");
+        s2.getSort().setField("name");
+        s2.getSort().setOrderBy(CommandContext.SortEnum.DESC);
+        assertNotEquals(QueryFingerprint.of(s1), QueryFingerprint.of(s2));
+    }
+}
@@ -0,0 +1,279 @@
+package com.xiahou.yu.paasdomincore.runtime.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.dto.DataOperationResult;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import com.xiahou.yu.paasdomincore.design.registry.EntityRegistryManager;
+import com.xiahou.yu.paasdomincore.design.registry.EntityTypeRegister;
+import com.xiahou.yu.paasinfracommon.utils.ObjectMapperUtils;
+import com.xiahou.yu.paasmetacore.constant.ResultStatusEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 查询结果缓存测试：命中、返回副本、写后失效、事务提交后失效、过期与准入
+ */
+class QueryResultCacheTest {
+
+    /** 可以序列化但无法反序列化（没有无参构造器）的结果类型 */
+    static class Opaque {
+        private final String name;
+
+        Opaque(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private EntityRegistryManager registry;
+    private QueryResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new EntityRegistryManager(new EntityTypeRegister());
+        cache = newCache(100, 10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        registry.setCacheTtlSeconds("User", null);
+    }
+
+    private QueryResultCache newCache(int maxEntries, long maxWeight) {
+        return new QueryResultCache(registry, ObjectMapperUtils.newObjectMapper(), true, maxEntries, maxWeight,
+                60, now::get);
+    }
+
+    private static CommandContext query(Filter filter) {
+        return CommandContext.builder().entityName("User").filter(filter).build();
+    }
+
+    private static DataOperationResult rows(String... names) {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (String name : names) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", name);
+            data.add(row);
+        }
+        return new DataOperationResult(data);
+    }
+
+    @Test
+    void testHitReturnsIndependentCopies() {
+        CommandContext first = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        assertNull(cache.get(first));
+        cache.put(first, rows("a", "b"));
+
+        DataOperationResult hit = cache.get(query(Filter.single("name", Filter.Operator.EQ, "a")));
+        assertNotNull(hit);
+        assertEquals(ResultStatusEnum.SUCCESS, hit.getStatus());
+        assertEquals(2, ((List<?>) hit.getData()).size());
+
+        // 修改返回结果不影响缓存
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> data = (List<Map<String, Object>>) hit.getData();
+        data.get(0).put("name", "changed");
+        data.clear();
+        DataOperationResult again = cache.get(query(Filter.single("name", Filter.Operator.EQ, "a")));
+        assertNotSame(hit, again);
+        assertEquals("a", ((List<Map<String, Object>>) again.getData()).get(0).get("name"));
+
+        QueryResultCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.puts());
+    }
+
+    @Test
+    void testPutSerializesOnceAndEachHitDeserializesOnce() throws Exception {
+        ObjectMapper mapper = spy(ObjectMapperUtils.newObjectMapper());
+        QueryResultCache spied = new QueryResultCache(registry, mapper, true, 100, 10_000, 60, now::get);
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        spied.get(context);
+        spied.put(context, rows("a", "b"));
+        verify(mapper, times(1)).writeValueAsBytes(any());
+        verify(mapper, never()).readValue(any(byte[].class), any(JavaType.class));
+
+        assertNotNull(spied.get(query(Filter.single("name", Filter.Operator.EQ, "a"))));
+        assertNotNull(spied.get(query(Filter.single("name", Filter.Operator.EQ, "a"))));
+        verify(mapper, times(2)).readValue(any(byte[].class), any(JavaType.class));
+    }
+
+    @Test
+    void testUnrestorableResultIsDroppedAndNotCachedAgain() {
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        cache.get(context);
+        cache.put(context, new DataOperationResult(List.of(new Opaque("a"))));
+        assertEquals(1, cache.stats().size());
+
+        CommandContext again = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        assertNull(cache.get(again));
+        assertEquals(0, cache.stats().size());
+        cache.put(again, new DataOperationResult(List.of(new Opaque("a"))));
+        assertEquals(0, cache.stats().size());
+        assertEquals(1, cache.stats().rejections());
+    }
+
+    @Test
+    void testEquivalentFiltersShareEntry() {
+        Filter a = Filter.single("name", Filter.Operator.EQ, "x")
+                .and(Filter.single("age", Filter.Operator.IN, List.of(3, 1, 2)));
+        Filter b = Filter.single("age", Filter.Operator.IN, List.of(1L, 2, 3.0))
+                .and(Filter.single("name", Filter.Operator.EQ, "x"));
+        CommandContext context = query(a);
+        cache.get(context);
+        cache.put(context, rows("x"));
+        assertNotNull(cache.get(query(b)));
+    }
+
+    @Test
+    void testInvalidateDropsEntityResults() {
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        cache.get(context);
+        cache.put(context, rows("a"));
+
+        cache.invalidate(CommandContext.builder().entityName("User").build());
+        assertNull(cache.get(query(Filter.single("name", Filter.Operator.EQ, "a"))));
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    void testPutAfterConcurrentWriteIsIgnored() {
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        cache.get(context);
+        cache.invalidate("", "User");
+        cache.put(context, rows("a"));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void testTransactionalWriteInvalidatesAgainAfterCommit() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate("", "User");
+
+        // 事务内写操作后的查询结果不写入缓存
+        CommandContext inTx = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        cache.get(inTx);
+        cache.put(inTx, rows("uncommitted"));
+        assertEquals(0, cache.stats().size());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // 提交前其他请求（其他线程）缓存的旧结果在提交后失效
+        Thread reader = new Thread(() -> {
+            CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+            cache.get(context);
+            cache.put(context, rows("stale"));
+        });
+        reader.start();
+        reader.join();
+        assertEquals(1, cache.stats().size());
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertNull(cache.get(query(Filter.single("name", Filter.Operator.EQ, "a"))));
+        assertFalse(TransactionSynchronizationManager.hasResource(cacheWriteMarker()));
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        registry.setCacheTtlSeconds("User", 10L);
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        cache.get(context);
+        cache.put(context, rows("a"));
+
+        now.addAndGet(9_999);
+        assertNotNull(cache.get(query(Filter.single("name", Filter.Operator.EQ, "a"))));
+        now.addAndGet(2);
+        assertNull(cache.get(query(Filter.single("name", Filter.Operator.EQ, "a"))));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void testZeroTtlAndDisabledCacheDoNotStore() {
+        registry.setCacheTtlSeconds("User", 0L);
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        assertNull(cache.get(context));
+        cache.put(context, rows("a"));
+        assertEquals(0, cache.stats().size());
+
+        registry.setCacheTtlSeconds("User", null);
+        QueryResultCache disabled = new QueryResultCache(registry, ObjectMapperUtils.newObjectMapper(), false,
+                100, 10_000, 60, now::get);
+        disabled.get(context);
+        disabled.put(context, rows("a"));
+        assertEquals(0, disabled.stats().size());
+    }
+
+    @Test
+    void testFailedAndEmptyResultsAreNotCached() {
+        CommandContext context = query(Filter.single("name", Filter.Operator.EQ, "a"));
+        cache.get(context);
+        cache.put(context, new DataOperationResult(ResultStatusEnum.SYSTEM_ERROR));
+        cache.put(context, new DataOperationResult());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void testHotEntrySurvivesOneOffQueries() {
+        QueryResultCache small = newCache(3, 10_000);
+        CommandContext hot = query(Filter.single("k", Filter.Operator.EQ, 1));
+        small.get(hot);
+        small.put(hot, rows("hot"));
+        for (int i = 0; i < 5; i++) {
+            small.get(query(Filter.single("k", Filter.Operator.EQ, 1)));
+        }
+        for (int i = 0; i < 20; i++) {
+            CommandContext once = query(Filter.single("k", Filter.Operator.EQ, 100 + i));
+            small.get(once);
+            small.put(once, rows("once"));
+        }
+        assertNotNull(small.get(query(Filter.single("k", Filter.Operator.EQ, 1))));
+        assertTrue(small.stats().size() <= 3);
+        assertTrue(small.stats().rejections() > 0);
+    }
+
+    @Test
+    void testWeightLimit() {
+        QueryResultCache small = newCache(100, 5);
+        CommandContext big = query(Filter.single("k", Filter.Operator.EQ, 1));
+        small.get(big);
+        small.put(big, rows("a", "b", "c", "d", "e"));
+        assertEquals(0, small.stats().size());
+        assertEquals(1, small.stats().rejections());
+    }
+
+    private Object cacheWriteMarker() {
+        try {
+            var field = QueryResultCache.class.getDeclaredField("writeMarker");
+            field.setAccessible(true);
+            return field.get(cache);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.xiahou.yu.paasdomincore.runtime.chain;
+
+import com.xiahou.yu.paasdomincore.design.chain.Handler;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerSupport;
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 处理器管道测试：按优先级排序、编译期裁剪、执行期 supports 判断与短路，以及编译器的缓存、快照替换与容量上限
+ */
+class HandlerPipelineTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    /**
+     * 记录调用顺序的测试处理器：只对指定实体适用（为 null 时对所有实体适用），只对 QUERY 做执行期判断
+     */
+    private class RecordingHandler implements Handler {
+
+        private final String name;
+        private final int order;
+        private final String entity;
+        private final boolean proceed;
+        int supportsCalls;
+
+        RecordingHandler(String name, int order, String entity, boolean proceed) {
+            this.name = name;
+            this.order = order;
+            this.entity = entity;
+            this.proceed = proceed;
+        }
+
+        @Override
+        public boolean handle(CommandContext context, HandlerChain chain) {
+            calls.add(name);
+            return proceed && chain.proceed(context);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public boolean supports(CommandContext context) {
+            supportsCalls++;
+            return !Boolean.TRUE.equals(context.getAttribute("skip-" + name));
+        }
+
+        @Override
+        public HandlerSupport staticSupport(String entityName, CommandType commandType) {
+            if (entity != null && !entity.equals(entityName)) {
+                return HandlerSupport.NEVER;
+            }
+            return commandType == CommandType.QUERY ? HandlerSupport.CONTEXT : HandlerSupport.ALWAYS;
+        }
+    }
+
+    private static CommandContext context(String entityName) {
+        return CommandContext.builder().entityName(entityName).build();
+    }
+
+    @Test
+    void testHandlersRunInOrderAndNeverHandlersArePruned() {
+        RecordingHandler audit = new RecordingHandler("audit", 30, null, true);
+        RecordingHandler auth = new RecordingHandler("auth", 10, null, true);
+        RecordingHandler orderOnly = new RecordingHandler("orderOnly", 20, "Order", true);
+        List<Handler> handlers = List.of(audit, auth, orderOnly);
+
+        HandlerPipeline user = HandlerPipeline.compile(handlers, "User", CommandType.CREATE);
+        assertEquals(List.of("auth", "audit"), user.handlerNames());
+        HandlerPipeline order = HandlerPipeline.compile(handlers, "Order", CommandType.CREATE);
+        assertEquals(List.of("auth", "orderOnly", "audit"), order.handlerNames());
+
+        assertTrue(order.newChain().proceed(context("Order")));
+        assertEquals(List.of("auth", "orderOnly", "audit"), calls);
+        // ALWAYS 的处理器执行时不再调用 supports
+        assertEquals(0, auth.supportsCalls + orderOnly.supportsCalls + audit.supportsCalls);
+    }
+
+    @Test
+    void testContextHandlersAreCheckedOnEachRun() {
+        RecordingHandler auth = new RecordingHandler("auth", 10, null, true);
+        RecordingHandler audit = new RecordingHandler("audit", 20, null, true);
+        HandlerPipeline pipeline = HandlerPipeline.compile(List.of(auth, audit), "User", CommandType.QUERY);
+
+        CommandContext context = context("User");
+        context.setAttribute("skip-auth", true);
+        assertTrue(pipeline.newChain().proceed(context));
+        assertEquals(List.of("audit"), calls);
+        assertEquals(1, auth.supportsCalls);
+
+        calls.clear();
+        assertTrue(pipeline.newChain().proceed(context("User")));
+        assertEquals(List.of("auth", "audit"), calls);
+        assertEquals(2, auth.supportsCalls);
+    }
+
+    @Test
+    void testHandlerReturningFalseStopsChain() {
+        HandlerPipeline pipeline = HandlerPipeline.compile(List.of(
+                new RecordingHandler("validate", 1, null, false),
+                new RecordingHandler("audit", 2, null, true)), "User", CommandType.UPDATE);
+        HandlerChain chain = pipeline.newChain();
+        assertFalse(chain.proceed(context("User")));
+        assertEquals(List.of("validate"), calls);
+        assertEquals(1, chain.getCurrentIndex());
+        assertThrows(UnsupportedOperationException.class, () -> chain.addHandler(new RecordingHandler("x", 0, null, true)));
+
+        assertTrue(HandlerPipeline.compile(List.of(), "User", CommandType.UPDATE).newChain().proceed(context("User")));
+    }
+
+    @Test
+    void testCompilerCachesPerEntityAndCommandType() {
+        HandlerPipelineCompiler compiler = new HandlerPipelineCompiler();
+        RecordingHandler auth = new RecordingHandler("auth", 10, null, true);
+        RecordingHandler orderOnly = new RecordingHandler("orderOnly", 20, "Order", true);
+        compiler.update(List.of(auth, orderOnly), List.of());
+
+        HandlerPipeline pre = compiler.pre("Order", CommandType.CREATE);
+        assertSame(pre, compiler.pre("Order", CommandType.CREATE));
+        assertNotSame(pre, compiler.pre("Order", CommandType.DELETE));
+        assertEquals(List.of("auth"), compiler.pre("User", CommandType.CREATE).handlerNames());
+        assertEquals(List.of("auth"), compiler.pre(null, CommandType.CREATE).handlerNames());
+        assertEquals(0, compiler.post("Order", CommandType.CREATE).size());
+        assertEquals(5, compiler.cachedPipelines());
+
+        // 替换快照后旧管道作废，重新编译
+        compiler.update(List.of(orderOnly), List.of(auth));
+        assertEquals(0, compiler.cachedPipelines());
+        assertEquals(List.of("orderOnly"), compiler.pre("Order", CommandType.CREATE).handlerNames());
+        assertEquals(List.of("auth"), compiler.post("Order", CommandType.CREATE).handlerNames());
+    }
+
+    @Test
+    void testCompilerEvictsLeastRecentlyUsedEntities() {
+        HandlerPipelineCompiler compiler = new HandlerPipelineCompiler();
+        compiler.update(List.of(new RecordingHandler("auth", 10, null, true)), List.of());
+        HandlerPipeline hot = compiler.pre("Hot", CommandType.QUERY);
+        for (int i = 0; i < HandlerPipelineCompiler.MAX_CACHED_ENTITIES * 2; i++) {
+            compiler.pre("Entity" + i, CommandType.QUERY);
+            // 持续使用的管道不会被淘汰
+            assertSame(hot, compiler.pre("Hot", CommandType.QUERY));
+        }
+        assertEquals(HandlerPipelineCompiler.MAX_CACHED_ENTITIES, compiler.cachedPipelines());
+    }
+}
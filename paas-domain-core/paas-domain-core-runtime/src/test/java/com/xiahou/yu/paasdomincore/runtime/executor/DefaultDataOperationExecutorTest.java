@@ -0,0 +1,68 @@
+package com.xiahou.yu.paasdomincore.runtime.executor;
+
+import com.xiahou.yu.paasdomincore.design.chain.Handler;
+import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.command.CommandType;
+import com.xiahou.yu.paasdomincore.runtime.cache.QueryResultCache;
+import com.xiahou.yu.paasdomincore.runtime.strategy.impl.CreateOperationStrategy;
+import com.xiahou.yu.paasdomincore.runtime.strategy.impl.DeleteOperationStrategy;
+import com.xiahou.yu.paasdomincore.runtime.strategy.impl.QueryOperationStrategy;
+import com.xiahou.yu.paasdomincore.runtime.strategy.impl.UpdateOperationStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 数据操作执行器测试：commandType 属性始终与本次执行的命令类型（即编译管道所用的类型）一致
+ */
+class DefaultDataOperationExecutorTest {
+
+    private final DefaultDataOperationExecutor executor = new DefaultDataOperationExecutor(
+            mock(ApplicationContext.class), mock(CreateOperationStrategy.class), mock(UpdateOperationStrategy.class),
+            mock(DeleteOperationStrategy.class), mock(QueryOperationStrategy.class), mock(QueryResultCache.class));
+
+    @Test
+    void testCommandTypeAttributeFollowsExecutedCommand() {
+        List<String> seen = new ArrayList<>();
+        Handler recorder = new Handler() {
+            @Override
+            public boolean handle(CommandContext context, HandlerChain chain) {
+                seen.add(context.getAttribute("commandType"));
+                // 中断链条，不进入核心业务逻辑
+                return false;
+            }
+
+            @Override
+            public String getName() {
+                return "commandTypeRecorder";
+            }
+
+            @Override
+            public int getOrder() {
+                return 0;
+            }
+
+            @Override
+            public boolean supports(CommandContext context) {
+                return true;
+            }
+        };
+        executor.registerPreHandler(recorder.getName(), recorder);
+        try {
+            CommandContext context = CommandContext.builder().entityName("User").build();
+            context.setAttribute("commandType", CommandType.CREATE.name());
+            assertNull(executor.execute(context, CommandType.QUERY));
+            assertNull(executor.execute(context, CommandType.DELETE));
+            assertEquals(List.of("QUERY", "DELETE"), seen);
+            assertEquals("DELETE", context.getAttribute("commandType"));
+        } finally {
+            executor.removeHandler(recorder.getName());
+        }
+    }
+}
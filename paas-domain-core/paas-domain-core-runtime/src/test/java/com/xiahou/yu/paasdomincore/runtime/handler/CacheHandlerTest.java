@@ -0,0 +1,70 @@
+package com.xiahou.yu.paasdomincore.runtime.handler;
+
+import com.xiahou.yu.paasdomincore.design.chain.HandlerChain;
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.dto.DataOperationResult;
+import com.xiahou.yu.paasdomincore.runtime.cache.QueryResultCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存处理器测试：查询写入、命中不重复写入、写操作失效、后续处理器失败时不处理
+ */
+class CacheHandlerTest {
+
+    private final QueryResultCache cache = mock(QueryResultCache.class);
+    private final CacheHandler handler = new CacheHandler(cache);
+
+    private static HandlerChain chain(boolean result) {
+        HandlerChain chain = mock(HandlerChain.class);
+        when(chain.proceed(any())).thenReturn(result);
+        return chain;
+    }
+
+    private static CommandContext context(String commandType) {
+        CommandContext context = CommandContext.builder().entityName("User").build();
+        context.setAttribute("commandType", commandType);
+        return context;
+    }
+
+    @Test
+    void testQueryResultIsStored() {
+        CommandContext context = context("QUERY");
+        DataOperationResult result = new DataOperationResult(List.of());
+        context.setAttribute("result", result);
+        assertTrue(handler.handle(context, chain(true)));
+        verify(cache).put(context, result);
+        verify(cache, never()).invalidate(any(CommandContext.class));
+    }
+
+    @Test
+    void testCacheHitIsNotStoredAgain() {
+        CommandContext context = context("QUERY");
+        context.setAttribute("result", new DataOperationResult(List.of()));
+        context.setAttribute("fromCache", true);
+        assertTrue(handler.handle(context, chain(true)));
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void testWritesInvalidate() {
+        for (String type : List.of("CREATE", "UPDATE", "DELETE")) {
+            CommandContext context = context(type);
+            assertTrue(handler.handle(context, chain(true)));
+            verify(cache).invalidate(context);
+        }
+        verify(cache, never()).put(any(), any());
+    }
+
+    @Test
+    void testNothingHappensWhenChainFails() {
+        CommandContext context = context("UPDATE");
+        assertFalse(handler.handle(context, chain(false)));
+        verifyNoInteractions(cache);
+    }
+}
@@ -0,0 +1,142 @@
+package com.xiahou.yu.paasdomincore.runtime.query;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import com.xiahou.yu.paasdomincore.design.repository.BaseRepository;
+import com.xiahou.yu.paasdomincore.design.repository.RepositoryManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.jdbc.core.convert.EntityRowMapper;
+import org.springframework.data.jdbc.core.convert.JdbcConverter;
+import org.springframework.data.jdbc.core.convert.MappingJdbcConverter;
+import org.springframework.data.jdbc.core.mapping.JdbcMappingContext;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 过滤查询执行器测试：无引用实体直接映射结果行，含引用实体按主键加载并保持 SQL 排序
+ */
+class FilterQueryExecutorTest {
+
+    @Table("plain_item")
+    static class PlainItem {
+        @Id
+        Long id;
+        String name;
+    }
+
+    @Table("invoice")
+    static class Invoice {
+        @Id
+        Long id;
+        String code;
+        InvoiceLine line;
+
+        Invoice(Long id) {
+            this.id = id;
+        }
+    }
+
+    @Table("invoice_line")
+    static class InvoiceLine {
+        String sku;
+    }
+
+    private final JdbcMappingContext mappingContext = new JdbcMappingContext();
+    private final JdbcConverter converter =
+            new MappingJdbcConverter(mappingContext, (identifier, path) -> List.of());
+    private final RepositoryManager repositoryManager = mock(RepositoryManager.class);
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final FilterQueryExecutor executor = new FilterQueryExecutor(
+            new FilterSqlCompiler(mappingContext, converter, PostgresDialect.INSTANCE),
+            repositoryManager, jdbcTemplate, mappingContext, converter);
+
+    private static CommandContext context(String entityName, Filter filter, CommandContext.Page page) {
+        CommandContext context = CommandContext.builder().entityName(entityName).filter(filter).build();
+        context.setPage(page);
+        return context;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPlainEntityIsMappedFromRows() {
+        doReturn(PlainItem.class).when(repositoryManager).getEntityClass("PlainItem");
+        PlainItem item = new PlainItem();
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(item));
+
+        List<PlainItem> result = executor.query("PlainItem",
+                context("PlainItem", Filter.single("name", Filter.Operator.EQ, "a"), new CommandContext.Page(2, 10)));
+
+        assertEquals(List.of(item), result);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).query(
+                eq("SELECT * FROM \"plain_item\" WHERE \"name\" = :p0"
+                        + " ORDER BY \"id\" ASC LIMIT :limit OFFSET :offset"),
+                params.capture(), any(EntityRowMapper.class));
+        assertEquals("a", params.getValue().getValue("p0"));
+        assertEquals(10, params.getValue().getValue("limit"));
+        assertEquals(10L, params.getValue().getValue("offset"));
+        verify(repositoryManager, never()).getRepository(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNullPageSizeReturnsAllRows() {
+        doReturn(PlainItem.class).when(repositoryManager).getEntityClass("PlainItem");
+        List<PlainItem> rows = List.of(new PlainItem(), new PlainItem());
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class))).thenReturn(rows);
+
+        List<PlainItem> result = executor.query("PlainItem",
+                context("PlainItem", null, new CommandContext.Page(null, null)));
+
+        assertEquals(rows, result);
+        verify(jdbcTemplate).query(eq("SELECT * FROM \"plain_item\""), any(SqlParameterSource.class),
+                any(EntityRowMapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAggregateIsLoadedByIdInSqlOrder() {
+        doReturn(Invoice.class).when(repositoryManager).getEntityClass("Invoice");
+        BaseRepository<Invoice, Serializable> repository = mock(BaseRepository.class);
+        doReturn(repository).when(repositoryManager).getRepository("Invoice");
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(3L, 1L, 2L));
+        // Repository 返回顺序与 SQL 不同，且 2 已被并发删除
+        when(repository.findAllById(any())).thenReturn(List.of(new Invoice(1L), new Invoice(3L)));
+
+        List<Invoice> result = executor.query("Invoice",
+                context("Invoice", Filter.single("code", Filter.Operator.STARTS_WITH, "INV"), null));
+
+        assertEquals(List.of(3L, 1L), result.stream().map(invoice -> invoice.id).toList());
+        verify(jdbcTemplate).query(eq("SELECT \"id\" FROM \"invoice\" WHERE \"code\" LIKE :p0 ESCAPE '\\'"),
+                any(SqlParameterSource.class), any(SingleColumnRowMapper.class));
+        verify(repository).findAllById(List.of(3L, 1L, 2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNoMatchingIdsSkipsRepository() {
+        doReturn(Invoice.class).when(repositoryManager).getEntityClass("Invoice");
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+
+        assertTrue(executor.query("Invoice", context("Invoice", null, null)).isEmpty());
+        verify(repositoryManager, never()).getRepository(anyString());
+    }
+}
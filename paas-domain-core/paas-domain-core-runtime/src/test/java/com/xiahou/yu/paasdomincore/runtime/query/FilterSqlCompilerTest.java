@@ -0,0 +1,201 @@
+package com.xiahou.yu.paasdomincore.runtime.query;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.filter.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.jdbc.core.convert.MappingJdbcConverter;
+import org.springframework.data.jdbc.core.mapping.JdbcMappingContext;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.mapping.Embedded;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Filter SQL 编译器测试：生成的 SQL、参数绑定、分页、未知字段校验与语句缓存
+ */
+class FilterSqlCompilerTest {
+
+    enum Status { NEW, PAID }
+
+    @Table("sample_order")
+    static class SampleOrder {
+        @Id
+        Long id;
+        Status status;
+        String title;
+        Integer amount;
+        Integer budget;
+        LocalDate orderDate;
+        @Embedded.Nullable(prefix = "ship_")
+        Address ship;
+    }
+
+    static class Address {
+        String city;
+    }
+
+    private final JdbcMappingContext mappingContext = new JdbcMappingContext();
+    private final FilterSqlCompiler compiler = new FilterSqlCompiler(mappingContext,
+            new MappingJdbcConverter(mappingContext, (identifier, path) -> List.of()), PostgresDialect.INSTANCE);
+
+    private FilterSqlCompiler.BoundQuery compile(Filter filter) {
+        return compiler.compile(SampleOrder.class, filter, null, null, false);
+    }
+
+    private static CommandContext.Sort sort(String field, CommandContext.SortEnum order) {
+        CommandContext.Sort sort = new CommandContext.Sort();
+        sort.setField(field);
+        sort.setOrderBy(order);
+        return sort;
+    }
+
+    @Test
+    void testComparisonsAndBinding() {
+        FilterSqlCompiler.BoundQuery query = compile(Filter.empty()
+                .eq("a", "status", "PAID")
+                .gt("b", "amount", "100")
+                .eq("c", "ship.city", "Hangzhou"));
+        assertEquals("SELECT * FROM \"sample_order\" WHERE \"status\" = :p0 AND \"amount\" > :p1"
+                + " AND \"ship_city\" = :p2", query.sql());
+        MapSqlParameterSource params = query.parameters();
+        assertEquals("PAID", params.getValue("p0"));
+        assertEquals(100, params.getValue("p1"));
+        assertEquals("Hangzhou", params.getValue("p2"));
+    }
+
+    @Test
+    void testCollectionsRangesAndLike() {
+        FilterSqlCompiler.BoundQuery query = compile(Filter.empty()
+                .in("a", "status", List.of(Status.NEW, "PAID"))
+                .between("b", "orderDate", "2024-01-01", LocalDate.of(2024, 3, 31))
+                .contains("c", "title", "50%_off"));
+        assertEquals("SELECT * FROM \"sample_order\" WHERE \"status\" IN (:p0)"
+                + " AND \"order_date\" BETWEEN :p1_0 AND :p1_1"
+                + " AND \"title\" LIKE :p2 ESCAPE '\\'", query.sql());
+        MapSqlParameterSource params = query.parameters();
+        assertEquals(List.of("NEW", "PAID"), params.getValue("p0"));
+        // 字符串先转为属性类型，再由 JdbcConverter 转为列类型
+        assertEquals(Timestamp.valueOf("2024-01-01 00:00:00"), params.getValue("p1_0"));
+        assertEquals(Timestamp.valueOf("2024-03-31 00:00:00"), params.getValue("p1_1"));
+        assertEquals("%50\\%\\_off%", params.getValue("p2"));
+    }
+
+    @Test
+    void testNullAndEmptyValues() {
+        FilterSqlCompiler.BoundQuery query = compile(Filter.empty()
+                .eq("a", "title", null)
+                .ne("b", "budget", null)
+                .in("c", "status", List.of())
+                .addCondition("d", "amount", Filter.Operator.NOT_IN, List.of())
+                .isNull("e", "orderDate"));
+        assertEquals("SELECT * FROM \"sample_order\" WHERE \"title\" IS NULL AND \"budget\" IS NOT NULL"
+                + " AND 1 = 0 AND 1 = 1 AND \"order_date\" IS NULL", query.sql());
+        assertEquals(0, query.parameters().getParameterNames().length);
+    }
+
+    @Test
+    void testFieldReferenceAndAdvancedExpression() {
+        Filter filter = Filter.empty()
+                .addCondition(Filter.FilterItem.fieldRef("a", "amount", "budget", Filter.Operator.GT))
+                .eq("b", "status", "NEW")
+                .eq("c", "title", "x");
+        filter.setConjunction(Filter.ConjunctionType.ADVANCED);
+        filter.setExpression("a and (b or c)");
+        FilterSqlCompiler.BoundQuery query = compile(filter);
+        assertEquals("SELECT * FROM \"sample_order\" WHERE (\"amount\" > \"budget\")"
+                + " AND ((\"status\" = :p1) OR (\"title\" = :p2))", query.sql());
+        assertFalse(query.parameters().hasValue("p0"));
+
+        filter.setConjunction(Filter.ConjunctionType.OR);
+        assertEquals("SELECT * FROM \"sample_order\" WHERE \"amount\" > \"budget\""
+                + " OR \"status\" = :p1 OR \"title\" = :p2", compile(filter).sql());
+    }
+
+    @Test
+    void testSortPagingAndIdOnly() {
+        CommandContext.Page page = new CommandContext.Page(3, 25);
+        FilterSqlCompiler.BoundQuery query = compiler.compile(SampleOrder.class,
+                Filter.single("status", Filter.Operator.EQ, "NEW"),
+                sort("orderDate", CommandContext.SortEnum.ASC), page, true);
+        assertEquals("SELECT \"id\" FROM \"sample_order\" WHERE \"status\" = :p0"
+                + " ORDER BY \"order_date\" ASC LIMIT :limit OFFSET :offset", query.sql());
+        assertEquals(25, query.parameters().getValue("limit"));
+        assertEquals(50L, query.parameters().getValue("offset"));
+
+        assertEquals("SELECT * FROM \"sample_order\" ORDER BY \"id\" DESC",
+                compiler.compile(SampleOrder.class, null, new CommandContext.Sort(), null, false).sql());
+    }
+
+    @Test
+    void testNullPageFieldsFromAllArgsConstructor() {
+        Filter filter = Filter.single("status", Filter.Operator.EQ, "NEW");
+        // 未传分页大小：与不分页一致，返回全部行
+        FilterSqlCompiler.BoundQuery unpaged = compiler.compile(SampleOrder.class, filter, null,
+                new CommandContext.Page(null, null), false);
+        assertEquals("SELECT * FROM \"sample_order\" WHERE \"status\" = :p0", unpaged.sql());
+        assertFalse(unpaged.parameters().hasValue("limit"));
+
+        // 只传分页大小：取第一页，未指定排序时按主键排序保证分页稳定
+        FilterSqlCompiler.BoundQuery firstPage = compiler.compile(SampleOrder.class, filter, null,
+                new CommandContext.Page(null, 10), false);
+        assertEquals("SELECT * FROM \"sample_order\" WHERE \"status\" = :p0"
+                + " ORDER BY \"id\" ASC LIMIT :limit OFFSET :offset", firstPage.sql());
+        assertEquals(10, firstPage.parameters().getValue("limit"));
+        assertEquals(0L, firstPage.parameters().getValue("offset"));
+
+        FilterSqlCompiler.BoundQuery invalid = compiler.compile(SampleOrder.class, filter, null,
+                new CommandContext.Page(0, 0), false);
+        assertEquals(CommandContext.Page.DEFAULT_PAGE_SIZE, invalid.parameters().getValue("limit"));
+        assertEquals(0L, invalid.parameters().getValue("offset"));
+    }
+
+    @Test
+    void testUnknownFieldsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> compile(Filter.single("missing", Filter.Operator.EQ, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile(Filter.single("ship.zip", Filter.Operator.EQ, 1)));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(SampleOrder.class, null,
+                sort("missing", CommandContext.SortEnum.ASC), null, false));
+        assertThrows(IllegalArgumentException.class, () -> compiler.compile(SampleOrder.class, null,
+                sort(" ", CommandContext.SortEnum.ASC), null, false));
+        assertEquals(0, compiler.cachedStatements());
+    }
+
+    @Test
+    void testSameShapeReusesStatementWithNewParameters() {
+        FilterSqlCompiler.BoundQuery first = compile(Filter.single("amount", Filter.Operator.LT, 10));
+        FilterSqlCompiler.BoundQuery second = compile(Filter.single("amount", Filter.Operator.LT, 20));
+        assertSame(first.sql(), second.sql());
+        assertEquals(10, first.parameters().getValue("p0"));
+        assertEquals(20, second.parameters().getValue("p0"));
+        assertEquals(1, compiler.cachedStatements());
+
+        // NULL 右值改变语句结构，属于不同形状
+        compile(Filter.single("amount", Filter.Operator.LT, 10).eq("n", "title", null));
+        compile(Filter.single("amount", Filter.Operator.LT, 10).eq("n", "title", "x"));
+        assertEquals(3, compiler.cachedStatements());
+    }
+
+    @Test
+    void testStatementCacheEvictsLeastRecentlyUsed() {
+        String hot = compile(Filter.single("amount", Filter.Operator.EQ, 0)).sql();
+        for (int i = 1; i <= FilterSqlCompiler.MAX_CACHED_STATEMENTS; i++) {
+            Filter filter = Filter.empty();
+            for (int j = 0; j < i; j++) {
+                filter.eq("k" + j, "amount", j);
+            }
+            compile(filter);
+            // 持续访问的语句不会被淘汰
+            assertSame(hot, compile(Filter.single("amount", Filter.Operator.EQ, i)).sql());
+        }
+        assertEquals(FilterSqlCompiler.MAX_CACHED_STATEMENTS, compiler.cachedStatements());
+    }
+}
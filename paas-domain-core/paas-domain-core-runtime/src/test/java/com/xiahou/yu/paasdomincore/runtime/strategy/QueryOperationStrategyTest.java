@@ -0,0 +1,49 @@
+package com.xiahou.yu.paasdomincore.runtime.strategy;
+
+import com.xiahou.yu.paasdomincore.design.command.CommandContext;
+import com.xiahou.yu.paasdomincore.design.registry.EntityRegistryManager;
+import com.xiahou.yu.paasdomincore.design.repository.RepositoryManager;
+import com.xiahou.yu.paasdomincore.runtime.query.FilterQueryExecutor;
+import com.xiahou.yu.paasdomincore.runtime.strategy.impl.QueryOperationStrategy;
+import com.xiahou.yu.paasmetacore.constant.ResultStatusEnum;
+import com.xiahou.yu.paasmetacore.constant.exception.PaaSException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 查询策略测试：非法查询条件以业务异常抛出，不再被当作空结果返回
+ */
+class QueryOperationStrategyTest {
+
+    private final RepositoryManager repositoryManager = mock(RepositoryManager.class);
+    private final FilterQueryExecutor filterQueryExecutor = mock(FilterQueryExecutor.class);
+    private final QueryOperationStrategy strategy = new QueryOperationStrategy(
+            repositoryManager, mock(EntityRegistryManager.class), filterQueryExecutor);
+
+    @Test
+    void testInvalidQuerySurfacesAsClientError() {
+        when(repositoryManager.hasRepository("User")).thenReturn(true);
+        when(filterQueryExecutor.query(eq("User"), any()))
+                .thenThrow(new IllegalArgumentException("Unknown field 'missing' for entity User"));
+        CommandContext context = CommandContext.builder().entityName("User").build();
+
+        PaaSException e = assertThrows(PaaSException.class, () -> strategy.systemEntityExecute(context));
+        assertEquals(ResultStatusEnum.PARAMS_NOT_MATCHES, e.getResultStatusEnum());
+        assertEquals("Unknown field 'missing' for entity User", e.getMessage());
+    }
+
+    @Test
+    void testRowsAreReturned() {
+        when(repositoryManager.hasRepository("User")).thenReturn(true);
+        doReturn(List.of("a", "b")).when(filterQueryExecutor).query(eq("User"), any());
+
+        assertEquals(List.of("a", "b"),
+                strategy.systemEntityExecute(CommandContext.builder().entityName("User").build()).getData());
+    }
+}
@@ -10,6 +10,7 @@ import com.xiahou.yu.paasdomincore.design.filter.Filter;
 import com.xiahou.yu.paasinfracommon.context.RequestContext;
 import com.xiahou.yu.paasinfracommon.context.RequestContextHolder;
 import com.xiahou.yu.paasmetacore.constant.ResultStatusEnum;
+import com.xiahou.yu.paasmetacore.constant.exception.PaaSException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -65,6 +66,9 @@ public class DynamicDataOperationAdapter {
             DataOperationResult result = dataOperationService.execute(queryContext, CommandType.QUERY);
             log.info("Dynamic query completed successfully: entity={}, requestId={}", entity, requestId);
             return result;
+        } catch (PaaSException e) {
+            log.warn("Dynamic query rejected: entity={}, requestId={}, message={}", entity, requestId, e.getMessage());
+            return failure(e);
         } catch (Exception e) {
             log.error("Error processing dynamic query: entity={}, requestId={}",
                      entity, requestId, e);
@@ -111,6 +115,10 @@ public class DynamicDataOperationAdapter {
 
             return result;
 
+        } catch (PaaSException e) {
+            log.warn("Dynamic operation rejected: entity={}, operation={}, requestId={}, message={}",
+                    entity, operation, requestId, e.getMessage());
+            return failure(e);
         } catch (Exception e) {
             log.error("Error processing dynamic operation: entity={}, operation={}, requestId={}",
                      entity, operation, requestId, e);
@@ -118,6 +126,15 @@ public class DynamicDataOperationAdapter {
         }
     }
 
+    /**
+     * 业务异常转换为带原状态码与消息的结果
+     */
+    private static DataOperationResult failure(PaaSException e) {
+        DataOperationResult result = new DataOperationResult(e.getResultStatusEnum());
+        result.setMessage(e.getMessage());
+        return result;
+    }
+
     private CommandType parseCommandType(String operation) {
         try {
             return CommandType.valueOf(operation.toUpperCase());
@@ -0,0 +1,91 @@
+package com.xiahou.yu.paaswebserver.controller;
+
+import com.xiahou.yu.stockindicatoranalyzer.dto.IntradayFeedStatus;
+import com.xiahou.yu.stockindicatoranalyzer.intraday.IntradayFeedService;
+import com.xiahou.yu.stockindicatoranalyzer.intraday.IntradaySignal;
+import com.xiahou.yu.stockindicatoranalyzer.intraday.IntradaySignalEngine;
+import com.xiahou.yu.stockindicatoranalyzer.intraday.MinuteBar;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/stocks/intraday")
+public class IntradayController {
+
+    /** SSE 连接超时（毫秒），客户端超时后需重连 */
+    private static final long SSE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final IntradayFeedService intradayFeedService;
+    private final IntradaySignalEngine intradaySignalEngine;
+
+    public IntradayController(IntradayFeedService intradayFeedService, IntradaySignalEngine intradaySignalEngine) {
+        this.intradayFeedService = intradayFeedService;
+        this.intradaySignalEngine = intradaySignalEngine;
+    }
+
+    /**
+     * 盘中信号订阅（SSE）：事件名为信号类型，data 为信号 JSON；codes 为空时订阅全市场
+     */
+    @GetMapping("/signals")
+    public SseEmitter subscribeSignals(@RequestParam(value = "codes", required = false) List<String> codes) {
+        Set<String> filter = codes == null || codes.isEmpty() ? null : new HashSet<>(codes);
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MILLIS);
+        Runnable unsubscribe = intradaySignalEngine.subscribe(signal -> {
+            if (filter != null && !filter.contains(signal.code())) return;
+            send(emitter, signal);
+        }, emitter::complete);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    /**
+     * 推送一批分钟线（JSON 数组），返回被接受的根数
+     */
+    @PostMapping("/bars")
+    public int ingestBars(@RequestBody List<MinuteBar> bars) {
+        return intradayFeedService.ingest(bars);
+    }
+
+    /**
+     * 启动分钟线数据源：source 为空时使用 indicator.intraday.source，
+     * 否则须为 indicator.intraday.allowed-sources 中配置的数据源串
+     */
+    @PostMapping("/feed/start")
+    public IntradayFeedStatus startFeed(@RequestParam(value = "source", required = false) String source) {
+        intradayFeedService.start(source);
+        return intradayFeedService.status();
+    }
+
+    @PostMapping("/feed/stop")
+    public IntradayFeedStatus stopFeed() {
+        intradayFeedService.stop();
+        return intradayFeedService.status();
+    }
+
+    @GetMapping("/feed/status")
+    public IntradayFeedStatus feedStatus() {
+        return intradayFeedService.status();
+    }
+
+    /** 在订阅方的发送线程上执行；发送失败时抛出异常，由引擎自动退订 */
+    private static void send(SseEmitter emitter, IntradaySignal signal) {
+        try {
+            emitter.send(SseEmitter.event().name(signal.type().name()).data(signal));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            throw new IllegalStateException(e);
+        }
+    }
+}
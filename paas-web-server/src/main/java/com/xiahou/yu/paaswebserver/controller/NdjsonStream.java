@@ -0,0 +1,154 @@
+package com.xiahou.yu.paaswebserver.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * NDJSON 流式输出：每行一个 JSON 帧 {"type": ..., "data": ...}。
+ * 帧类型：candidate（命中一条即输出）、summary（结束时输出结果条数与已输出帧数，不重复携带已输出的结果）、error（扫描异常）。
+ * 扫描在独立线程上执行，工作线程的命中结果只放入有界队列（满时等待，形成背压），由请求线程取出写入并按批 flush；
+ * 客户端断开时请求线程标记关闭，工作线程再次投递时抛出 CancellationException 中止扫描。
+ */
+final class NdjsonStream {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /** 待写出的 candidate 帧上限 */
+    static final int QUEUE_CAPACITY = 256;
+
+    private static final long POLL_MILLIS = 50L;
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean closed;
+    private volatile boolean done;
+    private volatile List<?> result;
+    private volatile Throwable failure;
+
+    private NdjsonStream() {
+    }
+
+    /**
+     * 构造流式响应：scan 接收当前流（用于输出 candidate 帧），返回值的条数作为 summary 帧的 count。
+     */
+    static ResponseEntity<StreamingResponseBody> response(ObjectMapper objectMapper, Function<NdjsonStream, List<?>> scan) {
+        StreamingResponseBody body = os -> {
+            NdjsonStream stream = new NdjsonStream();
+            Thread.ofVirtual().name("ndjson-scan").start(() -> stream.run(scan));
+            int streamed;
+            try {
+                streamed = stream.drain(os, objectMapper);
+            } catch (IOException e) {
+                stream.close();
+                throw e;
+            }
+            if (stream.failure instanceof RuntimeException e) {
+                write(os, objectMapper, "error", e.getMessage(), null);
+                return;
+            }
+            if (stream.failure instanceof Error e) {
+                throw e;
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", stream.result.size());
+            write(os, objectMapper, "summary", summary, streamed);
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /** 输出一条命中结果（可在扫描工作线程上调用） */
+    void candidate(Object data) {
+        try {
+            while (!queue.offer(data, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    throw new CancellationException("client disconnected");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted");
+        }
+        if (closed) {
+            throw new CancellationException("client disconnected");
+        }
+    }
+
+    private void run(Function<NdjsonStream, List<?>> scan) {
+        try {
+            result = scan.apply(this);
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            done = true;
+        }
+    }
+
+    private void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    /** 请求线程：写出队列中的 candidate 帧直到扫描结束且队列为空，返回写出的帧数 */
+    private int drain(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        List<Object> batch = new ArrayList<>(QUEUE_CAPACITY);
+        int streamed = 0;
+        while (true) {
+            // 先读 done：为 true 时不会再有新的投递，随后的 poll 为空即可结束
+            boolean finished = done;
+            Object first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new InterruptedIOException("interrupted while streaming");
+            }
+            if (first == null) {
+                if (finished) {
+                    return streamed;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch);
+            for (Object data : batch) {
+                writeFrame(out, objectMapper, "candidate", data, null);
+            }
+            out.flush();
+            streamed += batch.size();
+            batch.clear();
+        }
+    }
+
+    private static void write(OutputStream out, ObjectMapper objectMapper, String type, Object data, Integer streamed)
+            throws IOException {
+        writeFrame(out, objectMapper, type, data, streamed);
+        out.flush();
+    }
+
+    private static void writeFrame(OutputStream out, ObjectMapper objectMapper, String type, Object data, Integer streamed)
+            throws IOException {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        frame.put("data", data);
+        if (streamed != null) {
+            frame.put("streamed", streamed);
+        }
+        out.write(objectMapper.writeValueAsBytes(frame));
+        out.write('\n');
+    }
+}
@@ -1,39 +1,75 @@
 package com.xiahou.yu.paaswebserver.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xiahou.yu.paaswebserver.dto.PageResponse;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.BarMarket;
+import com.xiahou.yu.stockindicatoranalyzer.barstore.MappedBarStore;
+import com.xiahou.yu.stockindicatoranalyzer.cache.AnalysisResultCache;
 import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerNarrowResult;
 import com.xiahou.yu.stockindicatoranalyzer.dto.BollingerUpperChannelResult;
 import com.xiahou.yu.stockindicatoranalyzer.dto.MacdCrossResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.MacdSweepResult;
 import com.xiahou.yu.stockindicatoranalyzer.dto.VolumeCompareResult;
 import com.xiahou.yu.stockindicatoranalyzer.dto.VolumeUpResult;
+import com.xiahou.yu.stockindicatoranalyzer.entity.IndexesDailyData;
+import com.xiahou.yu.stockindicatoranalyzer.entity.IndustryIndexesDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksDailyData;
 import com.xiahou.yu.stockindicatoranalyzer.entity.StocksInfoMaster;
 import com.xiahou.yu.stockindicatoranalyzer.service.StockDataService;
-import com.xiahou.yu.stockindicatoranalyzer.service.BollingerAnalysisService;
 import com.xiahou.yu.stockindicatoranalyzer.service.VolumeAnalysisService;
 import com.xiahou.yu.stockindicatoranalyzer.service.VolumeUpAnalysisService;
 import com.xiahou.yu.stockindicatoranalyzer.service.IndicatorAugmentationService;
 import com.xiahou.yu.paaswebserver.service.DeepSeekAnalysisService;
 import com.xiahou.yu.stockindicatoranalyzer.service.MacdAnalysisService;
 import com.xiahou.yu.stockindicatoranalyzer.service.CombinedStrategyAnalysisService;
-import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineDTO;
+import com.xiahou.yu.stockindicatoranalyzer.dto.DailyLineColumns;
 import com.xiahou.yu.stockindicatoranalyzer.service.dtoanalysis.StockDtoAnalysisService;
 import com.xiahou.yu.stockindicatoranalyzer.service.StockScreeningService;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorMaterializationService;
+import com.xiahou.yu.stockindicatoranalyzer.materialize.IndicatorParamSet;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestRequest;
+import com.xiahou.yu.stockindicatoranalyzer.dto.BacktestResult;
+import com.xiahou.yu.stockindicatoranalyzer.dto.IngestionReport;
+import com.xiahou.yu.stockindicatoranalyzer.dto.RuleScreenRequest;
+import com.xiahou.yu.stockindicatoranalyzer.ingest.DailyBarIngestionService;
+import com.xiahou.yu.stockindicatoranalyzer.rule.RulePresets;
+import com.xiahou.yu.stockindicatoranalyzer.service.BacktestService;
+import com.xiahou.yu.stockindicatoranalyzer.service.CrossSectionalFactorService;
+import com.xiahou.yu.stockindicatoranalyzer.precompute.PrecomputeService;
+import com.xiahou.yu.stockindicatoranalyzer.precompute.StandardScans;
+import com.xiahou.yu.stockindicatoranalyzer.dto.PrecomputeReport;
+import com.xiahou.yu.stockindicatoranalyzer.dto.FactorRankResult;
+import com.xiahou.yu.stockindicatoranalyzer.service.RuleScreeningService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/stocks")
 public class StockDataController {
 
+    private static final String FORMAT_JSON = "json";
+    private static final String FORMAT_COLUMNAR = "columnar";
+    private static final String FORMAT_BINARY = "binary";
+    /** augment-dto/latest 单次返回的最大K线数 */
+    private static final int MAX_LATEST_LIMIT = 5000;
+
     private final StockDataService stockDataService;
-    private final BollingerAnalysisService bollingerAnalysisService;
     private final VolumeAnalysisService volumeAnalysisService;
     private final VolumeUpAnalysisService volumeUpAnalysisService;
     private final IndicatorAugmentationService indicatorAugmentationService;
@@ -42,10 +78,19 @@ public class StockDataController {
     private final CombinedStrategyAnalysisService combinedStrategyAnalysisService;
     private final StockDtoAnalysisService stockDtoAnalysisService;
     private final StockScreeningService stockScreeningService;
+    private final IndicatorMaterializationService indicatorMaterializationService;
+    private final AnalysisResultCache analysisResultCache;
+    private final MappedBarStore mappedBarStore;
+    private final RuleScreeningService ruleScreeningService;
+    private final BacktestService backtestService;
+    private final DailyBarIngestionService dailyBarIngestionService;
+    private final CrossSectionalFactorService crossSectionalFactorService;
+    private final StandardScans standardScans;
+    private final PrecomputeService precomputeService;
+    private final ObjectMapper objectMapper;
 
-    public StockDataController(StockDataService stockDataService, BollingerAnalysisService bollingerAnalysisService, VolumeAnalysisService volumeAnalysisService, VolumeUpAnalysisService volumeUpAnalysisService, IndicatorAugmentationService indicatorAugmentationService, DeepSeekAnalysisService deepSeekAnalysisService, MacdAnalysisService macdAnalysisService, CombinedStrategyAnalysisService combinedStrategyAnalysisService, StockDtoAnalysisService stockDtoAnalysisService, StockScreeningService stockScreeningService) {
+    public StockDataController(StockDataService stockDataService, VolumeAnalysisService volumeAnalysisService, VolumeUpAnalysisService volumeUpAnalysisService, IndicatorAugmentationService indicatorAugmentationService, DeepSeekAnalysisService deepSeekAnalysisService, MacdAnalysisService macdAnalysisService, CombinedStrategyAnalysisService combinedStrategyAnalysisService, StockDtoAnalysisService stockDtoAnalysisService, StockScreeningService stockScreeningService, IndicatorMaterializationService indicatorMaterializationService, AnalysisResultCache analysisResultCache, MappedBarStore mappedBarStore, RuleScreeningService ruleScreeningService, BacktestService backtestService, DailyBarIngestionService dailyBarIngestionService, CrossSectionalFactorService crossSectionalFactorService, StandardScans standardScans, PrecomputeService precomputeService, ObjectMapper objectMapper) {
         this.stockDataService = stockDataService;
-        this.bollingerAnalysisService = bollingerAnalysisService;
         this.volumeAnalysisService = volumeAnalysisService;
         this.volumeUpAnalysisService = volumeUpAnalysisService;
         this.indicatorAugmentationService = indicatorAugmentationService;
@@ -54,6 +99,16 @@ public class StockDataController {
         this.combinedStrategyAnalysisService = combinedStrategyAnalysisService;
         this.stockDtoAnalysisService = stockDtoAnalysisService;
         this.stockScreeningService = stockScreeningService;
+        this.indicatorMaterializationService = indicatorMaterializationService;
+        this.analysisResultCache = analysisResultCache;
+        this.mappedBarStore = mappedBarStore;
+        this.ruleScreeningService = ruleScreeningService;
+        this.backtestService = backtestService;
+        this.dailyBarIngestionService = dailyBarIngestionService;
+        this.crossSectionalFactorService = crossSectionalFactorService;
+        this.standardScans = standardScans;
+        this.precomputeService = precomputeService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -148,7 +203,7 @@ public class StockDataController {
             @RequestParam(value = "threshold", required = false, defaultValue = "0.04") double threshold,
             @RequestParam(value = "allowedExceedDays", required = false, defaultValue = "0") int allowedExceedDays
     ) {
-        return bollingerAnalysisService.findNarrowChannelStocks(lookbackDays, period, k, threshold, allowedExceedDays);
+        return standardScans.bollingerNarrow(lookbackDays, period, k, threshold, allowedExceedDays);
     }
 
     /**
@@ -161,7 +216,8 @@ public class StockDataController {
             @RequestParam(value = "recentDays") int recentDays,
             @RequestParam(value = "previousDays") int previousDays
     ) {
-        return volumeAnalysisService.findStocksByVolumeSurge(recentDays, previousDays);
+        return analysisResultCache.get("volume.surge", List.of(recentDays, previousDays),
+                () -> volumeAnalysisService.findStocksByVolumeSurge(recentDays, previousDays));
     }
 
     /**
@@ -174,7 +230,8 @@ public class StockDataController {
             @RequestParam(value = "recentDays") int recentDays,
             @RequestParam(value = "previousDays") int previousDays
     ) {
-        return volumeAnalysisService.findVolumeSurgeDetails(recentDays, previousDays);
+        return analysisResultCache.get("volume.surge.details", List.of(recentDays, previousDays),
+                () -> volumeAnalysisService.findVolumeSurgeDetails(recentDays, previousDays));
     }
 
     /**
@@ -191,7 +248,8 @@ public class StockDataController {
             @RequestParam(value = "volumeRatioThreshold", required = false, defaultValue = "1.5") double volumeRatioThreshold,
             @RequestParam(value = "minPriceChangePercent", required = false, defaultValue = "0.5") double minPriceChangePercent
     ) {
-        return volumeUpAnalysisService.findVolumeUpStockCodes(lookbackDays, volumePeriod, volumeRatioThreshold, minPriceChangePercent);
+        return analysisResultCache.get("volume-up", List.of(lookbackDays, volumePeriod, volumeRatioThreshold, minPriceChangePercent),
+                () -> volumeUpAnalysisService.findVolumeUpStockCodes(lookbackDays, volumePeriod, volumeRatioThreshold, minPriceChangePercent));
     }
 
     /**
@@ -208,7 +266,8 @@ public class StockDataController {
             @RequestParam(value = "volumeRatioThreshold", required = false, defaultValue = "1.5") double volumeRatioThreshold,
             @RequestParam(value = "minPriceChangePercent", required = false, defaultValue = "0.5") double minPriceChangePercent
     ) {
-        return volumeUpAnalysisService.findVolumeUpDetails(lookbackDays, volumePeriod, volumeRatioThreshold, minPriceChangePercent);
+        return analysisResultCache.get("volume-up.details", List.of(lookbackDays, volumePeriod, volumeRatioThreshold, minPriceChangePercent),
+                () -> volumeUpAnalysisService.findVolumeUpDetails(lookbackDays, volumePeriod, volumeRatioThreshold, minPriceChangePercent));
     }
 
     /**
@@ -225,7 +284,7 @@ public class StockDataController {
             @RequestParam(value = "k", required = false, defaultValue = "2.0") double k,
             @RequestParam(value = "allowedExceedDays", required = false, defaultValue = "0") int allowedExceedDays
     ) {
-        return bollingerAnalysisService.findUpperChannelStockCodes(lookbackDays, period, k, allowedExceedDays);
+        return standardScans.bollingerUpperChannel(lookbackDays, period, k, allowedExceedDays);
     }
 
     /**
@@ -242,30 +301,69 @@ public class StockDataController {
             @RequestParam(value = "k", required = false, defaultValue = "2.0") double k,
             @RequestParam(value = "allowedExceedDays", required = false, defaultValue = "0") int allowedExceedDays
     ) {
-        return bollingerAnalysisService.findUpperChannelDetails(lookbackDays, period, k, allowedExceedDays);
+        return standardScans.bollingerUpperChannelDetails(lookbackDays, period, k, allowedExceedDays);
     }
 
+    /**
+     * format：json（默认，DailyLineDTO 列表）、columnar（每个字段一个 JSON 数组）、binary（小端 double 流，见 DailyLineColumns#writeBinary）
+     */
     @GetMapping("/analysis/indicators/augment-dto")
-    public List<DailyLineDTO> augmentIndicatorsDto(
+    public ResponseEntity<?> augmentIndicatorsDto(
             @RequestParam("stockCode") String stockCode,
             @RequestParam("start") String start,
             @RequestParam("end") String end,
             @RequestParam(value = "period", required = false, defaultValue = "20") int period,
-            @RequestParam(value = "k", required = false, defaultValue = "2.0") double k
+            @RequestParam(value = "k", required = false, defaultValue = "2.0") double k,
+            @RequestParam(value = "format", required = false, defaultValue = FORMAT_JSON) String format
     ) {
+        if (!isSupportedFormat(format)) {
+            return unsupportedFormat(format);
+        }
         LocalDate startDate = LocalDate.parse(start);
         LocalDate endDate = LocalDate.parse(end);
-        return stockDtoAnalysisService.augmentByCodeBetween(stockCode, startDate, endDate, period, k);
+        if (FORMAT_JSON.equalsIgnoreCase(format)) {
+            return ResponseEntity.ok(stockDtoAnalysisService.augmentByCodeBetween(stockCode, startDate, endDate, period, k));
+        }
+        return columnarResponse(stockDtoAnalysisService.augmentColumnsBetween(stockCode, startDate, endDate, period, k), format);
     }
 
     @GetMapping("/analysis/indicators/augment-dto/latest")
-    public List<DailyLineDTO> augmentIndicatorsDtoLatest(
+    public ResponseEntity<?> augmentIndicatorsDtoLatest(
             @RequestParam("stockCode") String stockCode,
             @RequestParam(value = "limit", required = false, defaultValue = "60") int limit,
             @RequestParam(value = "period", required = false, defaultValue = "20") int period,
-            @RequestParam(value = "k", required = false, defaultValue = "2.0") double k
+            @RequestParam(value = "k", required = false, defaultValue = "2.0") double k,
+            @RequestParam(value = "format", required = false, defaultValue = FORMAT_JSON) String format
     ) {
-        return stockDtoAnalysisService.augmentLatest(stockCode, limit, period, k);
+        if (!isSupportedFormat(format)) {
+            return unsupportedFormat(format);
+        }
+        int bars = Math.max(1, Math.min(limit, MAX_LATEST_LIMIT));
+        if (FORMAT_JSON.equalsIgnoreCase(format)) {
+            return ResponseEntity.ok(stockDtoAnalysisService.augmentLatest(stockCode, bars, period, k));
+        }
+        return columnarResponse(stockDtoAnalysisService.augmentColumnsLatest(stockCode, bars, period, k), format);
+    }
+
+    private static boolean isSupportedFormat(String format) {
+        return FORMAT_JSON.equalsIgnoreCase(format) || FORMAT_COLUMNAR.equalsIgnoreCase(format)
+                || FORMAT_BINARY.equalsIgnoreCase(format);
+    }
+
+    private static ResponseEntity<?> unsupportedFormat(String format) {
+        return ResponseEntity.badRequest().body("不支持的 format：" + format + "（可选 json/columnar/binary）");
+    }
+
+    /** format 已由调用方校验为 columnar 或 binary */
+    private ResponseEntity<?> columnarResponse(DailyLineColumns columns, String format) {
+        if (FORMAT_COLUMNAR.equalsIgnoreCase(format)) {
+            return ResponseEntity.ok(columns);
+        }
+        StreamingResponseBody body = columns::writeBinary;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(columns.binarySize())
+                .body(body);
     }
 
     @GetMapping("/analysis/indicators/augment")
@@ -281,6 +379,64 @@ public class StockDataController {
         return indicatorAugmentationService.augment(stockCode, startDate, endDate, period, k);
     }
 
+    /**
+     * 指标物化：按参数组计算全市场（或指定股票）全部交易日的指标并写入 stocks_daily_indicators，返回写入行数
+     */
+    @PostMapping("/analysis/indicators/materialize")
+    public long materializeIndicators(
+            @RequestParam(value = "stockCode", required = false) String stockCode,
+            @RequestParam(value = "period", required = false, defaultValue = "20") int period,
+            @RequestParam(value = "k", required = false, defaultValue = "2.0") double k,
+            @RequestParam(value = "macdShort", required = false, defaultValue = "12") int macdShort,
+            @RequestParam(value = "macdLong", required = false, defaultValue = "26") int macdLong,
+            @RequestParam(value = "macdSignal", required = false, defaultValue = "9") int macdSignal
+    ) {
+        IndicatorParamSet paramSet = new IndicatorParamSet(period, k, macdShort, macdLong, macdSignal);
+        if (stockCode != null && !stockCode.isEmpty()) {
+            return indicatorMaterializationService.materialize(stockCode, paramSet);
+        }
+        return indicatorMaterializationService.materializeAll(paramSet);
+    }
+
+    /**
+     * 日线批量入库：请求体为 NDJSON（每行一条日线，字段同对应实体），按批 COPY 到临时表后合并到目标表。
+     * @param market STOCK（个股）| INDEX（指数）| INDUSTRY（行业指数）
+     */
+    @PostMapping(value = "/daily/bulk", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public IngestionReport bulkIngestDaily(
+            @RequestParam(value = "market", required = false, defaultValue = "STOCK") BarMarket market,
+            InputStream body
+    ) throws IOException {
+        return switch (market) {
+            case STOCK -> {
+                try (MappingIterator<StocksDailyData> rows = objectMapper.readerFor(StocksDailyData.class).readValues(body)) {
+                    yield dailyBarIngestionService.ingestStocks(rows);
+                }
+            }
+            case INDEX -> {
+                try (MappingIterator<IndexesDailyData> rows = objectMapper.readerFor(IndexesDailyData.class).readValues(body)) {
+                    yield dailyBarIngestionService.ingestIndexes(rows);
+                }
+            }
+            case INDUSTRY -> {
+                try (MappingIterator<IndustryIndexesDailyData> rows = objectMapper.readerFor(IndustryIndexesDailyData.class).readValues(body)) {
+                    yield dailyBarIngestionService.ingestIndustries(rows);
+                }
+            }
+        };
+    }
+
+    /**
+     * 本地K线存储刷新：market 为 STOCK/INDEX/INDUSTRY，full=true 时全量重建，返回读取的行数
+     */
+    @PostMapping("/bar-store/refresh")
+    public long refreshBarStore(
+            @RequestParam(value = "market", required = false, defaultValue = "STOCK") BarMarket market,
+            @RequestParam(value = "full", required = false, defaultValue = "false") boolean full
+    ) {
+        return mappedBarStore.refresh(market, full);
+    }
+
     @GetMapping("/analysis/deepseek/advice")
     public String deepSeekAdvice(
             @RequestParam("stockCode") String stockCode,
@@ -316,7 +472,35 @@ public class StockDataController {
             @RequestParam(value = "longPeriod", required = false, defaultValue = "26") int longPeriod,
             @RequestParam(value = "signalPeriod", required = false, defaultValue = "9") int signalPeriod
     ) {
-        return macdAnalysisService.findMacdCrossStockCodes(type, lookbackDays, withinDays, shortPeriod, longPeriod, signalPeriod);
+        return standardScans.macdCross(type, lookbackDays, withinDays, shortPeriod, longPeriod, signalPeriod);
+    }
+
+    /**
+     * 多规则筛选：请求体中的自定义规则（screens）与内置规则（presets）在同一次全市场扫描中判定，
+     * 每只股票所需指标按参数去重后只计算一次。返回 规则名 -> 命中股票代码。
+     */
+    @PostMapping("/analysis/rules/screen")
+    public Map<String, List<String>> screenByRules(@RequestBody RuleScreenRequest request) {
+        return analysisResultCache.get("rules.screen", List.of(request),
+                () -> ruleScreeningService.screen(request));
+    }
+
+    /**
+     * 全市场回测：入场/出场规则可为自定义定义或内置规则名（默认组合策略买入/卖出），
+     * 返回逐笔交易与组合汇总（胜率、最大回撤、换手等）。
+     */
+    @PostMapping("/analysis/backtest")
+    public BacktestResult backtest(@RequestBody BacktestRequest request) {
+        return analysisResultCache.get("backtest", List.of(request),
+                () -> backtestService.run(request));
+    }
+
+    /**
+     * 内置规则名称列表
+     */
+    @GetMapping("/analysis/rules/presets")
+    public Set<String> listRulePresets() {
+        return RulePresets.names();
     }
 
     @GetMapping("/analysis/macd/cross/details")
@@ -327,7 +511,56 @@ public class StockDataController {
             @RequestParam(value = "longPeriod", required = false, defaultValue = "26") int longPeriod,
             @RequestParam(value = "signalPeriod", required = false, defaultValue = "9") int signalPeriod
     ) {
-        return macdAnalysisService.findMacdCrossDetails(lookbackDays, shortPeriod, longPeriod, signalPeriod, type);
+        return standardScans.macdCrossDetails(type, lookbackDays, shortPeriod, longPeriod, signalPeriod);
+    }
+
+    /**
+     * MACD 参数扫描：一次全市场遍历计算多组参数的交叉事件，相同 EMA 周期只计算一次
+     * @param combos 参数组合，逗号分隔，每组为 short-long-signal，例如 12-26-9,5-35-5
+     */
+    @GetMapping("/analysis/macd/cross/sweep")
+    public List<MacdSweepResult> sweepMacdCross(
+            @RequestParam(value = "combos") List<String> combos,
+            @RequestParam(value = "type", required = false, defaultValue = "both") String type,
+            @RequestParam(value = "lookbackDays", required = false, defaultValue = "50") int lookbackDays
+    ) {
+        List<MacdAnalysisService.MacdTuple> tuples = combos.stream().map(MacdAnalysisService.MacdTuple::parse).toList();
+        return analysisResultCache.get("macd.cross.sweep", List.of(type.toLowerCase(), lookbackDays, tuples),
+                () -> macdAnalysisService.sweepMacdCrossDetails(lookbackDays, tuples, type));
+    }
+
+    /**
+     * 手动触发盘后预计算（不判断数据版本，已有任务运行时返回跳过报告）
+     */
+    @PostMapping("/analysis/precompute/run")
+    public PrecomputeReport runPrecompute() {
+        return precomputeService.run("manual", true);
+    }
+
+    /**
+     * 最近一次预计算报告（各扫描的参数、结果数、计算时间与耗时），未执行过时为空
+     */
+    @GetMapping("/analysis/precompute/status")
+    public PrecomputeReport precomputeStatus() {
+        return precomputeService.lastReport();
+    }
+
+    /**
+     * 横截面因子排名：N 日收益率、相对行业强度、量比 z 分数及综合得分，返回前 topK 名
+     * rankBy: return | relative-strength | volume | composite
+     */
+    @GetMapping("/analysis/cross-section/rank")
+    public FactorRankResult rankCrossSection(
+            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "returnDays", required = false, defaultValue = "20") int returnDays,
+            @RequestParam(value = "volumeWindow", required = false, defaultValue = "20") int volumeWindow,
+            @RequestParam(value = "topK", required = false, defaultValue = "50") int topK,
+            @RequestParam(value = "rankBy", required = false, defaultValue = "composite") String rankBy
+    ) {
+        LocalDate asOf = date == null || date.isEmpty() ? null : LocalDate.parse(date);
+        return analysisResultCache.get("cross-section.rank",
+                List.of(String.valueOf(asOf), returnDays, volumeWindow, topK, rankBy.toLowerCase()),
+                () -> crossSectionalFactorService.rank(asOf, returnDays, volumeWindow, topK, rankBy));
     }
 
     @GetMapping("/analysis/strategy/expma-macd-boll/buy")
@@ -347,22 +580,9 @@ public class StockDataController {
             @RequestParam(value = "volumeWindow", required = false, defaultValue = "10") int volumeWindow,
             @RequestParam(value = "volumeFactor", required = false, defaultValue = "1.2") double volumeFactor
     ) {
-        return combinedStrategyAnalysisService.findBuyCandidates(
-                lookbackDays,
-                withinDays,
-                expmaShort,
-                expmaLong,
-                sustainDays,
-                allowSideway,
-                sidewayEpsilonRatio,
-                macdShort,
-                macdLong,
-                macdSignal,
-                bollPeriod,
-                bollStdDev,
-                volumeWindow,
-                volumeFactor
-        );
+        return standardScans.expmaMacdBollBuy(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                allowSideway, sidewayEpsilonRatio, macdShort, macdLong, macdSignal, bollPeriod, bollStdDev,
+                volumeWindow, volumeFactor);
     }
 
     @GetMapping("/analysis/strategy/expma-macd-boll/sell")
@@ -380,17 +600,81 @@ public class StockDataController {
             @RequestParam(value = "volumeWindow", required = false, defaultValue = "10") int volumeWindow,
             @RequestParam(value = "volumeFactor", required = false, defaultValue = "1.2") double volumeFactor
     ) {
-        return combinedStrategyAnalysisService.findSellCandidates(
+        return standardScans.expmaMacdBollSell(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                macdShort, macdLong, macdSignal, bollPeriod, bollStdDev, volumeWindow, volumeFactor);
+    }
+
+    @GetMapping("/analysis/strategy/expma-macd-boll/watch")
+    public List<String> listExpmaMacdBollWatchCodes(
+            @RequestParam(value = "lookbackDays", required = false, defaultValue = "120") int lookbackDays,
+            @RequestParam(value = "withinDays", required = false, defaultValue = "7") int withinDays,
+            @RequestParam(value = "expmaShort", required = false, defaultValue = "12") int expmaShort,
+            @RequestParam(value = "expmaLong", required = false, defaultValue = "50") int expmaLong,
+            @RequestParam(value = "sustainDays", required = false, defaultValue = "5") int sustainDays,
+            @RequestParam(value = "macdShort", required = false, defaultValue = "12") int macdShort,
+            @RequestParam(value = "macdLong", required = false, defaultValue = "26") int macdLong,
+            @RequestParam(value = "macdSignal", required = false, defaultValue = "9") int macdSignal,
+            @RequestParam(value = "bollPeriod", required = false, defaultValue = "20") int bollPeriod,
+            @RequestParam(value = "bollStdDev", required = false, defaultValue = "2.0") double bollStdDev
+    ) {
+        return standardScans.expmaMacdBollWatch(lookbackDays, withinDays, expmaShort, expmaLong, sustainDays,
+                macdShort, macdLong, macdSignal, bollPeriod, bollStdDev);
+    }
+    /**
+     * 组合策略买入扫描（NDJSON 流式）：命中一只输出一个 candidate 帧，结束时输出只含命中数量的 summary 帧
+     */
+    @GetMapping(value = "/analysis/strategy/expma-macd-boll/buy/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamExpmaMacdBollBuyCodes(
+            @RequestParam(value = "lookbackDays", required = false, defaultValue = "120") int lookbackDays,
+            @RequestParam(value = "withinDays", required = false, defaultValue = "7") int withinDays,
+            @RequestParam(value = "expmaShort", required = false, defaultValue = "12") int expmaShort,
+            @RequestParam(value = "expmaLong", required = false, defaultValue = "50") int expmaLong,
+            @RequestParam(value = "sustainDays", required = false, defaultValue = "5") int sustainDays,
+            @RequestParam(value = "allowSideway", required = false, defaultValue = "true") boolean allowSideway,
+            @RequestParam(value = "sidewayEpsilonRatio", required = false, defaultValue = "0.005") double sidewayEpsilonRatio,
+            @RequestParam(value = "macdShort", required = false, defaultValue = "12") int macdShort,
+            @RequestParam(value = "macdLong", required = false, defaultValue = "26") int macdLong,
+            @RequestParam(value = "macdSignal", required = false, defaultValue = "9") int macdSignal,
+            @RequestParam(value = "bollPeriod", required = false, defaultValue = "20") int bollPeriod,
+            @RequestParam(value = "bollStdDev", required = false, defaultValue = "2.0") double bollStdDev,
+            @RequestParam(value = "volumeWindow", required = false, defaultValue = "10") int volumeWindow,
+            @RequestParam(value = "volumeFactor", required = false, defaultValue = "1.2") double volumeFactor
+    ) {
+        return NdjsonStream.response(objectMapper, stream -> combinedStrategyAnalysisService.findBuyCandidates(
+                lookbackDays, withinDays,
+                expmaShort, expmaLong, sustainDays, allowSideway, sidewayEpsilonRatio,
+                macdShort, macdLong, macdSignal,
+                bollPeriod, bollStdDev,
+                volumeWindow, volumeFactor,
+                stream::candidate));
+    }
+
+    @GetMapping(value = "/analysis/strategy/expma-macd-boll/sell/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamExpmaMacdBollSellCodes(
+            @RequestParam(value = "lookbackDays", required = false, defaultValue = "120") int lookbackDays,
+            @RequestParam(value = "withinDays", required = false, defaultValue = "7") int withinDays,
+            @RequestParam(value = "expmaShort", required = false, defaultValue = "12") int expmaShort,
+            @RequestParam(value = "expmaLong", required = false, defaultValue = "50") int expmaLong,
+            @RequestParam(value = "sustainDays", required = false, defaultValue = "5") int sustainDays,
+            @RequestParam(value = "macdShort", required = false, defaultValue = "12") int macdShort,
+            @RequestParam(value = "macdLong", required = false, defaultValue = "26") int macdLong,
+            @RequestParam(value = "macdSignal", required = false, defaultValue = "9") int macdSignal,
+            @RequestParam(value = "bollPeriod", required = false, defaultValue = "20") int bollPeriod,
+            @RequestParam(value = "bollStdDev", required = false, defaultValue = "2.0") double bollStdDev,
+            @RequestParam(value = "volumeWindow", required = false, defaultValue = "10") int volumeWindow,
+            @RequestParam(value = "volumeFactor", required = false, defaultValue = "1.2") double volumeFactor
+    ) {
+        return NdjsonStream.response(objectMapper, stream -> combinedStrategyAnalysisService.findSellCandidates(
                 lookbackDays, withinDays,
                 expmaShort, expmaLong, sustainDays,
                 macdShort, macdLong, macdSignal,
                 bollPeriod, bollStdDev,
-                volumeWindow, volumeFactor
-        );
+                volumeWindow, volumeFactor,
+                stream::candidate));
     }
 
-    @GetMapping("/analysis/strategy/expma-macd-boll/watch")
-    public List<String> listExpmaMacdBollWatchCodes(
+    @GetMapping(value = "/analysis/strategy/expma-macd-boll/watch/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamExpmaMacdBollWatchCodes(
             @RequestParam(value = "lookbackDays", required = false, defaultValue = "120") int lookbackDays,
             @RequestParam(value = "withinDays", required = false, defaultValue = "7") int withinDays,
             @RequestParam(value = "expmaShort", required = false, defaultValue = "12") int expmaShort,
@@ -402,13 +686,14 @@ public class StockDataController {
             @RequestParam(value = "bollPeriod", required = false, defaultValue = "20") int bollPeriod,
             @RequestParam(value = "bollStdDev", required = false, defaultValue = "2.0") double bollStdDev
     ) {
-        return combinedStrategyAnalysisService.findWatchCandidates(
+        return NdjsonStream.response(objectMapper, stream -> combinedStrategyAnalysisService.findWatchCandidates(
                 lookbackDays, withinDays,
                 expmaShort, expmaLong, sustainDays,
                 macdShort, macdLong, macdSignal,
-                bollPeriod, bollStdDev
-        );
+                bollPeriod, bollStdDev,
+                stream::candidate));
     }
+
     @GetMapping("/analysis/screen/industry-growth-and-indicators")
     public List<String> listIndustryGrowthAndFavorableStocks(
             @RequestParam(value = "exchange", required = false) String exchange,
@@ -425,4 +710,27 @@ public class StockDataController {
     ) {
         return stockScreeningService.screenGrowthAndIndicatorsFiltered(exchange, assetType, status, limit, offset, lookbackDays, industryLookbackDays, withinDays, bollPeriod, k, emaSlopeDays);
     }
-}
\ No newline at end of file
+
+    /**
+     * 行业增长 + 个股指标筛选（NDJSON 流式）：每通过一只股票输出一个 candidate 帧（data 为股票代码），结束时输出 summary 帧
+     */
+    @GetMapping(value = "/analysis/screen/industry-growth-and-indicators/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamIndustryGrowthAndFavorableStocks(
+            @RequestParam(value = "exchange", required = false) String exchange,
+            @RequestParam(value = "assetType", required = false) String assetType,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "limit", required = false, defaultValue = "50") int limit,
+            @RequestParam(value = "offset", required = false, defaultValue = "0") int offset,
+            @RequestParam(value = "lookbackDays", required = false, defaultValue = "60") int lookbackDays,
+            @RequestParam(value = "industryLookbackDays", required = false, defaultValue = "60") int industryLookbackDays,
+            @RequestParam(value = "withinDays", required = false, defaultValue = "7") int withinDays,
+            @RequestParam(value = "bollPeriod", required = false, defaultValue = "20") int bollPeriod,
+            @RequestParam(value = "k", required = false, defaultValue = "2.0") double k,
+            @RequestParam(value = "emaSlopeDays", required = false, defaultValue = "3") int emaSlopeDays
+    ) {
+        return NdjsonStream.response(objectMapper, stream -> stockScreeningService.screenGrowthAndIndicatorsFiltered(
+                exchange, assetType, status, limit, offset,
+                lookbackDays, industryLookbackDays, withinDays, bollPeriod, k, emaSlopeDays,
+                stream::candidate));
+    }
+}
@@ -0,0 +1,97 @@
+package com.xiahou.yu.paaswebserver.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NDJSON 流测试：并行投递的帧全部由请求线程写出，summary 帧只含计数，异常转为 error 帧，客户端断开时中止扫描
+ */
+class NdjsonStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParallelCandidatesAreAllWrittenBeforeSummary() throws Exception {
+        int n = NdjsonStream.QUEUE_CAPACITY * 8;
+        StreamingResponseBody body = NdjsonStream.response(objectMapper, stream -> {
+            IntStream.range(0, n).parallel().forEach(stream::candidate);
+            return List.of("done");
+        }).getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(n + 1, lines.length);
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            JsonNode frame = objectMapper.readTree(lines[i]);
+            assertEquals("candidate", frame.get("type").asText());
+            seen[frame.get("data").asInt()] = true;
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+        JsonNode summary = objectMapper.readTree(lines[n]);
+        assertEquals("summary", summary.get("type").asText());
+        assertEquals(n, summary.get("streamed").asInt());
+        assertEquals(1, summary.get("data").get("count").asInt());
+        // 已通过 candidate 帧输出的结果不在 summary 中重复发送
+        assertFalse(summary.get("data").has("results"));
+        assertEquals(1, summary.get("data").size());
+    }
+
+    @Test
+    void testScanFailureBecomesErrorFrame() throws Exception {
+        StreamingResponseBody body = NdjsonStream.response(objectMapper, stream -> {
+            stream.candidate("a");
+            throw new IllegalArgumentException("bad");
+        }).getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode error = objectMapper.readTree(lines[1]);
+        assertEquals("error", error.get("type").asText());
+        assertEquals("bad", error.get("data").asText());
+    }
+
+    @Test
+    void testClientDisconnectCancelsScan() throws Exception {
+        AtomicReference<RuntimeException> scanError = new AtomicReference<>();
+        Thread[] scanThread = new Thread[1];
+        StreamingResponseBody body = NdjsonStream.response(objectMapper, stream -> {
+            scanThread[0] = Thread.currentThread();
+            try {
+                for (int i = 0; ; i++) {
+                    stream.candidate(i);
+                }
+            } catch (RuntimeException e) {
+                scanError.set(e);
+                throw e;
+            }
+        }).getBody();
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+        assertThrows(IOException.class, () -> body.writeTo(broken));
+        scanThread[0].join(5_000);
+        assertInstanceOf(CancellationException.class, scanError.get());
+    }
+}